@@ -0,0 +1,112 @@
+package org.nexa.querymate.infrastructure.adapters.out.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency of the semantic cache index against a linear scan over the same vectors.
+ * <p>
+ * Vectors are drawn around 1,000 random centroids, a rough stand-in for the clustering of real
+ * question embeddings; uniformly random vectors are the worst case for any graph index.
+ * Building the 100k index takes a few minutes per fork.
+ * <p>
+ * Run with {@code ./mvnw -Pbench test-compile exec:exec -Dbench=HnswIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class HnswIndexBenchmark {
+
+    private static final int CENTROIDS = 1_000;
+    private static final int QUERIES = 1_024;
+
+    @Param({"10000", "100000"})
+    int entries;
+
+    @Param({"768"})
+    int dimension;
+
+    @Param({"64"})
+    int efSearch;
+
+    private HnswIndex index;
+    private float[] flat;
+    private float[][] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        SplittableRandom random = new SplittableRandom(1);
+        float[][] centroids = new float[CENTROIDS][];
+        for (int i = 0; i < CENTROIDS; i++) {
+            centroids[i] = randomVector(random, null);
+        }
+
+        index = new HnswIndex(dimension, 16, 200);
+        flat = new float[entries * dimension];
+        for (int i = 0; i < entries; i++) {
+            float[] vector = randomVector(random, centroids[random.nextInt(CENTROIDS)]);
+            index.add(vector);
+            System.arraycopy(index.vector(i), 0, flat, i * dimension, dimension);
+        }
+
+        queries = new float[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = randomVector(random, centroids[random.nextInt(CENTROIDS)]);
+        }
+    }
+
+    @Benchmark
+    public List<HnswIndex.Match> hnswLookup() {
+        return index.search(nextQuery(), 8, efSearch);
+    }
+
+    @Benchmark
+    public int exactScan() {
+        float[] query = nextQuery();
+        int best = -1;
+        float bestDot = Float.NEGATIVE_INFINITY;
+        for (int id = 0; id < entries; id++) {
+            float dot = 0;
+            int offset = id * dimension;
+            for (int i = 0; i < dimension; i++) {
+                dot += query[i] * flat[offset + i];
+            }
+            if (dot > bestDot) {
+                bestDot = dot;
+                best = id;
+            }
+        }
+        return best;
+    }
+
+    private float[] nextQuery() {
+        return queries[next++ & (QUERIES - 1)];
+    }
+
+    private float[] randomVector(SplittableRandom random, float[] centroid) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            double noise = random.nextDouble(-1, 1);
+            vector[i] = centroid == null ? (float) noise : centroid[i] + (float) (0.3 * noise);
+        }
+        return vector;
+    }
+}
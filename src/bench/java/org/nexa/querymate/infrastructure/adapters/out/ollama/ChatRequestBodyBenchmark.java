@@ -0,0 +1,96 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SchemaContext.ColumnInfo;
+import org.nexa.querymate.domain.translation.SchemaContext.RelationInfo;
+import org.nexa.querymate.domain.translation.SchemaContext.TableInfo;
+import org.nexa.querymate.infrastructure.adapters.out.ollama.OllamaLLMAdapter.ChatMessage;
+import org.nexa.querymate.infrastructure.adapters.out.ollama.OllamaLLMAdapter.ChatRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation of writing one translation request body, serialized as a value by the encoder
+ * {@code bodyValue} uses against streamed by {@link ChatRequestWriter}; both into pooled Netty buffers.
+ * <p>
+ * The bench profile runs JMH with the GC profiler, whose {@code gc.alloc.rate.norm} is the bytes allocated
+ * per request.
+ * <p>
+ * Run with {@code ./mvnw -Pbench test-compile exec:exec -Dbench=ChatRequestBodyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class ChatRequestBodyBenchmark {
+
+    @Param({"50", "500", "5000"})
+    int tables;
+
+    private final NettyDataBufferFactory buffers = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private final Jackson2JsonEncoder encoder = new Jackson2JsonEncoder();
+    private ChatRequest request;
+    private EncodedText system;
+
+    @Setup(Level.Trial)
+    public void build() {
+        List<TableInfo> schema = new ArrayList<>();
+        for (int i = 0; i < tables; i++) {
+            List<RelationInfo> relations = i == 0
+                    ? List.of()
+                    : List.of(new RelationInfo("parent_id", "table_%04d".formatted(i - 1), "id"));
+            schema.add(new TableInfo("public", "table_%04d".formatted(i), List.of(
+                    new ColumnInfo("id", "bigint", false, true),
+                    new ColumnInfo("parent_id", "bigint", true, false),
+                    new ColumnInfo("name_%d".formatted(i), "character varying", false, false),
+                    new ColumnInfo("amount", "numeric", true, false),
+                    new ColumnInfo("created_at", "timestamp with time zone", false, false)
+            ), relations));
+        }
+        system = EncodedText.of("Translate questions to SQL.\n" + PromptFragments.compact(new SchemaContext(schema)));
+        request = new ChatRequest("llama3.2",
+                List.of(new ChatMessage("system", system.text()), new ChatMessage("user", "how many tables have rows")),
+                true, "30m", Map.of("temperature", 0.0, "seed", 42, "num_ctx", 8192));
+    }
+
+    @Benchmark
+    public int serializedValue() {
+        DataBuffer buffer = encoder.encodeValue(request, buffers, ResolvableType.forInstance(request),
+                MediaType.APPLICATION_JSON, null);
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    @Benchmark
+    public int streamed() {
+        DataBuffer buffer = ChatRequestWriter.write(buffers, request, system);
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+}
@@ -0,0 +1,93 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SchemaContext.ColumnInfo;
+import org.nexa.querymate.domain.translation.SchemaContext.RelationInfo;
+import org.nexa.querymate.domain.translation.SchemaContext.TableInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation of building the encoded system message for a subset of a 5,000-table schema, rendered
+ * from the tables on every question against assembled from cached {@link PromptFragments}.
+ * <p>
+ * Each question picks its own random subset of the given size, as trimming by relevance does.
+ * <p>
+ * Run with {@code ./mvnw -Pbench test-compile exec:exec -Dbench=PromptAssemblyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class PromptAssemblyBenchmark {
+
+    private static final int SCHEMA_TABLES = 5_000;
+    private static final int SUBSETS = 64;
+    private static final String INSTRUCTIONS = "Translate questions to SQL.";
+
+    @Param({"50", "500", "5000"})
+    int subset;
+
+    private SchemaContext schema;
+    private PromptFragments.Schema fragments;
+    private List<List<TableInfo>> subsets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        List<TableInfo> tables = new ArrayList<>();
+        for (int i = 0; i < SCHEMA_TABLES; i++) {
+            List<RelationInfo> relations = i == 0
+                    ? List.of()
+                    : List.of(new RelationInfo("parent_id", "table_%04d".formatted(i - 1), "id"));
+            tables.add(new TableInfo("public", "table_%04d".formatted(i), List.of(
+                    new ColumnInfo("id", "bigint", false, true),
+                    new ColumnInfo("parent_id", "bigint", true, false),
+                    new ColumnInfo("name_%d".formatted(i), "character varying", false, false),
+                    new ColumnInfo("amount", "numeric", true, false),
+                    new ColumnInfo("created_at", "timestamp with time zone", false, false)
+            ), relations));
+        }
+        schema = new SchemaContext(tables);
+        fragments = new PromptFragments(true).forSchema(INSTRUCTIONS, schema);
+
+        SplittableRandom random = new SplittableRandom(1);
+        subsets = new ArrayList<>();
+        for (int i = 0; i < SUBSETS; i++) {
+            subsets.add(tables.stream()
+                    .filter(table -> subset == SCHEMA_TABLES || random.nextInt(SCHEMA_TABLES) < subset)
+                    .toList());
+        }
+    }
+
+    @Benchmark
+    public EncodedText rendered() {
+        return EncodedText.of(INSTRUCTIONS + "\n" + PromptFragments.compact(new SchemaContext(nextSubset())));
+    }
+
+    @Benchmark
+    public EncodedText assembled() {
+        return fragments.assemble(nextSubset(), EncodedText.EMPTY);
+    }
+
+    private List<TableInfo> nextSubset() {
+        return subsets.get(next++ & (SUBSETS - 1));
+    }
+}
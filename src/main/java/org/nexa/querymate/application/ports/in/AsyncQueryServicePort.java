@@ -0,0 +1,67 @@
+package org.nexa.querymate.application.ports.in;
+
+import org.nexa.querymate.domain.query.Query;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.TokenListener;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Driving port for executing queries without holding the caller's thread, for adapters serving many
+ * requests at once.
+ * <p>
+ * Every method returns at once; failures, including an unknown or closed connection, complete the future
+ * exceptionally. Translations wait for the model without a thread wherever the translation chain allows,
+ * and statements run on virtual threads, so a request in flight never occupies a platform thread.
+ * Cancelling a future before its statement runs cancels the translation it is waiting for.
+ */
+public interface AsyncQueryServicePort {
+
+    /**
+     * Executes a SQL query directly on the active connection.
+     *
+     * @param sql the SQL statement to execute
+     * @return the executed query with results
+     */
+    CompletableFuture<Query> executeSqlAsync(SqlStatement sql);
+
+    /**
+     * Executes a SQL query directly on the named connection, whichever connection is active.
+     *
+     * @param connectionName the open connection to run on
+     * @param sql            the SQL statement to execute
+     * @return the executed query with results
+     */
+    CompletableFuture<Query> executeSqlAsync(String connectionName, SqlStatement sql);
+
+    /**
+     * Translates a natural language query against the active connection's schema and executes it there.
+     *
+     * @param query    the natural language query
+     * @param listener receives the generated text while the model is still producing it, on whichever
+     *                 thread receives it
+     * @return the executed query with results
+     */
+    CompletableFuture<Query> executeNaturalLanguageAsync(NaturalLanguageQuery query, TokenListener listener);
+
+    /**
+     * Translates a natural language query against the named connection's schema and executes it there.
+     *
+     * @param connectionName the open connection to run on
+     * @param query          the natural language query
+     * @param listener       receives the generated text while the model is still producing it, on whichever
+     *                       thread receives it
+     * @return the executed query with results
+     */
+    CompletableFuture<Query> executeNaturalLanguageAsync(String connectionName, NaturalLanguageQuery query,
+                                                         TokenListener listener);
+
+    /**
+     * Translates a natural language query to SQL without executing.
+     *
+     * @param query the natural language query
+     * @return the translated SQL statement
+     */
+    CompletableFuture<SqlStatement> translateOnlyAsync(NaturalLanguageQuery query);
+}
@@ -3,7 +3,9 @@ package org.nexa.querymate.application.ports.in;
 import org.nexa.querymate.domain.connection.Connection;
 import org.nexa.querymate.domain.connection.ConnectionConfig;
 import org.nexa.querymate.domain.connection.ConnectionId;
+import org.nexa.querymate.domain.connection.HostStatus;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,12 +14,24 @@ import java.util.Optional;
 public interface ConnectionServicePort {
 
     /**
-     * Establishes a new database connection.
+     * Establishes a new database connection, named after its database.
      *
      * @param config the connection configuration
      * @return the established connection
      */
-    Connection connect(ConnectionConfig config);
+    default Connection connect(ConnectionConfig config) {
+        return connect(config.database(), config);
+    }
+
+    /**
+     * Establishes a new named database connection and makes it the active one.
+     * An open connection with the same name is replaced; connections with other names stay open.
+     *
+     * @param name   the name used to switch to or target the connection
+     * @param config the connection configuration
+     * @return the established connection
+     */
+    Connection connect(String name, ConnectionConfig config);
 
     /**
      * Closes the connection with the given ID.
@@ -31,6 +45,30 @@ public interface ConnectionServicePort {
      */
     Optional<Connection> activeConnection();
 
+    /**
+     * Returns the open connection with the given name, if any.
+     */
+    Optional<Connection> connection(String name);
+
+    /**
+     * Returns all open connections, ordered by name.
+     */
+    List<Connection> connections();
+
+    /**
+     * Makes the named connection the active one without reconnecting.
+     *
+     * @param name the connection to switch to
+     * @return the now active connection
+     */
+    Connection switchTo(String name);
+
+    /**
+     * Returns the observed state of the hosts behind the active connection:
+     * candidate primaries with their latency, replicas and shards.
+     */
+    List<HostStatus> hostStatuses();
+
     /**
      * Tests if a connection can be established with the given configuration.
      *
@@ -0,0 +1,16 @@
+package org.nexa.querymate.application.ports.in;
+
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
+
+import java.util.List;
+
+/**
+ * Driving port for reading runtime metrics.
+ */
+public interface MetricsServicePort {
+
+    /**
+     * Returns a snapshot of every component that reports metrics.
+     */
+    List<MetricsSnapshot> metrics();
+}
@@ -0,0 +1,19 @@
+package org.nexa.querymate.application.ports.in;
+
+import org.nexa.querymate.domain.translation.ModelStatus;
+
+/**
+ * Driving port for preparing the translation model and reporting whether it is ready.
+ */
+public interface ModelServicePort {
+
+    /**
+     * Starts loading the model in the background, with the active connection's schema if there is one.
+     */
+    void warmUp();
+
+    /**
+     * Returns the current readiness of the model.
+     */
+    ModelStatus status();
+}
@@ -1,8 +1,13 @@
 package org.nexa.querymate.application.ports.in;
 
+import org.nexa.querymate.domain.query.BatchOutcome;
 import org.nexa.querymate.domain.query.Query;
 import org.nexa.querymate.domain.query.SqlStatement;
 import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.TokenListener;
+
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Driving port for executing queries.
@@ -17,6 +22,15 @@ public interface QueryServicePort {
      */
     Query executeSql(SqlStatement sql);
 
+    /**
+     * Executes a SQL query directly on the named connection, whichever connection is active.
+     *
+     * @param connectionName the open connection to run on
+     * @param sql            the SQL statement to execute
+     * @return the executed query with results
+     */
+    Query executeSql(String connectionName, SqlStatement sql);
+
     /**
      * Translates a natural language query to SQL and executes it.
      *
@@ -25,6 +39,54 @@ public interface QueryServicePort {
      */
     Query executeNaturalLanguage(NaturalLanguageQuery query);
 
+    /**
+     * Translates a natural language query to SQL and executes it, reporting the SQL as it is generated.
+     *
+     * @param query    the natural language query
+     * @param listener receives the generated text while the model is still producing it
+     * @return the executed query with results
+     */
+    Query executeNaturalLanguage(NaturalLanguageQuery query, TokenListener listener);
+
+    /**
+     * Translates a natural language query against the named connection's schema and executes it there.
+     *
+     * @param connectionName the open connection to run on
+     * @param query          the natural language query
+     * @return the executed query with results
+     */
+    Query executeNaturalLanguage(String connectionName, NaturalLanguageQuery query);
+
+    /**
+     * Translates a natural language query on the named connection, reporting the SQL as it is generated.
+     *
+     * @param connectionName the open connection to run on
+     * @param query          the natural language query
+     * @param listener       receives the generated text while the model is still producing it
+     * @return the executed query with results
+     */
+    Query executeNaturalLanguage(String connectionName, NaturalLanguageQuery query, TokenListener listener);
+
+    /**
+     * Translates a natural language query against the combined schemas of several connections
+     * into a cross-database query and executes it.
+     *
+     * @param connectionNames the open connections whose tables the question may use
+     * @param query           the natural language query
+     * @return the executed query with results
+     */
+    Query executeNaturalLanguage(List<String> connectionNames, NaturalLanguageQuery query);
+
+    /**
+     * Translates a natural language query across several connections, reporting the SQL as it is generated.
+     *
+     * @param connectionNames the open connections whose tables the question may use
+     * @param query           the natural language query
+     * @param listener        receives the generated text while the model is still producing it
+     * @return the executed query with results
+     */
+    Query executeNaturalLanguage(List<String> connectionNames, NaturalLanguageQuery query, TokenListener listener);
+
     /**
      * Translates a natural language query to SQL without executing.
      *
@@ -32,4 +94,21 @@ public interface QueryServicePort {
      * @return the translated SQL statement
      */
     SqlStatement translateOnly(NaturalLanguageQuery query);
+
+    /**
+     * Translates many questions against the active connection's schema, running at most
+     * {@code maxInFlight} translations at a time, and optionally executes each translation.
+     *
+     * @param questions   the questions, in the order their outcomes are returned
+     * @param execute     true to execute each statement once translated
+     * @param maxInFlight translations sent to the LLM at once; match the model server's parallel slots
+     * @param onOutcome   receives each outcome as it completes, one at a time
+     * @return the outcomes in question order; failures are reported per question, not thrown
+     */
+    List<BatchOutcome> executeNaturalLanguageBatch(
+            List<NaturalLanguageQuery> questions,
+            boolean execute,
+            int maxInFlight,
+            Consumer<BatchOutcome> onOutcome
+    );
 }
@@ -0,0 +1,15 @@
+package org.nexa.querymate.application.ports.out;
+
+import java.util.Objects;
+
+/**
+ * The driven ports serving one database connection: statement execution and schema discovery
+ * over the same underlying session.
+ */
+public record ConnectionPorts(DatabasePort database, SchemaDiscoveryPort schemaDiscovery) {
+
+    public ConnectionPorts {
+        Objects.requireNonNull(database, "Database port cannot be null");
+        Objects.requireNonNull(schemaDiscovery, "Schema discovery port cannot be null");
+    }
+}
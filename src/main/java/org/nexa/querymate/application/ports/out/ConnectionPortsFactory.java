@@ -0,0 +1,14 @@
+package org.nexa.querymate.application.ports.out;
+
+/**
+ * Driven port creating independent, not yet connected ports for each named connection,
+ * so several databases can stay open side by side.
+ */
+@FunctionalInterface
+public interface ConnectionPortsFactory {
+
+    /**
+     * Creates a fresh set of ports; the caller connects and eventually disconnects them.
+     */
+    ConnectionPorts create();
+}
@@ -1,9 +1,16 @@
 package org.nexa.querymate.application.ports.out;
 
 import org.nexa.querymate.domain.connection.ConnectionConfig;
+import org.nexa.querymate.domain.connection.HostStatus;
+import org.nexa.querymate.domain.query.Deadline;
+import org.nexa.querymate.domain.query.PlanEstimate;
+import org.nexa.querymate.domain.query.QueryOrigin;
 import org.nexa.querymate.domain.query.QueryResult;
 import org.nexa.querymate.domain.query.SqlStatement;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Driven port for database operations.
  * Implementations provide database-specific adapters (Postgres, MySQL, etc.).
@@ -37,6 +44,93 @@ public interface DatabasePort {
      */
     QueryResult execute(SqlStatement statement);
 
+    /**
+     * Executes a SQL statement, letting the adapter take into account where the statement came from,
+     * e.g. to route generated read-only queries to a replica.
+     *
+     * @param statement the SQL to execute
+     * @param origin how the statement was produced
+     * @return the query result
+     * @throws org.nexa.querymate.domain.exception.QueryExecutionException if execution fails
+     */
+    default QueryResult execute(SqlStatement statement, QueryOrigin origin) {
+        return execute(statement);
+    }
+
+    /**
+     * Executes a SQL statement that must have its result by the given deadline. Adapters that can bound
+     * the statement on the server, and the fetching of its rows, do so with the time remaining; others
+     * ignore the deadline.
+     *
+     * @param statement the SQL to execute
+     * @param origin how the statement was produced
+     * @param deadline when the result is needed by
+     * @return the query result
+     * @throws org.nexa.querymate.domain.exception.QueryExecutionException if execution fails or the
+     *         deadline passes first
+     */
+    default QueryResult execute(SqlStatement statement, QueryOrigin origin, Deadline deadline) {
+        return execute(statement, origin);
+    }
+
+    /**
+     * Runs a query and hands its rows to the sink as they are read, so the caller holds only the rows it
+     * keeps. Adapters that cannot read rows incrementally run the statement as
+     * {@link #execute(SqlStatement, QueryOrigin, Deadline)} does and hand over the rows of its result.
+     *
+     * @param statement the query to run
+     * @param origin how the statement was produced
+     * @param deadline when the rows are needed by
+     * @param sink receives the columns and then each row
+     * @throws org.nexa.querymate.domain.exception.QueryExecutionException if execution fails or the
+     *         deadline passes first
+     */
+    default void stream(SqlStatement statement, QueryOrigin origin, Deadline deadline, RowSink sink) {
+        QueryResult result = execute(statement, origin, deadline);
+        sink.columns(result.columns());
+        for (List<Object> row : result.rows()) {
+            if (!sink.accept(row)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns true while the session holds state that another connection to the same database would not
+     * see: an open transaction, or settings, temporary tables and prepared statements left by earlier
+     * statements. Adapters without such state return false.
+     */
+    default boolean hasSessionState() {
+        return false;
+    }
+
+    /**
+     * Returns the observed state of every host behind the current connection.
+     * Single-host adapters may return an empty list.
+     */
+    default List<HostStatus> hostStatuses() {
+        return List.of();
+    }
+
+    /**
+     * Checks that the statement parses and refers to existing objects by planning it without running it.
+     * Implementations that cannot plan statements accept everything.
+     *
+     * @return the planner's estimate, or empty if the statement was accepted without planning it
+     * @throws org.nexa.querymate.domain.exception.QueryExecutionException describing what is wrong
+     */
+    default Optional<PlanEstimate> validate(SqlStatement statement) {
+        return Optional.empty();
+    }
+
+    /**
+     * Readies what checking and running the next statement will need, such as pooled connections, while
+     * the statement is still being generated. Failures are left for the statement itself to report.
+     * Implementations with nothing to prepare do nothing.
+     */
+    default void prepare() {
+    }
+
     /**
      * Tests if a connection can be established with the given configuration.
      *
@@ -0,0 +1,16 @@
+package org.nexa.querymate.application.ports.out;
+
+/**
+ * Driven port for turning text into embedding vectors, so similar texts can be found by vector similarity.
+ */
+public interface EmbeddingPort {
+
+    /**
+     * Embeds the text.
+     *
+     * @param text the text to embed
+     * @return the embedding vector; every call with the same model returns vectors of the same length
+     * @throws org.nexa.querymate.domain.exception.TranslationException if the embedding service fails
+     */
+    float[] embed(String text);
+}
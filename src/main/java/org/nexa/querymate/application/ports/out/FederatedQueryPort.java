@@ -0,0 +1,49 @@
+package org.nexa.querymate.application.ports.out;
+
+import org.nexa.querymate.domain.query.Deadline;
+import org.nexa.querymate.domain.query.QueryOrigin;
+import org.nexa.querymate.domain.query.QueryResult;
+import org.nexa.querymate.domain.query.SqlStatement;
+
+import java.util.function.Function;
+
+/**
+ * Driven port for statements that read tables of several named connections,
+ * written as {@code @connection.table}, and combine them client-side.
+ */
+public interface FederatedQueryPort {
+
+    /**
+     * Returns true if the statement addresses tables through named connections.
+     */
+    boolean isFederated(SqlStatement statement);
+
+    /**
+     * Runs the per-connection sub-queries and joins, filters and aggregates their results.
+     *
+     * @param statement   the federated statement
+     * @param connections resolves a connection name to its database port
+     * @return the combined result
+     * @throws org.nexa.querymate.domain.exception.QueryExecutionException if the statement is not supported
+     *                                                                      or a sub-query fails
+     */
+    default QueryResult execute(SqlStatement statement, Function<String, DatabasePort> connections) {
+        return execute(statement, QueryOrigin.DIRECT_SQL, Deadline.NONE, connections);
+    }
+
+    /**
+     * Runs the statement like {@link #execute(SqlStatement, Function)}, passing the origin and deadline on to
+     * every sub-query and giving up on the combined result once the deadline passes.
+     *
+     * @param statement   the federated statement
+     * @param origin      how the statement was produced
+     * @param deadline    when the result is needed by
+     * @param connections resolves a connection name to its database port
+     * @return the combined result
+     * @throws org.nexa.querymate.domain.exception.QueryExecutionException if the statement is not supported,
+     *                                                                      a sub-query fails or the deadline
+     *                                                                      passes first
+     */
+    QueryResult execute(SqlStatement statement, QueryOrigin origin, Deadline deadline,
+                        Function<String, DatabasePort> connections);
+}
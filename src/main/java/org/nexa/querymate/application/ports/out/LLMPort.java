@@ -3,6 +3,10 @@ package org.nexa.querymate.application.ports.out;
 import org.nexa.querymate.domain.query.SqlStatement;
 import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
 import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Driven port for LLM-based natural language to SQL translation.
@@ -20,6 +24,55 @@ public interface LLMPort {
      */
     SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext);
 
+    /**
+     * Translates a natural language query, reporting the generated text to the listener as it arrives.
+     * Implementations that cannot stream translate as usual and never call the listener.
+     *
+     * @param listener receives generated text and, at the end, generation statistics
+     */
+    default SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener) {
+        return translate(query, schemaContext);
+    }
+
+    /**
+     * Translates a natural language query, letting implementations that can choose between models check
+     * a cheap model's statement before settling for it. Implementations with a single model ignore the
+     * validator.
+     *
+     * @param validator checks a statement against the target database without running it
+     */
+    default SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener,
+                                   SqlValidator validator) {
+        return translate(query, schemaContext, listener);
+    }
+
+    /**
+     * Translates like {@link #translate(NaturalLanguageQuery, SchemaContext, TokenListener, SqlValidator)}
+     * without holding the caller's thread. Failures complete the future exceptionally.
+     * <p>
+     * By default the blocking translation runs on a virtual thread of its own, which cancelling the future
+     * interrupts. Implementations that can wait for the model without a thread override this.
+     *
+     * @param validator checks a statement against the target database without running it
+     */
+    default CompletableFuture<SqlStatement> translateAsync(NaturalLanguageQuery query, SchemaContext schemaContext,
+                                                          TokenListener listener, SqlValidator validator) {
+        CompletableFuture<SqlStatement> result = new CompletableFuture<>();
+        Thread worker = Thread.ofVirtual().name("llm-translate").start(() -> {
+            try {
+                result.complete(translate(query, schemaContext, listener, validator));
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((sql, failure) -> {
+            if (result.isCancelled()) {
+                worker.interrupt();
+            }
+        });
+        return result;
+    }
+
     /**
      * Returns true if the LLM service is available.
      */
@@ -0,0 +1,25 @@
+package org.nexa.querymate.application.ports.out;
+
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
+
+import java.util.List;
+
+/**
+ * Implemented by driven adapters that keep counters worth showing to the user,
+ * such as cache hit rates or model latencies.
+ */
+public interface MetricsSource {
+
+    /**
+     * Returns the current values; called on demand, so implementations should not block.
+     */
+    MetricsSnapshot metrics();
+
+    /**
+     * Returns the snapshots to show for this source; adapters that combine several reporting
+     * components add theirs after their own.
+     */
+    default List<MetricsSnapshot> snapshots() {
+        return List.of(metrics());
+    }
+}
@@ -0,0 +1,37 @@
+package org.nexa.querymate.application.ports.out;
+
+import org.nexa.querymate.domain.translation.SchemaContext;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Driven port for loading and unloading the translation model ahead of use.
+ */
+public interface ModelLifecyclePort {
+
+    /**
+     * Name of the model being managed.
+     */
+    String model();
+
+    /**
+     * Loads the model and, if a schema is given, evaluates the schema part of the prompt so the
+     * first translation against it only evaluates the question. Blocks until done.
+     *
+     * @param schemaContext the schema to prepare, or null to only load the model
+     */
+    void warmUp(SchemaContext schemaContext);
+
+    /**
+     * Asks the server to unload the model now.
+     */
+    void release();
+
+    /**
+     * Returns when the server will unload the model if it stays idle, or empty if it is not loaded.
+     *
+     * @throws RuntimeException if the server cannot be reached
+     */
+    Optional<Instant> residentUntil();
+}
@@ -0,0 +1,24 @@
+package org.nexa.querymate.application.ports.out;
+
+import java.util.List;
+
+/**
+ * Receives the rows of a query as the database adapter reads them.
+ *
+ * @see DatabasePort#stream(org.nexa.querymate.domain.query.SqlStatement,
+ *      org.nexa.querymate.domain.query.QueryOrigin, org.nexa.querymate.domain.query.Deadline, RowSink)
+ */
+public interface RowSink {
+
+    /**
+     * Called once, before the first row, with the column labels of the result.
+     */
+    void columns(List<String> columns);
+
+    /**
+     * Called with each row, in the order the query returns them.
+     *
+     * @return false to stop reading; the rest of the result is discarded
+     */
+    boolean accept(List<Object> row);
+}
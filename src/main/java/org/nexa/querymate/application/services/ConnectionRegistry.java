@@ -0,0 +1,75 @@
+package org.nexa.querymate.application.services;
+
+import org.nexa.querymate.domain.connection.ConnectionId;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free registry of open connection sessions, keyed by name, plus the name of the active one.
+ * Shared by the connection and query services.
+ */
+@Component
+class ConnectionRegistry {
+
+    private final ConcurrentMap<String, ConnectionSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicReference<String> activeName = new AtomicReference<>();
+
+    /**
+     * Registers the session under its name and makes it active.
+     *
+     * @return the session previously registered under the same name, which the caller must close
+     */
+    Optional<ConnectionSession> register(ConnectionSession session) {
+        ConnectionSession displaced = sessions.put(session.name(), session);
+        activeName.set(session.name());
+        return Optional.ofNullable(displaced);
+    }
+
+    /**
+     * Removes the session if it is still the one registered under its name.
+     * If it was active, another open session (if any) becomes active.
+     */
+    boolean remove(ConnectionSession session) {
+        if (!sessions.remove(session.name(), session)) {
+            return false;
+        }
+        String next = sessions.keySet().stream().sorted().findFirst().orElse(null);
+        activeName.compareAndSet(session.name(), next);
+        return true;
+    }
+
+    boolean activate(String name) {
+        if (!sessions.containsKey(name)) {
+            return false;
+        }
+        activeName.set(name);
+        return true;
+    }
+
+    Optional<ConnectionSession> get(String name) {
+        return Optional.ofNullable(sessions.get(name));
+    }
+
+    Optional<ConnectionSession> active() {
+        String name = activeName.get();
+        return name == null ? Optional.empty() : get(name);
+    }
+
+    Optional<ConnectionSession> find(ConnectionId connectionId) {
+        return sessions.values().stream()
+                .filter(session -> session.connection().id().equals(connectionId))
+                .findFirst();
+    }
+
+    List<ConnectionSession> all() {
+        return sessions.values().stream()
+                .sorted(Comparator.comparing(ConnectionSession::name))
+                .toList();
+    }
+}
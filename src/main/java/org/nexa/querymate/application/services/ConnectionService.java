@@ -1,98 +1,152 @@
 package org.nexa.querymate.application.services;
 
 import org.nexa.querymate.application.ports.in.ConnectionServicePort;
-import org.nexa.querymate.application.ports.out.DatabasePort;
+import org.nexa.querymate.application.ports.out.ConnectionPorts;
+import org.nexa.querymate.application.ports.out.ConnectionPortsFactory;
 import org.nexa.querymate.domain.connection.Connection;
 import org.nexa.querymate.domain.connection.ConnectionConfig;
 import org.nexa.querymate.domain.connection.ConnectionId;
+import org.nexa.querymate.domain.connection.HostStatus;
 import org.nexa.querymate.domain.exception.ConnectionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
 
 import static net.logstash.logback.argument.StructuredArguments.kv;
 
 /**
  * Application service for managing database connections.
+ * Any number of named connections can be open at once; each has its own ports and schema cache.
+ * Opening or switching to a connection warms the translation model up for its schema.
  */
 @Service
 public class ConnectionService implements ConnectionServicePort {
 
     private static final Logger log = LoggerFactory.getLogger(ConnectionService.class);
 
-    private final DatabasePort databasePort;
-    private final AtomicReference<Connection> activeConnection = new AtomicReference<>();
+    private static final Pattern VALID_NAME = Pattern.compile("^[A-Za-z0-9_.-]+$");
 
-    public ConnectionService(DatabasePort databasePort) {
-        this.databasePort = databasePort;
+    private final ConnectionPortsFactory portsFactory;
+    private final ConnectionRegistry registry;
+    private final ModelService modelService;
+
+    public ConnectionService(ConnectionPortsFactory portsFactory, ConnectionRegistry registry, ModelService modelService) {
+        this.portsFactory = portsFactory;
+        this.registry = registry;
+        this.modelService = modelService;
     }
 
     @Override
-    public Connection connect(ConnectionConfig config) {
-        log.info("Connecting to database", kv("target", config.toDisplayString()));
-
-        // Disconnect existing connection if any
-        Connection existing = activeConnection.get();
-        if (existing != null && existing.isConnected()) {
-            log.info("Disconnecting existing connection", kv("connectionId", existing.id()));
-            disconnect(existing.id());
+    public Connection connect(String name, ConnectionConfig config) {
+        if (name == null || !VALID_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Connection name may only contain letters, digits, '.', '_' and '-'");
         }
+        log.info("Connecting to database", kv("name", name), kv("target", config.toDisplayString()));
 
-        Connection connection = Connection.create(config);
+        Connection connection = Connection.create(name, config);
+        ConnectionPorts ports = portsFactory.create();
 
         try {
-            databasePort.connect(config);
+            ports.database().connect(config);
             connection.markEstablished();
-            activeConnection.set(connection);
-            log.info("Connection established",
-                    kv("connectionId", connection.id()),
-                    kv("target", config.toDisplayString()));
-            return connection;
         } catch (Exception e) {
             connection.markFailed(e.getMessage());
             log.error("Connection failed",
+                    kv("name", name),
                     kv("target", config.toDisplayString()),
                     kv("error", e.getMessage()));
-            throw ConnectionException.failedToConnect(config.host(), config.port(), e);
+            throw config.isMultiHost()
+                    ? ConnectionException.noHostAvailable(config.hosts(), e)
+                    : ConnectionException.failedToConnect(config.host(), config.port(), e);
         }
+
+        // The new session is visible before the one it replaces is closed, so the name never goes missing
+        ConnectionSession session = new ConnectionSession(connection, ports);
+        registry.register(session).ifPresent(replaced -> {
+            log.info("Replacing existing connection", kv("name", name), kv("connectionId", replaced.connection().id()));
+            close(replaced);
+        });
+        log.info("Connection established",
+                kv("name", name),
+                kv("connectionId", connection.id()),
+                kv("target", config.toDisplayString()));
+        modelService.warmUp(session);
+        return connection;
     }
 
     @Override
     public void disconnect(ConnectionId connectionId) {
-        Connection connection = activeConnection.get();
-        if (connection == null || !connection.id().equals(connectionId)) {
-            log.warn("Attempted to disconnect non-active connection",
+        Optional<ConnectionSession> session = registry.find(connectionId);
+        if (session.isEmpty() || !registry.remove(session.get())) {
+            log.warn("Attempted to disconnect unknown connection",
                     kv("connectionId", connectionId));
             return;
         }
-
-        try {
-            databasePort.disconnect();
-            connection.markClosed();
-            activeConnection.set(null);
-            log.info("Disconnected", kv("connectionId", connectionId));
-        } catch (Exception e) {
-            log.error("Error during disconnect",
-                    kv("connectionId", connectionId),
-                    kv("error", e.getMessage()));
+        close(session.get());
+        log.info("Disconnected", kv("name", session.get().name()), kv("connectionId", connectionId));
+        if (registry.all().isEmpty()) {
+            modelService.release();
         }
     }
 
     @Override
     public Optional<Connection> activeConnection() {
-        Connection connection = activeConnection.get();
-        if (connection != null && connection.isConnected()) {
-            return Optional.of(connection);
+        return registry.active()
+                .map(ConnectionSession::connection)
+                .filter(Connection::isConnected);
+    }
+
+    @Override
+    public Optional<Connection> connection(String name) {
+        return registry.get(name)
+                .map(ConnectionSession::connection)
+                .filter(Connection::isConnected);
+    }
+
+    @Override
+    public List<Connection> connections() {
+        return registry.all().stream()
+                .map(ConnectionSession::connection)
+                .filter(Connection::isConnected)
+                .toList();
+    }
+
+    @Override
+    public Connection switchTo(String name) {
+        if (!registry.activate(name)) {
+            throw ConnectionException.unknownConnection(name);
         }
-        return Optional.empty();
+        log.info("Switched active connection", kv("name", name));
+        ConnectionSession session = registry.get(name).orElseThrow(() -> ConnectionException.unknownConnection(name));
+        modelService.warmUp(session);
+        return session.connection();
+    }
+
+    @Override
+    public List<HostStatus> hostStatuses() {
+        return registry.active()
+                .map(session -> session.database().hostStatuses())
+                .orElse(List.of());
     }
 
     @Override
     public boolean testConnection(ConnectionConfig config) {
         log.debug("Testing connection", kv("target", config.toDisplayString()));
-        return databasePort.testConnection(config);
+        return portsFactory.create().database().testConnection(config);
+    }
+
+    private void close(ConnectionSession session) {
+        try {
+            session.database().disconnect();
+        } catch (Exception e) {
+            log.error("Error during disconnect",
+                    kv("connectionId", session.connection().id()),
+                    kv("error", e.getMessage()));
+        }
+        session.connection().markClosed();
     }
 }
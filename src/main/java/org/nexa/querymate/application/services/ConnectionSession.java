@@ -0,0 +1,75 @@
+package org.nexa.querymate.application.services;
+
+import org.nexa.querymate.application.ports.out.ConnectionPorts;
+import org.nexa.querymate.application.ports.out.DatabasePort;
+import org.nexa.querymate.domain.connection.Connection;
+import org.nexa.querymate.domain.translation.SchemaContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One open, named connection together with the ports serving it and its cached schema.
+ * The schema is discovered on first use and kept until the session is closed or invalidated.
+ */
+final class ConnectionSession {
+
+    private final Connection connection;
+    private final ConnectionPorts ports;
+    private final AtomicReference<SchemaContext> schema = new AtomicReference<>();
+
+    ConnectionSession(Connection connection, ConnectionPorts ports) {
+        this.connection = connection;
+        this.ports = ports;
+    }
+
+    String name() {
+        return connection.name();
+    }
+
+    Connection connection() {
+        return connection;
+    }
+
+    DatabasePort database() {
+        return ports.database();
+    }
+
+    /**
+     * Returns the cached schema, discovering it on first call.
+     * Concurrent first calls may both discover; the first result stored wins.
+     */
+    SchemaContext schema() {
+        SchemaContext cached = schema.get();
+        if (cached != null) {
+            return cached;
+        }
+        SchemaContext discovered = ports.schemaDiscovery().discoverSchema();
+        return schema.compareAndSet(null, discovered) ? discovered : schema.get();
+    }
+
+    /**
+     * Returns true if the schema is cached, so {@link #schema()} will not discover it.
+     */
+    boolean hasSchema() {
+        return schema.get() != null;
+    }
+
+    /**
+     * Returns the cached schema at once, or discovers it on the given executor.
+     */
+    CompletableFuture<SchemaContext> schemaAsync(Executor executor) {
+        SchemaContext cached = schema.get();
+        return cached != null
+                ? CompletableFuture.completedFuture(cached)
+                : CompletableFuture.supplyAsync(this::schema, executor);
+    }
+
+    /**
+     * Drops the cached schema so the next translation rediscovers it.
+     */
+    void invalidateSchema() {
+        schema.set(null);
+    }
+}
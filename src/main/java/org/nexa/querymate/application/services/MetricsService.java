@@ -0,0 +1,26 @@
+package org.nexa.querymate.application.services;
+
+import org.nexa.querymate.application.ports.in.MetricsServicePort;
+import org.nexa.querymate.application.ports.out.MetricsSource;
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Application service collecting the metrics of all reporting adapters.
+ */
+@Service
+public class MetricsService implements MetricsServicePort {
+
+    private final List<MetricsSource> sources;
+
+    public MetricsService(List<MetricsSource> sources) {
+        this.sources = List.copyOf(sources);
+    }
+
+    @Override
+    public List<MetricsSnapshot> metrics() {
+        return sources.stream().flatMap(source -> source.snapshots().stream()).toList();
+    }
+}
@@ -0,0 +1,136 @@
+package org.nexa.querymate.application.services;
+
+import org.nexa.querymate.application.ports.in.ModelServicePort;
+import org.nexa.querymate.application.ports.out.ModelLifecyclePort;
+import org.nexa.querymate.domain.translation.ModelReadiness;
+import org.nexa.querymate.domain.translation.ModelStatus;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Application service that loads the translation model before the first question needs it.
+ * <p>
+ * Warm-ups run in the background, one at a time and in the order requested: at startup, and whenever a
+ * connection is opened or made active, so the schema of the connection in use is already evaluated.
+ * A question that has to discover its schema first also starts loading the model, in case it was unloaded,
+ * without waiting for it.
+ * The model stays loaded for the server's keep-alive after each use and is released once the last
+ * connection closes.
+ */
+@Service
+public class ModelService implements ModelServicePort {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelService.class);
+
+    private final ModelLifecyclePort lifecycle;
+    private final ConnectionRegistry registry;
+    private final Executor executor;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile Duration lastWarmUp;
+    private volatile String lastError;
+
+    @Autowired
+    public ModelService(ModelLifecyclePort lifecycle, ConnectionRegistry registry) {
+        this(lifecycle, registry, Executors.newSingleThreadExecutor(Thread.ofVirtual().name("model-warm-up").factory()));
+    }
+
+    /**
+     * @param executor runs warm-ups and releases; must run them one at a time
+     */
+    ModelService(ModelLifecyclePort lifecycle, ConnectionRegistry registry, Executor executor) {
+        this.lifecycle = lifecycle;
+        this.registry = registry;
+        this.executor = executor;
+    }
+
+    @Override
+    public void warmUp() {
+        Optional<ConnectionSession> active = registry.active()
+                .filter(session -> session.connection().isConnected());
+        warmUp(() -> active.map(ConnectionSession::schema).orElse(null));
+    }
+
+    @Override
+    public ModelStatus status() {
+        if (pending.get() > 0) {
+            return new ModelStatus(lifecycle.model(), ModelReadiness.WARMING, null, lastWarmUp, null);
+        }
+        try {
+            Optional<Instant> residentUntil = lifecycle.residentUntil();
+            return new ModelStatus(
+                    lifecycle.model(),
+                    residentUntil.isPresent() ? ModelReadiness.READY : ModelReadiness.NOT_LOADED,
+                    residentUntil.orElse(null),
+                    lastWarmUp,
+                    null
+            );
+        } catch (RuntimeException e) {
+            String detail = lastError != null ? lastError : e.getMessage();
+            return new ModelStatus(lifecycle.model(), ModelReadiness.UNAVAILABLE, null, lastWarmUp, detail);
+        }
+    }
+
+    /**
+     * Loads the model with the session's schema in the background.
+     */
+    void warmUp(ConnectionSession session) {
+        warmUp(session::schema);
+    }
+
+    /**
+     * Starts loading the model in the background for a question about to need it, unless a warm-up is already
+     * pending. Returns at once: the question goes on without waiting, a failure shows in {@link #status()},
+     * and the translation reports its own.
+     */
+    void load() {
+        if (pending.get() == 0) {
+            warmUp(() -> null);
+        }
+    }
+
+    /**
+     * Unloads the model in the background, after any warm-up already requested.
+     */
+    void release() {
+        executor.execute(() -> {
+            try {
+                lifecycle.release();
+                log.info("Model released", kv("model", lifecycle.model()));
+            } catch (RuntimeException e) {
+                log.warn("Model release failed", kv("model", lifecycle.model()), kv("error", e.getMessage()));
+            }
+        });
+    }
+
+    private void warmUp(Supplier<SchemaContext> schema) {
+        pending.incrementAndGet();
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                lifecycle.warmUp(schema.get());
+                lastWarmUp = Duration.ofNanos(System.nanoTime() - start);
+                lastError = null;
+                log.info("Model warmed up", kv("model", lifecycle.model()), kv("duration", lastWarmUp));
+            } catch (RuntimeException e) {
+                lastError = e.getMessage();
+                log.warn("Model warm-up failed", kv("model", lifecycle.model()), kv("error", e.getMessage()));
+            } finally {
+                pending.decrementAndGet();
+            }
+        });
+    }
+}
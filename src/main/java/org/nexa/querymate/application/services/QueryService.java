@@ -1,86 +1,469 @@
 package org.nexa.querymate.application.services;
 
-import org.nexa.querymate.application.ports.in.ConnectionServicePort;
+import org.nexa.querymate.application.ports.in.AsyncQueryServicePort;
 import org.nexa.querymate.application.ports.in.QueryServicePort;
-import org.nexa.querymate.application.ports.out.DatabasePort;
+import org.nexa.querymate.application.ports.out.FederatedQueryPort;
 import org.nexa.querymate.application.ports.out.LLMPort;
-import org.nexa.querymate.application.ports.out.SchemaDiscoveryPort;
+import org.nexa.querymate.application.ports.out.MetricsSource;
 import org.nexa.querymate.domain.connection.Connection;
+import org.nexa.querymate.domain.connection.ConnectionId;
 import org.nexa.querymate.domain.exception.ConnectionException;
+import org.nexa.querymate.domain.exception.QueryExecutionException;
+import org.nexa.querymate.domain.exception.QueryMateException;
+import org.nexa.querymate.domain.exception.TranslationException;
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
+import org.nexa.querymate.domain.query.BatchOutcome;
+import org.nexa.querymate.domain.query.Deadline;
 import org.nexa.querymate.domain.query.Query;
+import org.nexa.querymate.domain.query.QueryBudget;
+import org.nexa.querymate.domain.query.QueryOrigin;
 import org.nexa.querymate.domain.query.QueryResult;
 import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.query.StatementKind;
+import org.nexa.querymate.domain.translation.GenerationStats;
 import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
 import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
 import org.nexa.querymate.domain.translation.TranslationRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.StructuredTaskScope.Subtask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
 import static net.logstash.logback.argument.StructuredArguments.kv;
 
 /**
  * Application service for executing queries.
+ * Queries run on the active connection unless a connection is named explicitly;
+ * statements that address tables as {@code @connection.table} run across connections.
+ * <p>
+ * Identical requests that arrive while one is already running share its work: translations of the same
+ * normalized question against the same schema, and the same read-only statement on the same connection.
+ * Only the caller whose request runs receives the streamed tokens. A statement shared with a caller whose
+ * budget runs out sooner or later still ends at each caller's own deadline.
+ * <p>
+ * A natural language query translates inside one {@link StructuredTaskScope} with a deadline, next to the
+ * work that does not depend on the statement: the connection prepares for it, the schemas of several
+ * connections are discovered side by side, and while a schema is being discovered the model is loaded.
+ * Loading never fails the query: questions the rules or caches answer still run while the model is down,
+ * and otherwise the translation reports the outage itself. The first failure cancels the rest.
+ * <p>
+ * Each natural language query has a {@link QueryBudget}: translation may use all of it, and the statement
+ * runs bounded by whatever is left. A query whose budget is spent fails before reaching the next stage, and
+ * its result lists the time each stage took and what was left.
+ * <p>
+ * Asynchronous requests share the same coalescing. They wait for translations through
+ * {@link LLMPort#translateAsync}, and run schema discovery and statements on virtual threads.
  */
 @Service
-public class QueryService implements QueryServicePort {
+public class QueryService implements QueryServicePort, AsyncQueryServicePort, MetricsSource {
 
     private static final Logger log = LoggerFactory.getLogger(QueryService.class);
 
-    private final ConnectionServicePort connectionService;
-    private final DatabasePort databasePort;
-    private final SchemaDiscoveryPort schemaDiscoveryPort;
+    /**
+     * Statements after which the cached schema of the connection no longer matches the database.
+     */
+    private static final Pattern SCHEMA_CHANGE = Pattern.compile(
+            "^\\s*(CREATE|ALTER|DROP|COMMENT|RENAME)\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Distinct requests that may be shared at once; beyond this, requests run unshared.
+     */
+    private static final int MAX_IN_FLIGHT = 1024;
+
+    private record TranslationKey(String question, String schemaFingerprint) {
+    }
+
+    private record StatementKey(ConnectionId connectionId, SqlStatement statement, QueryOrigin origin) {
+    }
+
+    private final ConnectionRegistry registry;
     private final LLMPort llmPort;
+    private final FederatedQueryPort federatedQueryPort;
+    private final ModelService modelService;
+    private final SingleFlight<TranslationKey, SqlStatement> translations = new SingleFlight<>(MAX_IN_FLIGHT);
+    private final SingleFlight<StatementKey, QueryResult> reads = new SingleFlight<>(MAX_IN_FLIGHT);
+    private final Executor blocking = task -> Thread.ofVirtual().name("query-jdbc").start(task);
 
-    public QueryService(
-            ConnectionServicePort connectionService,
-            DatabasePort databasePort,
-            SchemaDiscoveryPort schemaDiscoveryPort,
-            LLMPort llmPort
-    ) {
-        this.connectionService = connectionService;
-        this.databasePort = databasePort;
-        this.schemaDiscoveryPort = schemaDiscoveryPort;
+    private final QueryBudget budget;
+
+    public QueryService(ConnectionRegistry registry, LLMPort llmPort, FederatedQueryPort federatedQueryPort,
+                        ModelService modelService) {
+        this(registry, llmPort, federatedQueryPort, modelService, QueryBudget.DEFAULT);
+    }
+
+    /**
+     * @param budget how long a natural language query may take, from the question to its rows
+     */
+    @Autowired
+    public QueryService(ConnectionRegistry registry, LLMPort llmPort, FederatedQueryPort federatedQueryPort,
+                        ModelService modelService, QueryBudget budget) {
+        this.registry = registry;
         this.llmPort = llmPort;
+        this.federatedQueryPort = federatedQueryPort;
+        this.modelService = modelService;
+        this.budget = budget;
     }
 
     @Override
     public Query executeSql(SqlStatement sql) {
-        Connection connection = requireActiveConnection();
+        return executeSql(requireActiveSession(), sql);
+    }
+
+    @Override
+    public Query executeSql(String connectionName, SqlStatement sql) {
+        return executeSql(requireSession(connectionName), sql);
+    }
+
+    @Override
+    public Query executeNaturalLanguage(NaturalLanguageQuery naturalLanguageQuery) {
+        return executeNaturalLanguage(naturalLanguageQuery, TokenListener.NONE);
+    }
+
+    @Override
+    public Query executeNaturalLanguage(NaturalLanguageQuery naturalLanguageQuery, TokenListener listener) {
+        return executeNaturalLanguage(requireActiveSession(), naturalLanguageQuery, listener);
+    }
+
+    @Override
+    public Query executeNaturalLanguage(String connectionName, NaturalLanguageQuery naturalLanguageQuery) {
+        return executeNaturalLanguage(connectionName, naturalLanguageQuery, TokenListener.NONE);
+    }
+
+    @Override
+    public Query executeNaturalLanguage(String connectionName, NaturalLanguageQuery naturalLanguageQuery,
+                                        TokenListener listener) {
+        return executeNaturalLanguage(requireSession(connectionName), naturalLanguageQuery, listener);
+    }
+
+    @Override
+    public Query executeNaturalLanguage(List<String> connectionNames, NaturalLanguageQuery naturalLanguageQuery) {
+        return executeNaturalLanguage(connectionNames, naturalLanguageQuery, TokenListener.NONE);
+    }
+
+    @Override
+    public Query executeNaturalLanguage(List<String> connectionNames, NaturalLanguageQuery naturalLanguageQuery,
+                                        TokenListener listener) {
+        if (connectionNames.size() == 1) {
+            return executeNaturalLanguage(connectionNames.getFirst(), naturalLanguageQuery, listener);
+        }
+        List<ConnectionSession> sessions = connectionNames.stream().map(this::requireSession).toList();
+
+        log.info("Executing cross-database natural language query",
+                kv("connections", connectionNames),
+                kv("query", truncate(naturalLanguageQuery.value(), 100)));
+
+        Deadline deadline = budget.start();
+        GenerationTimings generation = new GenerationTimings(listener);
+        SqlStatement sql = translateAcross(sessions, naturalLanguageQuery, generation, deadline);
+
+        ConnectionSession first = sessions.getFirst();
+        Query query = Query.fromNaturalLanguage(first.connection().id(), sql, naturalLanguageQuery.value());
+        return executeQuery(first, query, generation.timings(deadline), deadline);
+    }
+
+    @Override
+    public SqlStatement translateOnly(NaturalLanguageQuery query) {
+        return translate(requireActiveSession(), query, TokenListener.NONE);
+    }
+
+    @Override
+    public CompletableFuture<Query> executeSqlAsync(SqlStatement sql) {
+        return CompletableFuture.supplyAsync(() -> executeSql(requireActiveSession(), sql), blocking);
+    }
+
+    @Override
+    public CompletableFuture<Query> executeSqlAsync(String connectionName, SqlStatement sql) {
+        return CompletableFuture.supplyAsync(() -> executeSql(requireSession(connectionName), sql), blocking);
+    }
+
+    @Override
+    public CompletableFuture<Query> executeNaturalLanguageAsync(NaturalLanguageQuery naturalLanguageQuery,
+                                                                TokenListener listener) {
+        return executeNaturalLanguageAsync(this::requireActiveSession, naturalLanguageQuery, listener);
+    }
+
+    @Override
+    public CompletableFuture<Query> executeNaturalLanguageAsync(String connectionName,
+                                                                NaturalLanguageQuery naturalLanguageQuery,
+                                                                TokenListener listener) {
+        return executeNaturalLanguageAsync(() -> requireSession(connectionName), naturalLanguageQuery, listener);
+    }
+
+    @Override
+    public CompletableFuture<SqlStatement> translateOnlyAsync(NaturalLanguageQuery query) {
+        try {
+            return translateAsync(requireActiveSession(), query, TokenListener.NONE);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Query executeSql(ConnectionSession session, SqlStatement sql) {
+        Connection connection = session.connection();
 
         log.info("Executing SQL query",
                 kv("connectionId", connection.id()),
                 kv("sql", truncate(sql.value(), 100)));
 
         Query query = Query.fromSql(connection.id(), sql);
-        return executeQuery(query);
+        return executeQuery(session, query, List.of());
     }
 
-    @Override
-    public Query executeNaturalLanguage(NaturalLanguageQuery naturalLanguageQuery) {
-        Connection connection = requireActiveConnection();
+    private Query executeNaturalLanguage(ConnectionSession session, NaturalLanguageQuery naturalLanguageQuery,
+                                         TokenListener listener) {
+        Connection connection = session.connection();
 
         log.info("Executing natural language query",
                 kv("connectionId", connection.id()),
                 kv("query", truncate(naturalLanguageQuery.value(), 100)));
 
-        SqlStatement sql = translateOnly(naturalLanguageQuery);
+        Deadline deadline = budget.start();
+        GenerationTimings generation = new GenerationTimings(listener);
+        SqlStatement sql = translateAndPrepare(session, naturalLanguageQuery, generation, deadline);
 
         Query query = Query.fromNaturalLanguage(connection.id(), sql, naturalLanguageQuery.value());
-        return executeQuery(query);
+        return executeQuery(session, query, generation.timings(deadline), deadline);
+    }
+
+    /**
+     * Translates while the session's database prepares for the statement. If the schema is not cached, the
+     * model starts loading in the background during discovery; the translation does not wait for it, so a
+     * translation answered without the model is not held up by a slow load.
+     */
+    private SqlStatement translateAndPrepare(ConnectionSession session, NaturalLanguageQuery query,
+                                             TokenListener listener, Deadline deadline) {
+        if (!session.hasSchema()) {
+            modelService.load();
+        }
+        try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            Subtask<SqlStatement> translation = scope.fork(() -> translate(session, query, listener));
+            scope.fork(() -> prepare(session));
+            join(scope, deadline);
+            return translation.get();
+        }
+    }
+
+    /**
+     * Discovers the schemas of all sessions side by side and translates against their combination, starting
+     * the model load in the background as above.
+     */
+    private SqlStatement translateAcross(List<ConnectionSession> sessions, NaturalLanguageQuery query,
+                                         TokenListener listener, Deadline deadline) {
+        if (!sessions.stream().allMatch(ConnectionSession::hasSchema)) {
+            modelService.load();
+        }
+        try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            Subtask<SqlStatement> translation = scope.fork(() -> {
+                SchemaContext schemaContext = SchemaContext.combine(discover(sessions, deadline));
+                // Qualified table names only exist in the federated plan, so there is nothing to validate against
+                return translate(schemaContext, query, listener, SqlValidator.NONE);
+            });
+            join(scope, deadline);
+            return translation.get();
+        }
+    }
+
+    private static List<SchemaContext> discover(List<ConnectionSession> sessions, Deadline deadline) {
+        try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            List<Subtask<SchemaContext>> schemas = sessions.stream()
+                    .map(session -> scope.fork(() -> session.schema().qualifiedBy(session.name())))
+                    .toList();
+            join(scope, deadline);
+            return schemas.stream().map(Subtask::get).toList();
+        }
+    }
+
+    /**
+     * Waits for every subtask, rethrowing the first failure; past the deadline, the translation times out.
+     */
+    private static void join(StructuredTaskScope.ShutdownOnFailure scope, Deadline deadline) {
+        try {
+            scope.joinUntil(deadline.expiresAt());
+            scope.throwIfFailed(failure -> failure instanceof RuntimeException runtime
+                    ? runtime
+                    : new IllegalStateException(failure));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while translating");
+        } catch (TimeoutException e) {
+            throw TranslationException.timeout(e);
+        }
+    }
+
+    private static Void prepare(ConnectionSession session) {
+        try {
+            session.database().prepare();
+        } catch (RuntimeException e) {
+            log.debug("Connection not prepared", kv("connection", session.name()), kv("error", e.getMessage()));
+        }
+        return null;
+    }
+
+    /**
+     * Translates without a thread, then executes on a virtual thread; cancelling the result before then
+     * cancels the translation.
+     */
+    private CompletableFuture<Query> executeNaturalLanguageAsync(Supplier<ConnectionSession> sessions,
+                                                                 NaturalLanguageQuery naturalLanguageQuery,
+                                                                 TokenListener listener) {
+        ConnectionSession session;
+        try {
+            session = sessions.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Connection connection = session.connection();
+
+        log.info("Executing natural language query asynchronously",
+                kv("connectionId", connection.id()),
+                kv("query", truncate(naturalLanguageQuery.value(), 100)));
+
+        Deadline deadline = budget.start();
+        GenerationTimings generation = new GenerationTimings(listener);
+        CompletableFuture<SqlStatement> translation = translateAsync(session, naturalLanguageQuery, generation)
+                .orTimeout(deadline.remaining().toMillis(), TimeUnit.MILLISECONDS);
+        CompletableFuture<Query> result = translation
+                .exceptionallyCompose(failure -> CompletableFuture.failedFuture(
+                        failure instanceof TimeoutException timeout ? TranslationException.timeout(timeout) : failure))
+                .thenApplyAsync(sql -> executeQuery(session,
+                        Query.fromNaturalLanguage(connection.id(), sql, naturalLanguageQuery.value()),
+                        generation.timings(deadline), deadline), blocking);
+        cancelWith(result, translation);
+        return result;
     }
 
     @Override
-    public SqlStatement translateOnly(NaturalLanguageQuery query) {
-        requireActiveConnection();
+    public List<BatchOutcome> executeNaturalLanguageBatch(
+            List<NaturalLanguageQuery> questions,
+            boolean execute,
+            int maxInFlight,
+            Consumer<BatchOutcome> onOutcome
+    ) {
+        ConnectionSession session = requireActiveSession();
+        SchemaContext schemaContext = session.schema();
+        log.info("Executing natural language batch",
+                kv("connection", session.name()),
+                kv("questions", questions.size()),
+                kv("maxInFlight", maxInFlight),
+                kv("execute", execute));
 
+        Semaphore llmSlots = new Semaphore(maxInFlight);
+        BatchOutcome[] outcomes = new BatchOutcome[questions.size()];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < questions.size(); i++) {
+                int index = i;
+                executor.execute(() -> {
+                    BatchOutcome outcome = runBatchItem(session, schemaContext, index, questions.get(index), execute, llmSlots);
+                    outcomes[index] = outcome;
+                    synchronized (onOutcome) {
+                        onOutcome.accept(outcome);
+                    }
+                });
+            }
+        }
+        return List.of(outcomes);
+    }
+
+    /**
+     * Translates while holding an LLM slot, then executes without it, so slow statements never
+     * keep the model idle.
+     */
+    private BatchOutcome runBatchItem(ConnectionSession session, SchemaContext schemaContext, int index,
+                                      NaturalLanguageQuery question, boolean execute, Semaphore llmSlots) {
+        SqlStatement sql;
+        try {
+            llmSlots.acquire();
+            try {
+                sql = translate(schemaContext, question, TokenListener.NONE, validatorFor(session));
+            } finally {
+                llmSlots.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new BatchOutcome(index, question, null, null, "Interrupted");
+        } catch (RuntimeException e) {
+            return new BatchOutcome(index, question, null, null, e.getMessage());
+        }
+        if (!execute) {
+            return new BatchOutcome(index, question, sql, null, null);
+        }
+
+        Query query = Query.fromNaturalLanguage(session.connection().id(), sql, question.value());
+        try {
+            executeQuery(session, query, List.of());
+            return new BatchOutcome(index, question, sql, query, null);
+        } catch (RuntimeException e) {
+            return new BatchOutcome(index, question, sql, query, e.getMessage());
+        }
+    }
+
+    private SqlStatement translate(ConnectionSession session, NaturalLanguageQuery query, TokenListener listener) {
         log.info("Translating natural language query",
+                kv("connection", session.name()),
                 kv("query", truncate(query.value(), 100)));
 
-        SchemaContext schemaContext = schemaDiscoveryPort.discoverSchema();
+        return translate(session.schema(), query, listener, validatorFor(session));
+    }
 
+    private SqlStatement translate(SchemaContext schemaContext, NaturalLanguageQuery query, TokenListener listener,
+                                   SqlValidator validator) {
         TranslationRequest request = TranslationRequest.create(query, schemaContext);
-        SqlStatement sql = llmPort.translate(query, schemaContext);
+        SqlStatement sql = translations.run(
+                new TranslationKey(query.normalized(), schemaContext.fingerprint()),
+                () -> llmPort.translate(query, schemaContext, listener, validator));
+        return completed(request, sql);
+    }
+
+    /**
+     * Translates against the session's schema once it is known; cancelling the result cancels the translation.
+     */
+    private CompletableFuture<SqlStatement> translateAsync(ConnectionSession session, NaturalLanguageQuery query,
+                                                           TokenListener listener) {
+        log.info("Translating natural language query",
+                kv("connection", session.name()),
+                kv("query", truncate(query.value(), 100)));
+
+        CompletableFuture<SqlStatement> result = new CompletableFuture<>();
+        session.schemaAsync(blocking)
+                .thenCompose(schemaContext -> {
+                    TranslationRequest request = TranslationRequest.create(query, schemaContext);
+                    CompletableFuture<SqlStatement> translation = translations.runAsync(
+                            new TranslationKey(query.normalized(), schemaContext.fingerprint()),
+                            () -> llmPort.translateAsync(query, schemaContext, listener, validatorFor(session)));
+                    cancelWith(result, translation);
+                    return translation.thenApply(sql -> completed(request, sql));
+                })
+                .whenComplete((sql, failure) -> {
+                    if (failure == null) {
+                        result.complete(sql);
+                    } else {
+                        result.completeExceptionally(failure);
+                    }
+                });
+        return result;
+    }
+
+    private SqlStatement completed(TranslationRequest request, SqlStatement sql) {
         request.markCompleted(sql);
 
         log.info("Translation completed",
@@ -90,12 +473,41 @@ public class QueryService implements QueryServicePort {
         return sql;
     }
 
-    private Query executeQuery(Query query) {
+    /**
+     * Cancels {@code stage} when {@code result}, which depends on it, is cancelled or times out.
+     */
+    private static void cancelWith(CompletableFuture<?> result, CompletableFuture<?> stage) {
+        result.whenComplete((value, failure) -> {
+            if (result.isCancelled() || failure instanceof TimeoutException) {
+                stage.cancel(true);
+            }
+        });
+    }
+
+    private Query executeQuery(ConnectionSession session, Query query, List<QueryResult.Timing> translationTimings) {
+        return executeQuery(session, query, translationTimings, Deadline.NONE);
+    }
+
+    /**
+     * @param translationTimings how the statement was generated, listed before the execution timings
+     * @param deadline           when the rows are needed by; a statement whose deadline has passed is not run
+     */
+    private Query executeQuery(ConnectionSession session, Query query, List<QueryResult.Timing> translationTimings,
+                               Deadline deadline) {
         query.markExecuting();
 
         try {
-            QueryResult result = databasePort.execute(query.statement());
-            query.markCompleted(result);
+            if (deadline.isExpired()) {
+                throw QueryExecutionException.deadlineExceeded(deadline.budget());
+            }
+            QueryResult result = query.statement().kind() == StatementKind.READ
+                    ? reads.run(new StatementKey(session.connection().id(), query.statement(), query.origin()), deadline,
+                            () -> execute(session, query, deadline))
+                    : execute(session, query, deadline);
+            query.markCompleted(withTimings(result, translationTimings, deadline));
+            if (SCHEMA_CHANGE.matcher(query.statement().value()).find()) {
+                session.invalidateSchema();
+            }
 
             log.info("Query completed",
                     kv("queryId", query.id()),
@@ -114,11 +526,127 @@ public class QueryService implements QueryServicePort {
         }
     }
 
-    private Connection requireActiveConnection() {
-        return connectionService.activeConnection()
+    private QueryResult execute(ConnectionSession session, Query query, Deadline deadline) {
+        return federatedQueryPort.isFederated(query.statement())
+                ? federatedQueryPort.execute(query.statement(), query.origin(), deadline,
+                        name -> requireSession(name).database())
+                : session.database().execute(query.statement(), query.origin(), deadline);
+    }
+
+    @Override
+    public MetricsSnapshot metrics() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("translations run", translations.executions());
+        values.put("translations shared", translations.shared());
+        values.put("reads run", reads.executions());
+        values.put("reads shared", reads.shared());
+        return new MetricsSnapshot("Request coalescing", values);
+    }
+
+    /**
+     * Lists the given timings before the result's own and, for a bounded query, the budget left after them.
+     */
+    private static QueryResult withTimings(QueryResult result, List<QueryResult.Timing> timings, Deadline deadline) {
+        if (timings.isEmpty() && !deadline.isBounded()) {
+            return result;
+        }
+        QueryResult.QueryMetadata metadata = result.metadata();
+        List<QueryResult.Timing> combined = new ArrayList<>(timings);
+        combined.addAll(metadata.timings());
+        if (deadline.isBounded()) {
+            combined.add(new QueryResult.Timing(
+                    "budget left (of %ds)".formatted(deadline.budget().toSeconds()), deadline.remaining()));
+        }
+        return result.withMetadata(new QueryResult.QueryMetadata(
+                metadata.affectedRows(), metadata.executionTime(), combined, metadata.warnings()));
+    }
+
+    /**
+     * Passes generated text on and keeps the generation statistics as query timings.
+     */
+    private static final class GenerationTimings implements TokenListener {
+        private final TokenListener listener;
+        private GenerationStats stats;
+
+        private GenerationTimings(TokenListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onToken(String token) {
+            listener.onToken(token);
+        }
+
+        @Override
+        public void onFinished(GenerationStats stats) {
+            this.stats = stats;
+            listener.onFinished(stats);
+        }
+
+        /**
+         * The generation statistics, if the model generated the statement, and for a bounded query the time
+         * translating took in all, schema discovery and validation included.
+         */
+        private List<QueryResult.Timing> timings(Deadline deadline) {
+            List<QueryResult.Timing> timings = new ArrayList<>();
+            if (stats != null) {
+                timings.addAll(generation());
+            }
+            if (deadline.isBounded()) {
+                timings.add(new QueryResult.Timing("translation", deadline.elapsed()));
+            }
+            return timings;
+        }
+
+        private List<QueryResult.Timing> generation() {
+            List<QueryResult.Timing> timings = new ArrayList<>();
+            if (stats.timeToFirstToken() != null) {
+                timings.add(new QueryResult.Timing("first token", stats.timeToFirstToken()));
+            }
+            if (stats.promptEvalTime() != null) {
+                timings.add(new QueryResult.Timing("prompt eval (%d tokens)".formatted(stats.promptTokens()),
+                        stats.promptEvalTime()));
+            }
+            String tokens = stats.usedTokens() == stats.tokens()
+                    ? "%d tokens".formatted(stats.tokens())
+                    : "%d tokens, %d used".formatted(stats.tokens(), stats.usedTokens());
+            String label = "generation (%s%s)".formatted(tokens, stats.stoppedEarly() ? ", stopped early" : "");
+            timings.add(new QueryResult.Timing(label, stats.total()));
+            return timings;
+        }
+    }
+
+    /**
+     * Plans statements on the session's database, so a cheap model's mistakes surface before execution.
+     */
+    private static SqlValidator validatorFor(ConnectionSession session) {
+        return sql -> {
+            try {
+                return session.database().validate(sql)
+                        .map(SqlValidator.Verdict::valid)
+                        .orElseGet(SqlValidator.Verdict::unchecked);
+            } catch (QueryMateException e) {
+                Throwable cause = e;
+                while (cause.getCause() != null && cause.getCause().getMessage() != null) {
+                    cause = cause.getCause();
+                }
+                return SqlValidator.Verdict.rejected(cause.getMessage());
+            }
+        };
+    }
+
+    private ConnectionSession requireActiveSession() {
+        return registry.active()
+                .filter(session -> session.connection().isConnected())
                 .orElseThrow(ConnectionException::notConnected);
     }
 
+    private ConnectionSession requireSession(String connectionName) {
+        return registry.get(connectionName)
+                .filter(session -> session.connection().isConnected())
+                .orElseThrow(() -> ConnectionException.unknownConnection(connectionName));
+    }
+
     private String truncate(String value, int maxLength) {
         if (value == null) return "null";
         if (value.length() <= maxLength) return value;
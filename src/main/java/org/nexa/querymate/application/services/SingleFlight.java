@@ -0,0 +1,187 @@
+package org.nexa.querymate.application.services;
+
+import org.nexa.querymate.domain.exception.QueryExecutionException;
+import org.nexa.querymate.domain.query.Deadline;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent callers asking for the same key share one execution.
+ * <p>
+ * The first caller runs the work on its own thread; callers arriving while it runs wait for its result,
+ * or its exception. Nothing is remembered once the work completes, so this never serves stale results.
+ * A waiter that is interrupted stops waiting without affecting the others; if the running caller is
+ * interrupted, its waiters start over instead of inheriting the interruption. Callers with a deadline
+ * wait only until their own deadline, and a failure of work whose caller's deadline had passed is not
+ * shared either: its waiters start over with the time they have left. Once {@code maxInFlight} keys are
+ * running, further keys run without being shared.
+ * <p>
+ * Work that returns a future instead of blocking is shared the same way by {@link #runAsync}, and both kinds
+ * of caller can share one execution.
+ */
+final class SingleFlight<K, V> {
+
+    /**
+     * Marks a result abandoned because the caller running the work was interrupted.
+     */
+    private static final class Abandoned extends RuntimeException {
+        private Abandoned() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final int maxInFlight;
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    SingleFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    V run(K key, Supplier<V> work) {
+        return run(key, Deadline.NONE, work);
+    }
+
+    /**
+     * Like {@link #run(Object, Supplier)}, for a caller that needs the result by the deadline.
+     *
+     * @throws QueryExecutionException if the deadline passes while waiting for another caller's execution
+     */
+    V run(K key, Deadline deadline, Supplier<V> work) {
+        while (true) {
+            CompletableFuture<V> running = inFlight.get(key);
+            if (running == null) {
+                if (inFlight.size() >= maxInFlight) {
+                    executions.incrementAndGet();
+                    return work.get();
+                }
+                CompletableFuture<V> own = new CompletableFuture<>();
+                running = inFlight.putIfAbsent(key, own);
+                if (running == null) {
+                    return lead(key, own, deadline, work);
+                }
+            }
+            try {
+                V value = await(running, deadline);
+                shared.incrementAndGet();
+                return value;
+            } catch (Abandoned e) {
+                // The caller running the work gave up or ran out of time; try again, possibly running it ourselves
+            }
+        }
+    }
+
+    /**
+     * Like {@link #run}, for work that completes a future instead of holding a thread. The first caller
+     * receives the work's own future, and cancelling it cancels the work, whose waiters then start over.
+     * Waiters receive futures of their own, so cancelling one leaves the others waiting.
+     */
+    CompletableFuture<V> runAsync(K key, Supplier<CompletableFuture<V>> work) {
+        CompletableFuture<V> running = inFlight.get(key);
+        if (running == null) {
+            if (inFlight.size() >= maxInFlight) {
+                executions.incrementAndGet();
+                return start(work);
+            }
+            CompletableFuture<V> own = new CompletableFuture<>();
+            running = inFlight.putIfAbsent(key, own);
+            if (running == null) {
+                return leadAsync(key, own, work);
+            }
+        }
+        return running
+                .thenApply(value -> {
+                    shared.incrementAndGet();
+                    return value;
+                })
+                .exceptionallyCompose(failure -> unwrap(failure) instanceof Abandoned
+                        ? runAsync(key, work)
+                        : CompletableFuture.failedFuture(unwrap(failure)));
+    }
+
+    /**
+     * Number of times the work actually ran.
+     */
+    long executions() {
+        return executions.get();
+    }
+
+    /**
+     * Number of callers served by another caller's execution.
+     */
+    long shared() {
+        return shared.get();
+    }
+
+    private V lead(K key, CompletableFuture<V> own, Deadline deadline, Supplier<V> work) {
+        executions.incrementAndGet();
+        try {
+            V value = work.get();
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            boolean abandoned = Thread.currentThread().isInterrupted() || deadline.isExpired();
+            own.completeExceptionally(abandoned ? new Abandoned() : e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private CompletableFuture<V> leadAsync(K key, CompletableFuture<V> own, Supplier<CompletableFuture<V>> work) {
+        executions.incrementAndGet();
+        CompletableFuture<V> started = start(work);
+        started.whenComplete((value, failure) -> {
+            inFlight.remove(key, own);
+            if (failure == null) {
+                own.complete(value);
+            } else {
+                own.completeExceptionally(started.isCancelled() ? new Abandoned() : failure);
+            }
+        });
+        return started;
+    }
+
+    private static <V> CompletableFuture<V> start(Supplier<CompletableFuture<V>> work) {
+        try {
+            return work.get();
+        } catch (RuntimeException | Error e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private static <V> V await(CompletableFuture<V> running, Deadline deadline) {
+        try {
+            return deadline.isBounded()
+                    ? running.get(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS)
+                    : running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a shared result");
+        } catch (TimeoutException e) {
+            throw QueryExecutionException.deadlineExceeded(deadline.budget(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
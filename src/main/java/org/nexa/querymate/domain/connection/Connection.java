@@ -17,24 +17,33 @@ import java.util.Objects;
 public final class Connection {
 
     private final ConnectionId id;
+    private final String name;
     private final ConnectionConfig config;
     private ConnectionStatus status;
     private String failureReason;
     private Instant connectedAt;
     private final List<ConnectionEvent> events;
 
-    private Connection(ConnectionId id, ConnectionConfig config) {
+    private Connection(ConnectionId id, String name, ConnectionConfig config) {
         this.id = Objects.requireNonNull(id, "Connection ID cannot be null");
+        this.name = Objects.requireNonNull(name, "Connection name cannot be null");
         this.config = Objects.requireNonNull(config, "Connection config cannot be null");
         this.status = ConnectionStatus.DISCONNECTED;
         this.events = new ArrayList<>();
     }
 
     /**
-     * Creates a new connection with the given configuration.
+     * Creates a new connection with the given configuration, named after its database.
      */
     public static Connection create(ConnectionConfig config) {
-        return new Connection(ConnectionId.generate(), config);
+        return create(config.database(), config);
+    }
+
+    /**
+     * Creates a new named connection with the given configuration.
+     */
+    public static Connection create(String name, ConnectionConfig config) {
+        return new Connection(ConnectionId.generate(), name, config);
     }
 
     /**
@@ -75,6 +84,10 @@ public final class Connection {
         return id;
     }
 
+    public String name() {
+        return name;
+    }
+
     public ConnectionConfig config() {
         return config;
     }
@@ -1,16 +1,23 @@
 package org.nexa.querymate.domain.connection;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * Value object encapsulating database connection configuration.
+ * The host and port identify the preferred primary; alternate hosts are further candidates for the
+ * same primary role (the fastest reachable one is used), and read-only statements may be routed to the replicas.
  */
 public record ConnectionConfig(
         String host,
         int port,
         String database,
         String username,
-        String password
+        String password,
+        List<HostAddress> replicas,
+        List<HostAddress> alternateHosts
 ) {
 
     public ConnectionConfig {
@@ -27,6 +34,56 @@ public record ConnectionConfig(
         }
         Objects.requireNonNull(username, "Username cannot be null");
         Objects.requireNonNull(password, "Password cannot be null");
+        replicas = replicas == null ? List.of() : List.copyOf(replicas);
+        alternateHosts = alternateHosts == null ? List.of() : List.copyOf(alternateHosts);
+    }
+
+    public ConnectionConfig(String host, int port, String database, String username, String password) {
+        this(host, port, database, username, password, List.of(), List.of());
+    }
+
+    public ConnectionConfig(
+            String host,
+            int port,
+            String database,
+            String username,
+            String password,
+            List<HostAddress> replicas
+    ) {
+        this(host, port, database, username, password, replicas, List.of());
+    }
+
+    /**
+     * Returns the primary's address.
+     */
+    public HostAddress primary() {
+        return new HostAddress(host, port);
+    }
+
+    /**
+     * Returns every candidate host for the primary role, the configured host first.
+     */
+    public List<HostAddress> hosts() {
+        List<HostAddress> hosts = new ArrayList<>(1 + alternateHosts.size());
+        hosts.add(primary());
+        hosts.addAll(alternateHosts);
+        return List.copyOf(hosts);
+    }
+
+    public boolean isMultiHost() {
+        return !alternateHosts.isEmpty();
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    /**
+     * Returns a single-host configuration with the same database and credentials, pointing at the given address.
+     * Replicas and alternate hosts are not carried over.
+     */
+    public ConnectionConfig forHost(HostAddress address) {
+        return new ConnectionConfig(address.host(), address.port(), database, username, password);
     }
 
     /**
@@ -40,6 +97,14 @@ public record ConnectionConfig(
      * Returns a display-safe string without credentials.
      */
     public String toDisplayString() {
-        return "%s@%s:%d/%s".formatted(username, host, port, database);
+        String display = "%s@%s/%s".formatted(
+                username,
+                hosts().stream().map(HostAddress::toString).collect(Collectors.joining(",")),
+                database
+        );
+        if (hasReplicas()) {
+            display += " (+%d replica%s)".formatted(replicas.size(), replicas.size() == 1 ? "" : "s");
+        }
+        return display;
     }
 }
@@ -0,0 +1,45 @@
+package org.nexa.querymate.domain.connection;
+
+import java.util.Objects;
+
+/**
+ * Value object for a database server's host and port.
+ */
+public record HostAddress(String host, int port) {
+
+    public static final int DEFAULT_PORT = 5432;
+
+    public HostAddress {
+        Objects.requireNonNull(host, "Host cannot be null");
+        if (host.isBlank()) {
+            throw new IllegalArgumentException("Host cannot be blank");
+        }
+        if (port <= 0 || port > 65535) {
+            throw new IllegalArgumentException("Port must be between 1 and 65535");
+        }
+    }
+
+    /**
+     * Parses {@code host} or {@code host:port}; the port defaults to 5432.
+     */
+    public static HostAddress parse(String hostPort) {
+        Objects.requireNonNull(hostPort, "Host cannot be null");
+        int colonIdx = hostPort.indexOf(':');
+        if (colonIdx == -1) {
+            return new HostAddress(hostPort.strip(), DEFAULT_PORT);
+        }
+
+        String host = hostPort.substring(0, colonIdx).strip();
+        String portStr = hostPort.substring(colonIdx + 1).strip();
+        try {
+            return new HostAddress(host, Integer.parseInt(portStr));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid port number: '" + portStr + "'");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return host + ":" + port;
+    }
+}
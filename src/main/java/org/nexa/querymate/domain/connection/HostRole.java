@@ -0,0 +1,26 @@
+package org.nexa.querymate.domain.connection;
+
+/**
+ * The part a database host plays in the current connection.
+ */
+public enum HostRole {
+    /**
+     * Host the session is currently connected to.
+     */
+    ACTIVE,
+
+    /**
+     * Alternative host the session fails over to if the active host goes down.
+     */
+    STANDBY,
+
+    /**
+     * Read replica serving read-only statements.
+     */
+    REPLICA,
+
+    /**
+     * Shard receiving every statement in a fan-out.
+     */
+    SHARD
+}
@@ -0,0 +1,24 @@
+package org.nexa.querymate.domain.connection;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Value object describing the observed state of one database host.
+ *
+ * @param latency last measured round-trip or statement latency, or null if never measured
+ * @param detail  free-form extra information such as replica lag or the last failover, or null
+ */
+public record HostStatus(
+        HostAddress address,
+        HostRole role,
+        boolean healthy,
+        Duration latency,
+        String detail
+) {
+
+    public HostStatus {
+        Objects.requireNonNull(address, "Address cannot be null");
+        Objects.requireNonNull(role, "Role cannot be null");
+    }
+}
@@ -1,5 +1,9 @@
 package org.nexa.querymate.domain.exception;
 
+import org.nexa.querymate.domain.connection.HostAddress;
+
+import java.util.List;
+
 /**
  * Exception thrown when a database connection operation fails.
  */
@@ -20,10 +24,28 @@ public final class ConnectionException extends QueryMateException {
         );
     }
 
+    public static ConnectionException noHostAvailable(List<HostAddress> hosts, Throwable cause) {
+        return new ConnectionException(
+                "Failed to connect to any of %s".formatted(hosts),
+                cause
+        );
+    }
+
+    public static ConnectionException shardsUnavailable(int failed, int total, Throwable cause) {
+        return new ConnectionException(
+                "Failed to connect to %d of %d shards".formatted(failed, total),
+                cause
+        );
+    }
+
     public static ConnectionException notConnected() {
         return new ConnectionException("Not connected to any database");
     }
 
+    public static ConnectionException unknownConnection(String name) {
+        return new ConnectionException("No open connection named '%s'".formatted(name));
+    }
+
     public static ConnectionException connectionClosed() {
         return new ConnectionException("Connection has been closed");
     }
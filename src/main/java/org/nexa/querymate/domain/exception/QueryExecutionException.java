@@ -1,5 +1,9 @@
 package org.nexa.querymate.domain.exception;
 
+import org.nexa.querymate.domain.connection.HostAddress;
+
+import java.time.Duration;
+
 /**
  * Exception thrown when query execution fails.
  */
@@ -20,6 +24,68 @@ public final class QueryExecutionException extends QueryMateException {
         );
     }
 
+    public static QueryExecutionException validationFailed(String sql, Throwable cause) {
+        return new QueryExecutionException(
+                "SQL failed validation: %s".formatted(truncate(sql, 100)),
+                cause
+        );
+    }
+
+    public static QueryExecutionException failedOver(HostAddress from, HostAddress to, Throwable cause) {
+        return new QueryExecutionException(
+                "Connection to %s was lost and the session failed over to %s; the statement was not retried"
+                        .formatted(from, to),
+                cause
+        );
+    }
+
+    public static QueryExecutionException deadlineExceeded(Duration budget) {
+        return new QueryExecutionException("Query did not finish within its %d ms budget".formatted(budget.toMillis()));
+    }
+
+    public static QueryExecutionException deadlineExceeded(Duration budget, Throwable cause) {
+        return new QueryExecutionException(
+                "Query did not finish within its %d ms budget".formatted(budget.toMillis()),
+                cause
+        );
+    }
+
+    public static QueryExecutionException unsupportedShardedQuery(String reason) {
+        return new QueryExecutionException("Cannot combine shard results: %s".formatted(reason));
+    }
+
+    public static QueryExecutionException shardedWriteRejected() {
+        return new QueryExecutionException(
+                "Only read-only queries run on a sharded connection; "
+                        + "writes, DDL and transaction control would run on every shard"
+        );
+    }
+
+    public static QueryExecutionException shardsFailed(int failed, int total, Throwable cause) {
+        return new QueryExecutionException(
+                "Statement failed on %d of %d shards".formatted(failed, total),
+                cause
+        );
+    }
+
+    public static QueryExecutionException unsupportedFederatedQuery(String reason) {
+        return new QueryExecutionException("Cannot run cross-database query: %s".formatted(reason));
+    }
+
+    public static QueryExecutionException federatedRowLimitExceeded(String step, int maxRows) {
+        return new QueryExecutionException(
+                "Cross-database query holds more than %d rows at %s; narrow it with conditions on the joined tables"
+                        .formatted(maxRows, step)
+        );
+    }
+
+    public static QueryExecutionException subQueryFailed(String connection, Throwable cause) {
+        return new QueryExecutionException(
+                "Sub-query on connection '%s' failed: %s".formatted(connection, cause.getMessage()),
+                cause
+        );
+    }
+
     public static QueryExecutionException invalidSql(String sql) {
         return new QueryExecutionException(
                 "Invalid SQL statement: %s".formatted(truncate(sql, 100))
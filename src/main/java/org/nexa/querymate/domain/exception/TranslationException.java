@@ -13,6 +13,10 @@ public final class TranslationException extends QueryMateException {
         super(message, cause);
     }
 
+    public static TranslationException llmUnavailable() {
+        return new TranslationException("LLM service is unavailable");
+    }
+
     public static TranslationException llmUnavailable(Throwable cause) {
         return new TranslationException("LLM service is unavailable", cause);
     }
@@ -27,6 +31,10 @@ public final class TranslationException extends QueryMateException {
         return new TranslationException("Translation request timed out");
     }
 
+    public static TranslationException timeout(Throwable cause) {
+        return new TranslationException("Translation request timed out", cause);
+    }
+
     private static String truncate(String value, int maxLength) {
         if (value == null) return "null";
         if (value.length() <= maxLength) return value;
@@ -0,0 +1,20 @@
+package org.nexa.querymate.domain.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Value object holding the current counters of one component, in display order.
+ */
+public record MetricsSnapshot(
+        String source,
+        Map<String, Object> values
+) {
+
+    public MetricsSnapshot {
+        Objects.requireNonNull(source, "Source cannot be null");
+        values = Collections.unmodifiableMap(new LinkedHashMap<>(Objects.requireNonNull(values, "Values cannot be null")));
+    }
+}
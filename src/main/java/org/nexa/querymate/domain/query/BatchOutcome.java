@@ -0,0 +1,29 @@
+package org.nexa.querymate.domain.query;
+
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+
+import java.util.Objects;
+
+/**
+ * Value object for one question of a batch: its translation and, if the batch executes, the query run.
+ *
+ * @param index position of the question in the batch, from 0
+ * @param sql   the translation; null if translation failed
+ * @param query the executed query; null if the batch only translates or translation failed
+ * @param error why translation or execution failed; null on success
+ */
+public record BatchOutcome(
+        int index,
+        NaturalLanguageQuery question,
+        SqlStatement sql,
+        Query query,
+        String error
+) {
+    public BatchOutcome {
+        Objects.requireNonNull(question, "Question cannot be null");
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+}
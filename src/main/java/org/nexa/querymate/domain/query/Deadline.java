@@ -0,0 +1,57 @@
+package org.nexa.querymate.domain.query;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Value object for the time by which a request must have its result. Each stage takes what it needs from the
+ * time remaining and passes the rest on.
+ *
+ * @param expiresAt when the budget runs out
+ * @param budget    the time the request started with, or null if it is unbounded
+ */
+public record Deadline(
+        Instant expiresAt,
+        Duration budget
+) {
+    /**
+     * No deadline; stages take as long as they take.
+     */
+    public static final Deadline NONE = new Deadline(Instant.MAX, null);
+
+    public Deadline {
+        if (expiresAt == null) {
+            throw new IllegalArgumentException("Expiry cannot be null");
+        }
+    }
+
+    /**
+     * A deadline the given budget from now.
+     */
+    public static Deadline after(Duration budget) {
+        return new Deadline(Instant.now().plus(budget), budget);
+    }
+
+    public boolean isBounded() {
+        return budget != null;
+    }
+
+    /**
+     * The time left, never negative; only meaningful for a bounded deadline.
+     */
+    public Duration remaining() {
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    /**
+     * The time spent since the deadline was set; only meaningful for a bounded deadline.
+     */
+    public Duration elapsed() {
+        return budget.minus(remaining());
+    }
+
+    public boolean isExpired() {
+        return isBounded() && !Instant.now().isBefore(expiresAt);
+    }
+}
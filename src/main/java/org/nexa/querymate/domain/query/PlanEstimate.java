@@ -0,0 +1,21 @@
+package org.nexa.querymate.domain.query;
+
+/**
+ * Value object for the planner's estimate of what a statement would cost to run.
+ *
+ * @param totalCost the planner's total cost of the top plan node, in its arbitrary units
+ * @param rows      the number of rows the planner expects the statement to return
+ */
+public record PlanEstimate(
+        double totalCost,
+        long rows
+) {
+    public PlanEstimate {
+        if (totalCost < 0) {
+            throw new IllegalArgumentException("Total cost cannot be negative");
+        }
+        if (rows < 0) {
+            throw new IllegalArgumentException("Rows cannot be negative");
+        }
+    }
+}
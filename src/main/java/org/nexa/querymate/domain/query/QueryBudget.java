@@ -0,0 +1,30 @@
+package org.nexa.querymate.domain.query;
+
+import java.time.Duration;
+
+/**
+ * Value object for how long a natural language query may take from the question to its result.
+ *
+ * @param total the time from receiving the question to having the rows
+ */
+public record QueryBudget(
+        Duration total
+) {
+    /**
+     * The budget when none is configured.
+     */
+    public static final QueryBudget DEFAULT = new QueryBudget(Duration.ofMinutes(2));
+
+    public QueryBudget {
+        if (total == null || total.isNegative() || total.isZero()) {
+            throw new IllegalArgumentException("Budget must be positive");
+        }
+    }
+
+    /**
+     * The deadline of a request starting now.
+     */
+    public Deadline start() {
+        return Deadline.after(total);
+    }
+}
@@ -1,6 +1,8 @@
 package org.nexa.querymate.domain.query;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -15,8 +17,9 @@ public record QueryResult(
 
     public QueryResult {
         columns = List.copyOf(Objects.requireNonNull(columns, "Columns cannot be null"));
+        // Rows may hold SQL NULLs, which List.copyOf rejects
         rows = rows.stream()
-                .map(List::copyOf)
+                .map(row -> Collections.unmodifiableList(new ArrayList<>(row)))
                 .toList();
         Objects.requireNonNull(metadata, "Metadata cannot be null");
     }
@@ -55,15 +58,46 @@ public record QueryResult(
         return rows.isEmpty();
     }
 
+    /**
+     * Returns a copy of this result with the given metadata.
+     */
+    public QueryResult withMetadata(QueryMetadata metadata) {
+        return new QueryResult(columns, rows, metadata);
+    }
+
     /**
      * Metadata about query execution.
+     *
+     * @param timings  labelled durations of individual execution steps (e.g. per shard)
+     * @param warnings non-fatal problems encountered while producing the result
      */
     public record QueryMetadata(
             int affectedRows,
-            Duration executionTime
+            Duration executionTime,
+            List<Timing> timings,
+            List<String> warnings
     ) {
         public QueryMetadata {
             Objects.requireNonNull(executionTime, "Execution time cannot be null");
+            timings = timings == null ? List.of() : List.copyOf(timings);
+            warnings = warnings == null ? List.of() : List.copyOf(warnings);
+        }
+
+        public QueryMetadata(int affectedRows, Duration executionTime) {
+            this(affectedRows, executionTime, List.of(), List.of());
+        }
+    }
+
+    /**
+     * A labelled duration recorded while executing a query.
+     */
+    public record Timing(
+            String label,
+            Duration duration
+    ) {
+        public Timing {
+            Objects.requireNonNull(label, "Label cannot be null");
+            Objects.requireNonNull(duration, "Duration cannot be null");
         }
     }
 }
@@ -0,0 +1,287 @@
+package org.nexa.querymate.domain.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Lightweight SQL tokenizer.
+ * Splits a statement into words, literals and punctuation while skipping whitespace and comments.
+ * It does not validate grammar; it only gives callers enough structure to inspect a statement
+ * without being fooled by keywords inside string literals, quoted identifiers or comments.
+ */
+public final class SqlLexer {
+
+    private SqlLexer() {
+    }
+
+    /**
+     * Token categories produced by the lexer.
+     */
+    public enum TokenType {
+        /**
+         * Unquoted identifier or keyword.
+         */
+        WORD,
+        /**
+         * Double-quoted identifier.
+         */
+        QUOTED_IDENTIFIER,
+        /**
+         * Single-quoted or dollar-quoted string literal.
+         */
+        STRING,
+        /**
+         * Numeric literal.
+         */
+        NUMBER,
+        /**
+         * Positional parameter such as {@code $1} or {@code ?}.
+         */
+        PARAMETER,
+        /**
+         * Single punctuation character: parentheses, comma, semicolon, dot, brackets.
+         */
+        PUNCTUATION,
+        /**
+         * Operator made of one or more operator characters.
+         */
+        OPERATOR
+    }
+
+    /**
+     * A single token.
+     *
+     * @param depth parenthesis nesting level; parentheses carry the level of their enclosing expression
+     */
+    public record Token(
+            TokenType type,
+            String text,
+            int start,
+            int end,
+            int depth
+    ) {
+        public Token {
+            Objects.requireNonNull(type, "Token type cannot be null");
+            Objects.requireNonNull(text, "Token text cannot be null");
+        }
+
+        /**
+         * Returns true if this token is the given keyword (case-insensitive).
+         */
+        public boolean isKeyword(String keyword) {
+            return type == TokenType.WORD && text.equalsIgnoreCase(keyword);
+        }
+
+        /**
+         * Returns true if this token is the given punctuation character.
+         */
+        public boolean isPunctuation(char c) {
+            return type == TokenType.PUNCTUATION && text.length() == 1 && text.charAt(0) == c;
+        }
+
+        /**
+         * Returns true if this token sits at the top level of the statement.
+         */
+        public boolean isTopLevel() {
+            return depth == 0;
+        }
+    }
+
+    /**
+     * Tokenizes the given SQL text.
+     *
+     * @param sql the SQL to tokenize
+     * @return tokens in source order
+     */
+    public static List<Token> tokenize(String sql) {
+        Objects.requireNonNull(sql, "SQL cannot be null");
+
+        List<Token> tokens = new ArrayList<>();
+        int length = sql.length();
+        int depth = 0;
+        int i = 0;
+
+        while (i < length) {
+            char c = sql.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            // Line comment
+            if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int newline = sql.indexOf('\n', i);
+                i = newline == -1 ? length : newline + 1;
+                continue;
+            }
+
+            // Block comment (PostgreSQL allows nesting)
+            if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                i = skipBlockComment(sql, i);
+                continue;
+            }
+
+            int start = i;
+
+            if (c == '\'') {
+                i = skipQuoted(sql, i, '\'');
+                tokens.add(new Token(TokenType.STRING, sql.substring(start, i), start, i, depth));
+            } else if ((c == 'E' || c == 'e') && i + 1 < length && sql.charAt(i + 1) == '\'') {
+                i = skipEscapeString(sql, i + 1);
+                tokens.add(new Token(TokenType.STRING, sql.substring(start, i), start, i, depth));
+            } else if (c == '"') {
+                i = skipQuoted(sql, i, '"');
+                tokens.add(new Token(TokenType.QUOTED_IDENTIFIER, sql.substring(start, i), start, i, depth));
+            } else if (c == '$') {
+                int tagEnd = dollarTagEnd(sql, i);
+                if (tagEnd != -1) {
+                    String tag = sql.substring(i, tagEnd + 1);
+                    int close = sql.indexOf(tag, tagEnd + 1);
+                    i = close == -1 ? length : close + tag.length();
+                    tokens.add(new Token(TokenType.STRING, sql.substring(start, i), start, i, depth));
+                } else {
+                    i++;
+                    while (i < length && Character.isDigit(sql.charAt(i))) {
+                        i++;
+                    }
+                    tokens.add(new Token(TokenType.PARAMETER, sql.substring(start, i), start, i, depth));
+                }
+            } else if (c == '?') {
+                i++;
+                tokens.add(new Token(TokenType.PARAMETER, "?", start, i, depth));
+            } else if (Character.isDigit(c) || (c == '.' && i + 1 < length && Character.isDigit(sql.charAt(i + 1)))) {
+                i = skipNumber(sql, i);
+                tokens.add(new Token(TokenType.NUMBER, sql.substring(start, i), start, i, depth));
+            } else if (Character.isLetter(c) || c == '_') {
+                i++;
+                while (i < length && isWordPart(sql.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.WORD, sql.substring(start, i), start, i, depth));
+            } else if (c == '(') {
+                i++;
+                tokens.add(new Token(TokenType.PUNCTUATION, "(", start, i, depth));
+                depth++;
+            } else if (c == ')') {
+                i++;
+                depth = Math.max(0, depth - 1);
+                tokens.add(new Token(TokenType.PUNCTUATION, ")", start, i, depth));
+            } else if (c == ',' || c == ';' || c == '.' || c == '[' || c == ']') {
+                i++;
+                tokens.add(new Token(TokenType.PUNCTUATION, String.valueOf(c), start, i, depth));
+            } else {
+                i++;
+                while (i < length && isOperatorPart(sql.charAt(i))
+                        && !(sql.charAt(i) == '-' && i + 1 < length && sql.charAt(i + 1) == '-')
+                        && !(sql.charAt(i) == '/' && i + 1 < length && sql.charAt(i + 1) == '*')) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.OPERATOR, sql.substring(start, i), start, i, depth));
+            }
+        }
+
+        return List.copyOf(tokens);
+    }
+
+    private static int skipBlockComment(String sql, int i) {
+        int nesting = 0;
+        int length = sql.length();
+        while (i < length) {
+            if (sql.startsWith("/*", i)) {
+                nesting++;
+                i += 2;
+            } else if (sql.startsWith("*/", i)) {
+                nesting--;
+                i += 2;
+                if (nesting == 0) {
+                    return i;
+                }
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    private static int skipQuoted(String sql, int i, char quote) {
+        int length = sql.length();
+        i++;
+        while (i < length) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < length && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    private static int skipEscapeString(String sql, int i) {
+        int length = sql.length();
+        i++;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '\'') {
+                if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the index of the closing '$' of a dollar-quote tag starting at i, or -1 if none.
+     */
+    private static int dollarTagEnd(String sql, int i) {
+        int j = i + 1;
+        int length = sql.length();
+        if (j < length && Character.isDigit(sql.charAt(j))) {
+            return -1;
+        }
+        while (j < length && (Character.isLetterOrDigit(sql.charAt(j)) || sql.charAt(j) == '_')) {
+            j++;
+        }
+        return j < length && sql.charAt(j) == '$' ? j : -1;
+    }
+
+    private static int skipNumber(String sql, int i) {
+        int length = sql.length();
+        while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.' || sql.charAt(i) == '_')) {
+            i++;
+        }
+        if (i < length && (sql.charAt(i) == 'e' || sql.charAt(i) == 'E')) {
+            int j = i + 1;
+            if (j < length && (sql.charAt(j) == '+' || sql.charAt(j) == '-')) {
+                j++;
+            }
+            if (j < length && Character.isDigit(sql.charAt(j))) {
+                i = j;
+                while (i < length && Character.isDigit(sql.charAt(i))) {
+                    i++;
+                }
+            }
+        }
+        return i;
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    private static boolean isOperatorPart(char c) {
+        return "+-*/<>=~!@#%^&|`:".indexOf(c) != -1;
+    }
+}
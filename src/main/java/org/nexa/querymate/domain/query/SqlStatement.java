@@ -1,17 +1,27 @@
 package org.nexa.querymate.domain.query;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 /**
  * Value object representing a SQL statement to be executed.
+ * A statement may contain {@code ?} placeholders, bound in order to the parameters:
+ * numbers as numeric values, strings as untyped literals that PostgreSQL types by context.
  */
-public record SqlStatement(String value) {
+public record SqlStatement(String value, List<Object> parameters) {
 
     public SqlStatement {
         Objects.requireNonNull(value, "SQL statement cannot be null");
         if (value.isBlank()) {
             throw new IllegalArgumentException("SQL statement cannot be blank");
         }
+        parameters = parameters == null ? List.of() : Collections.unmodifiableList(new ArrayList<>(parameters));
+    }
+
+    public SqlStatement(String value) {
+        this(value, List.of());
     }
 
     /**
@@ -21,6 +31,25 @@ public record SqlStatement(String value) {
         return new SqlStatement(sql);
     }
 
+    /**
+     * Creates a SqlStatement with {@code ?} placeholders and their values.
+     */
+    public static SqlStatement parameterized(String sql, List<Object> parameters) {
+        return new SqlStatement(sql, parameters);
+    }
+
+    public boolean hasParameters() {
+        return !parameters.isEmpty();
+    }
+
+    /**
+     * Returns a statement with different SQL text and the same parameters,
+     * for rewrites that keep every placeholder in place.
+     */
+    public SqlStatement withValue(String sql) {
+        return new SqlStatement(sql, parameters);
+    }
+
     /**
      * Returns the SQL normalized (trimmed).
      */
@@ -28,6 +57,20 @@ public record SqlStatement(String value) {
         return value.strip();
     }
 
+    /**
+     * Classifies the statement by what it may do to the database.
+     */
+    public StatementKind kind() {
+        return StatementClassifier.classify(value);
+    }
+
+    /**
+     * Returns true if the statement only reads data.
+     */
+    public boolean isReadOnly() {
+        return kind() == StatementKind.READ;
+    }
+
     @Override
     public String toString() {
         return value;
@@ -0,0 +1,80 @@
+package org.nexa.querymate.domain.query;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Comparison and arithmetic on column values as returned by JDBC, for combining results client-side.
+ * Numbers of different Java types (e.g. an int4 and an int8 column) compare and add as numbers.
+ */
+public final class SqlValues {
+
+    private SqlValues() {
+    }
+
+    /**
+     * Compares two non-null values: numerically for numbers, naturally for comparable values
+     * of the same type, and by their string form otherwise.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static int compare(Object a, Object b) {
+        if (a instanceof Number na && b instanceof Number nb && a.getClass() != b.getClass()) {
+            return toBigDecimal(na).compareTo(toBigDecimal(nb));
+        }
+        if (a instanceof Comparable ca && a.getClass().isInstance(b)) {
+            return ca.compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    /**
+     * Adds two numbers, staying integral where possible and widening instead of overflowing.
+     */
+    public static Number add(Number a, Number b) {
+        if (isIntegral(a) && isIntegral(b)) {
+            try {
+                return Math.addExact(a.longValue(), b.longValue());
+            } catch (ArithmeticException e) {
+                return BigInteger.valueOf(a.longValue()).add(BigInteger.valueOf(b.longValue()));
+            }
+        }
+        if (a instanceof Double || a instanceof Float || b instanceof Double || b instanceof Float) {
+            return a.doubleValue() + b.doubleValue();
+        }
+        return toBigDecimal(a).add(toBigDecimal(b));
+    }
+
+    /**
+     * Returns a value whose {@code equals} and {@code hashCode} agree with numeric equality,
+     * so that e.g. {@code 42}, {@code 42L} and {@code 42.0} land in the same hash bucket.
+     * Non-numeric values are returned unchanged.
+     */
+    public static Object hashKey(Object value) {
+        if (!(value instanceof Number n)) {
+            return value;
+        }
+        if (isIntegral(n)) {
+            return n.longValue();
+        }
+        BigDecimal decimal = toBigDecimal(n).stripTrailingZeros();
+        try {
+            return decimal.longValueExact();
+        } catch (ArithmeticException e) {
+            return decimal;
+        }
+    }
+
+    public static BigDecimal toBigDecimal(Number n) {
+        if (n instanceof BigDecimal bd) {
+            return bd;
+        }
+        if (n instanceof BigInteger bi) {
+            return new BigDecimal(bi);
+        }
+        return new BigDecimal(n.toString());
+    }
+
+    private static boolean isIntegral(Number n) {
+        return n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte;
+    }
+}
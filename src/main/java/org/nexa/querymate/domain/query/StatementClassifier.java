@@ -0,0 +1,147 @@
+package org.nexa.querymate.domain.query;
+
+import org.nexa.querymate.domain.query.SqlLexer.Token;
+import org.nexa.querymate.domain.query.SqlLexer.TokenType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Classifies SQL statements by what they may do to the database.
+ * Errs on the side of {@link StatementKind#WRITE}: anything it does not positively
+ * recognise as read-only is treated as a write.
+ */
+public final class StatementClassifier {
+
+    private static final Set<String> READ_COMMANDS = Set.of("select", "with", "values", "table", "show");
+
+    private static final Set<String> MODIFYING_KEYWORDS = Set.of(
+            "insert", "update", "delete", "merge", "into", "truncate", "copy", "lock"
+    );
+
+    /**
+     * Functions that write, take locks or need a transaction ID, none of which work on a hot standby.
+     */
+    private static final Set<String> SIDE_EFFECT_FUNCTIONS = Set.of(
+            "nextval", "setval", "set_config", "pg_notify", "txid_current", "pg_current_xact_id",
+            "pg_advisory_lock", "pg_advisory_xact_lock", "pg_try_advisory_lock", "pg_try_advisory_xact_lock",
+            "pg_advisory_lock_shared", "pg_advisory_xact_lock_shared",
+            "pg_terminate_backend", "pg_cancel_backend", "pg_reload_conf", "pg_switch_wal",
+            "lo_import", "lo_export", "lo_create", "lo_unlink", "dblink_exec"
+    );
+
+    private StatementClassifier() {
+    }
+
+    /**
+     * Classifies the given SQL. Multiple statements separated by semicolons are read-only
+     * only if each of them is.
+     */
+    public static StatementKind classify(String sql) {
+        List<List<Token>> statements = splitStatements(SqlLexer.tokenize(sql));
+        if (statements.isEmpty()) {
+            return StatementKind.WRITE;
+        }
+        if (statements.size() == 1) {
+            return classifySingle(statements.get(0));
+        }
+        for (List<Token> statement : statements) {
+            if (classifySingle(statement) != StatementKind.READ) {
+                return StatementKind.WRITE;
+            }
+        }
+        return StatementKind.READ;
+    }
+
+    private static StatementKind classifySingle(List<Token> tokens) {
+        Token first = tokens.get(0);
+        if (first.type() != TokenType.WORD) {
+            return first.isPunctuation('(') ? classifyRead(tokens) : StatementKind.WRITE;
+        }
+
+        String command = first.text().toLowerCase(Locale.ROOT);
+        return switch (command) {
+            case "begin", "start" -> StatementKind.BEGIN_TRANSACTION;
+            case "commit", "end", "abort" -> StatementKind.END_TRANSACTION;
+            case "rollback" -> tokens.stream().anyMatch(t -> t.isKeyword("to"))
+                    ? StatementKind.WRITE
+                    : StatementKind.END_TRANSACTION;
+            case "explain" -> classifyExplain(tokens);
+            default -> READ_COMMANDS.contains(command) ? classifyRead(tokens) : StatementKind.WRITE;
+        };
+    }
+
+    private static StatementKind classifyExplain(List<Token> tokens) {
+        boolean analyze = false;
+        int i = 1;
+        // EXPLAIN ANALYZE VERBOSE ... or EXPLAIN (ANALYZE, BUFFERS) ...
+        while (i < tokens.size()) {
+            Token t = tokens.get(i);
+            if (t.isPunctuation('(') && t.isTopLevel()) {
+                while (i < tokens.size() && !(tokens.get(i).isPunctuation(')') && tokens.get(i).isTopLevel())) {
+                    if (tokens.get(i).isKeyword("analyze") || tokens.get(i).isKeyword("analyse")) {
+                        analyze = true;
+                    }
+                    i++;
+                }
+                i++;
+            } else if (t.isKeyword("analyze") || t.isKeyword("analyse")) {
+                analyze = true;
+                i++;
+            } else if (t.isKeyword("verbose")) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        if (i >= tokens.size()) {
+            return StatementKind.WRITE;
+        }
+        // Without ANALYZE the statement is only planned, never executed
+        if (!analyze) {
+            return StatementKind.READ;
+        }
+        return classifySingle(tokens.subList(i, tokens.size())) == StatementKind.READ
+                ? StatementKind.READ
+                : StatementKind.WRITE;
+    }
+
+    private static StatementKind classifyRead(List<Token> tokens) {
+        for (int i = 0; i < tokens.size(); i++) {
+            Token t = tokens.get(i);
+            if (t.type() != TokenType.WORD) {
+                continue;
+            }
+            String word = t.text().toLowerCase(Locale.ROOT);
+            // Data-modifying CTEs, SELECT INTO, row locks
+            if (MODIFYING_KEYWORDS.contains(word)) {
+                return StatementKind.WRITE;
+            }
+            if (word.equals("for") && i + 1 < tokens.size()
+                    && (tokens.get(i + 1).isKeyword("update") || tokens.get(i + 1).isKeyword("share")
+                    || tokens.get(i + 1).isKeyword("no") || tokens.get(i + 1).isKeyword("key"))) {
+                return StatementKind.WRITE;
+            }
+            if (SIDE_EFFECT_FUNCTIONS.contains(word) && i + 1 < tokens.size() && tokens.get(i + 1).isPunctuation('(')) {
+                return StatementKind.WRITE;
+            }
+        }
+        return StatementKind.READ;
+    }
+
+    private static List<List<Token>> splitStatements(List<Token> tokens) {
+        List<List<Token>> statements = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= tokens.size(); i++) {
+            if (i == tokens.size() || tokens.get(i).isPunctuation(';')) {
+                if (i > start) {
+                    statements.add(tokens.subList(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return statements;
+    }
+}
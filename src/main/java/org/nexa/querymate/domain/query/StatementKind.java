@@ -0,0 +1,26 @@
+package org.nexa.querymate.domain.query;
+
+/**
+ * Coarse classification of a SQL statement, used to decide where it may run.
+ */
+public enum StatementKind {
+    /**
+     * Statement only reads data and may run on a read replica.
+     */
+    READ,
+
+    /**
+     * Statement modifies data, schema or session state, or could not be classified.
+     */
+    WRITE,
+
+    /**
+     * Statement opens an explicit transaction block.
+     */
+    BEGIN_TRANSACTION,
+
+    /**
+     * Statement commits or rolls back the current transaction block.
+     */
+    END_TRANSACTION
+}
@@ -0,0 +1,29 @@
+package org.nexa.querymate.domain.translation;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Value object describing how the model generated one translation.
+ *
+ * @param timeToFirstToken time from sending the request to receiving the first text; null if none arrived
+ * @param total            time from sending the request until generation ended
+ * @param tokens           tokens the model generated, as reported or else counted from the streamed chunks
+ * @param usedTokens       tokens up to the end of the statement; the rest were generated for nothing
+ * @param stoppedEarly     true if generation was cut off once a complete statement had arrived
+ * @param promptTokens     prompt tokens the model evaluated, excluding any it had cached; 0 if not reported
+ * @param promptEvalTime   time the model spent evaluating the prompt; null if not reported
+ */
+public record GenerationStats(
+        Duration timeToFirstToken,
+        Duration total,
+        int tokens,
+        int usedTokens,
+        boolean stoppedEarly,
+        int promptTokens,
+        Duration promptEvalTime
+) {
+    public GenerationStats {
+        Objects.requireNonNull(total, "Total duration cannot be null");
+    }
+}
@@ -0,0 +1,26 @@
+package org.nexa.querymate.domain.translation;
+
+/**
+ * Whether the translation model can answer without first being loaded.
+ */
+public enum ModelReadiness {
+    /**
+     * The model is being loaded and the schema prompt evaluated.
+     */
+    WARMING,
+
+    /**
+     * The model is loaded; the next translation starts generating immediately.
+     */
+    READY,
+
+    /**
+     * The model is not loaded; the next translation pays the load time.
+     */
+    NOT_LOADED,
+
+    /**
+     * The model server could not be reached.
+     */
+    UNAVAILABLE
+}
@@ -0,0 +1,25 @@
+package org.nexa.querymate.domain.translation;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Value object describing the state of the translation model.
+ *
+ * @param residentUntil when the server unloads the model unless it is used again; null if not loaded
+ * @param lastWarmUp    how long the last completed warm-up took; null if none completed
+ * @param detail        why the model is unavailable; null otherwise
+ */
+public record ModelStatus(
+        String model,
+        ModelReadiness readiness,
+        Instant residentUntil,
+        Duration lastWarmUp,
+        String detail
+) {
+    public ModelStatus {
+        Objects.requireNonNull(model, "Model cannot be null");
+        Objects.requireNonNull(readiness, "Readiness cannot be null");
+    }
+}
@@ -22,10 +22,22 @@ public record NaturalLanguageQuery(String value) {
     }
 
     /**
-     * Returns the query normalized (trimmed).
+     * Returns the query normalized for comparison: whitespace collapsed, trailing punctuation dropped
+     * and letters lowercased, except inside quotes where the case may matter to the generated SQL.
      */
     public String normalized() {
-        return value.strip();
+        String collapsed = value.strip().replaceAll("\\s+", " ").replaceAll("[\\s?.!]+$", "");
+        StringBuilder sb = new StringBuilder(collapsed.length());
+        char quote = 0;
+        for (char c : collapsed.toCharArray()) {
+            if (quote == 0 && (c == '\'' || c == '"')) {
+                quote = c;
+            } else if (c == quote) {
+                quote = 0;
+            }
+            sb.append(quote == 0 ? Character.toLowerCase(c) : c);
+        }
+        return sb.toString();
     }
 
     @Override
@@ -1,5 +1,10 @@
 package org.nexa.querymate.domain.translation;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Objects;
 
@@ -21,6 +26,55 @@ public record SchemaContext(
         return new SchemaContext(List.of());
     }
 
+    /**
+     * Returns this schema with every table written as {@code @connection.table}, the notation
+     * cross-database queries use to say which connection a table lives on.
+     */
+    public SchemaContext qualifiedBy(String connectionName) {
+        String prefix = "@" + connectionName;
+        return new SchemaContext(tables.stream()
+                .map(table -> new TableInfo(
+                        table.fullName().equals(table.tableName()) ? prefix : prefix + "." + table.schemaName(),
+                        table.tableName(),
+                        table.columns(),
+                        table.relations().stream()
+                                .map(relation -> new RelationInfo(
+                                        relation.columnName(),
+                                        prefix + "." + relation.referencedTable(),
+                                        relation.referencedColumn()))
+                                .toList()))
+                .toList());
+    }
+
+    /**
+     * Merges the tables of several schemas into one context.
+     */
+    public static SchemaContext combine(List<SchemaContext> contexts) {
+        List<TableInfo> tables = new ArrayList<>();
+        contexts.forEach(context -> tables.addAll(context.tables()));
+        return new SchemaContext(tables);
+    }
+
+    /**
+     * Returns true if the tables are qualified with connection names, see {@link #qualifiedBy(String)}.
+     */
+    public boolean isFederated() {
+        return tables.stream().anyMatch(table -> table.schemaName() != null && table.schemaName().startsWith("@"));
+    }
+
+    /**
+     * Returns a short hash of the prompt text, equal for two contexts exactly when the LLM sees the same schema.
+     */
+    public String fingerprint() {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(toPromptString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     /**
      * Represents information about a database table.
      */
@@ -42,6 +96,36 @@ public record SchemaContext(
             }
             return schemaName + "." + tableName;
         }
+
+        /**
+         * Formats this table as it appears in {@link SchemaContext#toPromptString()}.
+         */
+        public String toPromptString() {
+            StringBuilder sb = new StringBuilder("Table: ").append(fullName()).append("\n");
+            sb.append("Columns:\n");
+            for (ColumnInfo column : columns) {
+                sb.append("  - ").append(column.name())
+                        .append(" (").append(column.dataType()).append(")");
+                if (column.primaryKey()) {
+                    sb.append(" PRIMARY KEY");
+                }
+                if (!column.nullable()) {
+                    sb.append(" NOT NULL");
+                }
+                sb.append("\n");
+            }
+            if (!relations.isEmpty()) {
+                sb.append("Relations:\n");
+                for (RelationInfo relation : relations) {
+                    sb.append("  - ").append(relation.columnName())
+                            .append(" -> ").append(relation.referencedTable())
+                            .append(".").append(relation.referencedColumn())
+                            .append("\n");
+                }
+            }
+            sb.append("\n");
+            return sb.toString();
+        }
     }
 
     /**
@@ -84,30 +168,24 @@ public record SchemaContext(
 
         StringBuilder sb = new StringBuilder("Database Schema:\n\n");
         for (TableInfo table : tables) {
-            sb.append("Table: ").append(table.fullName()).append("\n");
-            sb.append("Columns:\n");
-            for (ColumnInfo column : table.columns) {
-                sb.append("  - ").append(column.name())
-                        .append(" (").append(column.dataType()).append(")");
-                if (column.primaryKey()) {
-                    sb.append(" PRIMARY KEY");
-                }
-                if (!column.nullable()) {
-                    sb.append(" NOT NULL");
-                }
-                sb.append("\n");
-            }
-            if (!table.relations.isEmpty()) {
-                sb.append("Relations:\n");
-                for (RelationInfo relation : table.relations) {
-                    sb.append("  - ").append(relation.columnName())
-                            .append(" -> ").append(relation.referencedTable())
-                            .append(".").append(relation.referencedColumn())
-                            .append("\n");
-                }
-            }
-            sb.append("\n");
+            sb.append(table.toPromptString());
         }
+        sb.append(federationInstructions());
         return sb.toString();
     }
+
+    /**
+     * How to write queries across the databases of a federated schema; empty for a single database.
+     */
+    public String federationInstructions() {
+        if (!isFederated()) {
+            return "";
+        }
+        return """
+                The tables live in different databases. Write each table exactly as listed, including \
+                its @connection prefix, give every table an alias and qualify every column with its alias. \
+                Combine tables only with INNER JOIN ... ON equality conditions; do not use subqueries, \
+                DISTINCT, HAVING, UNION or window functions.
+                """;
+    }
 }
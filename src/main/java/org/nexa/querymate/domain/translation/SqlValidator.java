@@ -0,0 +1,43 @@
+package org.nexa.querymate.domain.translation;
+
+import org.nexa.querymate.domain.query.PlanEstimate;
+import org.nexa.querymate.domain.query.SqlStatement;
+
+/**
+ * Cheaply checks a generated statement against the database it is meant for, without running it.
+ */
+@FunctionalInterface
+public interface SqlValidator {
+
+    SqlValidator NONE = sql -> Verdict.unchecked();
+
+    /**
+     * Returns what is wrong with the statement, or what the database expects it to cost if nothing is.
+     */
+    Verdict check(SqlStatement sql);
+
+    /**
+     * Outcome of a check.
+     *
+     * @param problem  what is wrong with the statement; null if it looks runnable
+     * @param estimate the planner's estimate; null if the statement was rejected or could not be planned
+     */
+    record Verdict(String problem, PlanEstimate estimate) {
+
+        public static Verdict unchecked() {
+            return new Verdict(null, null);
+        }
+
+        public static Verdict valid(PlanEstimate estimate) {
+            return new Verdict(null, estimate);
+        }
+
+        public static Verdict rejected(String problem) {
+            return new Verdict(problem, null);
+        }
+
+        public boolean isValid() {
+            return problem == null;
+        }
+    }
+}
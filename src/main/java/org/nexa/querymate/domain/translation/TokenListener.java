@@ -0,0 +1,23 @@
+package org.nexa.querymate.domain.translation;
+
+/**
+ * Receives the text of a translation while the model is still generating it.
+ * Translations that are not generated token by token (cached ones, for example) produce no calls.
+ */
+@FunctionalInterface
+public interface TokenListener {
+
+    TokenListener NONE = token -> {
+    };
+
+    /**
+     * Called with each piece of generated text, in order.
+     */
+    void onToken(String token);
+
+    /**
+     * Called once generation has ended, whether the model finished or was stopped.
+     */
+    default void onFinished(GenerationStats stats) {
+    }
+}
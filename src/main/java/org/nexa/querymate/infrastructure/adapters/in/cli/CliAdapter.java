@@ -1,21 +1,43 @@
 package org.nexa.querymate.infrastructure.adapters.in.cli;
 
 import org.nexa.querymate.application.ports.in.ConnectionServicePort;
+import org.nexa.querymate.application.ports.in.MetricsServicePort;
+import org.nexa.querymate.application.ports.in.ModelServicePort;
 import org.nexa.querymate.application.ports.in.QueryServicePort;
 import org.nexa.querymate.domain.connection.Connection;
 import org.nexa.querymate.domain.connection.ConnectionConfig;
+import org.nexa.querymate.domain.connection.HostAddress;
+import org.nexa.querymate.domain.connection.HostStatus;
 import org.nexa.querymate.domain.exception.QueryMateException;
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
+import org.nexa.querymate.domain.query.BatchOutcome;
 import org.nexa.querymate.domain.query.Query;
 import org.nexa.querymate.domain.query.QueryResult;
 import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.GenerationStats;
+import org.nexa.querymate.domain.translation.ModelStatus;
 import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.TokenListener;
+import org.nexa.querymate.infrastructure.config.BatchProperties;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * CLI adapter for interactive QueryMate usage.
@@ -25,9 +47,13 @@ public class CliAdapter implements CommandLineRunner {
 
     private static final String PROMPT = "querymate> ";
     private static final String NL_PREFIX = "?";
+    private static final String TARGET_PREFIX = "@";
 
     private final ConnectionServicePort connectionService;
     private final QueryServicePort queryService;
+    private final MetricsServicePort metricsService;
+    private final ModelServicePort modelService;
+    private final BatchProperties batchProperties;
     private final PrintStream out;
     private final BufferedReader reader;
 
@@ -35,10 +61,16 @@ public class CliAdapter implements CommandLineRunner {
 
     public CliAdapter(
             ConnectionServicePort connectionService,
-            QueryServicePort queryService
+            QueryServicePort queryService,
+            MetricsServicePort metricsService,
+            ModelServicePort modelService,
+            BatchProperties batchProperties
     ) {
         this.connectionService = connectionService;
         this.queryService = queryService;
+        this.metricsService = metricsService;
+        this.modelService = modelService;
+        this.batchProperties = batchProperties;
         this.out = System.out;
         this.reader = new BufferedReader(new InputStreamReader(System.in));
     }
@@ -46,9 +78,10 @@ public class CliAdapter implements CommandLineRunner {
     @Override
     public void run(String... args) throws Exception {
         printWelcome();
+        modelService.warmUp();
 
         while (running) {
-            out.print(PROMPT);
+            out.print(prompt());
             out.flush();
 
             String line = reader.readLine();
@@ -92,7 +125,22 @@ public class CliAdapter implements CommandLineRunner {
         }
 
         if (lower.equals("\\d") || lower.equals("disconnect")) {
-            handleDisconnect();
+            handleDisconnect(null);
+            return;
+        }
+
+        if (lower.startsWith("\\d ") || lower.startsWith("disconnect ")) {
+            handleDisconnect(input.split("\\s+", 2)[1].strip());
+            return;
+        }
+
+        if (lower.startsWith("\\u ") || lower.startsWith("use ")) {
+            handleSwitch(input.split("\\s+", 2)[1].strip());
+            return;
+        }
+
+        if (lower.equals("\\l") || lower.equals("connections")) {
+            handleListConnections();
             return;
         }
 
@@ -101,22 +149,44 @@ public class CliAdapter implements CommandLineRunner {
             return;
         }
 
+        if (lower.equals("\\m") || lower.equals("metrics")) {
+            handleMetrics();
+            return;
+        }
+
+        if (lower.startsWith("\\b ") || lower.startsWith("batch ")) {
+            handleBatch(input.split("\\s+", 2)[1].strip());
+            return;
+        }
+
+        // Query on a named connection (starts with @name)
+        String target = null;
+        if (input.startsWith(TARGET_PREFIX)) {
+            String[] parts = input.substring(1).split("\\s+", 2);
+            if (parts.length < 2 || parts[0].isEmpty()) {
+                printError("Usage: @connection <sql> or @connection ? <question>");
+                return;
+            }
+            target = parts[0];
+            input = parts[1].strip();
+        }
+
         // Natural language query (starts with ?)
         if (input.startsWith(NL_PREFIX)) {
-            handleNaturalLanguageQuery(input.substring(1).strip());
+            handleNaturalLanguageQuery(target, input.substring(1).strip());
             return;
         }
 
         // Direct SQL query
-        handleSqlQuery(input);
+        handleSqlQuery(target, input);
     }
 
     private void handleConnect(String input) {
-        // Parse: \c host:port/database user password
-        // or: connect host:port/database user password
+        // Parse: \c [name=]host:port/database user password
+        // or: connect [name=]host:port/database user password
         String[] parts = input.split("\\s+", 4);
         if (parts.length < 4) {
-            printError("Usage: \\c host:port/database username password");
+            printError("Usage: \\c [name=]host:port/database username password");
             return;
         }
 
@@ -124,20 +194,39 @@ public class CliAdapter implements CommandLineRunner {
         String username = parts[2];
         String password = parts[3];
 
+        String name = null;
+        int equalsIdx = connectionString.indexOf('=');
+        int queryIdx = connectionString.indexOf('?');
+        if (equalsIdx != -1 && (queryIdx == -1 || equalsIdx < queryIdx)) {
+            name = connectionString.substring(0, equalsIdx);
+            connectionString = connectionString.substring(equalsIdx + 1);
+        }
+
         try {
             ConnectionConfig config = parseConnectionString(connectionString, username, password);
-            Connection connection = connectionService.connect(config);
-            out.println("Connected to " + config.toDisplayString());
+            Connection connection = name != null
+                    ? connectionService.connect(name, config)
+                    : connectionService.connect(config);
+            out.println("Connected to %s as '%s'".formatted(config.toDisplayString(), connection.name()));
         } catch (IllegalArgumentException e) {
             printError("Invalid connection string: " + e.getMessage());
         }
     }
 
     private ConnectionConfig parseConnectionString(String connectionString, String username, String password) {
-        // Format: host:port/database or host/database (port defaults to 5432)
+        // Format: host:port/database or host/database (port defaults to 5432),
+        // with further candidate hosts as host1:port,host2:port/database,
+        // optionally followed by ?replicas=host:port,host:port
         String host;
         int port = 5432;
         String database;
+        List<HostAddress> replicas = List.of();
+
+        int queryIdx = connectionString.indexOf('?');
+        if (queryIdx != -1) {
+            replicas = parseReplicas(connectionString.substring(queryIdx + 1));
+            connectionString = connectionString.substring(0, queryIdx);
+        }
 
         int slashIdx = connectionString.indexOf('/');
         if (slashIdx == -1) {
@@ -149,7 +238,11 @@ public class CliAdapter implements CommandLineRunner {
             throw new IllegalArgumentException("Database name cannot be empty");
         }
 
-        String hostPort = connectionString.substring(0, slashIdx);
+        String[] hostList = connectionString.substring(0, slashIdx).split(",", -1);
+        String hostPort = hostList[0];
+        List<HostAddress> alternateHosts = Arrays.stream(hostList, 1, hostList.length)
+                .map(HostAddress::parse)
+                .toList();
         if (hostPort.isBlank()) {
             throw new IllegalArgumentException("Host cannot be empty");
         }
@@ -173,50 +266,256 @@ public class CliAdapter implements CommandLineRunner {
             }
         }
 
-        return new ConnectionConfig(host, port, database, username, password);
+        return new ConnectionConfig(host, port, database, username, password, replicas, alternateHosts);
     }
 
-    private void handleDisconnect() {
-        connectionService.activeConnection().ifPresentOrElse(
+    private List<HostAddress> parseReplicas(String options) {
+        if (!options.startsWith("replicas=")) {
+            throw new IllegalArgumentException("Unknown connection option: '" + options + "'. Use ?replicas=host:port,...");
+        }
+        return Arrays.stream(options.substring("replicas=".length()).split(","))
+                .filter(replica -> !replica.isBlank())
+                .map(HostAddress::parse)
+                .toList();
+    }
+
+    private void handleDisconnect(String name) {
+        Optional<Connection> target = name == null
+                ? connectionService.activeConnection()
+                : connectionService.connection(name);
+        target.ifPresentOrElse(
                 connection -> {
                     connectionService.disconnect(connection.id());
-                    out.println("Disconnected.");
+                    out.println("Disconnected '%s'.".formatted(connection.name()));
+                    connectionService.activeConnection()
+                            .ifPresent(active -> out.println("Active connection: " + active.name()));
                 },
-                () -> out.println("Not connected.")
+                () -> out.println(name == null ? "Not connected." : "No open connection named '%s'.".formatted(name))
         );
     }
 
+    private void handleSwitch(String name) {
+        Connection connection = connectionService.switchTo(name);
+        out.println("Switched to '%s' (%s)".formatted(connection.name(), connection.config().toDisplayString()));
+    }
+
+    private void handleListConnections() {
+        List<Connection> connections = connectionService.connections();
+        if (connections.isEmpty()) {
+            out.println("Not connected.");
+            return;
+        }
+        String activeName = connectionService.activeConnection().map(Connection::name).orElse(null);
+        for (Connection connection : connections) {
+            out.println("%s %-16s %s".formatted(
+                    connection.name().equals(activeName) ? "*" : " ",
+                    connection.name(),
+                    connection.config().toDisplayString()
+            ));
+        }
+    }
+
     private void handleStatus() {
         connectionService.activeConnection().ifPresentOrElse(
                 connection -> {
+                    out.println("Connection: " + connection.name());
                     out.println("Connected to: " + connection.config().toDisplayString());
                     out.println("Status: " + connection.status());
                     if (connection.connectedAt() != null) {
                         out.println("Connected since: " + connection.connectedAt());
                     }
+                    printHostStatuses(connectionService.hostStatuses());
                 },
                 () -> out.println("Not connected.")
         );
+        printModelStatus(modelService.status());
+    }
+
+    private void printModelStatus(ModelStatus status) {
+        String line = switch (status.readiness()) {
+            case WARMING -> "warming up";
+            case READY -> status.residentUntil() == null || status.residentUntil().equals(Instant.MAX)
+                    ? "ready"
+                    : "ready (loaded until %s)".formatted(LocalTime.ofInstant(status.residentUntil(), ZoneId.systemDefault())
+                            .truncatedTo(ChronoUnit.SECONDS));
+            case NOT_LOADED -> "not loaded";
+            case UNAVAILABLE -> "unavailable: " + status.detail();
+        };
+        out.println("Model: " + status.model() + " " + line);
+        if (status.lastWarmUp() != null) {
+            out.println("Last warm-up: " + status.lastWarmUp().toMillis() + "ms");
+        }
+    }
+
+    private void printHostStatuses(List<HostStatus> statuses) {
+        if (statuses.isEmpty()) {
+            return;
+        }
+        out.println("Hosts:");
+        for (HostStatus status : statuses) {
+            StringBuilder line = new StringBuilder("  %-8s %-28s %-9s".formatted(
+                    status.role().name().toLowerCase(),
+                    status.address(),
+                    status.healthy() ? "up" : "down"
+            ));
+            line.append(status.latency() != null ? "%8.1f ms".formatted(status.latency().toNanos() / 1_000_000.0) : "%11s".formatted("-"));
+            if (status.detail() != null) {
+                line.append("  ").append(status.detail());
+            }
+            out.println(line.toString().stripTrailing());
+        }
+    }
+
+    private void handleMetrics() {
+        List<MetricsSnapshot> snapshots = metricsService.metrics();
+        if (snapshots.isEmpty()) {
+            out.println("No metrics available.");
+            return;
+        }
+        for (MetricsSnapshot snapshot : snapshots) {
+            out.println(snapshot.source() + ":");
+            snapshot.values().forEach((name, value) -> out.println("  %-20s %s".formatted(name, value)));
+        }
     }
 
-    private void handleNaturalLanguageQuery(String query) {
+    private void handleNaturalLanguageQuery(String target, String query) {
         if (query.isEmpty()) {
             printError("Empty query. Usage: ? <your question>");
             return;
         }
 
         out.println("Translating...");
-        Query result = queryService.executeNaturalLanguage(NaturalLanguageQuery.of(query));
+        NaturalLanguageQuery question = NaturalLanguageQuery.of(query);
+        TokenListener echo = new TokenListener() {
+            @Override
+            public void onToken(String token) {
+                out.print(token);
+                out.flush();
+            }
+
+            @Override
+            public void onFinished(GenerationStats stats) {
+                if (stats.usedTokens() > 0) {
+                    out.println();
+                }
+            }
+        };
+        Query result;
+        if (target == null) {
+            result = queryService.executeNaturalLanguage(question, echo);
+        } else if (target.contains(",")) {
+            result = queryService.executeNaturalLanguage(List.of(target.split(",")), question, echo);
+        } else {
+            result = queryService.executeNaturalLanguage(target, question, echo);
+        }
 
         out.println("\nGenerated SQL:");
         out.println(result.statement().value());
+        if (result.statement().hasParameters()) {
+            out.println("Parameters: " + result.statement().parameters());
+        }
         out.println();
 
         printQueryResult(result);
     }
 
-    private void handleSqlQuery(String sql) {
-        Query result = queryService.executeSql(SqlStatement.of(sql));
+    private void handleBatch(String arguments) {
+        // Parse: \b <questions-file> [--no-exec] [--out <sql-file>]
+        String[] parts = arguments.split("\\s+");
+        Path questionsFile = Path.of(parts[0]);
+        boolean execute = true;
+        Path outputFile = null;
+        for (int i = 1; i < parts.length; i++) {
+            if (parts[i].equals("--no-exec")) {
+                execute = false;
+            } else if (parts[i].equals("--out") && i + 1 < parts.length) {
+                outputFile = Path.of(parts[++i]);
+            } else {
+                printError("Usage: \\b <questions-file> [--no-exec] [--out <sql-file>]");
+                return;
+            }
+        }
+
+        List<NaturalLanguageQuery> questions;
+        try {
+            questions = Files.readAllLines(questionsFile).stream()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .map(NaturalLanguageQuery::of)
+                    .toList();
+        } catch (IOException e) {
+            printError("Cannot read " + questionsFile + ": " + e.getMessage());
+            return;
+        }
+        if (questions.isEmpty()) {
+            printError("No questions in " + questionsFile);
+            return;
+        }
+
+        out.println("Translating %d questions, %d at a time...".formatted(questions.size(), batchProperties.maxInFlight()));
+        long start = System.nanoTime();
+        AtomicInteger done = new AtomicInteger();
+        List<BatchOutcome> outcomes;
+        try (BufferedWriter writer = outputFile != null ? Files.newBufferedWriter(outputFile) : null) {
+            boolean executing = execute;
+            outcomes = queryService.executeNaturalLanguageBatch(questions, execute, batchProperties.maxInFlight(), outcome -> {
+                printBatchOutcome(outcome, done.incrementAndGet(), questions.size(), executing);
+                if (writer != null) {
+                    writeBatchOutcome(writer, outcome);
+                }
+            });
+        } catch (IOException e) {
+            printError("Cannot write " + outputFile + ": " + e.getMessage());
+            return;
+        }
+
+        long failed = outcomes.stream().filter(BatchOutcome::isFailed).count();
+        out.println("Batch finished: %d succeeded, %d failed in %.1fs".formatted(
+                outcomes.size() - failed, failed, (System.nanoTime() - start) / 1e9));
+    }
+
+    private void printBatchOutcome(BatchOutcome outcome, int done, int total, boolean executed) {
+        out.println("[%d/%d] #%d %s".formatted(done, total, outcome.index() + 1, outcome.question().value()));
+        if (outcome.sql() != null) {
+            out.println(outcome.sql().value());
+        }
+        if (outcome.isFailed()) {
+            printError(outcome.error());
+        } else if (executed) {
+            QueryResult result = outcome.query().result();
+            out.println("Rows: " + (result.columns().isEmpty() ? result.metadata().affectedRows() : result.rowCount())
+                    + " | Time: " + result.metadata().executionTime().toMillis() + "ms");
+        }
+        out.println();
+    }
+
+    private void writeBatchOutcome(BufferedWriter writer, BatchOutcome outcome) {
+        try {
+            writer.write("-- #%d %s%n".formatted(outcome.index() + 1, outcome.question().value()));
+            if (outcome.sql() != null) {
+                writer.write(outcome.sql().value());
+                writer.newLine();
+            }
+            if (outcome.isFailed()) {
+                writer.write("-- failed: " + outcome.error());
+                writer.newLine();
+            }
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void handleSqlQuery(String target, String sql) {
+        if (target != null && target.contains(",")) {
+            printError("SQL runs on one connection; to join across connections write FROM @name.table in the query");
+            return;
+        }
+        SqlStatement statement = SqlStatement.of(sql);
+        Query result = target != null
+                ? queryService.executeSql(target, statement)
+                : queryService.executeSql(statement);
         printQueryResult(result);
     }
 
@@ -229,6 +528,7 @@ public class CliAdapter implements CommandLineRunner {
         QueryResult result = query.result();
         if (result.isEmpty() && result.columns().isEmpty()) {
             out.println("Query executed. Rows affected: " + result.metadata().affectedRows());
+            printMetadataDetails(result.metadata());
             return;
         }
 
@@ -236,6 +536,16 @@ public class CliAdapter implements CommandLineRunner {
         out.println();
         out.println("Rows: " + result.rowCount() +
                 " | Time: " + result.metadata().executionTime().toMillis() + "ms");
+        printMetadataDetails(result.metadata());
+    }
+
+    private void printMetadataDetails(QueryResult.QueryMetadata metadata) {
+        for (QueryResult.Timing timing : metadata.timings()) {
+            out.println("  " + timing.label() + ": " + timing.duration().toMillis() + "ms");
+        }
+        for (String warning : metadata.warnings()) {
+            out.println("WARNING: " + warning);
+        }
     }
 
     private void printTable(List<String> columns, List<List<Object>> rows) {
@@ -306,23 +616,49 @@ public class CliAdapter implements CommandLineRunner {
     private void printHelp() {
         out.println("""
                 Commands:
-                  \\c host:port/database user pass  Connect to database
-                  \\d, disconnect                   Disconnect from database
-                  \\s, status                       Show connection status
-                  \\h, help                         Show this help
-                  \\q, exit, quit                   Exit QueryMate
+                  \\c [name=]host:port/db user pass  Connect to database (named after db by default)
+                  \\u, use <name>                    Switch the active connection
+                  \\l, connections                   List open connections
+                  \\d, disconnect [name]             Disconnect the active or named connection
+                  \\s, status                        Show connection and model status
+                  \\m, metrics                       Show cache and LLM metrics
+                  \\b, batch <file>                  Translate and run one question per line
+                                                   (--no-exec to only translate, --out <file> for the SQL)
+                  \\h, help                          Show this help
+                  \\q, exit, quit                    Exit QueryMate
                 
                 Queries:
-                  SELECT * FROM ...                Execute SQL directly
-                  ? <natural language>             Translate and execute NL query
+                  SELECT * FROM ...                 Execute SQL directly
+                  ? <natural language>              Translate and execute NL query
+                  @<name> SELECT ... | ? ...        Run on a connection other than the active one
+                  SELECT ... FROM @<name>.<table>   Join tables across connections
+                  @<a>,<b> ? ...                    Ask about tables of several connections
                 
                 Examples:
                   \\c localhost:5432/mydb admin secret
+                  \\c db1:5432/mydb?replicas=db2:5432,db3:5432 admin secret
+                  \\c db1:5432,db2:5432/mydb admin secret
+                  \\c analytics=warehouse:5432/events admin secret
                   SELECT * FROM users LIMIT 10;
                   ? Show me all users who signed up last month
+                  @analytics ? How many events were recorded yesterday
+                  SELECT u.name, count(*) FROM @mydb.users u JOIN @analytics.events e ON e.user_id = u.id GROUP BY u.name
+                  @mydb,analytics ? Which users had the most events yesterday
                 """);
     }
 
+    /**
+     * Shows the active connection's name in the prompt once more than one connection is open.
+     */
+    private String prompt() {
+        if (connectionService.connections().size() < 2) {
+            return PROMPT;
+        }
+        return connectionService.activeConnection()
+                .map(connection -> "querymate[%s]> ".formatted(connection.name()))
+                .orElse(PROMPT);
+    }
+
     private void printError(String message) {
         out.println("ERROR: " + message);
     }
@@ -0,0 +1,233 @@
+package org.nexa.querymate.infrastructure.adapters.out.cache;
+
+import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.application.ports.out.MetricsSource;
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
+import org.nexa.querymate.infrastructure.config.TranslationCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * LLMPort that answers repeated questions from a cache instead of asking the model again.
+ * <p>
+ * A translation is reused only for the same normalized question, the same schema prompt
+ * and the same models, so a schema change or a model switch never returns stale SQL. The cache sits
+ * above model selection and cannot tell which model answered, so it is keyed on every model that may
+ * answer. Failed translations are not cached, nor are statements with bound parameters, which a later
+ * cache layer already rebuilds for each question.
+ * <p>
+ * With a persist file, new translations are written behind by a single background writer, coalescing
+ * misses that arrive while a save is pending, and flushed once more on {@link #close()}.
+ */
+public class CachingLLMAdapter implements LLMPort, MetricsSource, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingLLMAdapter.class);
+
+    private final LLMPort delegate;
+    private final String models;
+    private final boolean enabled;
+    private final TranslationCache cache;
+    private final Path persistFile;
+    private final ExecutorService writer;
+    private final AtomicBoolean savePending = new AtomicBoolean();
+    private final Clock clock;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong savedNanos = new AtomicLong();
+
+    /**
+     * @param models every model that may answer below this cache, e.g. {@code "phi3,llama3.2"}
+     */
+    public CachingLLMAdapter(LLMPort delegate, String models, TranslationCacheProperties properties) {
+        this(delegate, models, properties, Clock.systemUTC());
+    }
+
+    CachingLLMAdapter(LLMPort delegate, String models, TranslationCacheProperties properties, Clock clock) {
+        this.delegate = delegate;
+        this.models = models;
+        this.enabled = properties.enabled();
+        this.cache = new TranslationCache(properties.maxEntries(), Duration.ofMinutes(properties.ttlMinutes()), clock);
+        this.persistFile = properties.enabled() && properties.persistFile() != null ? Path.of(properties.persistFile()) : null;
+        this.writer = persistFile != null
+                ? Executors.newSingleThreadExecutor(Thread.ofVirtual().name("translation-cache-writer").factory())
+                : null;
+        this.clock = clock;
+        restore();
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext) {
+        return translate(query, schemaContext, TokenListener.NONE);
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener) {
+        return translate(query, schemaContext, listener, SqlValidator.NONE);
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener,
+                                  SqlValidator validator) {
+        if (!enabled) {
+            return delegate.translate(query, schemaContext, listener, validator);
+        }
+
+        TranslationCache.Key key = key(query, schemaContext);
+        SqlStatement cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        SqlStatement sql = delegate.translate(query, schemaContext, listener, validator);
+        remember(key, sql, start);
+        return sql;
+    }
+
+    /**
+     * Completes hits at once; a miss returns the delegate's own future, so cancelling it reaches the model.
+     */
+    @Override
+    public CompletableFuture<SqlStatement> translateAsync(NaturalLanguageQuery query, SchemaContext schemaContext,
+                                                         TokenListener listener, SqlValidator validator) {
+        if (!enabled) {
+            return delegate.translateAsync(query, schemaContext, listener, validator);
+        }
+
+        TranslationCache.Key key = key(query, schemaContext);
+        SqlStatement cached = lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<SqlStatement> translation = delegate.translateAsync(query, schemaContext, listener, validator);
+        translation.thenAccept(sql -> remember(key, sql, start));
+        return translation;
+    }
+
+    private TranslationCache.Key key(NaturalLanguageQuery query, SchemaContext schemaContext) {
+        return new TranslationCache.Key(query.normalized(), schemaContext.fingerprint(), models);
+    }
+
+    /**
+     * Returns the cached statement, counting the hit, or null after counting the miss.
+     */
+    private SqlStatement lookup(TranslationCache.Key key) {
+        Optional<TranslationCache.Entry> cached = cache.get(key);
+        if (cached.isEmpty()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        savedNanos.addAndGet(cached.get().translationTime().toNanos());
+        log.debug("Translation cache hit", kv("question", key.question()), kv("schema", key.schemaFingerprint()));
+        return SqlStatement.of(cached.get().sql());
+    }
+
+    /**
+     * @param start when the model was asked, from {@link System#nanoTime()}
+     */
+    private void remember(TranslationCache.Key key, SqlStatement sql, long start) {
+        if (sql.hasParameters()) {
+            return;
+        }
+        cache.put(key, new TranslationCache.Entry(sql.value(), clock.instant(), Duration.ofNanos(System.nanoTime() - start)));
+        scheduleSave();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    @Override
+    public MetricsSnapshot metrics() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("entries", cache.size());
+        values.put("hits", hitCount);
+        values.put("misses", misses.get());
+        values.put("hit rate", lookups == 0 ? "-" : "%.1f%%".formatted(100.0 * hitCount / lookups));
+        values.put("evictions", cache.evictions());
+        values.put("LLM time saved", "%.1fs".formatted(savedNanos.get() / 1_000_000_000.0));
+        return new MetricsSnapshot("Translation cache", values);
+    }
+
+    /**
+     * Waits for the pending save, if any, and stops the writer.
+     */
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Translation cache save did not finish before shutdown", kv("file", persistFile));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void restore() {
+        if (persistFile == null) {
+            return;
+        }
+        try {
+            int loaded = cache.load(persistFile);
+            log.info("Translation cache restored", kv("file", persistFile), kv("entries", loaded));
+        } catch (IOException e) {
+            log.warn("Translation cache could not be restored", kv("file", persistFile), kv("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Queues a save unless one is already waiting, which will include this entry.
+     */
+    private void scheduleSave() {
+        if (writer != null && savePending.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::save);
+            } catch (RejectedExecutionException e) {
+                // Closed: the final save has already run
+            }
+        }
+    }
+
+    private void save() {
+        // Cleared before the snapshot, so entries added while saving queue the next save
+        savePending.set(false);
+        try {
+            cache.save(persistFile);
+        } catch (IOException e) {
+            log.warn("Translation cache could not be saved", kv("file", persistFile), kv("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package org.nexa.querymate.infrastructure.adapters.out.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Approximate nearest-neighbour index over unit vectors (Hierarchical Navigable Small World graph),
+ * ranking by cosine similarity.
+ * <p>
+ * Vectors are normalized on insert and kept in one flat {@code float[]}; neighbour lists are plain
+ * {@code int[]} per node and layer. Searches run concurrently, inserts are serialized.
+ */
+final class HnswIndex {
+
+    /**
+     * A search result; {@code id} is the insertion position of the vector.
+     */
+    record Match(int id, float similarity) {
+    }
+
+    private record Candidate(int id, float similarity) {
+    }
+
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.comparingDouble(c -> -c.similarity());
+    private static final Comparator<Candidate> WORST_FIRST = Comparator.comparingDouble(Candidate::similarity);
+    private static final int FORMAT_VERSION = 1;
+
+    private final int dimension;
+    private final int m;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private float[] vectors;
+    private int[][][] links;
+    private int size;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    /**
+     * @param m              neighbours kept per node on the upper layers; twice as many on the bottom layer
+     * @param efConstruction candidate list size while inserting; larger builds a better graph, more slowly
+     */
+    HnswIndex(int dimension, int m, int efConstruction) {
+        this.dimension = dimension;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.vectors = new float[16 * dimension];
+        this.links = new int[16][][];
+    }
+
+    int dimension() {
+        return dimension;
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the stored (normalized) vector.
+     */
+    float[] vector(int id) {
+        lock.readLock().lock();
+        try {
+            return Arrays.copyOfRange(vectors, id * dimension, (id + 1) * dimension);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts a vector and returns its id, which is the number of vectors inserted before it.
+     */
+    int add(float[] vector) {
+        float[] query = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            int id = size;
+            ensureCapacity(id + 1);
+            System.arraycopy(query, 0, vectors, id * dimension, dimension);
+            int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+            links[id] = new int[level + 1][];
+            Arrays.fill(links[id], new int[0]);
+            size++;
+
+            if (entryPoint == -1) {
+                entryPoint = id;
+                maxLevel = level;
+                return id;
+            }
+
+            int current = greedyDescend(query, level);
+            for (int layer = Math.min(level, maxLevel); layer >= 0; layer--) {
+                List<Candidate> candidates = searchLayer(query, current, efConstruction, layer);
+                int[] neighbours = selectNeighbours(candidates, m);
+                links[id][layer] = neighbours;
+                for (int neighbour : neighbours) {
+                    connect(neighbour, id, layer);
+                }
+                current = candidates.getFirst().id();
+            }
+            if (level > maxLevel) {
+                maxLevel = level;
+                entryPoint = id;
+            }
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code k} vectors most similar to the query, most similar first.
+     *
+     * @param ef candidate list size on the bottom layer; larger trades latency for recall
+     */
+    List<Match> search(float[] vector, int k, int ef) {
+        float[] query = normalize(vector);
+        lock.readLock().lock();
+        try {
+            if (entryPoint == -1) {
+                return List.of();
+            }
+            int current = greedyDescend(query, 0);
+            List<Candidate> candidates = searchLayer(query, current, Math.max(ef, k), 0);
+            return candidates.stream()
+                    .limit(k)
+                    .map(candidate -> new Match(candidate.id(), candidate.similarity()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(dimension);
+            out.writeInt(m);
+            out.writeInt(efConstruction);
+            out.writeInt(size);
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            for (int i = 0; i < size * dimension; i++) {
+                out.writeFloat(vectors[i]);
+            }
+            for (int id = 0; id < size; id++) {
+                out.writeInt(links[id].length);
+                for (int[] layer : links[id]) {
+                    out.writeInt(layer.length);
+                    for (int neighbour : layer) {
+                        out.writeInt(neighbour);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static HnswIndex read(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported index format version " + version);
+        }
+        HnswIndex index = new HnswIndex(in.readInt(), in.readInt(), in.readInt());
+        int size = in.readInt();
+        index.ensureCapacity(size);
+        index.entryPoint = in.readInt();
+        index.maxLevel = in.readInt();
+        for (int i = 0; i < size * index.dimension; i++) {
+            index.vectors[i] = in.readFloat();
+        }
+        for (int id = 0; id < size; id++) {
+            int[][] layers = new int[in.readInt()][];
+            for (int layer = 0; layer < layers.length; layer++) {
+                layers[layer] = new int[in.readInt()];
+                for (int j = 0; j < layers[layer].length; j++) {
+                    layers[layer][j] = in.readInt();
+                }
+            }
+            index.links[id] = layers;
+        }
+        index.size = size;
+        return index;
+    }
+
+    /**
+     * Walks the layers above {@code targetLevel} greedily, returning the closest node found.
+     */
+    private int greedyDescend(float[] query, int targetLevel) {
+        int current = entryPoint;
+        float best = similarity(query, current);
+        for (int layer = maxLevel; layer > targetLevel; layer--) {
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                for (int neighbour : neighbours(current, layer)) {
+                    float similarity = similarity(query, neighbour);
+                    if (similarity > best) {
+                        best = similarity;
+                        current = neighbour;
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search on one layer, returning up to {@code ef} nodes, most similar first.
+     */
+    private List<Candidate> searchLayer(float[] query, int entry, int ef, int layer) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<Candidate> toVisit = new PriorityQueue<>(BEST_FIRST);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(WORST_FIRST);
+
+        Candidate start = new Candidate(entry, similarity(query, entry));
+        visited.set(entry);
+        toVisit.add(start);
+        results.add(start);
+
+        while (!toVisit.isEmpty()) {
+            Candidate candidate = toVisit.poll();
+            if (results.size() >= ef && candidate.similarity() < results.peek().similarity()) {
+                break;
+            }
+            for (int neighbour : neighbours(candidate.id(), layer)) {
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                float similarity = similarity(query, neighbour);
+                if (results.size() < ef || similarity > results.peek().similarity()) {
+                    Candidate next = new Candidate(neighbour, similarity);
+                    toVisit.add(next);
+                    results.add(next);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(results);
+        sorted.sort(BEST_FIRST);
+        return sorted;
+    }
+
+    /**
+     * Keeps candidates that are closer to the new node than to any neighbour already kept,
+     * which spreads the links in different directions instead of clustering them.
+     */
+    private int[] selectNeighbours(List<Candidate> candidates, int max) {
+        int[] selected = new int[Math.min(max, candidates.size())];
+        int count = 0;
+        for (Candidate candidate : candidates) {
+            if (count == selected.length) {
+                break;
+            }
+            boolean diverse = true;
+            for (int i = 0; i < count && diverse; i++) {
+                diverse = similarity(candidate.id(), selected[i]) < candidate.similarity();
+            }
+            if (diverse) {
+                selected[count++] = candidate.id();
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Adds a back-link; a full list gives up its least similar link instead, which is far cheaper
+     * than re-running the neighbour heuristic on every insert and costs little recall.
+     */
+    private void connect(int node, int neighbour, int layer) {
+        int[] current = links[node][layer];
+        int max = layer == 0 ? 2 * m : m;
+        if (current.length < max) {
+            int[] extended = Arrays.copyOf(current, current.length + 1);
+            extended[current.length] = neighbour;
+            links[node][layer] = extended;
+            return;
+        }
+        int weakest = -1;
+        float weakestSimilarity = similarity(node, neighbour);
+        for (int i = 0; i < current.length; i++) {
+            float similarity = similarity(node, current[i]);
+            if (similarity < weakestSimilarity) {
+                weakestSimilarity = similarity;
+                weakest = i;
+            }
+        }
+        if (weakest != -1) {
+            current[weakest] = neighbour;
+        }
+    }
+
+    private int[] neighbours(int node, int layer) {
+        int[][] layers = links[node];
+        return layer < layers.length ? layers[layer] : new int[0];
+    }
+
+    private float similarity(float[] query, int id) {
+        return dot(query, 0, vectors, id * dimension);
+    }
+
+    private float similarity(int a, int b) {
+        return dot(vectors, a * dimension, vectors, b * dimension);
+    }
+
+    /**
+     * Dot product with four independent sums, which lets the JIT pipeline the multiplications;
+     * a single running sum serializes every addition.
+     */
+    private float dot(float[] a, int offsetA, float[] b, int offsetB) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < dimension; i += 4) {
+            s0 += a[offsetA + i] * b[offsetB + i];
+            s1 += a[offsetA + i + 1] * b[offsetB + i + 1];
+            s2 += a[offsetA + i + 2] * b[offsetB + i + 2];
+            s3 += a[offsetA + i + 3] * b[offsetB + i + 3];
+        }
+        for (; i < dimension; i++) {
+            s0 += a[offsetA + i] * b[offsetB + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private float[] normalize(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected a vector of %d dimensions, got %d".formatted(dimension, vector.length));
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        norm = Math.sqrt(norm);
+        float[] normalized = new float[dimension];
+        if (norm > 0) {
+            for (int i = 0; i < dimension; i++) {
+                normalized[i] = (float) (vector[i] / norm);
+            }
+        }
+        return normalized;
+    }
+
+    private void ensureCapacity(int nodes) {
+        if (links.length >= nodes) {
+            return;
+        }
+        int capacity = Math.max(nodes, links.length * 2);
+        vectors = Arrays.copyOf(vectors, capacity * dimension);
+        links = Arrays.copyOf(links, capacity);
+    }
+}
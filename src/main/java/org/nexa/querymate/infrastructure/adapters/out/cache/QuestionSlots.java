@@ -0,0 +1,72 @@
+package org.nexa.querymate.infrastructure.adapters.out.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a normalized question into its literals (slots) and the wording around them (skeleton).
+ * "orders from customer 42 last week" becomes the skeleton "orders from customer {number} last {period}"
+ * with the slots 42 and week; questions with the same skeleton differ only in their literals.
+ */
+record QuestionSlots(String skeleton, List<Slot> slots) {
+
+    enum Kind {
+        /**
+         * A quoted name or value, without the quotes.
+         */
+        TEXT,
+        /**
+         * An ISO date such as 2024-01-15.
+         */
+        DATE,
+        /**
+         * The unit of a relative period such as "last week": day, week, month, quarter or year.
+         */
+        PERIOD,
+        NUMBER
+    }
+
+    record Slot(Kind kind, String value) {
+    }
+
+    private static final Pattern LITERAL = Pattern.compile(
+            "'(?<single>[^']*)'"
+                    + "|\"(?<double>[^\"]*)\""
+                    + "|\\b(?<date>\\d{4}-\\d{2}-\\d{2})\\b"
+                    + "|\\b(?<direction>last|this|next|past|previous)\\s+(?<unit>day|week|month|quarter|year)\\b"
+                    + "|(?<![\\w.])(?<number>\\d+(?:\\.\\d+)?)(?![\\w.])"
+    );
+
+    QuestionSlots {
+        slots = List.copyOf(slots);
+    }
+
+    static QuestionSlots extract(String question) {
+        List<Slot> slots = new ArrayList<>();
+        StringBuilder skeleton = new StringBuilder();
+        Matcher matcher = LITERAL.matcher(question);
+        int position = 0;
+        while (matcher.find()) {
+            skeleton.append(question, position, matcher.start());
+            position = matcher.end();
+            if (matcher.group("single") != null || matcher.group("double") != null) {
+                String text = matcher.group("single") != null ? matcher.group("single") : matcher.group("double");
+                slots.add(new Slot(Kind.TEXT, text));
+                skeleton.append("{text}");
+            } else if (matcher.group("date") != null) {
+                slots.add(new Slot(Kind.DATE, matcher.group("date")));
+                skeleton.append("{date}");
+            } else if (matcher.group("unit") != null) {
+                slots.add(new Slot(Kind.PERIOD, matcher.group("unit")));
+                skeleton.append(matcher.group("direction")).append(" {period}");
+            } else {
+                slots.add(new Slot(Kind.NUMBER, matcher.group("number")));
+                skeleton.append("{number}");
+            }
+        }
+        skeleton.append(question.substring(position));
+        return new QuestionSlots(skeleton.toString(), slots);
+    }
+}
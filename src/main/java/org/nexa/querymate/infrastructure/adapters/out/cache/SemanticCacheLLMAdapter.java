@@ -0,0 +1,410 @@
+package org.nexa.querymate.infrastructure.adapters.out.cache;
+
+import org.nexa.querymate.application.ports.out.EmbeddingPort;
+import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.application.ports.out.MetricsSource;
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
+import org.nexa.querymate.infrastructure.config.SemanticCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * LLMPort that reuses the translation of an earlier question phrased differently but meaning the same.
+ * <p>
+ * Questions are embedded and looked up in an {@link HnswIndex}. A stored translation is reused when
+ * its question is similar enough, was asked against the same schema and model, and mentions the same
+ * numbers and quoted values, so "top 10 customers" never answers "top 20 customers".
+ * If the embedding service fails, the question goes to the LLM as if the cache were disabled.
+ * The index is saved when the application shuts down.
+ */
+public class SemanticCacheLLMAdapter implements LLMPort, MetricsSource, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SemanticCacheLLMAdapter.class);
+
+    private static final Pattern LITERALS = Pattern.compile("'[^']*'|\"[^\"]*\"|\\d+(?:\\.\\d+)?");
+    private static final int CANDIDATES = 8;
+    private static final int FILE_MAGIC = 0x514D5343;
+
+    /**
+     * What a stored question was translated to, and under which conditions the translation holds.
+     */
+    private record Entry(String sql, String schemaFingerprint, String model, String literals) {
+    }
+
+    private final LLMPort delegate;
+    private final EmbeddingPort embeddings;
+    private final String model;
+    private final SemanticCacheProperties properties;
+    private final Path persistFile;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private HnswIndex index;
+    private List<Entry> entries = new ArrayList<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong embeddingFailures = new AtomicLong();
+    private final AtomicLong embeddingNanos = new AtomicLong();
+    private final AtomicLong lookupNanos = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+
+    public SemanticCacheLLMAdapter(
+            LLMPort delegate,
+            EmbeddingPort embeddings,
+            String model,
+            SemanticCacheProperties properties
+    ) {
+        this.delegate = delegate;
+        this.embeddings = embeddings;
+        this.model = model;
+        this.properties = properties;
+        this.persistFile = properties.persistFile() != null ? Path.of(properties.persistFile()) : null;
+        restore();
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext) {
+        return translate(query, schemaContext, TokenListener.NONE);
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener) {
+        return translate(query, schemaContext, listener, SqlValidator.NONE);
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener,
+                                  SqlValidator validator) {
+        if (!properties.enabled()) {
+            return delegate.translate(query, schemaContext, listener, validator);
+        }
+
+        String question = query.normalized();
+        float[] vector = embed(question);
+        if (vector == null) {
+            return delegate.translate(query, schemaContext, listener, validator);
+        }
+
+        String fingerprint = schemaContext.fingerprint();
+        String literals = literals(question);
+        SqlStatement cached = cached(question, vector, fingerprint, literals);
+        if (cached != null) {
+            return cached;
+        }
+
+        SqlStatement sql = delegate.translate(query, schemaContext, listener, validator);
+        store(vector, new Entry(sql.value(), fingerprint, model, literals));
+        return sql;
+    }
+
+    /**
+     * Embeds and looks the question up on a virtual thread, since the embedding service is called blocking,
+     * then waits for the model without one. Cancelling the future stops whichever step is running.
+     */
+    @Override
+    public CompletableFuture<SqlStatement> translateAsync(NaturalLanguageQuery query, SchemaContext schemaContext,
+                                                         TokenListener listener, SqlValidator validator) {
+        if (!properties.enabled()) {
+            return delegate.translateAsync(query, schemaContext, listener, validator);
+        }
+
+        CompletableFuture<SqlStatement> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<SqlStatement>> translation = new AtomicReference<>();
+        Thread lookup = Thread.ofVirtual().name("semantic-cache-lookup").start(() -> {
+            try {
+                String question = query.normalized();
+                float[] vector = embed(question);
+                if (vector == null) {
+                    forward(delegate.translateAsync(query, schemaContext, listener, validator), result, translation);
+                    return;
+                }
+                String fingerprint = schemaContext.fingerprint();
+                String literals = literals(question);
+                SqlStatement cached = cached(question, vector, fingerprint, literals);
+                if (cached != null) {
+                    result.complete(cached);
+                    return;
+                }
+                CompletableFuture<SqlStatement> pending = delegate.translateAsync(query, schemaContext, listener, validator);
+                pending.thenAccept(sql -> store(vector, new Entry(sql.value(), fingerprint, model, literals)));
+                forward(pending, result, translation);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((sql, failure) -> {
+            if (result.isCancelled()) {
+                lookup.interrupt();
+                CompletableFuture<SqlStatement> pending = translation.get();
+                if (pending != null) {
+                    pending.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Completes the result with the model's translation, cancelling the translation if the result was
+     * cancelled before it started.
+     */
+    private static void forward(CompletableFuture<SqlStatement> pending, CompletableFuture<SqlStatement> result,
+                                AtomicReference<CompletableFuture<SqlStatement>> translation) {
+        translation.set(pending);
+        pending.whenComplete((sql, failure) -> {
+            if (failure == null) {
+                result.complete(sql);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        });
+        if (result.isCancelled()) {
+            pending.cancel(true);
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    @Override
+    public MetricsSnapshot metrics() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (!properties.enabled()) {
+            values.put("status", "disabled");
+            return new MetricsSnapshot("Semantic cache", values);
+        }
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        long lookupCount = lookups.get();
+        values.put("entries", size());
+        values.put("hits", hitCount);
+        values.put("misses", misses.get());
+        values.put("hit rate", total == 0 ? "-" : "%.1f%%".formatted(100.0 * hitCount / total));
+        values.put("embedding avg", lookupCount == 0 ? "-" : "%.1f ms".formatted(embeddingNanos.get() / 1e6 / lookupCount));
+        values.put("lookup avg", lookupCount == 0 ? "-" : "%.2f ms".formatted(lookupNanos.get() / 1e6 / lookupCount));
+        values.put("embedding failures", embeddingFailures.get());
+        return new MetricsSnapshot("Semantic cache", values);
+    }
+
+    /**
+     * Saves the index, if a file is configured.
+     */
+    @Override
+    public void close() {
+        if (!properties.enabled() || persistFile == null) {
+            return;
+        }
+        try {
+            save();
+            log.info("Semantic cache saved", kv("file", persistFile), kv("entries", size()));
+        } catch (IOException e) {
+            log.warn("Semantic cache could not be saved", kv("file", persistFile), kv("error", e.getMessage()));
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private float[] embed(String question) {
+        long start = System.nanoTime();
+        try {
+            float[] vector = embeddings.embed(question);
+            embeddingNanos.addAndGet(System.nanoTime() - start);
+            return vector;
+        } catch (RuntimeException e) {
+            if (embeddingFailures.getAndIncrement() == 0) {
+                log.warn("Embedding failed, semantic cache bypassed",
+                        kv("model", properties.embeddingModel()),
+                        kv("error", e.getMessage()));
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Returns the stored translation of an equivalent question, counting the hit, or null after counting the miss.
+     */
+    private SqlStatement cached(String question, float[] vector, String fingerprint, String literals) {
+        Entry match = lookup(vector, fingerprint, literals);
+        if (match == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        log.debug("Semantic cache hit", kv("question", question), kv("schema", fingerprint));
+        return SqlStatement.of(match.sql());
+    }
+
+    private Entry lookup(float[] vector, String fingerprint, String literals) {
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            if (index == null || index.dimension() != vector.length) {
+                return null;
+            }
+            for (HnswIndex.Match match : index.search(vector, CANDIDATES, properties.efSearch())) {
+                if (match.similarity() < properties.similarityThreshold()) {
+                    break;
+                }
+                Entry entry = entries.get(match.id());
+                if (entry.schemaFingerprint().equals(fingerprint)
+                        && entry.model().equals(model)
+                        && entry.literals().equals(literals)) {
+                    return entry;
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+            lookups.incrementAndGet();
+            lookupNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private void store(float[] vector, Entry entry) {
+        lock.writeLock().lock();
+        try {
+            if (index == null || index.dimension() != vector.length) {
+                // First entry, or the embedding model changed: earlier vectors are not comparable
+                index = newIndex(vector.length);
+                entries = new ArrayList<>();
+            }
+            if (entries.size() >= properties.maxEntries()) {
+                compact();
+            }
+            index.add(vector);
+            entries.add(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Graph nodes cannot be removed cheaply, so a full index is rebuilt from its newest three quarters.
+     */
+    private void compact() {
+        int keep = properties.maxEntries() * 3 / 4;
+        int from = entries.size() - keep;
+        HnswIndex rebuilt = newIndex(index.dimension());
+        for (int id = from; id < entries.size(); id++) {
+            rebuilt.add(index.vector(id));
+        }
+        log.info("Semantic cache compacted", kv("dropped", from), kv("kept", keep));
+        index = rebuilt;
+        entries = new ArrayList<>(entries.subList(from, entries.size()));
+    }
+
+    private HnswIndex newIndex(int dimension) {
+        return new HnswIndex(dimension, properties.hnswM(), properties.efConstruction());
+    }
+
+    private static String literals(String question) {
+        List<String> found = new ArrayList<>();
+        Matcher matcher = LITERALS.matcher(question);
+        while (matcher.find()) {
+            found.add(matcher.group());
+        }
+        return String.join("\u001f", found);
+    }
+
+    private void restore() {
+        if (!properties.enabled() || persistFile == null || !Files.exists(persistFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(persistFile)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Not a semantic cache file");
+            }
+            int count = in.readInt();
+            List<Entry> restored = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                restored.add(new Entry(readString(in), readString(in), readString(in), readString(in)));
+            }
+            HnswIndex restoredIndex = HnswIndex.read(in);
+            lock.writeLock().lock();
+            try {
+                entries = restored;
+                index = restoredIndex;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Semantic cache restored", kv("file", persistFile), kv("entries", count));
+        } catch (IOException e) {
+            log.warn("Semantic cache could not be restored", kv("file", persistFile), kv("error", e.getMessage()));
+        }
+    }
+
+    private void save() throws IOException {
+        Path directory = persistFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, persistFile.getFileName().toString(), ".tmp");
+        try {
+            lock.readLock().lock();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(entries.size());
+                for (Entry entry : entries) {
+                    writeString(out, entry.sql());
+                    writeString(out, entry.schemaFingerprint());
+                    writeString(out, entry.model());
+                    writeString(out, entry.literals());
+                }
+                if (index == null) {
+                    newIndex(1).write(out);
+                } else {
+                    index.write(out);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            Files.move(temp, persistFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,184 @@
+package org.nexa.querymate.infrastructure.adapters.out.cache;
+
+import org.nexa.querymate.domain.query.SqlLexer;
+import org.nexa.querymate.domain.query.SqlLexer.Token;
+import org.nexa.querymate.domain.query.SqlLexer.TokenType;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.infrastructure.adapters.out.cache.QuestionSlots.Kind;
+import org.nexa.querymate.infrastructure.adapters.out.cache.QuestionSlots.Slot;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A translated statement whose literals that came from the question are replaced by {@code ?} placeholders,
+ * so the same translation can serve every question with the same skeleton.
+ * <p>
+ * A template is only derived when each number, quoted value and date of the question appears exactly once
+ * in the SQL and no SQL literal could stand for two different slots; anything less certain is not reused.
+ */
+final class SqlTemplate {
+
+    /**
+     * Typed literals such as {@code interval '1 week'} whose string cannot simply become a placeholder.
+     */
+    private static final Set<String> TYPED_LITERALS = Set.of("interval", "date", "time", "timestamp", "timestamptz");
+
+    private static final Pattern QUANTITY = Pattern.compile("(\\d+(?:\\.\\d+)?)(\\s+[a-z]+)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * How one placeholder is filled: the slot's value in place of {@code {}} in the pattern.
+     *
+     * @param numeric bind as a number rather than as a string
+     */
+    private record Binding(int slot, String pattern, boolean numeric) {
+    }
+
+    private final String sql;
+    private final List<Kind> kinds;
+    private final List<Binding> bindings;
+
+    private SqlTemplate(String sql, List<Kind> kinds, List<Binding> bindings) {
+        this.sql = sql;
+        this.kinds = kinds;
+        this.bindings = bindings;
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    /**
+     * Derives a template from a translation, or returns empty if the question's literals cannot be
+     * located in the SQL unambiguously.
+     */
+    static Optional<SqlTemplate> derive(String sql, List<Slot> slots) {
+        List<Token> tokens = SqlLexer.tokenize(sql);
+        if (slots.isEmpty() || tokens.stream().anyMatch(t -> t.type() == TokenType.PARAMETER
+                || (t.type() == TokenType.OPERATOR && t.text().equals("@")))) {
+            return Optional.empty();
+        }
+
+        Binding[] tokenBindings = new Binding[tokens.size()];
+        int[] uses = new int[slots.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            List<Binding> candidates = candidates(tokens.get(i), slots);
+            if (candidates.size() > 1) {
+                return Optional.empty();
+            }
+            if (candidates.size() == 1) {
+                tokenBindings[i] = candidates.getFirst();
+                uses[candidates.getFirst().slot()]++;
+            }
+        }
+        for (int slot = 0; slot < slots.size(); slot++) {
+            // A period unit may appear several times (date_trunc('week', ...) - interval '1 week'); values may not
+            boolean ok = slots.get(slot).kind() == Kind.PERIOD ? uses[slot] >= 1 : uses[slot] == 1;
+            if (!ok) {
+                return Optional.empty();
+            }
+        }
+
+        StringBuilder template = new StringBuilder();
+        List<Binding> bindings = new ArrayList<>();
+        int position = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            Binding binding = tokenBindings[i];
+            if (binding == null) {
+                continue;
+            }
+            Token token = tokens.get(i);
+            Token previous = i > 0 ? tokens.get(i - 1) : null;
+            if (token.type() == TokenType.STRING && previous != null && previous.type() == TokenType.WORD
+                    && TYPED_LITERALS.contains(previous.text().toLowerCase(Locale.ROOT))) {
+                template.append(sql, position, previous.start())
+                        .append("CAST(? AS ").append(previous.text().toLowerCase(Locale.ROOT)).append(')');
+            } else {
+                template.append(sql, position, token.start()).append('?');
+            }
+            position = token.end();
+            bindings.add(binding);
+        }
+        template.append(sql.substring(position));
+
+        return Optional.of(new SqlTemplate(template.toString(), slots.stream().map(Slot::kind).toList(), List.copyOf(bindings)));
+    }
+
+    /**
+     * Fills the placeholders with the literals of a question that has the same skeleton.
+     */
+    SqlStatement bind(List<Slot> slots) {
+        if (!slots.stream().map(Slot::kind).toList().equals(kinds)) {
+            throw new IllegalArgumentException("Slots do not match the template");
+        }
+        List<Object> parameters = new ArrayList<>(bindings.size());
+        for (Binding binding : bindings) {
+            String value = binding.pattern().replace("{}", slots.get(binding.slot()).value());
+            parameters.add(binding.numeric() ? number(value) : value);
+        }
+        return SqlStatement.parameterized(sql, parameters);
+    }
+
+    private static List<Binding> candidates(Token token, List<Slot> slots) {
+        List<Binding> candidates = new ArrayList<>();
+        if (token.type() == TokenType.NUMBER) {
+            for (int i = 0; i < slots.size(); i++) {
+                if (slots.get(i).kind() == Kind.NUMBER && numericallyEqual(slots.get(i).value(), token.text())) {
+                    candidates.add(new Binding(i, "{}", true));
+                }
+            }
+        } else if (token.type() == TokenType.STRING && token.text().startsWith("'")) {
+            String text = token.text().substring(1, token.text().length() - 1).replace("''", "'");
+            Matcher quantity = QUANTITY.matcher(text);
+            boolean isQuantity = quantity.matches();
+            for (int i = 0; i < slots.size(); i++) {
+                Slot slot = slots.get(i);
+                switch (slot.kind()) {
+                    case TEXT, DATE -> {
+                        if (text.equals(slot.value())) {
+                            candidates.add(new Binding(i, "{}", false));
+                        }
+                    }
+                    case NUMBER -> {
+                        if (isQuantity && numericallyEqual(slot.value(), quantity.group(1))) {
+                            candidates.add(new Binding(i, "{}" + quantity.group(2), false));
+                        }
+                    }
+                    case PERIOD -> {
+                        String unit = slot.value();
+                        String lower = text.toLowerCase(Locale.ROOT);
+                        if (lower.equals(unit)) {
+                            candidates.add(new Binding(i, "{}", false));
+                        } else if (lower.equals("1 " + unit) || lower.equals("1 " + unit + "s")) {
+                            candidates.add(new Binding(i, "1 {}", false));
+                        }
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean numericallyEqual(String a, String b) {
+        try {
+            return new BigDecimal(a).compareTo(new BigDecimal(b)) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static Number number(String value) {
+        BigDecimal decimal = new BigDecimal(value);
+        try {
+            return decimal.longValueExact();
+        } catch (ArithmeticException e) {
+            return decimal;
+        }
+    }
+}
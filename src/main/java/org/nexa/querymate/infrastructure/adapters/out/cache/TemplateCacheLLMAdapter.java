@@ -0,0 +1,184 @@
+package org.nexa.querymate.infrastructure.adapters.out.cache;
+
+import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.application.ports.out.MetricsSource;
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
+import org.nexa.querymate.infrastructure.config.TemplateCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * LLMPort that reuses a translation for questions that differ from an earlier one only in their literals.
+ * <p>
+ * Numbers, quoted values, ISO dates and relative periods ("last week") are cut out of the question;
+ * the remaining skeleton, the schema and the model select a {@link SqlTemplate} derived from an earlier
+ * translation, and the new literals are bound to its placeholders without asking the model.
+ * "orders of customer 77" thus reuses the SQL generated for "orders of customer 42".
+ */
+public class TemplateCacheLLMAdapter implements LLMPort, MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(TemplateCacheLLMAdapter.class);
+
+    private record Key(String skeleton, String schemaFingerprint, String model) {
+    }
+
+    private final LLMPort delegate;
+    private final String model;
+    private final boolean enabled;
+    private final Map<Key, SqlTemplate> templates;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong notTemplatable = new AtomicLong();
+    private final AtomicLong bindNanos = new AtomicLong();
+
+    public TemplateCacheLLMAdapter(LLMPort delegate, String model, TemplateCacheProperties properties) {
+        this.delegate = delegate;
+        this.model = model;
+        this.enabled = properties.enabled();
+        int maxEntries = properties.maxEntries();
+        this.templates = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, SqlTemplate> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext) {
+        return translate(query, schemaContext, TokenListener.NONE);
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener) {
+        return translate(query, schemaContext, listener, SqlValidator.NONE);
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener,
+                                  SqlValidator validator) {
+        if (!enabled) {
+            return delegate.translate(query, schemaContext, listener, validator);
+        }
+
+        QuestionSlots question = QuestionSlots.extract(query.normalized());
+        if (question.slots().isEmpty()) {
+            return delegate.translate(query, schemaContext, listener, validator);
+        }
+
+        Key key = new Key(question.skeleton(), schemaContext.fingerprint(), model);
+        SqlStatement bound = bind(key, question);
+        if (bound != null) {
+            return bound;
+        }
+
+        SqlStatement sql = delegate.translate(query, schemaContext, listener, validator);
+        remember(key, question, sql);
+        return sql;
+    }
+
+    /**
+     * Completes hits at once; a miss returns the delegate's own future, so cancelling it reaches the model.
+     */
+    @Override
+    public CompletableFuture<SqlStatement> translateAsync(NaturalLanguageQuery query, SchemaContext schemaContext,
+                                                         TokenListener listener, SqlValidator validator) {
+        if (!enabled) {
+            return delegate.translateAsync(query, schemaContext, listener, validator);
+        }
+
+        QuestionSlots question = QuestionSlots.extract(query.normalized());
+        if (question.slots().isEmpty()) {
+            return delegate.translateAsync(query, schemaContext, listener, validator);
+        }
+
+        Key key = new Key(question.skeleton(), schemaContext.fingerprint(), model);
+        SqlStatement bound = bind(key, question);
+        if (bound != null) {
+            return CompletableFuture.completedFuture(bound);
+        }
+
+        CompletableFuture<SqlStatement> translation = delegate.translateAsync(query, schemaContext, listener, validator);
+        translation.thenAccept(sql -> remember(key, question, sql));
+        return translation;
+    }
+
+    /**
+     * Binds the question's literals into the template for its skeleton, counting the hit,
+     * or returns null after counting the miss.
+     */
+    private SqlStatement bind(Key key, QuestionSlots question) {
+        SqlTemplate template = get(key);
+        if (template == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        long start = System.nanoTime();
+        SqlStatement bound = template.bind(question.slots());
+        bindNanos.addAndGet(System.nanoTime() - start);
+        hits.incrementAndGet();
+        log.debug("Template cache hit", kv("skeleton", key.skeleton()), kv("parameters", bound.parameters()));
+        return bound;
+    }
+
+    private void remember(Key key, QuestionSlots question, SqlStatement sql) {
+        Optional<SqlTemplate> derived = sql.hasParameters()
+                ? Optional.empty()
+                : SqlTemplate.derive(sql.value(), question.slots());
+        if (derived.isPresent()) {
+            put(key, derived.get());
+        } else {
+            notTemplatable.incrementAndGet();
+            log.debug("Translation not templatable", kv("skeleton", key.skeleton()));
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    @Override
+    public MetricsSnapshot metrics() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (!enabled) {
+            values.put("status", "disabled");
+            return new MetricsSnapshot("Template cache", values);
+        }
+        values.put("templates", size());
+        values.put("hits", hitCount);
+        values.put("misses", misses.get());
+        values.put("hit rate", lookups == 0 ? "-" : "%.1f%%".formatted(100.0 * hitCount / lookups));
+        values.put("not templatable", notTemplatable.get());
+        values.put("bind avg", hitCount == 0 ? "-" : "%.1f µs".formatted(bindNanos.get() / 1e3 / hitCount));
+        return new MetricsSnapshot("Template cache", values);
+    }
+
+    synchronized int size() {
+        return templates.size();
+    }
+
+    private synchronized SqlTemplate get(Key key) {
+        return templates.get(key);
+    }
+
+    private synchronized void put(Key key, SqlTemplate template) {
+        templates.put(key, template);
+    }
+}
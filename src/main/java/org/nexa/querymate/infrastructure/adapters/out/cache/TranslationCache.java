@@ -0,0 +1,148 @@
+package org.nexa.querymate.infrastructure.adapters.out.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded map of translations, evicting the least recently used entry when full
+ * and dropping entries older than the time-to-live on access.
+ */
+final class TranslationCache {
+
+    /**
+     * Everything that determines the LLM's answer: the question, the schema it saw and the models that may answer.
+     */
+    record Key(String question, String schemaFingerprint, String model) {
+    }
+
+    /**
+     * @param translationTime how long the LLM took, i.e. the time saved by every hit
+     */
+    record Entry(String sql, Instant createdAt, Duration translationTime) {
+    }
+
+    /**
+     * On-disk form of one entry; plain fields keep the file readable and free of Jackson modules.
+     */
+    private record StoredEntry(
+            String question,
+            String schemaFingerprint,
+            String model,
+            String sql,
+            long createdAtEpochMillis,
+            long translationMillis
+    ) {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Clock clock;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long evictions;
+
+    TranslationCache(int maxEntries, Duration ttl, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    synchronized Optional<Entry> get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (isExpired(entry)) {
+            entries.remove(key);
+            evictions++;
+            return Optional.empty();
+        }
+        return Optional.of(entry);
+    }
+
+    synchronized void put(Key key, Entry entry) {
+        entries.put(key, entry);
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Restores unexpired entries from the file, if it exists, returning how many were loaded.
+     */
+    int load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        List<StoredEntry> stored = MAPPER.readValue(file.toFile(), new TypeReference<>() {
+        });
+        int loaded = 0;
+        synchronized (this) {
+            // The file is written least recently used first, so replaying it restores the access order
+            for (StoredEntry s : stored) {
+                Entry entry = new Entry(s.sql(), Instant.ofEpochMilli(s.createdAtEpochMillis()),
+                        Duration.ofMillis(s.translationMillis()));
+                if (!isExpired(entry)) {
+                    put(new Key(s.question(), s.schemaFingerprint(), s.model()), entry);
+                    loaded++;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Writes all entries to a temporary file and moves it over the target, so a crash never leaves a truncated cache.
+     * Callers must not save concurrently.
+     */
+    void save(Path file) throws IOException {
+        List<StoredEntry> stored = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+                Key key = e.getKey();
+                Entry entry = e.getValue();
+                stored.add(new StoredEntry(key.question(), key.schemaFingerprint(), key.model(), entry.sql(),
+                        entry.createdAt().toEpochMilli(), entry.translationTime().toMillis()));
+            }
+        }
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            MAPPER.writeValue(temp.toFile(), stored);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return entry.createdAt().plus(ttl).isBefore(clock.instant());
+    }
+}
@@ -0,0 +1,784 @@
+package org.nexa.querymate.infrastructure.adapters.out.federation;
+
+import org.nexa.querymate.domain.query.SqlLexer;
+import org.nexa.querymate.domain.query.SqlLexer.Token;
+import org.nexa.querymate.domain.query.SqlLexer.TokenType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Execution plan for a statement that reads tables of several named connections,
+ * written as {@code FROM @connection.table alias JOIN @other.table alias ON ...}.
+ * <p>
+ * Supported: inner equi-joins, WHERE conjunctions, GROUP BY with COUNT/SUM/MIN/MAX/AVG,
+ * ORDER BY, LIMIT and OFFSET. Every column must be qualified with its table alias.
+ * WHERE and ON conditions that touch a single table are pushed down into that table's sub-query
+ * verbatim, and each sub-query selects only the columns the rest of the plan needs.
+ * Conditions spanning tables must be simple comparisons, which are evaluated client-side.
+ */
+final class FederatedPlan {
+
+    private static final Set<String> FROM_TERMINATORS = Set.of("where", "group", "order", "limit", "offset");
+
+    private static final Set<String> JOIN_WORDS = Set.of("join", "inner", "left", "right", "full", "cross", "natural");
+
+    private static final Set<String> NON_ALIAS_WORDS = Set.of(
+            "join", "inner", "left", "right", "full", "cross", "outer", "natural", "on", "using",
+            "where", "group", "order", "limit", "offset", "having", "union", "intersect", "except"
+    );
+
+    /**
+     * A table on a named connection.
+     *
+     * @param table the table as written after the connection name, e.g. {@code users} or {@code sales.orders}
+     */
+    record Source(String connection, String table, String alias) {
+    }
+
+    /**
+     * A qualified column; both parts are normalized the way PostgreSQL folds identifiers.
+     */
+    record ColumnRef(String alias, String column) {
+
+        String key() {
+            return alias + "." + column;
+        }
+
+        @Override
+        public String toString() {
+            return key();
+        }
+    }
+
+    /**
+     * Joins {@code source} to everything joined before it on pairwise equal keys.
+     */
+    record JoinStep(Source source, List<ColumnRef> leftKeys, List<ColumnRef> rightKeys) {
+    }
+
+    enum Operator {
+        EQ, NE, LT, LE, GT, GE
+    }
+
+    /**
+     * A column or a literal; exactly one of the two is set (a null literal is not supported).
+     */
+    record Operand(ColumnRef column, Object literal) {
+    }
+
+    /**
+     * A comparison evaluated client-side because it references more than one table.
+     */
+    record Comparison(Operand left, Operator operator, Operand right, String text) {
+    }
+
+    enum Aggregate {
+        COUNT, SUM, MIN, MAX, AVG
+    }
+
+    /**
+     * One output column, or all columns of one table ({@code star} with an alias) or of all tables
+     * ({@code star} without one).
+     *
+     * @param column    the column, the aggregate argument, or null for {@code COUNT(*)} and stars
+     * @param aggregate the aggregate, or null for plain columns and stars
+     */
+    record SelectItem(ColumnRef column, Aggregate aggregate, boolean star, String starAlias, String label) {
+    }
+
+    /**
+     * @param selectIndex index of the select item to sort by
+     */
+    record OrderKey(int selectIndex, boolean ascending, boolean nullsFirst) {
+    }
+
+    private final List<Source> sources;
+    private final List<JoinStep> joins;
+    private final Map<String, List<String>> pushedFilters;
+    private final List<Comparison> residualFilters;
+    private final List<SelectItem> selectItems;
+    private final List<ColumnRef> groupBy;
+    private final List<OrderKey> orderKeys;
+    private final Long limit;
+    private final long offset;
+    private final String singleSourceSql;
+
+    private FederatedPlan(
+            List<Source> sources,
+            List<JoinStep> joins,
+            Map<String, List<String>> pushedFilters,
+            List<Comparison> residualFilters,
+            List<SelectItem> selectItems,
+            List<ColumnRef> groupBy,
+            List<OrderKey> orderKeys,
+            Long limit,
+            long offset,
+            String singleSourceSql
+    ) {
+        this.sources = List.copyOf(sources);
+        this.joins = List.copyOf(joins);
+        this.pushedFilters = pushedFilters;
+        this.residualFilters = List.copyOf(residualFilters);
+        this.selectItems = List.copyOf(selectItems);
+        this.groupBy = List.copyOf(groupBy);
+        this.orderKeys = List.copyOf(orderKeys);
+        this.limit = limit;
+        this.offset = offset;
+        this.singleSourceSql = singleSourceSql;
+    }
+
+    /**
+     * Returns true if the statement reads a table through the {@code @connection.table} notation.
+     */
+    static boolean isFederated(String sql) {
+        List<Token> tokens = SqlLexer.tokenize(sql);
+        for (int i = 1; i + 1 < tokens.size(); i++) {
+            if (isConnectionMarker(tokens, i) && (tokens.get(i - 1).isKeyword("from") || tokens.get(i - 1).isKeyword("join"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a federated statement.
+     *
+     * @throws IllegalArgumentException if the statement uses something the engine cannot execute
+     */
+    static FederatedPlan parse(String sql) {
+        String statement = sql.strip();
+        while (statement.endsWith(";")) {
+            statement = statement.substring(0, statement.length() - 1).stripTrailing();
+        }
+        return new Parser(statement).parse();
+    }
+
+    List<Source> sources() {
+        return sources;
+    }
+
+    List<JoinStep> joins() {
+        return joins;
+    }
+
+    List<Comparison> residualFilters() {
+        return residualFilters;
+    }
+
+    List<SelectItem> selectItems() {
+        return selectItems;
+    }
+
+    List<ColumnRef> groupBy() {
+        return groupBy;
+    }
+
+    List<OrderKey> orderKeys() {
+        return orderKeys;
+    }
+
+    Long limit() {
+        return limit;
+    }
+
+    long offset() {
+        return offset;
+    }
+
+    boolean isAggregated() {
+        return !groupBy.isEmpty() || selectItems.stream().anyMatch(item -> item.aggregate() != null);
+    }
+
+    /**
+     * For statements reading a single table: the statement with the connection prefix removed,
+     * to run unchanged on that connection. Null when tables have to be joined client-side.
+     */
+    String singleSourceSql() {
+        return singleSourceSql;
+    }
+
+    /**
+     * Builds the sub-query for one table: only the needed columns, with its own predicates pushed down.
+     */
+    String subQuery(Source source) {
+        Set<String> columns = requiredColumns(source.alias());
+        String projection = columns == null
+                ? "*"
+                : columns.isEmpty() ? "1" : String.join(", ", columns.stream().map(c -> quote(source.alias()) + "." + quote(c)).toList());
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(projection)
+                .append(" FROM ").append(source.table()).append(' ').append(quote(source.alias()));
+        List<String> filters = pushedFilters.getOrDefault(source.alias(), List.of());
+        if (!filters.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", filters.stream().map(f -> "(" + f + ")").toList()));
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Returns the columns of the alias referenced anywhere above the sub-query, or null if all are needed.
+     */
+    private Set<String> requiredColumns(String alias) {
+        Set<String> columns = new LinkedHashSet<>();
+        for (SelectItem item : selectItems) {
+            if (item.star() && (item.starAlias() == null || item.starAlias().equals(alias))) {
+                return null;
+            }
+            addIfOwned(columns, alias, item.column());
+        }
+        for (JoinStep join : joins) {
+            join.leftKeys().forEach(ref -> addIfOwned(columns, alias, ref));
+            join.rightKeys().forEach(ref -> addIfOwned(columns, alias, ref));
+        }
+        for (Comparison comparison : residualFilters) {
+            addIfOwned(columns, alias, comparison.left().column());
+            addIfOwned(columns, alias, comparison.right().column());
+        }
+        groupBy.forEach(ref -> addIfOwned(columns, alias, ref));
+        return columns;
+    }
+
+    private static void addIfOwned(Set<String> columns, String alias, ColumnRef ref) {
+        if (ref != null && ref.alias().equals(alias)) {
+            columns.add(ref.column());
+        }
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    private static boolean isConnectionMarker(List<Token> tokens, int i) {
+        Token at = tokens.get(i);
+        if (at.type() != TokenType.OPERATOR || !at.text().equals("@") || i + 2 >= tokens.size()) {
+            return false;
+        }
+        Token name = tokens.get(i + 1);
+        return (name.type() == TokenType.WORD || name.type() == TokenType.QUOTED_IDENTIFIER)
+                && name.start() == at.end()
+                && tokens.get(i + 2).isPunctuation('.');
+    }
+
+    private static String identifier(Token token) {
+        if (token.type() == TokenType.QUOTED_IDENTIFIER) {
+            String text = token.text();
+            return text.substring(1, text.length() - 1).replace("\"\"", "\"");
+        }
+        return token.text().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isName(Token token) {
+        return token.type() == TokenType.WORD || token.type() == TokenType.QUOTED_IDENTIFIER;
+    }
+
+    private static IllegalArgumentException unsupported(String message) {
+        return new IllegalArgumentException(message);
+    }
+
+    /**
+     * Single-use recursive-descent parser over the token list.
+     */
+    private static final class Parser {
+
+        private final String sql;
+        private final List<Token> tokens;
+        private final Map<String, Source> sourcesByAlias = new LinkedHashMap<>();
+        private final List<JoinStep> joins = new ArrayList<>();
+        private final Map<String, List<String>> pushedFilters = new LinkedHashMap<>();
+        private final List<Comparison> residualFilters = new ArrayList<>();
+
+        private Parser(String sql) {
+            this.sql = sql;
+            this.tokens = SqlLexer.tokenize(sql);
+        }
+
+        private FederatedPlan parse() {
+            if (tokens.isEmpty() || !tokens.get(0).isKeyword("select")) {
+                throw unsupported("Cross-database queries must be a single SELECT statement");
+            }
+            for (Token token : tokens) {
+                if (token.isPunctuation(';')) {
+                    throw unsupported("Cross-database queries must be a single statement");
+                }
+                if (token.isTopLevel() && (token.isKeyword("having") || token.isKeyword("union")
+                        || token.isKeyword("intersect") || token.isKeyword("except") || token.isKeyword("fetch"))) {
+                    throw unsupported("%s is not supported in cross-database queries".formatted(token.text().toUpperCase(Locale.ROOT)));
+                }
+            }
+            if (tokens.size() > 1 && tokens.get(1).isKeyword("distinct")) {
+                throw unsupported("DISTINCT is not supported in cross-database queries");
+            }
+
+            int fromIdx = topLevel("from", 1);
+            if (fromIdx == -1) {
+                throw unsupported("Cross-database queries need a FROM clause");
+            }
+            int fromEnd = clauseEnd(fromIdx + 1, FROM_TERMINATORS);
+            parseFrom(fromIdx + 1, fromEnd);
+
+            if (sourcesByAlias.size() == 1) {
+                return singleSource();
+            }
+
+            int whereIdx = topLevel("where", fromEnd);
+            int groupIdx = topLevelPair("group", "by", fromEnd);
+            int orderIdx = topLevelPair("order", "by", fromEnd);
+            int limitIdx = topLevel("limit", fromEnd);
+            int offsetIdx = topLevel("offset", fromEnd);
+
+            if (whereIdx != -1) {
+                int end = firstPositive(groupIdx, orderIdx, limitIdx, offsetIdx, tokens.size());
+                for (List<Token> conjunct : conjuncts(whereIdx + 1, end)) {
+                    placeCondition(conjunct, null);
+                }
+            }
+
+            List<SelectItem> items = parseSelectList(1, fromIdx);
+            List<ColumnRef> groupBy = new ArrayList<>();
+            if (groupIdx != -1) {
+                int end = firstPositive(orderIdx, limitIdx, offsetIdx, tokens.size());
+                for (List<Token> part : split(groupIdx + 2, end)) {
+                    groupBy.add(columnRef(part, "GROUP BY"));
+                }
+            }
+            validateAggregation(items, groupBy);
+
+            List<OrderKey> orderKeys = new ArrayList<>();
+            if (orderIdx != -1) {
+                int end = firstPositive(limitIdx, offsetIdx, tokens.size());
+                for (List<Token> part : split(orderIdx + 2, end)) {
+                    orderKeys.add(orderKey(part, items));
+                }
+            }
+
+            Long limit = limitIdx == -1 ? null : literalCount(limitIdx, "LIMIT");
+            long offset = offsetIdx == -1 ? 0 : literalCount(offsetIdx, "OFFSET");
+
+            return new FederatedPlan(
+                    List.copyOf(sourcesByAlias.values()),
+                    joins,
+                    pushedFilters,
+                    residualFilters,
+                    items,
+                    groupBy,
+                    orderKeys,
+                    limit,
+                    offset,
+                    null
+            );
+        }
+
+        /**
+         * A single table needs no client-side work: strip the connection prefix and run the statement as is.
+         */
+        private FederatedPlan singleSource() {
+            Source source = sourcesByAlias.values().iterator().next();
+            StringBuilder rewritten = new StringBuilder(sql);
+            for (int i = tokens.size() - 3; i >= 1; i--) {
+                if (isConnectionMarker(tokens, i)) {
+                    rewritten.delete(tokens.get(i).start(), tokens.get(i + 2).end());
+                }
+            }
+            return new FederatedPlan(List.of(source), List.of(), Map.of(), List.of(), List.of(), List.of(),
+                    List.of(), null, 0, rewritten.toString());
+        }
+
+        private void parseFrom(int from, int end) {
+            int i = from;
+            i = parseSource(i, end);
+            while (i < end) {
+                Token token = tokens.get(i);
+                if (token.isKeyword("inner") && i + 1 < end && tokens.get(i + 1).isKeyword("join")) {
+                    i++;
+                    token = tokens.get(i);
+                }
+                if (!token.isKeyword("join")) {
+                    if (token.isPunctuation(',')) {
+                        throw unsupported("Use explicit JOIN ... ON instead of comma-separated tables in cross-database queries");
+                    }
+                    throw unsupported("Only inner joins are supported in cross-database queries, found '%s'".formatted(token.text()));
+                }
+                Set<String> joinedBefore = Set.copyOf(sourcesByAlias.keySet());
+                i = parseSource(i + 1, end);
+                Source joined = sourcesByAlias.values().stream().reduce((a, b) -> b).orElseThrow();
+                if (i >= end || !tokens.get(i).isKeyword("on")) {
+                    throw unsupported("JOIN of %s needs an ON condition".formatted(joined.alias()));
+                }
+                int conditionEnd = i + 1;
+                while (conditionEnd < end && !startsJoin(tokens.get(conditionEnd))) {
+                    conditionEnd++;
+                }
+                JoinStep step = new JoinStep(joined, new ArrayList<>(), new ArrayList<>());
+                for (List<Token> conjunct : conjuncts(i + 1, conditionEnd)) {
+                    placeCondition(conjunct, new JoinContext(step, joinedBefore));
+                }
+                if (step.leftKeys().isEmpty()) {
+                    throw unsupported("JOIN of %s needs an equality between its columns and an earlier table's".formatted(joined.alias()));
+                }
+                joins.add(new JoinStep(joined, List.copyOf(step.leftKeys()), List.copyOf(step.rightKeys())));
+                i = conditionEnd;
+            }
+        }
+
+        private static boolean startsJoin(Token token) {
+            return token.isTopLevel() && (token.isPunctuation(',') || (token.type() == TokenType.WORD
+                    && JOIN_WORDS.contains(token.text().toLowerCase(Locale.ROOT))));
+        }
+
+        private int parseSource(int i, int end) {
+            if (i >= end || !isConnectionMarker(tokens, i)) {
+                throw unsupported("Every table in a cross-database query must be written as @connection.table");
+            }
+            String connection = identifier(tokens.get(i + 1));
+            int nameStart = i + 3;
+            int j = nameStart;
+            if (j >= end || !isName(tokens.get(j))) {
+                throw unsupported("Missing table name after @%s.".formatted(connection));
+            }
+            while (j + 2 < end && tokens.get(j + 1).isPunctuation('.') && isName(tokens.get(j + 2))) {
+                j += 2;
+            }
+            String table = sql.substring(tokens.get(nameStart).start(), tokens.get(j).end());
+            String alias = identifier(tokens.get(j));
+            j++;
+            if (j < end && tokens.get(j).isKeyword("as")) {
+                j++;
+            }
+            if (j < end && isName(tokens.get(j))
+                    && !NON_ALIAS_WORDS.contains(tokens.get(j).text().toLowerCase(Locale.ROOT))) {
+                alias = identifier(tokens.get(j));
+                j++;
+            }
+            if (sourcesByAlias.containsKey(alias)) {
+                throw unsupported("Table alias '%s' is used twice".formatted(alias));
+            }
+            sourcesByAlias.put(alias, new Source(connection, table, alias));
+            return j;
+        }
+
+        private record JoinContext(JoinStep step, Set<String> joinedBefore) {
+        }
+
+        /**
+         * Pushes a single-table condition down, turns a cross-table equality in ON into a join key,
+         * and keeps any other cross-table condition as a client-side filter.
+         */
+        private void placeCondition(List<Token> conjunct, JoinContext join) {
+            Set<String> aliases = referencedAliases(conjunct);
+            String text = sql.substring(conjunct.get(0).start(), conjunct.get(conjunct.size() - 1).end());
+            if (aliases.isEmpty()) {
+                throw unsupported("Qualify the columns in '%s' with their table alias".formatted(text));
+            }
+            if (aliases.size() == 1) {
+                pushedFilters.computeIfAbsent(aliases.iterator().next(), alias -> new ArrayList<>()).add(text);
+                return;
+            }
+            Comparison comparison = comparison(conjunct, text);
+            if (join != null && comparison.operator() == Operator.EQ
+                    && comparison.left().column() != null && comparison.right().column() != null) {
+                ColumnRef left = comparison.left().column();
+                ColumnRef right = comparison.right().column();
+                String joined = join.step().source().alias();
+                if (join.joinedBefore().contains(left.alias()) && right.alias().equals(joined)) {
+                    join.step().leftKeys().add(left);
+                    join.step().rightKeys().add(right);
+                    return;
+                }
+                if (join.joinedBefore().contains(right.alias()) && left.alias().equals(joined)) {
+                    join.step().leftKeys().add(right);
+                    join.step().rightKeys().add(left);
+                    return;
+                }
+            }
+            residualFilters.add(comparison);
+        }
+
+        private Set<String> referencedAliases(List<Token> range) {
+            Set<String> aliases = new LinkedHashSet<>();
+            for (int i = 0; i + 1 < range.size(); i++) {
+                Token token = range.get(i);
+                boolean qualifier = isName(token) && range.get(i + 1).isPunctuation('.')
+                        && (i == 0 || !range.get(i - 1).isPunctuation('.'));
+                if (qualifier && sourcesByAlias.containsKey(identifier(token))) {
+                    aliases.add(identifier(token));
+                }
+            }
+            return aliases;
+        }
+
+        private Comparison comparison(List<Token> conjunct, String text) {
+            int opIdx = -1;
+            for (int i = 0; i < conjunct.size(); i++) {
+                if (conjunct.get(i).type() == TokenType.OPERATOR && operator(conjunct.get(i).text()) != null) {
+                    opIdx = i;
+                    break;
+                }
+            }
+            if (opIdx == -1) {
+                throw unsupported("Conditions spanning tables must be simple comparisons, found '%s'".formatted(text));
+            }
+            Operand left = operand(conjunct.subList(0, opIdx), text);
+            Operand right = operand(conjunct.subList(opIdx + 1, conjunct.size()), text);
+            return new Comparison(left, operator(conjunct.get(opIdx).text()), right, text);
+        }
+
+        private Operand operand(List<Token> part, String text) {
+            if (part.size() == 3 && isName(part.get(0)) && part.get(1).isPunctuation('.') && isName(part.get(2))) {
+                return new Operand(columnRef(part, "WHERE"), null);
+            }
+            if (part.size() == 1) {
+                Token token = part.get(0);
+                if (token.type() == TokenType.NUMBER) {
+                    return new Operand(null, new BigDecimal(token.text().replace("_", "")));
+                }
+                if (token.type() == TokenType.STRING && token.text().startsWith("'")) {
+                    String literal = token.text();
+                    return new Operand(null, literal.substring(1, literal.length() - 1).replace("''", "'"));
+                }
+                if (token.isKeyword("true") || token.isKeyword("false")) {
+                    return new Operand(null, Boolean.parseBoolean(token.text().toLowerCase(Locale.ROOT)));
+                }
+            }
+            throw unsupported("Conditions spanning tables may only compare columns and literals, found '%s'".formatted(text));
+        }
+
+        private static Operator operator(String text) {
+            return switch (text) {
+                case "=" -> Operator.EQ;
+                case "<>", "!=" -> Operator.NE;
+                case "<" -> Operator.LT;
+                case "<=" -> Operator.LE;
+                case ">" -> Operator.GT;
+                case ">=" -> Operator.GE;
+                default -> null;
+            };
+        }
+
+        private List<SelectItem> parseSelectList(int from, int end) {
+            List<SelectItem> items = new ArrayList<>();
+            for (List<Token> part : split(from, end)) {
+                items.add(selectItem(part));
+            }
+            return items;
+        }
+
+        private SelectItem selectItem(List<Token> part) {
+            String text = sql.substring(part.get(0).start(), part.get(part.size() - 1).end());
+            int exprEnd = part.size();
+            String label = null;
+            if (part.size() >= 2 && isName(part.get(part.size() - 1)) && !part.get(part.size() - 2).isPunctuation('.')) {
+                label = identifier(part.get(part.size() - 1));
+                exprEnd = part.size() - 1;
+                if (exprEnd >= 2 && part.get(exprEnd - 1).isKeyword("as")) {
+                    exprEnd--;
+                }
+            }
+            List<Token> expr = part.subList(0, exprEnd);
+
+            if (expr.size() == 1 && expr.get(0).text().equals("*")) {
+                return new SelectItem(null, null, true, null, null);
+            }
+            if (expr.size() == 3 && isName(expr.get(0)) && expr.get(1).isPunctuation('.') && expr.get(2).text().equals("*")) {
+                String alias = identifier(expr.get(0));
+                requireAlias(alias, text);
+                return new SelectItem(null, null, true, alias, null);
+            }
+            if (expr.size() == 3 && isName(expr.get(0)) && expr.get(1).isPunctuation('.') && isName(expr.get(2))) {
+                ColumnRef ref = columnRef(expr, "SELECT");
+                return new SelectItem(ref, null, false, null, label != null ? label : ref.column());
+            }
+            if (expr.size() >= 4 && expr.get(0).type() == TokenType.WORD && expr.get(1).isPunctuation('(')
+                    && expr.get(expr.size() - 1).isPunctuation(')')) {
+                Aggregate aggregate;
+                try {
+                    aggregate = Aggregate.valueOf(expr.get(0).text().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw unsupported("Function '%s' is not supported in cross-database queries".formatted(expr.get(0).text()));
+                }
+                List<Token> argument = expr.subList(2, expr.size() - 1);
+                String name = label != null ? label : aggregate.name().toLowerCase(Locale.ROOT);
+                if (aggregate == Aggregate.COUNT && argument.size() == 1 && argument.get(0).text().equals("*")) {
+                    return new SelectItem(null, Aggregate.COUNT, false, null, name);
+                }
+                if (argument.size() == 3 && isName(argument.get(0)) && argument.get(1).isPunctuation('.') && isName(argument.get(2))) {
+                    return new SelectItem(columnRef(argument, "SELECT"), aggregate, false, null, name);
+                }
+            }
+            throw unsupported("Select items in cross-database queries must be alias.column, alias.* or "
+                    + "COUNT/SUM/MIN/MAX/AVG of a column, found '%s'".formatted(text));
+        }
+
+        private void validateAggregation(List<SelectItem> items, List<ColumnRef> groupBy) {
+            boolean aggregated = !groupBy.isEmpty() || items.stream().anyMatch(item -> item.aggregate() != null);
+            if (!aggregated) {
+                return;
+            }
+            for (SelectItem item : items) {
+                if (item.star()) {
+                    throw unsupported("SELECT * cannot be combined with aggregates");
+                }
+                if (item.aggregate() == null && !groupBy.contains(item.column())) {
+                    throw unsupported("Column %s must appear in GROUP BY or be aggregated".formatted(item.column()));
+                }
+            }
+        }
+
+        private OrderKey orderKey(List<Token> part, List<SelectItem> items) {
+            int exprEnd = part.size();
+            boolean ascending = true;
+            Boolean nullsFirst = null;
+            if (exprEnd >= 3 && part.get(exprEnd - 2).isKeyword("nulls")) {
+                nullsFirst = part.get(exprEnd - 1).isKeyword("first");
+                exprEnd -= 2;
+            }
+            if (exprEnd >= 2 && (part.get(exprEnd - 1).isKeyword("asc") || part.get(exprEnd - 1).isKeyword("desc"))) {
+                ascending = part.get(exprEnd - 1).isKeyword("asc");
+                exprEnd--;
+            }
+            List<Token> expr = part.subList(0, exprEnd);
+            String text = sql.substring(expr.get(0).start(), expr.get(expr.size() - 1).end());
+            int index = -1;
+            if (expr.size() == 1 && expr.get(0).type() == TokenType.NUMBER) {
+                index = Integer.parseInt(expr.get(0).text()) - 1;
+            } else if (expr.size() == 1 && isName(expr.get(0))) {
+                String name = identifier(expr.get(0));
+                for (int i = 0; i < items.size() && index == -1; i++) {
+                    if (items.get(i).label() != null && items.get(i).label().equalsIgnoreCase(name)) {
+                        index = i;
+                    }
+                }
+            } else if (expr.size() == 3) {
+                ColumnRef ref = columnRef(expr, "ORDER BY");
+                for (int i = 0; i < items.size() && index == -1; i++) {
+                    if (items.get(i).aggregate() == null && ref.equals(items.get(i).column())) {
+                        index = i;
+                    }
+                }
+            }
+            if (index < 0 || index >= items.size() || items.get(index).star()) {
+                throw unsupported("ORDER BY must name a selected column in cross-database queries, found '%s'".formatted(text));
+            }
+            return new OrderKey(index, ascending, nullsFirst != null ? nullsFirst : !ascending);
+        }
+
+        private ColumnRef columnRef(List<Token> part, String clause) {
+            String text = sql.substring(part.get(0).start(), part.get(part.size() - 1).end());
+            if (part.size() != 3 || !isName(part.get(0)) || !part.get(1).isPunctuation('.') || !isName(part.get(2))) {
+                throw unsupported("%s in cross-database queries expects alias.column, found '%s'".formatted(clause, text));
+            }
+            String alias = identifier(part.get(0));
+            requireAlias(alias, text);
+            return new ColumnRef(alias, identifier(part.get(2)));
+        }
+
+        private void requireAlias(String alias, String text) {
+            if (!sourcesByAlias.containsKey(alias)) {
+                throw unsupported("Unknown table alias '%s' in '%s'".formatted(alias, text));
+            }
+        }
+
+        private long literalCount(int keywordIdx, String clause) {
+            Token value = keywordIdx + 1 < tokens.size() ? tokens.get(keywordIdx + 1) : null;
+            if (value == null || value.type() != TokenType.NUMBER) {
+                throw unsupported("%s must be a number in cross-database queries".formatted(clause));
+            }
+            return Long.parseLong(value.text());
+        }
+
+        /**
+         * Splits a range on top-level AND, keeping the AND of a BETWEEN inside its conjunct.
+         * A top-level OR binds looser than AND, so such a range stays a single conjunct.
+         */
+        private List<List<Token>> conjuncts(int from, int end) {
+            List<List<Token>> parts = new ArrayList<>();
+            for (int i = from; i < end; i++) {
+                if (tokens.get(i).isTopLevel() && tokens.get(i).isKeyword("or")) {
+                    addRange(parts, from, end);
+                    return parts;
+                }
+            }
+            int start = from;
+            boolean pendingBetween = false;
+            for (int i = from; i < end; i++) {
+                Token token = tokens.get(i);
+                if (token.isTopLevel() && token.isKeyword("between")) {
+                    pendingBetween = true;
+                } else if (token.isTopLevel() && token.isKeyword("and")) {
+                    if (pendingBetween) {
+                        pendingBetween = false;
+                        continue;
+                    }
+                    addRange(parts, start, i);
+                    start = i + 1;
+                }
+            }
+            addRange(parts, start, end);
+            return parts;
+        }
+
+        private List<List<Token>> split(int from, int end) {
+            List<List<Token>> parts = new ArrayList<>();
+            int start = from;
+            for (int i = from; i < end; i++) {
+                if (tokens.get(i).isTopLevel() && tokens.get(i).isPunctuation(',')) {
+                    addRange(parts, start, i);
+                    start = i + 1;
+                }
+            }
+            addRange(parts, start, end);
+            return parts;
+        }
+
+        private void addRange(List<List<Token>> parts, int start, int end) {
+            if (end > start) {
+                parts.add(tokens.subList(start, end));
+            }
+        }
+
+        private int topLevel(String keyword, int from) {
+            for (int i = from; i < tokens.size(); i++) {
+                if (tokens.get(i).isTopLevel() && tokens.get(i).isKeyword(keyword)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int topLevelPair(String first, String second, int from) {
+            for (int i = from; i + 1 < tokens.size(); i++) {
+                if (tokens.get(i).isTopLevel() && tokens.get(i).isKeyword(first) && tokens.get(i + 1).isKeyword(second)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int clauseEnd(int from, Set<String> terminators) {
+            for (int i = from; i < tokens.size(); i++) {
+                Token token = tokens.get(i);
+                if (token.isTopLevel() && token.type() == TokenType.WORD
+                        && terminators.contains(token.text().toLowerCase(Locale.ROOT))) {
+                    return i;
+                }
+            }
+            return tokens.size();
+        }
+
+        private static int firstPositive(int... candidates) {
+            int result = Integer.MAX_VALUE;
+            for (int candidate : candidates) {
+                if (candidate >= 0) {
+                    result = Math.min(result, candidate);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package org.nexa.querymate.infrastructure.adapters.out.federation;
+
+import org.nexa.querymate.application.ports.out.DatabasePort;
+import org.nexa.querymate.application.ports.out.FederatedQueryPort;
+import org.nexa.querymate.application.ports.out.RowSink;
+import org.nexa.querymate.domain.exception.QueryExecutionException;
+import org.nexa.querymate.domain.exception.QueryMateException;
+import org.nexa.querymate.domain.query.Deadline;
+import org.nexa.querymate.domain.query.QueryOrigin;
+import org.nexa.querymate.domain.query.QueryResult;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.infrastructure.adapters.out.federation.FederatedPlan.ColumnRef;
+import org.nexa.querymate.infrastructure.adapters.out.federation.FederatedPlan.Comparison;
+import org.nexa.querymate.infrastructure.adapters.out.federation.FederatedPlan.JoinStep;
+import org.nexa.querymate.infrastructure.adapters.out.federation.FederatedPlan.Source;
+import org.nexa.querymate.infrastructure.config.FederationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * FederatedQueryPort that runs one sub-query per table on its connection, all in parallel,
+ * then joins, filters, aggregates and sorts the results in the client.
+ * Sub-query rows are streamed into {@link SpillableRows} and join outputs are written to them too, so
+ * intermediate results that outgrow the memory budget move to disk and the joins run partition by partition.
+ * Each sub-query is bounded by the query's deadline, and the join gives up once it passes.
+ * See {@link FederatedPlan} for the supported statement shape.
+ */
+@Component
+public class FederatedQueryAdapter implements FederatedQueryPort {
+
+    private static final Logger log = LoggerFactory.getLogger(FederatedQueryAdapter.class);
+
+    private final long memoryBytes;
+    private final Path spillDirectory;
+    private final HashJoin hashJoin;
+    private final int maxRows;
+
+    public FederatedQueryAdapter(FederationProperties properties) {
+        this.memoryBytes = properties.joinMemoryMb() * 1024L * 1024L;
+        this.spillDirectory = Path.of(properties.spillDirectory());
+        this.hashJoin = new HashJoin(properties.spillPartitions());
+        this.maxRows = properties.maxRows();
+    }
+
+    @Override
+    public boolean isFederated(SqlStatement statement) {
+        return FederatedPlan.isFederated(statement.value());
+    }
+
+    @Override
+    public QueryResult execute(SqlStatement statement, QueryOrigin origin, Deadline deadline,
+                               Function<String, DatabasePort> connections) {
+        long start = System.nanoTime();
+        FederatedPlan plan;
+        try {
+            plan = FederatedPlan.parse(statement.value());
+        } catch (IllegalArgumentException e) {
+            throw QueryExecutionException.unsupportedFederatedQuery(e.getMessage());
+        }
+
+        if (plan.singleSourceSql() != null) {
+            Source source = plan.sources().getFirst();
+            return run(connections.apply(source.connection()), SqlStatement.of(plan.singleSourceSql()), origin, deadline);
+        }
+
+        List<QueryResult.Timing> timings = new ArrayList<>();
+        try (SpillArea area = new SpillArea(memoryBytes, spillDirectory)) {
+            Map<String, Table> tables = runSubQueries(plan, connections, origin, deadline, area, timings);
+            QueryResult result = combine(plan, tables, area, deadline, timings);
+            Duration executionTime = Duration.ofNanos(System.nanoTime() - start);
+            log.debug("Federated query completed",
+                    kv("tables", plan.sources().size()),
+                    kv("rows", result.rowCount()),
+                    kv("executionTime", executionTime));
+            return result.withMetadata(new QueryResult.QueryMetadata(result.rowCount(), executionTime, timings, List.of()));
+        } catch (IllegalArgumentException e) {
+            throw QueryExecutionException.unsupportedFederatedQuery(e.getMessage());
+        } catch (UncheckedIOException e) {
+            throw new QueryExecutionException("Cross-database join failed: " + e.getMessage(), e);
+        }
+    }
+
+    private Map<String, Table> runSubQueries(
+            FederatedPlan plan,
+            Function<String, DatabasePort> connections,
+            QueryOrigin origin,
+            Deadline deadline,
+            SpillArea area,
+            List<QueryResult.Timing> timings
+    ) {
+        // Resolve every connection first so an unknown name fails before any sub-query runs
+        Map<Source, DatabasePort> ports = new LinkedHashMap<>();
+        plan.sources().forEach(source -> ports.put(source, connections.apply(source.connection())));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Map<Source, Future<Table>> futures = new LinkedHashMap<>();
+            ports.forEach((source, port) -> {
+                SqlStatement subQuery = SqlStatement.of(plan.subQuery(source));
+                log.debug("Running sub-query", kv("connection", source.connection()), kv("sql", subQuery.value()));
+                futures.put(source, executor.submit(() -> read(source, port, subQuery, origin, deadline, area)));
+            });
+
+            Map<String, Table> tables = new LinkedHashMap<>();
+            try {
+                for (Map.Entry<Source, Future<Table>> entry : futures.entrySet()) {
+                    Source source = entry.getKey();
+                    Table table = await(source, entry.getValue(), deadline);
+                    timings.add(new QueryResult.Timing(
+                            "@%s %s (%d rows)".formatted(source.connection(), source.table(), table.rows().size()),
+                            table.elapsed()
+                    ));
+                    tables.put(source.alias(), table);
+                }
+            } catch (RuntimeException e) {
+                // Closing the executor waits for its tasks, so stop the sub-queries whose rows are no longer needed
+                futures.values().forEach(future -> future.cancel(true));
+                throw e;
+            }
+            return tables;
+        }
+    }
+
+    private static QueryResult run(DatabasePort port, SqlStatement statement, QueryOrigin origin, Deadline deadline) {
+        return deadline.isBounded() ? port.execute(statement, origin, deadline) : port.execute(statement);
+    }
+
+    /**
+     * Streams the sub-query's rows into rows of the spill area, keying its columns by {@code alias.column}
+     * to match the plan's column references.
+     */
+    private static Table read(Source source, DatabasePort port, SqlStatement subQuery, QueryOrigin origin,
+                              Deadline deadline, SpillArea area) {
+        long start = System.nanoTime();
+        SpillableRows rows = area.newRows();
+        List<String> columns = new ArrayList<>();
+        port.stream(subQuery, origin, deadline, new RowSink() {
+            @Override
+            public void columns(List<String> labels) {
+                labels.forEach(label -> columns.add(source.alias() + "." + label));
+            }
+
+            @Override
+            public boolean accept(List<Object> row) {
+                rows.add(row.toArray());
+                // Stop reading once the query no longer needs the rows
+                return !Thread.currentThread().isInterrupted();
+            }
+        });
+        return new Table(new Relation(columns, rows), rows, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static <T> T await(Source source, Future<T> future, Deadline deadline) {
+        try {
+            return deadline.isBounded()
+                    ? future.get(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS)
+                    : future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryExecutionException("Interrupted while waiting for sub-queries", e);
+        } catch (TimeoutException e) {
+            throw QueryExecutionException.deadlineExceeded(deadline.budget(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof QueryMateException cause) {
+                throw QueryExecutionException.subQueryFailed(source.connection(), cause);
+            }
+            throw QueryExecutionException.subQueryFailed(source.connection(), e.getCause());
+        }
+    }
+
+    private QueryResult combine(FederatedPlan plan, Map<String, Table> tables, SpillArea area, Deadline deadline,
+                                List<QueryResult.Timing> timings) {
+        Table first = tables.get(plan.sources().getFirst().alias());
+        Relation joined = first.relation();
+        SpillableRows joinedRows = first.rows();
+        Set<String> joinedAliases = new HashSet<>(Set.of(plan.sources().getFirst().alias()));
+        List<Comparison> pending = new ArrayList<>(plan.residualFilters());
+
+        for (JoinStep step : plan.joins()) {
+            if (deadline.isExpired()) {
+                throw QueryExecutionException.deadlineExceeded(deadline.budget());
+            }
+            Table right = tables.get(step.source().alias());
+            List<String> columns = new ArrayList<>(joined.columns());
+            columns.addAll(right.relation().columns());
+            SpillableRows output = area.newRows();
+            Relation result = new Relation(columns, output);
+            joinedAliases.add(step.source().alias());
+
+            // Filter as the rows are joined to keep the next join small
+            List<Comparison> ready = pending.stream().filter(c -> covered(c, joinedAliases)).toList();
+            pending.removeAll(ready);
+            Predicate<Object[]> keep = RowOperators.condition(result, ready);
+
+            long joinStart = System.nanoTime();
+            int partitions = hashJoin.join(
+                    area,
+                    joinedRows, indexes(joined, step.leftKeys()),
+                    right.rows(), indexes(right.relation(), step.rightKeys()),
+                    row -> {
+                        if (keep.test(row)) {
+                            output.add(row);
+                        }
+                    }
+            );
+            joinedRows.discard();
+            right.rows().discard();
+            String label = partitions == 0
+                    ? "join %s (%d rows)".formatted(step.source().alias(), output.size())
+                    : "join %s (%d rows, spilled to %d partitions)".formatted(step.source().alias(), output.size(), partitions);
+            timings.add(new QueryResult.Timing(label, Duration.ofNanos(System.nanoTime() - joinStart)));
+            joined = result;
+            joinedRows = output;
+        }
+
+        Relation input = joined;
+        if (!plan.isAggregated()) {
+            // Projected rows are held in memory to be sorted and returned
+            if (plan.orderKeys().isEmpty() && plan.limit() != null) {
+                input = new Relation(joined.columns(), head(joinedRows, plan.offset() + plan.limit()));
+            } else if (maxRows > 0 && joinedRows.size() > maxRows) {
+                throw QueryExecutionException.federatedRowLimitExceeded("the final projection", maxRows);
+            }
+        }
+        Relation projected = RowOperators.project(input, plan.selectItems(), plan.groupBy(), plan.isAggregated());
+        int[] positions = RowOperators.itemPositions(joined, plan.selectItems());
+        List<Object[]> rows = RowOperators.sortAndLimit(projected.rows(), plan.orderKeys(), positions, plan.offset(), plan.limit());
+
+        return new QueryResult(
+                projected.columns(),
+                rows.stream().map(Arrays::asList).toList(),
+                new QueryResult.QueryMetadata(rows.size(), Duration.ZERO)
+        );
+    }
+
+    private static List<Object[]> head(Iterable<Object[]> rows, long count) {
+        List<Object[]> head = new ArrayList<>();
+        for (Object[] row : rows) {
+            if (head.size() >= count) {
+                break;
+            }
+            head.add(row);
+        }
+        return head;
+    }
+
+    private static int[] indexes(Relation relation, List<ColumnRef> refs) {
+        return refs.stream().mapToInt(ref -> relation.indexOf(ref.key())).toArray();
+    }
+
+    private static boolean covered(Comparison comparison, Set<String> aliases) {
+        return (comparison.left().column() == null || aliases.contains(comparison.left().column().alias()))
+                && (comparison.right().column() == null || aliases.contains(comparison.right().column().alias()));
+    }
+
+    /**
+     * A sub-query's rows, and how long it took to read them.
+     */
+    private record Table(Relation relation, SpillableRows rows, Duration elapsed) {
+    }
+}
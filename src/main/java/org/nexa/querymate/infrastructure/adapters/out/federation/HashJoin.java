@@ -0,0 +1,123 @@
+package org.nexa.querymate.infrastructure.adapters.out.federation;
+
+import org.nexa.querymate.domain.query.SqlValues;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Inner equi-join of two sets of rows. Rows with a NULL key never match, as in SQL.
+ * <p>
+ * While one side is still in memory, a hash table is built on it and the other side is streamed past it.
+ * Once both have spilled, each is hash-partitioned into rows of the same {@link SpillArea} and the
+ * partitions are joined pair by pair (a Grace hash join), so only one build partition is held in memory
+ * at a time.
+ */
+final class HashJoin {
+
+    private final int partitions;
+
+    HashJoin(int partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * Hands every joined row to the output; a row holds the left columns followed by the right columns.
+     *
+     * @return the number of partitions the sides were split into, or 0 if the join ran in memory
+     */
+    int join(SpillArea area, SpillableRows left, int[] leftKeys, SpillableRows right, int[] rightKeys,
+             Consumer<Object[]> output) {
+        boolean buildLeft = right.spilled() || (!left.spilled() && left.size() <= right.size());
+        SpillableRows build = buildLeft ? left : right;
+        SpillableRows probe = buildLeft ? right : left;
+        int[] buildKeys = buildLeft ? leftKeys : rightKeys;
+        int[] probeKeys = buildLeft ? rightKeys : leftKeys;
+        Emitter emit = (buildRow, probeRow) -> output.accept(buildLeft ? concat(buildRow, probeRow) : concat(probeRow, buildRow));
+
+        if (!build.spilled()) {
+            probe(index(build, buildKeys), probe, probeKeys, emit);
+            return 0;
+        }
+
+        SpillableRows[] buildPartitions = partition(area, build, buildKeys);
+        SpillableRows[] probePartitions = partition(area, probe, probeKeys);
+        for (int p = 0; p < partitions; p++) {
+            Map<List<Object>, List<Object[]>> table = index(buildPartitions[p], buildKeys);
+            buildPartitions[p].discard();
+            if (!table.isEmpty()) {
+                probe(table, probePartitions[p], probeKeys, emit);
+            }
+            probePartitions[p].discard();
+        }
+        return partitions;
+    }
+
+    @FunctionalInterface
+    private interface Emitter {
+        void emit(Object[] buildRow, Object[] probeRow);
+    }
+
+    private SpillableRows[] partition(SpillArea area, SpillableRows rows, int[] keys) {
+        SpillableRows[] parts = new SpillableRows[partitions];
+        for (int p = 0; p < partitions; p++) {
+            parts[p] = area.newRows();
+        }
+        for (Object[] row : rows) {
+            List<Object> key = key(row, keys);
+            if (key != null) {
+                parts[Math.floorMod(key.hashCode() * 0x9E3779B9, partitions)].add(row);
+            }
+        }
+        return parts;
+    }
+
+    private static Map<List<Object>, List<Object[]>> index(Iterable<Object[]> rows, int[] keys) {
+        Map<List<Object>, List<Object[]>> table = new HashMap<>();
+        for (Object[] row : rows) {
+            List<Object> key = key(row, keys);
+            if (key != null) {
+                table.computeIfAbsent(key, k -> new ArrayList<>(1)).add(row);
+            }
+        }
+        return table;
+    }
+
+    private static void probe(Map<List<Object>, List<Object[]>> table, Iterable<Object[]> rows, int[] keys,
+                              Emitter emit) {
+        for (Object[] row : rows) {
+            List<Object> key = key(row, keys);
+            if (key == null) {
+                continue;
+            }
+            for (Object[] match : table.getOrDefault(key, List.of())) {
+                emit.emit(match, row);
+            }
+        }
+    }
+
+    /**
+     * Returns the normalized join key, or null if any key column is NULL.
+     */
+    private static List<Object> key(Object[] row, int[] keys) {
+        Object[] key = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            Object value = row[keys[i]];
+            if (value == null) {
+                return null;
+            }
+            key[i] = SqlValues.hashKey(value);
+        }
+        return Arrays.asList(key);
+    }
+
+    private static Object[] concat(Object[] left, Object[] right) {
+        Object[] row = Arrays.copyOf(left, left.length + right.length);
+        System.arraycopy(right, 0, row, left.length, right.length);
+        return row;
+    }
+}
@@ -0,0 +1,24 @@
+package org.nexa.querymate.infrastructure.adapters.out.federation;
+
+import java.util.List;
+
+/**
+ * Intermediate rows passed between operators; held in memory or, while tables are being joined, in
+ * {@link SpillableRows}.
+ *
+ * @param columns {@code alias.column} keys while tables are being joined; output labels after projection
+ */
+record Relation(List<String> columns, Iterable<Object[]> rows) {
+
+    Relation {
+        columns = List.copyOf(columns);
+    }
+
+    int indexOf(String column) {
+        int index = columns.indexOf(column);
+        if (index == -1) {
+            throw new IllegalArgumentException("Column %s was not returned by its sub-query".formatted(column));
+        }
+        return index;
+    }
+}
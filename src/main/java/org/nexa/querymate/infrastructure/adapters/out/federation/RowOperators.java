@@ -0,0 +1,278 @@
+package org.nexa.querymate.infrastructure.adapters.out.federation;
+
+import org.nexa.querymate.domain.query.SqlValues;
+import org.nexa.querymate.infrastructure.adapters.out.federation.FederatedPlan.Aggregate;
+import org.nexa.querymate.infrastructure.adapters.out.federation.FederatedPlan.ColumnRef;
+import org.nexa.querymate.infrastructure.adapters.out.federation.FederatedPlan.Comparison;
+import org.nexa.querymate.infrastructure.adapters.out.federation.FederatedPlan.Operand;
+import org.nexa.querymate.infrastructure.adapters.out.federation.FederatedPlan.OrderKey;
+import org.nexa.querymate.infrastructure.adapters.out.federation.FederatedPlan.SelectItem;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Client-side filter, aggregate, projection and sort operators applied after the joins.
+ */
+final class RowOperators {
+
+    private RowOperators() {
+    }
+
+    /**
+     * Returns a test that is true for the rows where every comparison is true; a comparison involving NULL
+     * is not true.
+     */
+    static Predicate<Object[]> condition(Relation input, List<Comparison> comparisons) {
+        int[][] operands = new int[comparisons.size()][];
+        for (int i = 0; i < comparisons.size(); i++) {
+            operands[i] = new int[]{
+                    index(input, comparisons.get(i).left()),
+                    index(input, comparisons.get(i).right())
+            };
+        }
+        return row -> {
+            for (int i = 0; i < comparisons.size(); i++) {
+                if (!test(comparisons.get(i), operands[i], row)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Computes the select list over the joined rows: plain projection, or grouping and aggregation.
+     * The result columns are the select item labels.
+     */
+    static Relation project(Relation input, List<SelectItem> items, List<ColumnRef> groupBy, boolean aggregated) {
+        List<String> labels = new ArrayList<>();
+        List<int[]> sources = new ArrayList<>();
+        for (SelectItem item : items) {
+            if (item.star()) {
+                int[] indexes = starColumns(input, item.starAlias());
+                for (int index : indexes) {
+                    String key = input.columns().get(index);
+                    labels.add(key.substring(key.indexOf('.') + 1));
+                }
+                sources.add(indexes);
+            } else {
+                labels.add(item.label());
+                sources.add(new int[]{item.column() != null ? input.indexOf(item.column().key()) : -1});
+            }
+        }
+
+        if (!aggregated) {
+            List<Object[]> rows = new ArrayList<>();
+            for (Object[] row : input.rows()) {
+                Object[] projected = new Object[labels.size()];
+                int position = 0;
+                for (int[] indexes : sources) {
+                    for (int index : indexes) {
+                        projected[position++] = row[index];
+                    }
+                }
+                rows.add(projected);
+            }
+            return new Relation(labels, rows);
+        }
+        return aggregate(input, items, groupBy, labels, sources);
+    }
+
+    /**
+     * Sorts by the order keys, then applies OFFSET and LIMIT.
+     *
+     * @param itemPositions output column of each select item, as stars expand to several columns
+     */
+    static List<Object[]> sortAndLimit(Iterable<Object[]> rows, List<OrderKey> keys, int[] itemPositions, long offset, Long limit) {
+        List<Object[]> sorted;
+        if (rows instanceof List<Object[]> list && keys.isEmpty()) {
+            sorted = list;
+        } else {
+            sorted = new ArrayList<>();
+            rows.forEach(sorted::add);
+            if (!keys.isEmpty()) {
+                sorted.sort(comparator(keys, itemPositions));
+            }
+        }
+        int from = (int) Math.min(offset, sorted.size());
+        int to = limit == null ? sorted.size() : (int) Math.min(sorted.size(), from + limit);
+        return sorted.subList(from, to);
+    }
+
+    /**
+     * Returns the output column of each select item over the given input.
+     */
+    static int[] itemPositions(Relation input, List<SelectItem> items) {
+        int[] positions = new int[items.size()];
+        int position = 0;
+        for (int i = 0; i < items.size(); i++) {
+            positions[i] = position;
+            position += items.get(i).star() ? starColumns(input, items.get(i).starAlias()).length : 1;
+        }
+        return positions;
+    }
+
+    private static Relation aggregate(
+            Relation input,
+            List<SelectItem> items,
+            List<ColumnRef> groupBy,
+            List<String> labels,
+            List<int[]> sources
+    ) {
+        int[] groupIndexes = groupBy.stream().mapToInt(ref -> input.indexOf(ref.key())).toArray();
+        Map<List<Object>, Object[]> groups = new LinkedHashMap<>();
+        for (Object[] row : input.rows()) {
+            Object[] groupKey = new Object[groupIndexes.length];
+            for (int i = 0; i < groupIndexes.length; i++) {
+                groupKey[i] = SqlValues.hashKey(row[groupIndexes[i]]);
+            }
+            Object[] states = groups.computeIfAbsent(Arrays.asList(groupKey), key -> initialStates(items, row, sources));
+            for (int i = 0; i < items.size(); i++) {
+                Aggregate aggregate = items.get(i).aggregate();
+                if (aggregate != null) {
+                    int index = sources.get(i)[0];
+                    states[i] = accumulate(aggregate, states[i], index == -1 ? Boolean.TRUE : row[index]);
+                }
+            }
+        }
+        if (groups.isEmpty() && groupBy.isEmpty()) {
+            // An aggregate over no rows still yields one row
+            groups.put(List.of(), initialStates(items, null, sources));
+        }
+
+        List<Object[]> rows = new ArrayList<>(groups.size());
+        for (Object[] states : groups.values()) {
+            Object[] row = new Object[items.size()];
+            for (int i = 0; i < items.size(); i++) {
+                Aggregate aggregate = items.get(i).aggregate();
+                row[i] = aggregate == null ? states[i] : finish(aggregate, states[i]);
+            }
+            rows.add(row);
+        }
+        return new Relation(labels, rows);
+    }
+
+    /**
+     * Group columns keep the first row's value; aggregates start empty.
+     */
+    private static Object[] initialStates(List<SelectItem> items, Object[] row, List<int[]> sources) {
+        Object[] states = new Object[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            Aggregate aggregate = items.get(i).aggregate();
+            if (aggregate == null) {
+                states[i] = row == null ? null : row[sources.get(i)[0]];
+            } else if (aggregate == Aggregate.COUNT) {
+                states[i] = 0L;
+            } else if (aggregate == Aggregate.AVG) {
+                states[i] = new Average();
+            }
+        }
+        return states;
+    }
+
+    private static final class Average {
+        private Number sum;
+        private long count;
+    }
+
+    private static Object accumulate(Aggregate aggregate, Object state, Object value) {
+        if (value == null) {
+            return state;
+        }
+        return switch (aggregate) {
+            case COUNT -> (Long) state + 1;
+            // Start from 0L so integer sums widen to bigint, as in PostgreSQL
+            case SUM -> SqlValues.add(state == null ? 0L : (Number) state, requireNumber(value));
+            case MIN -> state == null || SqlValues.compare(value, state) < 0 ? value : state;
+            case MAX -> state == null || SqlValues.compare(value, state) > 0 ? value : state;
+            case AVG -> {
+                Average average = (Average) state;
+                average.sum = average.sum == null ? requireNumber(value) : SqlValues.add(average.sum, requireNumber(value));
+                average.count++;
+                yield average;
+            }
+        };
+    }
+
+    private static Object finish(Aggregate aggregate, Object state) {
+        if (aggregate != Aggregate.AVG) {
+            return state;
+        }
+        Average average = (Average) state;
+        if (average.count == 0) {
+            return null;
+        }
+        return SqlValues.toBigDecimal(average.sum).divide(BigDecimal.valueOf(average.count), MathContext.DECIMAL64);
+    }
+
+    private static Number requireNumber(Object value) {
+        if (value instanceof Number number) {
+            return number;
+        }
+        throw new IllegalArgumentException("Cannot sum or average non-numeric value of type " + value.getClass().getSimpleName());
+    }
+
+    private static int[] starColumns(Relation input, String alias) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < input.columns().size(); i++) {
+            if (alias == null || input.columns().get(i).startsWith(alias + ".")) {
+                indexes.add(i);
+            }
+        }
+        return indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static boolean test(Comparison comparison, int[] operands, Object[] row) {
+        Object left = operands[0] == -1 ? comparison.left().literal() : row[operands[0]];
+        Object right = operands[1] == -1 ? comparison.right().literal() : row[operands[1]];
+        if (left == null || right == null) {
+            return false;
+        }
+        int cmp = SqlValues.compare(left, right);
+        return switch (comparison.operator()) {
+            case EQ -> cmp == 0;
+            case NE -> cmp != 0;
+            case LT -> cmp < 0;
+            case LE -> cmp <= 0;
+            case GT -> cmp > 0;
+            case GE -> cmp >= 0;
+        };
+    }
+
+    private static int index(Relation relation, Operand operand) {
+        return operand.column() != null ? relation.indexOf(operand.column().key()) : -1;
+    }
+
+    private static Comparator<Object[]> comparator(List<OrderKey> keys, int[] itemPositions) {
+        return (left, right) -> {
+            for (OrderKey key : keys) {
+                Object a = left[itemPositions[key.selectIndex()]];
+                Object b = right[itemPositions[key.selectIndex()]];
+                int cmp;
+                if (a == null || b == null) {
+                    if (a == b) {
+                        continue;
+                    }
+                    cmp = (a == null) == key.nullsFirst() ? -1 : 1;
+                } else {
+                    cmp = SqlValues.compare(a, b);
+                    if (!key.ascending()) {
+                        cmp = -cmp;
+                    }
+                }
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return 0;
+        };
+    }
+}
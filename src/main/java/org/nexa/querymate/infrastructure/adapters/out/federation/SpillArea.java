@@ -0,0 +1,86 @@
+package org.nexa.querymate.infrastructure.adapters.out.federation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * The memory budget and spill directory of one federated query, shared by every {@link SpillableRows}
+ * it creates. Sub-queries fill their rows concurrently, so the budget is taken atomically.
+ * <p>
+ * The directory is only created once something spills, and closing the area deletes it along with
+ * every spill file and closes the readers left open on them.
+ */
+final class SpillArea implements Closeable {
+
+    private final long memoryBytes;
+    private final Path parent;
+    private final AtomicLong used = new AtomicLong();
+    private final List<Closeable> readers = new ArrayList<>();
+
+    private Path directory;
+
+    SpillArea(long memoryBytes, Path parent) {
+        this.memoryBytes = memoryBytes;
+        this.parent = parent;
+    }
+
+    SpillableRows newRows() {
+        return new SpillableRows(this);
+    }
+
+    /**
+     * Takes the bytes from the budget if they fit.
+     *
+     * @return false, taking nothing, if the budget would be exceeded
+     */
+    boolean reserve(long bytes) {
+        if (used.addAndGet(bytes) > memoryBytes) {
+            used.addAndGet(-bytes);
+            return false;
+        }
+        return true;
+    }
+
+    void release(long bytes) {
+        used.addAndGet(-bytes);
+    }
+
+    synchronized Path newFile() throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory(parent, "querymate-join-");
+        }
+        return Files.createTempFile(directory, "rows-", ".bin");
+    }
+
+    synchronized void opened(Closeable reader) {
+        readers.add(reader);
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Closeable reader : readers) {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+                // The file is deleted below either way
+            }
+        }
+        readers.clear();
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException ignored) {
+            // Best effort: the directory lives under the temp or spill directory
+        }
+        directory = null;
+    }
+}
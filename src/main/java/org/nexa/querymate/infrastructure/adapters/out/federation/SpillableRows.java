@@ -0,0 +1,203 @@
+package org.nexa.querymate.infrastructure.adapters.out.federation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Rows of a sub-query result, join partition or join output. They are kept in memory while the
+ * {@link SpillArea}'s budget allows; the first row that does not fit moves them all to a spill file,
+ * and every later row is appended there.
+ * <p>
+ * Values that cannot be written to a spill file, such as JDBC arrays and XML, are kept in their text form
+ * whether or not the rows spill, so a result does not depend on how much memory it had.
+ * Rows are added by one thread, then read any number of times once adding is done.
+ */
+final class SpillableRows implements Iterable<Object[]> {
+
+    private static final int RESET_INTERVAL = 1_000;
+
+    private final SpillArea area;
+    private final List<Object[]> memory = new ArrayList<>();
+
+    private long reservedBytes;
+    private long size;
+    private long written;
+    private Path file;
+    private ObjectOutputStream output;
+
+    SpillableRows(SpillArea area) {
+        this.area = area;
+    }
+
+    void add(Object[] row) {
+        row = portable(row);
+        size++;
+        if (file == null) {
+            long bytes = estimateBytes(row);
+            if (area.reserve(bytes)) {
+                memory.add(row);
+                reservedBytes += bytes;
+                return;
+            }
+            spill();
+        }
+        write(row);
+    }
+
+    long size() {
+        return size;
+    }
+
+    boolean spilled() {
+        return file != null;
+    }
+
+    @Override
+    public Iterator<Object[]> iterator() {
+        if (file == null) {
+            return memory.iterator();
+        }
+        try {
+            if (output != null) {
+                output.writeObject(null);
+                output.close();
+                output = null;
+            }
+            ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)));
+            area.opened(input);
+            return new FileIterator(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read spilled rows", e);
+        }
+    }
+
+    /**
+     * Gives back the memory the rows hold and deletes their spill file; the rows cannot be read afterwards.
+     */
+    void discard() {
+        memory.clear();
+        area.release(reservedBytes);
+        reservedBytes = 0;
+        if (file != null) {
+            try {
+                if (output != null) {
+                    output.close();
+                    output = null;
+                }
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // The spill area deletes what is left when the query ends
+            }
+        }
+    }
+
+    /**
+     * Rough heap footprint of a row held in memory.
+     */
+    static long estimateBytes(Object[] row) {
+        // Array header and list or hash table entry, plus each value
+        long bytes = 64;
+        for (Object value : row) {
+            bytes += 8 + switch (value) {
+                case null -> 0;
+                case String s -> 40 + 2L * s.length();
+                case Number n -> 24;
+                case byte[] b -> 16 + b.length;
+                default -> 48;
+            };
+        }
+        return bytes;
+    }
+
+    private void spill() {
+        try {
+            file = area.newFile();
+            output = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill rows to disk", e);
+        }
+        memory.forEach(this::write);
+        memory.clear();
+        area.release(reservedBytes);
+        reservedBytes = 0;
+    }
+
+    private void write(Object[] row) {
+        try {
+            output.writeObject(row);
+            if (++written % RESET_INTERVAL == 0) {
+                // Let the stream forget rows already written instead of keeping back-references to all of them
+                output.reset();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill rows to disk", e);
+        }
+    }
+
+    private static Object[] portable(Object[] row) {
+        Object[] copy = row;
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] != null && !(row[i] instanceof Serializable)) {
+                if (copy == row) {
+                    copy = row.clone();
+                }
+                copy[i] = String.valueOf(row[i]);
+            }
+        }
+        return copy;
+    }
+
+    private static final class FileIterator implements Iterator<Object[]> {
+
+        private final ObjectInputStream input;
+        private Object[] next;
+        private boolean ended;
+
+        FileIterator(ObjectInputStream input) {
+            this.input = input;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !ended) {
+                try {
+                    next = (Object[]) input.readObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read spilled rows", e);
+                } catch (ClassNotFoundException e) {
+                    throw new UncheckedIOException(new IOException("Unreadable spill file", e));
+                }
+                if (next == null) {
+                    ended = true;
+                    try {
+                        input.close();
+                    } catch (IOException ignored) {
+                        // Everything was read
+                    }
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object[] row = next;
+            next = null;
+            return row;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.nexa.querymate.infrastructure.adapters.out.ollama.OllamaLLMAdapter.ChatMessage;
+import org.nexa.querymate.infrastructure.adapters.out.ollama.OllamaLLMAdapter.ChatRequest;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.web.reactive.function.BodyInserter;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes chat requests as JSON straight into the request body's data buffers.
+ * <p>
+ * Serializing the request as a value builds the whole document in Jackson's own buffer and copies it into
+ * a data buffer afterwards; for a large schema that is several copies of the system message per question.
+ * Here a streaming generator writes into a buffer taken from the connection's (pooled) buffer factory, and
+ * the system message, already escaped and encoded to UTF-8 from cached {@link PromptFragments}, is written
+ * as-is.
+ */
+final class ChatRequestWriter {
+
+    private static final JsonFactory JSON = new ObjectMapper().getFactory();
+    private static final int OVERHEAD = 1024;
+
+    private ChatRequestWriter() {
+    }
+
+    /**
+     * The request as a body inserter, for {@code WebClient.RequestBodySpec.body}.
+     *
+     * @param system the encoding of the request's system message, or null to encode every message
+     */
+    static BodyInserter<ChatRequest, ReactiveHttpOutputMessage> inserter(ChatRequest request, EncodedText system) {
+        return (message, context) -> Mono.fromCallable(() -> write(message.bufferFactory(), request, system))
+                .flatMap(buffer -> {
+                    message.getHeaders().setContentLength(buffer.readableByteCount());
+                    return message.writeWith(Mono.just(buffer));
+                });
+    }
+
+    /**
+     * Writes the request into a new buffer from the factory; the caller releases it.
+     */
+    static DataBuffer write(DataBufferFactory buffers, ChatRequest request, EncodedText system) {
+        int size = OVERHEAD;
+        for (ChatMessage message : request.messages()) {
+            boolean encoded = system != null && message.content() == system.text();
+            size += encoded ? system.json().length : message.content().length();
+        }
+        DataBuffer buffer = buffers.allocateBuffer(size);
+        try (JsonGenerator json = JSON.createGenerator(buffer.asOutputStream())) {
+            json.writeStartObject();
+            json.writeStringField("model", request.model());
+            json.writeArrayFieldStart("messages");
+            for (ChatMessage message : request.messages()) {
+                json.writeStartObject();
+                json.writeStringField("role", message.role());
+                json.writeFieldName("content");
+                if (system != null && message.content() == system.text()) {
+                    json.writeRawUTF8String(system.json(), 0, system.json().length);
+                } else {
+                    json.writeString(message.content());
+                }
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeBooleanField("stream", request.stream());
+            json.writeStringField("keep_alive", request.keepAlive());
+            if (request.options() != null) {
+                json.writeObjectField("options", request.options());
+            }
+            json.writeEndObject();
+        } catch (IOException | RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,45 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.util.List;
+
+/**
+ * A piece of prompt text together with its JSON-escaped UTF-8 encoding, without the surrounding quotes.
+ * <p>
+ * Escaping works character by character, so the encodings of consecutive pieces concatenate to the
+ * encoding of the concatenated text.
+ */
+record EncodedText(String text, byte[] json) {
+
+    static final EncodedText EMPTY = new EncodedText("", new byte[0]);
+
+    static EncodedText of(String text) {
+        return new EncodedText(text, JsonStringEncoder.getInstance().quoteAsUTF8(text));
+    }
+
+    int length() {
+        return text.length();
+    }
+
+    /**
+     * The pieces joined in order; both forms are copied once into arrays of the exact size.
+     */
+    static EncodedText concat(List<EncodedText> parts) {
+        int chars = 0;
+        int bytes = 0;
+        for (EncodedText part : parts) {
+            chars += part.text().length();
+            bytes += part.json().length;
+        }
+        StringBuilder text = new StringBuilder(chars);
+        byte[] json = new byte[bytes];
+        int offset = 0;
+        for (EncodedText part : parts) {
+            text.append(part.text());
+            System.arraycopy(part.json(), 0, json, offset, part.json().length);
+            offset += part.json().length;
+        }
+        return new EncodedText(text.toString(), json);
+    }
+}
@@ -0,0 +1,66 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import java.time.Duration;
+
+/**
+ * Histogram of request latencies in logarithmic buckets, from 1 ms to about ten minutes in steps of 10%,
+ * so a percentile is never off by more than a tenth.
+ * <p>
+ * Counts are halved every {@value #DECAY_INTERVAL} samples, letting percentiles follow the recent
+ * behaviour of the servers rather than their whole history.
+ */
+final class LatencyHistogram {
+
+    private static final double GROWTH = 1.1;
+    private static final int BUCKETS = 141;
+    private static final int DECAY_INTERVAL = 1000;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private int sinceDecay;
+
+    synchronized void record(Duration latency) {
+        counts[bucket(latency.toNanos() / 1_000_000.0)]++;
+        total++;
+        if (++sinceDecay == DECAY_INTERVAL) {
+            total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] /= 2;
+                total += counts[i];
+            }
+            sinceDecay = 0;
+        }
+    }
+
+    synchronized long count() {
+        return total;
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile, or null if nothing was recorded.
+     *
+     * @param percentile between 0 and 100
+     */
+    synchronized Duration percentile(double percentile) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        int bucket = 0;
+        for (; bucket < BUCKETS - 1; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                break;
+            }
+        }
+        return Duration.ofNanos((long) (Math.pow(GROWTH, bucket) * 1_000_000));
+    }
+
+    private static int bucket(double millis) {
+        if (millis <= 1) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, (int) Math.ceil(Math.log(millis) / Math.log(GROWTH)));
+    }
+}
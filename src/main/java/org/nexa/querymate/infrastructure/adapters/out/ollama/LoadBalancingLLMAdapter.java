@@ -0,0 +1,714 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.application.ports.out.MetricsSource;
+import org.nexa.querymate.application.ports.out.ModelLifecyclePort;
+import org.nexa.querymate.domain.exception.TranslationException;
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.GenerationStats;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
+import org.nexa.querymate.infrastructure.config.OllamaBalancingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * LLMPort that spreads translations over several Ollama servers.
+ * <p>
+ * Each translation goes to the admitted server with the lowest load-weighted latency: its smoothed time to
+ * first token scaled by the requests it is already serving, so a busy or slow box receives fewer new questions.
+ * A server that cannot be reached or times out is ejected and the question is retried on the next one, unless
+ * tokens were already streamed to the caller. A server whose latency grows beyond a multiple of the median of
+ * the others is ejected as well. Background probes ({@link OllamaLLMAdapter#isAvailable()}) eject servers that
+ * stop answering and re-admit ejected ones once their ejection time has passed. When every server is ejected,
+ * requests still go to the least loaded one rather than failing outright.
+ * <p>
+ * Once enough translations were measured, one that has not finished within the configured latency percentile
+ * is hedged: a copy goes to another admitted server, the first answer wins and the other request is cancelled.
+ * Each translation earns a fraction of a hedge, which caps the extra load at the configured budget.
+ * <p>
+ * Warm-up and release apply to every server, so any of them can take the first question.
+ */
+public class LoadBalancingLLMAdapter implements LLMPort, ModelLifecyclePort, MetricsSource, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadBalancingLLMAdapter.class);
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final int MIN_HEDGE_SAMPLES = 20;
+    private static final double MAX_HEDGE_BURST = 5;
+
+    private final List<Endpoint> endpoints;
+    private final OllamaBalancingProperties properties;
+    private final Clock clock;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong hedgesDenied = new AtomicLong();
+    private double hedgeAllowance;
+    private ScheduledExecutorService prober;
+
+    /**
+     * Starts the background probes when there is more than one server to choose from.
+     */
+    public LoadBalancingLLMAdapter(List<OllamaLLMAdapter> servers, OllamaBalancingProperties properties) {
+        this(servers, properties, Clock.systemUTC());
+        if (endpoints.size() > 1) {
+            prober = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("ollama-probe").factory());
+            prober.scheduleWithFixedDelay(this::probe, properties.probeIntervalSeconds(),
+                    properties.probeIntervalSeconds(), TimeUnit.SECONDS);
+            log.info("Ollama load balancing enabled", kv("endpoints", servers.stream().map(OllamaLLMAdapter::endpoint).toList()));
+        }
+    }
+
+    LoadBalancingLLMAdapter(List<OllamaLLMAdapter> servers, OllamaBalancingProperties properties, Clock clock) {
+        if (servers.isEmpty()) {
+            throw new IllegalArgumentException("At least one Ollama server is required");
+        }
+        this.endpoints = servers.stream().map(Endpoint::new).toList();
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    private static final class Endpoint {
+        private final OllamaLLMAdapter adapter;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong ejections = new AtomicLong();
+        private volatile double latencyMillis;
+        private volatile Instant ejectedUntil;
+        private volatile String ejectionReason;
+
+        private Endpoint(OllamaLLMAdapter adapter) {
+            this.adapter = adapter;
+        }
+
+        private boolean admitted() {
+            return ejectedUntil == null;
+        }
+
+        private synchronized void recordLatency(Duration elapsed) {
+            double millis = elapsed.toNanos() / 1_000_000.0;
+            latencyMillis = latencyMillis == 0 ? millis : latencyMillis + LATENCY_SMOOTHING * (millis - latencyMillis);
+        }
+
+        /**
+         * Lower is better: expected latency scaled by the work already queued on the server.
+         * A server without measurements scores lowest, so a re-admitted one is tried right away.
+         */
+        private double score() {
+            return (latencyMillis + 1) * (inFlight.get() + 1);
+        }
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext) {
+        return translate(query, schemaContext, TokenListener.NONE);
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener) {
+        earnHedge();
+        Duration deadline = hedgeDeadline();
+        Set<Endpoint> tried = ConcurrentHashMap.newKeySet();
+        if (deadline == null) {
+            return translateWithRetry(query, schemaContext, listener, tried);
+        }
+        return translateHedged(query, schemaContext, listener, tried, deadline);
+    }
+
+    /**
+     * Balances, retries and hedges like {@link #translate(NaturalLanguageQuery, SchemaContext, TokenListener)}
+     * without holding a thread: each server's request is the adapter's own non-blocking one, the next attempt
+     * starts when the previous one fails, and the hedge is started by a timer. A single model has nothing to
+     * choose between, so the validator is not used.
+     */
+    @Override
+    public CompletableFuture<SqlStatement> translateAsync(NaturalLanguageQuery query, SchemaContext schemaContext,
+                                                         TokenListener listener, SqlValidator validator) {
+        earnHedge();
+        Duration deadline = hedgeDeadline();
+        Set<Endpoint> tried = ConcurrentHashMap.newKeySet();
+        if (deadline == null) {
+            return translateWithRetryAsync(query, schemaContext, listener, tried);
+        }
+        return translateHedgedAsync(query, schemaContext, listener, tried, deadline);
+    }
+
+    /**
+     * Sends the question to the best server, retrying on others as long as they fail before streaming.
+     *
+     * @param tried servers already used for this question, shared with a concurrent hedge
+     */
+    private SqlStatement translateWithRetry(
+            NaturalLanguageQuery query,
+            SchemaContext schemaContext,
+            TokenListener listener,
+            Set<Endpoint> tried
+    ) {
+        TranslationException lastFailure = null;
+        Endpoint endpoint;
+        while ((endpoint = acquire(tried)) != null) {
+            Attempt attempt = new Attempt(listener);
+            long start = System.nanoTime();
+            try {
+                SqlStatement sql = endpoint.adapter.translate(query, schemaContext, attempt);
+                latencies.record(Duration.ofNanos(System.nanoTime() - start));
+                succeeded(endpoint, attempt.latency);
+                return sql;
+            } catch (TranslationException e) {
+                if (!isEndpointFailure(e)) {
+                    throw e;
+                }
+                endpoint.failures.incrementAndGet();
+                eject(endpoint, "failed: " + e.getMessage());
+                if (attempt.streamed) {
+                    // The caller has already seen part of this answer; a second one would be mixed into it
+                    throw e;
+                }
+                lastFailure = e;
+            } finally {
+                endpoint.inFlight.decrementAndGet();
+            }
+        }
+        if (lastFailure == null) {
+            // Only possible when a hedge took every server before this attempt started
+            throw TranslationException.llmUnavailable(new IllegalStateException("No Ollama server left to try"));
+        }
+        throw lastFailure;
+    }
+
+    private CompletableFuture<SqlStatement> translateWithRetryAsync(
+            NaturalLanguageQuery query,
+            SchemaContext schemaContext,
+            TokenListener listener,
+            Set<Endpoint> tried
+    ) {
+        Relay<SqlStatement> relay = new Relay<>();
+        attemptAsync(relay, query, schemaContext, listener, tried, null);
+        return relay.future();
+    }
+
+    /**
+     * Sends the question to the best server left; once that fails like an unreachable server and before
+     * streaming, the next attempt starts from the request's completion.
+     */
+    private void attemptAsync(
+            Relay<SqlStatement> relay,
+            NaturalLanguageQuery query,
+            SchemaContext schemaContext,
+            TokenListener listener,
+            Set<Endpoint> tried,
+            TranslationException lastFailure
+    ) {
+        Endpoint endpoint = acquire(tried);
+        if (endpoint == null) {
+            relay.fail(lastFailure != null
+                    ? lastFailure
+                    : TranslationException.llmUnavailable(new IllegalStateException("No Ollama server left to try")));
+            return;
+        }
+        Attempt attempt = new Attempt(listener);
+        long start = System.nanoTime();
+        CompletableFuture<SqlStatement> request;
+        try {
+            request = endpoint.adapter.translateAsync(query, schemaContext, attempt, SqlValidator.NONE);
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        relay.track(request).whenComplete((sql, failure) -> {
+            endpoint.inFlight.decrementAndGet();
+            if (failure == null) {
+                latencies.record(Duration.ofNanos(System.nanoTime() - start));
+                succeeded(endpoint, attempt.latency);
+                relay.complete(sql);
+                return;
+            }
+            if (relay.isDone() || !(Relay.unwrap(failure) instanceof TranslationException e) || !isEndpointFailure(e)) {
+                relay.fail(failure);
+                return;
+            }
+            endpoint.failures.incrementAndGet();
+            eject(endpoint, "failed: " + e.getMessage());
+            if (attempt.streamed) {
+                // The caller has already seen part of this answer; a second one would be mixed into it
+                relay.fail(e);
+                return;
+            }
+            attemptAsync(relay, query, schemaContext, listener, tried, e);
+        });
+    }
+
+    /**
+     * Sends the question to one server and, if it has not answered by the deadline, a copy to another
+     * admitted server. The first answer wins and the other request is interrupted, which closes its
+     * stream and stops the generation on its server. Only the first request streams tokens to the caller.
+     */
+    private SqlStatement translateHedged(
+            NaturalLanguageQuery query,
+            SchemaContext schemaContext,
+            TokenListener listener,
+            Set<Endpoint> tried,
+            Duration deadline
+    ) {
+        CompletableFuture<SqlStatement> result = new CompletableFuture<>();
+        AtomicInteger running = new AtomicInteger(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        Thread first = race(result, running, false,
+                () -> translateWithRetry(query, schemaContext, new HedgedListener(listener, true, finished), tried));
+        Thread second = null;
+        try {
+            try {
+                return result.get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (!hasSpare(tried) || !takeHedge()) {
+                    return result.get();
+                }
+            }
+            hedges.incrementAndGet();
+            log.debug("Hedging translation", kv("question", query.value()), kv("deadline", deadline));
+            running.incrementAndGet();
+            second = race(result, running, true,
+                    () -> translateWithRetry(query, schemaContext, new HedgedListener(listener, false, finished), tried));
+            return result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw TranslationException.llmUnavailable(e);
+        } finally {
+            first.interrupt();
+            if (second != null) {
+                second.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Like {@link #translateHedged}, with the hedge started by a timer; cancelling the result, or settling it,
+     * cancels both requests.
+     */
+    private CompletableFuture<SqlStatement> translateHedgedAsync(
+            NaturalLanguageQuery query,
+            SchemaContext schemaContext,
+            TokenListener listener,
+            Set<Endpoint> tried,
+            Duration deadline
+    ) {
+        CompletableFuture<SqlStatement> result = new CompletableFuture<>();
+        AtomicInteger running = new AtomicInteger(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        AtomicReference<CompletableFuture<SqlStatement>> second = new AtomicReference<>();
+        CompletableFuture<SqlStatement> first = raceAsync(result, running, false,
+                translateWithRetryAsync(query, schemaContext, new HedgedListener(listener, true, finished), tried));
+        result.whenComplete((sql, failure) -> {
+            first.cancel(true);
+            CompletableFuture<SqlStatement> hedge = second.get();
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        });
+        CompletableFuture.delayedExecutor(deadline.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (result.isDone() || !hasSpare(tried) || !takeHedge()) {
+                return;
+            }
+            hedges.incrementAndGet();
+            log.debug("Hedging translation", kv("question", query.value()), kv("deadline", deadline));
+            running.incrementAndGet();
+            second.set(raceAsync(result, running, true,
+                    translateWithRetryAsync(query, schemaContext, new HedgedListener(listener, false, finished), tried)));
+            if (result.isDone()) {
+                second.get().cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Lets a contender's request complete the result as {@link #race} does, returning the request.
+     */
+    private CompletableFuture<SqlStatement> raceAsync(CompletableFuture<SqlStatement> result, AtomicInteger running,
+                                                      boolean hedge, CompletableFuture<SqlStatement> contender) {
+        contender.whenComplete((sql, failure) -> {
+            if (failure == null) {
+                synchronized (result) {
+                    if (!result.isDone()) {
+                        if (hedge) {
+                            hedgeWins.incrementAndGet();
+                        }
+                        result.complete(sql);
+                    }
+                }
+            } else if (running.decrementAndGet() == 0) {
+                result.completeExceptionally(Relay.unwrap(failure));
+            }
+        });
+        return contender;
+    }
+
+    /**
+     * Runs one contender on its own virtual thread; the first to succeed completes the result,
+     * and the result fails only once every contender has failed.
+     */
+    private Thread race(CompletableFuture<SqlStatement> result, AtomicInteger running, boolean hedge,
+                        Supplier<SqlStatement> attempt) {
+        return Thread.ofVirtual().name(hedge ? "ollama-hedge" : "ollama-request").start(() -> {
+            try {
+                SqlStatement sql = attempt.get();
+                // Count the win before completing, so the caller never sees an answer that is not counted yet
+                synchronized (result) {
+                    if (!result.isDone()) {
+                        if (hedge) {
+                            hedgeWins.incrementAndGet();
+                        }
+                        result.complete(sql);
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (running.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * The latency percentile to hedge after, once enough translations were measured to know it;
+     * null when hedging is off or there is no second server to hedge on.
+     */
+    private Duration hedgeDeadline() {
+        if (!properties.hedge() || endpoints.size() < 2 || latencies.count() < MIN_HEDGE_SAMPLES) {
+            return null;
+        }
+        return latencies.percentile(properties.hedgePercentile());
+    }
+
+    private boolean hasSpare(Set<Endpoint> tried) {
+        return endpoints.stream().anyMatch(endpoint -> endpoint.admitted() && !tried.contains(endpoint));
+    }
+
+    /**
+     * Every translation earns a fraction of a hedge, so duplicates never exceed the budget percentage of
+     * translations by more than a small burst.
+     */
+    private synchronized void earnHedge() {
+        hedgeAllowance = Math.min(MAX_HEDGE_BURST, hedgeAllowance + properties.hedgeBudgetPercent() / 100.0);
+    }
+
+    private synchronized boolean takeHedge() {
+        if (hedgeAllowance < 1) {
+            hedgesDenied.incrementAndGet();
+            return false;
+        }
+        hedgeAllowance -= 1;
+        return true;
+    }
+
+    /**
+     * True if any server answers.
+     */
+    @Override
+    public boolean isAvailable() {
+        return endpoints.stream().anyMatch(endpoint -> endpoint.adapter.isAvailable());
+    }
+
+    @Override
+    public String model() {
+        return endpoints.getFirst().adapter.model();
+    }
+
+    /**
+     * Warms every admitted server up in parallel; fails only if none of them could be warmed up.
+     */
+    @Override
+    public void warmUp(SchemaContext schemaContext) {
+        List<Endpoint> admitted = endpoints.stream().filter(Endpoint::admitted).toList();
+        onEach(admitted.isEmpty() ? endpoints : admitted, adapter -> {
+            adapter.warmUp(schemaContext);
+            return null;
+        });
+    }
+
+    @Override
+    public void release() {
+        onEach(endpoints, adapter -> {
+            adapter.release();
+            return null;
+        });
+    }
+
+    /**
+     * The latest time any server keeps the model loaded.
+     */
+    @Override
+    public Optional<Instant> residentUntil() {
+        return onEach(endpoints, OllamaLLMAdapter::residentUntil).stream()
+                .flatMap(Optional::stream)
+                .max(Comparator.naturalOrder());
+    }
+
+    /**
+     * Hedging counters, then one line per server: whether it is admitted, its load and smoothed
+     * first-token latency.
+     */
+    @Override
+    public MetricsSnapshot metrics() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("admitted", "%d of %d".formatted(endpoints.stream().filter(Endpoint::admitted).count(), endpoints.size()));
+        Duration deadline = hedgeDeadline();
+        values.put("hedge after", deadline == null ? "-" : "%d ms (p%.0f)".formatted(deadline.toMillis(), properties.hedgePercentile()));
+        values.put("hedged", "%d (%d won, %d over budget)".formatted(hedges.get(), hedgeWins.get(), hedgesDenied.get()));
+        for (Endpoint endpoint : endpoints) {
+            Instant ejectedUntil = endpoint.ejectedUntil;
+            String state = ejectedUntil == null
+                    ? "admitted"
+                    : "ejected until %s (%s)".formatted(
+                            LocalTime.ofInstant(ejectedUntil, ZoneId.systemDefault()).truncatedTo(ChronoUnit.SECONDS),
+                            endpoint.ejectionReason);
+            values.put(endpoint.adapter.endpoint(), "%s, %d in flight, %s, %d requests, %d failures, %d ejections".formatted(
+                    state,
+                    endpoint.inFlight.get(),
+                    endpoint.latencyMillis == 0 ? "-" : "%.0f ms".formatted(endpoint.latencyMillis),
+                    endpoint.requests.get(),
+                    endpoint.failures.get(),
+                    endpoint.ejections.get()));
+        }
+        return new MetricsSnapshot("Ollama endpoints", values);
+    }
+
+    /**
+     * With a single server only its generation metrics; otherwise the balancing overview followed by
+     * the generation metrics of each server.
+     */
+    @Override
+    public List<MetricsSnapshot> snapshots() {
+        if (endpoints.size() == 1) {
+            return List.of(endpoints.getFirst().adapter.metrics());
+        }
+        List<MetricsSnapshot> snapshots = new ArrayList<>();
+        snapshots.add(metrics());
+        for (Endpoint endpoint : endpoints) {
+            MetricsSnapshot snapshot = endpoint.adapter.metrics();
+            snapshots.add(new MetricsSnapshot(snapshot.source() + " " + endpoint.adapter.endpoint(), snapshot.values()));
+        }
+        return snapshots;
+    }
+
+    @Override
+    public void close() {
+        if (prober != null) {
+            prober.shutdownNow();
+        }
+    }
+
+    /**
+     * Checks every server in parallel: admitted servers that do not answer are ejected, ejected servers
+     * that answer after their ejection time are admitted again.
+     */
+    void probe() {
+        Instant now = clock.instant();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Endpoint endpoint : endpoints) {
+                executor.submit(() -> probe(endpoint, now));
+            }
+        }
+    }
+
+    private void probe(Endpoint endpoint, Instant now) {
+        boolean available = endpoint.adapter.isAvailable();
+        if (endpoint.admitted()) {
+            if (!available) {
+                eject(endpoint, "probe failed");
+            }
+        } else if (available && !now.isBefore(endpoint.ejectedUntil)) {
+            readmit(endpoint);
+        }
+    }
+
+    /**
+     * Picks the server for the next attempt and counts the request against it before anyone else chooses,
+     * so questions arriving together spread over the servers. Ejected servers are only used once every
+     * admitted one has been tried.
+     */
+    private synchronized Endpoint acquire(Set<Endpoint> tried) {
+        Comparator<Endpoint> byScore = Comparator.comparingDouble(Endpoint::score);
+        Endpoint chosen = endpoints.stream()
+                .filter(endpoint -> !tried.contains(endpoint) && endpoint.admitted())
+                .min(byScore)
+                .or(() -> endpoints.stream().filter(endpoint -> !tried.contains(endpoint)).min(byScore))
+                .orElse(null);
+        if (chosen != null) {
+            tried.add(chosen);
+            chosen.inFlight.incrementAndGet();
+        }
+        return chosen;
+    }
+
+    private void succeeded(Endpoint endpoint, Duration latency) {
+        endpoint.requests.incrementAndGet();
+        if (latency == null) {
+            return;
+        }
+        endpoint.recordLatency(latency);
+        List<Double> others = endpoints.stream()
+                .filter(other -> other != endpoint && other.admitted() && other.latencyMillis > 0)
+                .map(other -> other.latencyMillis)
+                .sorted()
+                .toList();
+        // Never eject the last admitted server for being slow; slow beats nothing
+        if (others.isEmpty()) {
+            return;
+        }
+        double median = others.get(others.size() / 2);
+        if (endpoint.latencyMillis > properties.outlierFactor() * median) {
+            eject(endpoint, "slow: %.0f ms, median %.0f ms".formatted(endpoint.latencyMillis, median));
+        }
+    }
+
+    private void eject(Endpoint endpoint, String reason) {
+        synchronized (endpoint) {
+            boolean wasAdmitted = endpoint.admitted();
+            endpoint.ejectedUntil = clock.instant().plusSeconds(properties.ejectionSeconds());
+            endpoint.ejectionReason = reason;
+            if (!wasAdmitted) {
+                return;
+            }
+            endpoint.ejections.incrementAndGet();
+        }
+        log.warn("Ollama endpoint ejected",
+                kv("endpoint", endpoint.adapter.endpoint()),
+                kv("reason", reason),
+                kv("seconds", properties.ejectionSeconds()));
+    }
+
+    private void readmit(Endpoint endpoint) {
+        synchronized (endpoint) {
+            endpoint.ejectedUntil = null;
+            endpoint.ejectionReason = null;
+            endpoint.latencyMillis = 0;
+        }
+        log.info("Ollama endpoint admitted", kv("endpoint", endpoint.adapter.endpoint()));
+    }
+
+    /**
+     * Runs the action on each server in parallel, returning the results of those that succeeded;
+     * fails with the first error only if every server failed.
+     */
+    private <T> List<T> onEach(List<Endpoint> targets, Function<OllamaLLMAdapter, T> action) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futures = targets.stream()
+                    .map(endpoint -> executor.submit(() -> action.apply(endpoint.adapter)))
+                    .toList();
+            List<T> results = new ArrayList<>();
+            RuntimeException failure = null;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    log.warn("Ollama endpoint request failed",
+                            kv("endpoint", targets.get(i).adapter.endpoint()),
+                            kv("error", e.getCause().getMessage()));
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException runtime
+                                ? runtime
+                                : new IllegalStateException(e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while calling Ollama servers", e);
+                }
+            }
+            if (results.isEmpty() && failure != null) {
+                throw failure;
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Unreachable servers and timeouts carry their cause; an answer that is not usable SQL would be
+     * no better on another server.
+     */
+    private static boolean isEndpointFailure(TranslationException e) {
+        return e.getCause() != null;
+    }
+
+    /**
+     * Lets only the first of two racing requests stream tokens, and reports a single finished generation.
+     */
+    private record HedgedListener(TokenListener listener, boolean streams, AtomicBoolean finished) implements TokenListener {
+
+        @Override
+        public void onToken(String token) {
+            if (streams) {
+                listener.onToken(token);
+            }
+        }
+
+        @Override
+        public void onFinished(GenerationStats stats) {
+            if (finished.compareAndSet(false, true)) {
+                listener.onFinished(stats);
+            }
+        }
+    }
+
+    /**
+     * Passes tokens on while noting whether any were streamed and how soon the first one came.
+     */
+    private static final class Attempt implements TokenListener {
+        private final TokenListener listener;
+        private volatile boolean streamed;
+        private volatile Duration latency;
+
+        private Attempt(TokenListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onToken(String token) {
+            streamed = true;
+            listener.onToken(token);
+        }
+
+        @Override
+        public void onFinished(GenerationStats stats) {
+            latency = stats.timeToFirstToken() != null ? stats.timeToFirstToken() : stats.total();
+            listener.onFinished(stats);
+        }
+    }
+}
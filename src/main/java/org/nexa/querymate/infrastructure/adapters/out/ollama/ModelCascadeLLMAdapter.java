@@ -0,0 +1,326 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.application.ports.out.MetricsSource;
+import org.nexa.querymate.application.ports.out.ModelLifecyclePort;
+import org.nexa.querymate.domain.exception.TranslationException;
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * LLMPort that asks the cheapest model first and escalates only when its answer does not hold up.
+ * <p>
+ * Tiers are tried in order, ending with the main model. A lower tier's statement is accepted when it looks
+ * like a single query to the lexer and the caller's validator (an {@code EXPLAIN} on the target connection)
+ * finds nothing wrong with it. A statement that fails either check, an unusable answer or an unreachable tier
+ * moves the question to the next tier. The last tier's statement is returned unchecked, as it would be without
+ * a cascade, so execution reports its errors as before. Without a validator the lower tiers are skipped, since
+ * nothing would catch their mistakes.
+ * <p>
+ * Ollama's chat API reports no token probabilities, so passing validation is the confidence signal.
+ */
+public class ModelCascadeLLMAdapter implements LLMPort, ModelLifecyclePort, MetricsSource, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelCascadeLLMAdapter.class);
+
+    private final List<Tier> tiers;
+    private final AtomicLong cascaded = new AtomicLong();
+    private final AtomicLong escalated = new AtomicLong();
+    private final AtomicLong validations = new AtomicLong();
+    private final AtomicLong validationNanos = new AtomicLong();
+
+    /**
+     * @param tiers the models to try, cheapest first; the last one is the main model
+     */
+    public ModelCascadeLLMAdapter(List<LoadBalancingLLMAdapter> tiers) {
+        if (tiers.isEmpty()) {
+            throw new IllegalArgumentException("At least one model is required");
+        }
+        this.tiers = tiers.stream().map(Tier::new).toList();
+    }
+
+    private static final class Tier {
+        private final LoadBalancingLLMAdapter port;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong accepted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
+        private Tier(LoadBalancingLLMAdapter port) {
+            this.port = port;
+        }
+
+        private String describe() {
+            long count = requests.get();
+            return "%d requests, %d accepted, %d rejected, %d failed, avg %s".formatted(
+                    count, accepted.get(), rejected.get(), failed.get(),
+                    count == 0 ? "-" : "%.0f ms".formatted(nanos.get() / 1e6 / count));
+        }
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext) {
+        return translate(query, schemaContext, TokenListener.NONE, SqlValidator.NONE);
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener) {
+        return translate(query, schemaContext, listener, SqlValidator.NONE);
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener,
+                                  SqlValidator validator) {
+        Tier last = tiers.getLast();
+        if (tiers.size() > 1 && validator != SqlValidator.NONE) {
+            cascaded.incrementAndGet();
+            for (Tier tier : tiers.subList(0, tiers.size() - 1)) {
+                SqlStatement sql = tryTier(tier, query, schemaContext, listener, validator);
+                if (sql != null) {
+                    return sql;
+                }
+            }
+            escalated.incrementAndGet();
+        }
+        return ask(last, query, schemaContext, listener);
+    }
+
+    /**
+     * Escalates like {@link #translate(NaturalLanguageQuery, SchemaContext, TokenListener, SqlValidator)}
+     * without holding a thread while a model generates. Validation plans the statement on the target
+     * connection, so it runs on a virtual thread; cancelling the future cancels the tier being asked.
+     */
+    @Override
+    public CompletableFuture<SqlStatement> translateAsync(NaturalLanguageQuery query, SchemaContext schemaContext,
+                                                         TokenListener listener, SqlValidator validator) {
+        if (tiers.size() == 1 || validator == SqlValidator.NONE) {
+            return askAsync(tiers.getLast(), query, schemaContext, listener);
+        }
+        cascaded.incrementAndGet();
+        Relay<SqlStatement> relay = new Relay<>();
+        tryTierAsync(relay, 0, query, schemaContext, listener, validator);
+        return relay.future();
+    }
+
+    /**
+     * Completes the relay with the tier's statement if it passes validation, and asks the next tier otherwise;
+     * the last tier's statement is taken unchecked.
+     */
+    private void tryTierAsync(Relay<SqlStatement> relay, int index, NaturalLanguageQuery query,
+                              SchemaContext schemaContext, TokenListener listener, SqlValidator validator) {
+        if (relay.isDone()) {
+            // Cancelled while the previous tier was being validated
+            return;
+        }
+        Tier tier = tiers.get(index);
+        boolean last = index == tiers.size() - 1;
+        if (last) {
+            escalated.incrementAndGet();
+        }
+        relay.track(askAsync(tier, query, schemaContext, listener)).whenComplete((sql, failure) -> {
+            if (relay.isDone()) {
+                return;
+            }
+            if (last) {
+                if (failure == null) {
+                    relay.complete(sql);
+                } else {
+                    relay.fail(failure);
+                }
+                return;
+            }
+            if (failure != null) {
+                if (!(Relay.unwrap(failure) instanceof TranslationException e)) {
+                    relay.fail(failure);
+                    return;
+                }
+                tier.failed.incrementAndGet();
+                log.debug("Cascade tier failed, escalating", kv("model", tier.port.model()), kv("error", e.getMessage()));
+                tryTierAsync(relay, index + 1, query, schemaContext, listener, validator);
+                return;
+            }
+            Thread.ofVirtual().name("cascade-validate").start(() -> {
+                try {
+                    if (accept(tier, sql, validator)) {
+                        relay.complete(sql);
+                    } else {
+                        tryTierAsync(relay, index + 1, query, schemaContext, listener, validator);
+                    }
+                } catch (RuntimeException e) {
+                    relay.fail(e);
+                }
+            });
+        });
+    }
+
+    /**
+     * Returns the tier's statement if it passes validation, or null to escalate.
+     */
+    private SqlStatement tryTier(Tier tier, NaturalLanguageQuery query, SchemaContext schemaContext,
+                                 TokenListener listener, SqlValidator validator) {
+        SqlStatement sql;
+        try {
+            sql = ask(tier, query, schemaContext, listener);
+        } catch (TranslationException e) {
+            tier.failed.incrementAndGet();
+            log.debug("Cascade tier failed, escalating", kv("model", tier.port.model()), kv("error", e.getMessage()));
+            return null;
+        }
+        return accept(tier, sql, validator) ? sql : null;
+    }
+
+    /**
+     * Checks a lower tier's statement, counting whether it was accepted.
+     */
+    private boolean accept(Tier tier, SqlStatement sql, SqlValidator validator) {
+        String problem = check(sql, validator);
+        if (problem != null) {
+            tier.rejected.incrementAndGet();
+            log.info("Cascade tier rejected, escalating",
+                    kv("model", tier.port.model()),
+                    kv("sql", sql.value()),
+                    kv("problem", problem));
+            return false;
+        }
+        tier.accepted.incrementAndGet();
+        return true;
+    }
+
+    private static SqlStatement ask(Tier tier, NaturalLanguageQuery query, SchemaContext schemaContext,
+                                    TokenListener listener) {
+        tier.requests.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            return tier.port.translate(query, schemaContext, listener);
+        } finally {
+            tier.nanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private static CompletableFuture<SqlStatement> askAsync(Tier tier, NaturalLanguageQuery query,
+                                                            SchemaContext schemaContext, TokenListener listener) {
+        tier.requests.incrementAndGet();
+        long start = System.nanoTime();
+        CompletableFuture<SqlStatement> translation = tier.port.translateAsync(query, schemaContext, listener, SqlValidator.NONE);
+        translation.whenComplete((sql, failure) -> tier.nanos.addAndGet(System.nanoTime() - start));
+        return translation;
+    }
+
+    /**
+     * Checks the statement's shape locally first, so answers that are not a query never reach the database.
+     */
+    private String check(SqlStatement sql, SqlValidator validator) {
+        String problem = QueryShape.problem(sql);
+        if (problem != null) {
+            return problem;
+        }
+        long start = System.nanoTime();
+        try {
+            return validator.check(sql).problem();
+        } finally {
+            validations.incrementAndGet();
+            validationNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return tiers.getLast().port.isAvailable();
+    }
+
+    @Override
+    public String model() {
+        return tiers.getLast().port.model();
+    }
+
+    /**
+     * Warms the main model up first, then the cheaper ones; only the main model's failure is reported.
+     */
+    @Override
+    public void warmUp(SchemaContext schemaContext) {
+        tiers.getLast().port.warmUp(schemaContext);
+        for (Tier tier : tiers.subList(0, tiers.size() - 1)) {
+            try {
+                tier.port.warmUp(schemaContext);
+            } catch (RuntimeException e) {
+                log.warn("Cascade model warm-up failed", kv("model", tier.port.model()), kv("error", e.getMessage()));
+            }
+        }
+    }
+
+    @Override
+    public void release() {
+        RuntimeException failure = null;
+        for (Tier tier : tiers) {
+            try {
+                tier.port.release();
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public Optional<Instant> residentUntil() {
+        return tiers.getLast().port.residentUntil();
+    }
+
+    @Override
+    public MetricsSnapshot metrics() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        long cascadedCount = cascaded.get();
+        long validationCount = validations.get();
+        values.put("cascaded", cascadedCount);
+        values.put("escalation rate", cascadedCount == 0 ? "-" : "%.1f%%".formatted(100.0 * escalated.get() / cascadedCount));
+        values.put("validation avg", validationCount == 0 ? "-" : "%.1f ms".formatted(validationNanos.get() / 1e6 / validationCount));
+        for (Tier tier : tiers) {
+            values.put(tier.port.model(), tier.describe());
+        }
+        return new MetricsSnapshot("Model cascade", values);
+    }
+
+    /**
+     * With a single model only its own metrics; otherwise the cascade overview followed by each model's
+     * metrics, labelled with the model.
+     */
+    @Override
+    public List<MetricsSnapshot> snapshots() {
+        if (tiers.size() == 1) {
+            return tiers.getFirst().port.snapshots();
+        }
+        List<MetricsSnapshot> snapshots = new ArrayList<>();
+        snapshots.add(metrics());
+        for (Tier tier : tiers) {
+            for (MetricsSnapshot snapshot : tier.port.snapshots()) {
+                snapshots.add(new MetricsSnapshot("%s [%s]".formatted(snapshot.source(), tier.port.model()), snapshot.values()));
+            }
+        }
+        return snapshots;
+    }
+
+    @Override
+    public void close() {
+        tiers.forEach(tier -> tier.port.close());
+    }
+}
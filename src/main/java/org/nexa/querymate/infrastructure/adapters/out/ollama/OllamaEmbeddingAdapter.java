@@ -0,0 +1,69 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import org.nexa.querymate.application.ports.out.EmbeddingPort;
+import org.nexa.querymate.domain.exception.TranslationException;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Ollama implementation of EmbeddingPort, using the {@code /api/embed} endpoint.
+ */
+public class OllamaEmbeddingAdapter implements EmbeddingPort {
+
+    private final WebClient webClient;
+    private final String model;
+    private final Duration timeout;
+
+    public OllamaEmbeddingAdapter(WebClient ollamaWebClient, String model, Duration timeout) {
+        this.webClient = ollamaWebClient;
+        this.model = model;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        try {
+            EmbedResponse response = webClient.post()
+                    .uri("/api/embed")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new EmbedRequest(model, text))
+                    .retrieve()
+                    .bodyToMono(EmbedResponse.class)
+                    .timeout(timeout)
+                    .block();
+
+            if (response == null || response.embeddings() == null || response.embeddings().isEmpty()) {
+                throw TranslationException.invalidResponse("Empty embedding from " + model);
+            }
+            List<Float> values = response.embeddings().getFirst();
+            float[] vector = new float[values.size()];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = values.get(i);
+            }
+            return vector;
+        } catch (WebClientException e) {
+            throw TranslationException.llmUnavailable(e);
+        } catch (IllegalStateException e) {
+            if (e.getMessage() != null && e.getMessage().contains("Timeout")) {
+                throw TranslationException.timeout();
+            }
+            throw TranslationException.llmUnavailable(e);
+        }
+    }
+
+    private record EmbedRequest(
+            String model,
+            String input
+    ) {
+    }
+
+    private record EmbedResponse(
+            String model,
+            List<List<Float>> embeddings
+    ) {
+    }
+}
@@ -1,28 +1,72 @@
 package org.nexa.querymate.infrastructure.adapters.out.ollama;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.application.ports.out.MetricsSource;
+import org.nexa.querymate.application.ports.out.ModelLifecyclePort;
 import org.nexa.querymate.domain.exception.TranslationException;
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
 import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.GenerationStats;
 import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
 import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
+import org.nexa.querymate.infrastructure.config.GenerationProperties;
 import org.nexa.querymate.infrastructure.config.OllamaProperties;
+import org.nexa.querymate.infrastructure.config.PromptProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
-import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientException;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
 /**
  * Ollama implementation of LLMPort for natural language to SQL translation.
+ * <p>
+ * Completions are streamed; generation is cancelled once the first statement is complete. Translation is a
+ * non-blocking chain on the WebClient's event loop, which the blocking {@code translate} merely waits for.
+ * Time to first token and generation time are logged per request and summed for the metrics command.
+ * <p>
+ * Requests use the chat API with the instructions and schema as the system message and only the question
+ * as the user message. The system message is byte-identical for every question on the same schema, so
+ * Ollama keeps its evaluated tokens cached while the model stays loaded ({@code keep_alive}) and evaluates
+ * just the question. Whether a request repeated the previous prefix is tracked, so the first-token time
+ * of cached and uncached prefixes can be compared.
+ * <p>
+ * Warm-up sends the system message alone, generating a single token, which loads the model and leaves the
+ * schema prefix evaluated for the first real question.
+ * <p>
+ * The schema is written compactly and fitted to the model's context window by {@link SchemaPrompt}, whose
+ * {@code num_ctx} is sent with every request. Token counts are estimated from the prompt length, calibrated
+ * by the prompt token counts Ollama reports. Requests are written straight into the connection's buffers by
+ * {@link ChatRequestWriter}, with the system message copied from its cached encoding.
+ * <p>
+ * Translations are generated deterministically, with a fixed temperature and seed, and end on the server at
+ * stop sequences marking the end of a statement or code fence. {@code num_predict} caps the output at a
+ * length that grows with the question, so a model that keeps explaining cannot run on. Generated and used
+ * tokens are counted per request, showing how much generation went to text that was thrown away.
  */
-@Component
-public class OllamaLLMAdapter implements LLMPort {
+public class OllamaLLMAdapter implements LLMPort, ModelLifecyclePort, MetricsSource {
 
     private static final Logger log = LoggerFactory.getLogger(OllamaLLMAdapter.class);
 
@@ -44,51 +88,209 @@ public class OllamaLLMAdapter implements LLMPort {
 
     private final WebClient webClient;
     private final OllamaProperties properties;
+    private final Map<String, Object> sampling;
+    private final GenerationProperties generation;
+    private final int responseTokens;
+    private final TokenEstimator tokenEstimator;
+    private final SchemaPrompt schemaPrompt;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong earlyStops = new AtomicLong();
+    private final AtomicLong firstTokenNanos = new AtomicLong();
+    private final AtomicLong generationNanos = new AtomicLong();
+    private final AtomicLong earlyStopNanos = new AtomicLong();
+    private final PrefixStats newPrefix = new PrefixStats();
+    private final PrefixStats repeatedPrefix = new PrefixStats();
+    private final AtomicLong trimmedPrompts = new AtomicLong();
+    private final AtomicLong generatedTokens = new AtomicLong();
+    private final AtomicLong usedTokens = new AtomicLong();
+    private final AtomicLong truncated = new AtomicLong();
+    private volatile String lastSystemMessage;
+    private volatile int lastContextTokens;
 
     public OllamaLLMAdapter(WebClient ollamaWebClient, OllamaProperties properties) {
+        this(ollamaWebClient, properties, Map.of(), new PromptProperties(null, 0, 0, 0),
+                new GenerationProperties(null, null, null, 0, 0));
+    }
+
+    /**
+     * @param sampling   Ollama options sent with every translation, such as {@code temperature} or {@code seed},
+     *                   in place of the generation defaults
+     * @param prompt     how the schema is written and fitted to the context window
+     * @param generation default sampling, stop sequences and output length
+     */
+    public OllamaLLMAdapter(WebClient ollamaWebClient, OllamaProperties properties, Map<String, Object> sampling,
+                            PromptProperties prompt, GenerationProperties generation) {
         this.webClient = ollamaWebClient;
         this.properties = properties;
+        this.sampling = Map.copyOf(sampling);
+        this.generation = generation;
+        this.responseTokens = prompt.responseTokens();
+        this.tokenEstimator = new TokenEstimator(prompt.charsPerToken());
+        this.schemaPrompt = new SchemaPrompt(prompt, tokenEstimator);
     }
 
     @Override
     public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext) {
-        log.debug("Translating query: {}", query.value());
-
-        String prompt = buildPrompt(query, schemaContext);
-        OllamaRequest request = new OllamaRequest(
-                properties.model(),
-                prompt,
-                false
-        );
+        return translate(query, schemaContext, TokenListener.NONE);
+    }
 
+    /**
+     * Waits for {@link #translateAsync}; an interrupted caller cancels the request.
+     */
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener) {
+        CompletableFuture<SqlStatement> translation = translateAsync(query, schemaContext, listener, SqlValidator.NONE);
         try {
-            OllamaResponse response = webClient.post()
-                    .uri("/api/generate")
+            return translation.get();
+        } catch (InterruptedException e) {
+            translation.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the model");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw TranslationException.llmUnavailable(cause);
+        }
+    }
+
+    /**
+     * Streams the completion and stops it as soon as a complete statement has arrived,
+     * so trailing explanations are never generated.
+     * <p>
+     * No thread waits meanwhile: chunks are handled on the connection's event loop as they arrive, the
+     * timeout runs on a timer, and cancelling the future cancels the request. A single model has nothing
+     * to choose between, so the validator is not used.
+     */
+    @Override
+    public CompletableFuture<SqlStatement> translateAsync(NaturalLanguageQuery query, SchemaContext schemaContext,
+                                                         TokenListener listener, SqlValidator validator) {
+        return Mono.defer(() -> {
+            log.debug("Translating query: {}", query.value());
+
+            String userMessage = userMessage(query);
+            SchemaPrompt.Plan plan = plan(schemaContext, userMessage);
+            String systemMessage = plan.systemMessage();
+            boolean prefixRepeated = systemMessage.equals(lastSystemMessage);
+            lastSystemMessage = systemMessage;
+            ChatRequest request = new ChatRequest(
+                    properties.model(),
+                    List.of(new ChatMessage("system", systemMessage), new ChatMessage("user", userMessage)),
+                    true,
+                    properties.keepAlive(),
+                    options(plan, generationOptions(query))
+            );
+
+            Generation generation = new Generation(listener);
+            int promptChars = systemMessage.length() + userMessage.length();
+            return webClient.post()
+                    .uri("/api/chat")
                     .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(request)
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .body(ChatRequestWriter.inserter(request, plan.prompt()))
                     .retrieve()
-                    .bodyToMono(OllamaResponse.class)
+                    .bodyToFlux(ChatResponse.class)
+                    .doOnNext(generation::accept)
+                    .takeUntil(chunk -> chunk.done() || generation.completion.isComplete())
+                    .then()
                     .timeout(Duration.ofSeconds(properties.timeoutSeconds()))
-                    .block();
+                    .then(Mono.fromCallable(() -> complete(generation, listener, prefixRepeated, promptChars)));
+        }).onErrorMap(WebClientException.class, e -> {
+            log.error("Ollama API error", e);
+            return TranslationException.llmUnavailable(e);
+        }).onErrorMap(TimeoutException.class, TranslationException::timeout).toFuture();
+    }
 
-            if (response == null || response.response() == null || response.response().isBlank()) {
-                throw TranslationException.invalidResponse("Empty response from LLM");
-            }
+    private SqlStatement complete(Generation generation, TokenListener listener, boolean prefixRepeated,
+                                  int promptChars) {
+        ChatResponse last = generation.last;
+        GenerationStats stats = generation.finish();
+        record(stats, prefixRepeated, last != null && "length".equals(last.doneReason()));
+        if (!prefixRepeated) {
+            tokenEstimator.calibrate(promptChars, stats.promptTokens());
+        }
+        listener.onFinished(stats);
 
-            String sql = extractSql(response.response());
-            log.debug("Translated SQL: {}", sql);
+        String response = generation.completion.text();
+        if (response.isBlank()) {
+            throw TranslationException.invalidResponse("Empty response from LLM");
+        }
 
-            return SqlStatement.of(sql);
+        String sql = extractSql(response);
+        log.debug("Translated SQL: {}", sql);
 
-        } catch (WebClientException e) {
-            log.error("Ollama API error", e);
-            throw TranslationException.llmUnavailable(e);
-        } catch (IllegalStateException e) {
-            if (e.getMessage() != null && e.getMessage().contains("Timeout")) {
-                throw TranslationException.timeout();
-            }
-            throw TranslationException.llmUnavailable(e);
+        return SqlStatement.of(sql);
+    }
+
+    @Override
+    public String model() {
+        return properties.model();
+    }
+
+    /**
+     * The server this adapter talks to.
+     */
+    public String endpoint() {
+        return properties.baseUrl();
+    }
+
+    @Override
+    public void warmUp(SchemaContext schemaContext) {
+        if (schemaContext == null) {
+            chat(new ChatRequest(properties.model(), List.of(), false, properties.keepAlive(), null), null);
+            return;
+        }
+        SchemaPrompt.Plan plan = plan(schemaContext, null);
+        String systemMessage = plan.systemMessage();
+        ChatResponse response = chat(new ChatRequest(
+                properties.model(),
+                List.of(new ChatMessage("system", systemMessage)),
+                false,
+                properties.keepAlive(),
+                options(plan, Map.of("num_predict", 1))
+        ), plan.prompt());
+        lastSystemMessage = systemMessage;
+        if (response != null && response.promptEvalCount() != null) {
+            tokenEstimator.calibrate(systemMessage.length(), response.promptEvalCount());
+        }
+    }
+
+    @Override
+    public void release() {
+        chat(new ChatRequest(properties.model(), List.of(), false, "0", null), null);
+        lastSystemMessage = null;
+    }
+
+    @Override
+    public Optional<Instant> residentUntil() {
+        RunningModels running = webClient.get()
+                .uri("/api/ps")
+                .retrieve()
+                .bodyToMono(RunningModels.class)
+                .block(Duration.ofSeconds(5));
+        if (running == null || running.models() == null) {
+            return Optional.empty();
         }
+        String tagged = properties.model().contains(":") ? properties.model() : properties.model() + ":latest";
+        return running.models().stream()
+                .filter(model -> tagged.equals(model.name()) || properties.model().equals(model.name()))
+                .findFirst()
+                .map(model -> model.expiresAt() != null ? OffsetDateTime.parse(model.expiresAt()).toInstant() : Instant.MAX);
+    }
+
+    private ChatResponse chat(ChatRequest request, EncodedText system) {
+        return webClient.post()
+                .uri("/api/chat")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ChatRequestWriter.inserter(request, system))
+                .retrieve()
+                .bodyToMono(ChatResponse.class)
+                .block(Duration.ofSeconds(properties.timeoutSeconds()));
     }
 
     @Override
@@ -107,16 +309,131 @@ public class OllamaLLMAdapter implements LLMPort {
         }
     }
 
-    private String buildPrompt(NaturalLanguageQuery query, SchemaContext schemaContext) {
+    /**
+     * Instructions and schema, identical for every question on the same schema unless the schema has to be
+     * trimmed to fit the context window; nothing else question-specific may be added here, or the cached
+     * prefix is lost.
+     */
+    private SchemaPrompt.Plan plan(SchemaContext schemaContext, String userMessage) {
+        SchemaPrompt.Plan plan = schemaPrompt.plan(SYSTEM_PROMPT, schemaContext, userMessage);
+        if (plan.omittedTables() > 0) {
+            trimmedPrompts.incrementAndGet();
+            log.debug("Schema trimmed to fit the context window",
+                    kv("model", properties.model()),
+                    kv("omittedTables", plan.omittedTables()),
+                    kv("numCtx", plan.contextTokens()));
+        }
+        lastContextTokens = plan.contextTokens();
+        return plan;
+    }
+
+    /**
+     * Deterministic sampling, stop sequences and an output cap for the question; the adapter's own sampling
+     * options take precedence.
+     */
+    private Map<String, Object> generationOptions(NaturalLanguageQuery query) {
+        Map<String, Object> options = new LinkedHashMap<>();
+        options.put("temperature", generation.temperature());
+        options.put("seed", generation.seed());
+        if (!generation.stop().isEmpty()) {
+            options.put("stop", generation.stop());
+        }
+        options.put("num_predict", generation.predictTokens(tokenEstimator.estimate(query.value()), responseTokens));
+        options.putAll(sampling);
+        return options;
+    }
+
+    private static Map<String, Object> options(SchemaPrompt.Plan plan, Map<String, Object> extra) {
+        Map<String, Object> options = new LinkedHashMap<>(extra);
+        options.put("num_ctx", plan.contextTokens());
+        return options;
+    }
+
+    private static String userMessage(NaturalLanguageQuery query) {
         return """
-                %s
-                
-                %s
-                
                 User query: %s
                 
                 Generate the SQL:
-                """.formatted(SYSTEM_PROMPT, schemaContext.toPromptString(), query.value());
+                """.formatted(query.value());
+    }
+
+    @Override
+    public MetricsSnapshot metrics() {
+        long count = requests.get();
+        long early = earlyStops.get();
+        long full = count - early;
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("requests", count);
+        values.put("first token avg", count == 0 ? "-" : "%.0f ms".formatted(firstTokenNanos.get() / 1e6 / count));
+        values.put("first token (new)", newPrefix.firstTokenAverage());
+        values.put("first token (repeat)", repeatedPrefix.firstTokenAverage());
+        values.put("prompt eval avg", promptEvalAverage());
+        values.put("num_ctx", lastContextTokens == 0 ? "-" : lastContextTokens);
+        values.put("chars per token", "%.2f (%d samples)".formatted(tokenEstimator.charsPerToken(), tokenEstimator.samples()));
+        values.put("trimmed prompts", trimmedPrompts.get());
+        values.put("generation avg", count == 0 ? "-" : "%.0f ms".formatted(generationNanos.get() / 1e6 / count));
+        values.put("tokens generated", generatedTokens.get());
+        values.put("tokens used", usedTokensShare());
+        values.put("hit num_predict", truncated.get());
+        values.put("stopped early", early);
+        values.put("est. time saved", full == 0 || early == 0 ? "-" : "%.1fs".formatted(estimatedSavedNanos(full, early) / 1e9));
+        return new MetricsSnapshot("Ollama", values);
+    }
+
+    private void record(GenerationStats stats, boolean prefixRepeated, boolean reachedLimit) {
+        requests.incrementAndGet();
+        generatedTokens.addAndGet(stats.tokens());
+        usedTokens.addAndGet(stats.usedTokens());
+        if (reachedLimit) {
+            truncated.incrementAndGet();
+            log.warn("Generation reached num_predict before the statement ended",
+                    kv("model", properties.model()),
+                    kv("tokens", stats.tokens()));
+        }
+        if (stats.timeToFirstToken() != null) {
+            firstTokenNanos.addAndGet(stats.timeToFirstToken().toNanos());
+        }
+        (prefixRepeated ? repeatedPrefix : newPrefix).record(stats);
+        generationNanos.addAndGet(stats.total().toNanos());
+        if (stats.stoppedEarly()) {
+            earlyStops.incrementAndGet();
+            earlyStopNanos.addAndGet(stats.total().toNanos());
+        }
+        log.info("Generation finished",
+                kv("model", properties.model()),
+                kv("timeToFirstToken", stats.timeToFirstToken()),
+                kv("duration", stats.total()),
+                kv("tokens", stats.tokens()),
+                kv("usedTokens", stats.usedTokens()),
+                kv("stoppedEarly", stats.stoppedEarly()),
+                kv("prefixRepeated", prefixRepeated),
+                kv("promptTokens", stats.promptTokens()),
+                kv("promptEvalTime", stats.promptEvalTime()));
+    }
+
+    private String usedTokensShare() {
+        long generated = generatedTokens.get();
+        return generated == 0 ? "-" : "%d (%.0f%%)".formatted(usedTokens.get(), 100.0 * usedTokens.get() / generated);
+    }
+
+    private String promptEvalAverage() {
+        long count = newPrefix.promptEvals.get() + repeatedPrefix.promptEvals.get();
+        if (count == 0) {
+            return "-";
+        }
+        long tokens = newPrefix.promptTokens.get() + repeatedPrefix.promptTokens.get();
+        long nanos = newPrefix.promptEvalNanos.get() + repeatedPrefix.promptEvalNanos.get();
+        return "%.0f ms (%d tokens)".formatted(nanos / 1e6 / count, tokens / count);
+    }
+
+    /**
+     * What the stopped generations would have cost had they run as long as the average one that
+     * finished on its own; an estimate, since the skipped text is never seen.
+     */
+    private long estimatedSavedNanos(long full, long early) {
+        double fullAverage = (generationNanos.get() - earlyStopNanos.get()) / (double) full;
+        double earlyAverage = earlyStopNanos.get() / (double) early;
+        return (long) Math.max(0, (fullAverage - earlyAverage) * early);
     }
 
     private String extractSql(String response) {
@@ -126,25 +443,133 @@ public class OllamaLLMAdapter implements LLMPort {
             return matcher.group(1).strip();
         }
 
-        // Otherwise, clean up and return as-is
+        // Otherwise, clean up and return as-is; a stopped stream may leave an unclosed fence
         return response.strip()
+                .replaceFirst("^```(?:sql)?", "")
+                .replaceFirst("```$", "")
+                .strip()
                 .replaceAll("^(SELECT|INSERT|UPDATE|DELETE|CREATE|DROP|ALTER|WITH)\\s+", "$0")
                 .replaceAll("\\s*;\\s*$", "")
                 .strip() + ";";
     }
 
-    private record OllamaRequest(
+    /**
+     * Collects one streamed completion; chunks arrive one at a time, in order.
+     */
+    private static final class Generation {
+        private final TokenListener listener;
+        private final StatementCompletion completion = new StatementCompletion();
+        private final long start = System.nanoTime();
+        private long firstToken;
+        private int tokens;
+        private int received;
+        private ChatResponse last;
+
+        private Generation(TokenListener listener) {
+            this.listener = listener;
+        }
+
+        private void accept(ChatResponse chunk) {
+            last = chunk;
+            String token = chunk.message() != null ? chunk.message().content() : null;
+            if (token == null || token.isEmpty()) {
+                return;
+            }
+            received++;
+            if (completion.isComplete()) {
+                return;
+            }
+            if (tokens++ == 0) {
+                firstToken = System.nanoTime();
+            }
+            completion.append(token);
+            listener.onToken(token);
+        }
+
+        /**
+         * Only a stream that ran to its end reports prompt statistics in its final chunk, and the generated token
+         * count, which includes any stop sequence.
+         */
+        private GenerationStats finish() {
+            boolean finished = last != null && last.done();
+            int generated = finished && last.evalCount() != null ? Math.max(received, last.evalCount()) : received;
+            return new GenerationStats(
+                    tokens == 0 ? null : Duration.ofNanos(firstToken - start),
+                    Duration.ofNanos(System.nanoTime() - start),
+                    generated,
+                    tokens,
+                    !finished && completion.isComplete(),
+                    finished && last.promptEvalCount() != null ? last.promptEvalCount() : 0,
+                    finished && last.promptEvalDuration() != null ? Duration.ofNanos(last.promptEvalDuration()) : null
+            );
+        }
+    }
+
+    /**
+     * First-token and prompt evaluation times of requests that did or did not repeat the previous prefix.
+     */
+    private static final class PrefixStats {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong firstTokenNanos = new AtomicLong();
+        private final AtomicLong promptEvals = new AtomicLong();
+        private final AtomicLong promptTokens = new AtomicLong();
+        private final AtomicLong promptEvalNanos = new AtomicLong();
+
+        private void record(GenerationStats stats) {
+            if (stats.timeToFirstToken() != null) {
+                requests.incrementAndGet();
+                firstTokenNanos.addAndGet(stats.timeToFirstToken().toNanos());
+            }
+            if (stats.promptEvalTime() != null) {
+                promptEvals.incrementAndGet();
+                promptTokens.addAndGet(stats.promptTokens());
+                promptEvalNanos.addAndGet(stats.promptEvalTime().toNanos());
+            }
+        }
+
+        private String firstTokenAverage() {
+            long count = requests.get();
+            return count == 0 ? "-" : "%.0f ms (%d)".formatted(firstTokenNanos.get() / 1e6 / count, count);
+        }
+    }
+
+    record ChatRequest(
             String model,
-            String prompt,
-            boolean stream
+            List<ChatMessage> messages,
+            boolean stream,
+            @JsonProperty("keep_alive") String keepAlive,
+            @JsonInclude(JsonInclude.Include.NON_NULL) Map<String, Object> options
+    ) {
+    }
+
+    record ChatMessage(
+            String role,
+            String content
     ) {
     }
 
-    private record OllamaResponse(
+    /**
+     * One streamed chunk; the statistics and the reason generation ended ({@code stop} or {@code length})
+     * are only set on the final one.
+     */
+    private record ChatResponse(
             String model,
             @JsonProperty("created_at") String createdAt,
-            String response,
-            boolean done
+            ChatMessage message,
+            boolean done,
+            @JsonProperty("done_reason") String doneReason,
+            @JsonProperty("prompt_eval_count") Integer promptEvalCount,
+            @JsonProperty("prompt_eval_duration") Long promptEvalDuration,
+            @JsonProperty("eval_count") Integer evalCount
+    ) {
+    }
+
+    private record RunningModels(List<RunningModel> models) {
+    }
+
+    private record RunningModel(
+            String name,
+            @JsonProperty("expires_at") String expiresAt
     ) {
     }
 }
@@ -0,0 +1,227 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SchemaContext.ColumnInfo;
+import org.nexa.querymate.domain.translation.SchemaContext.RelationInfo;
+import org.nexa.querymate.domain.translation.SchemaContext.TableInfo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The schema part of the system message, rendered once per table and kept with its encoding, so a prompt
+ * for any subset of tables is a concatenation of cached pieces.
+ * <p>
+ * Fragments belong to one schema context and are replaced along with it. A refreshed schema, or the context
+ * a federated question builds from its connections, reuses the fragments of tables equal to ones already
+ * rendered and renders only what changed. Compact lines depend on the columns listed as common, so they are
+ * reused only while those stay the same.
+ */
+final class PromptFragments {
+
+    private static final String LEGEND =
+            "Tables, one per line as name(column type, ...); pk = primary key, ! = not null, -> = references.";
+    private static final String NO_SCHEMA = "No schema information available.";
+
+    private static final Map<String, String> TYPES = Map.ofEntries(
+            Map.entry("integer", "int"),
+            Map.entry("character varying", "varchar"),
+            Map.entry("character", "char"),
+            Map.entry("timestamp without time zone", "timestamp"),
+            Map.entry("timestamp with time zone", "timestamptz"),
+            Map.entry("time without time zone", "time"),
+            Map.entry("time with time zone", "timetz"),
+            Map.entry("boolean", "bool"),
+            Map.entry("double precision", "float8"),
+            Map.entry("real", "float4")
+    );
+
+    /**
+     * The fragments of one schema context: instructions and header, one per table, and the closing text.
+     */
+    static final class Schema {
+        private final SchemaContext context;
+        private final String instructions;
+        private final Set<String> common;
+        private final EncodedText head;
+        private final EncodedText tail;
+        private final Map<TableInfo, EncodedText> tables;
+        private final int length;
+        private volatile EncodedText full;
+
+        private Schema(SchemaContext context, String instructions, Set<String> common, EncodedText head,
+                       EncodedText tail, Map<TableInfo, EncodedText> tables) {
+            this.context = context;
+            this.instructions = instructions;
+            this.common = common;
+            this.head = head;
+            this.tail = tail;
+            this.tables = tables;
+            this.length = head.length() + tail.length()
+                    + tables.values().stream().mapToInt(EncodedText::length).sum();
+        }
+
+        /**
+         * Characters of the whole system message.
+         */
+        int length() {
+            return length;
+        }
+
+        /**
+         * Characters of everything but the tables.
+         */
+        int overhead() {
+            return head.length() + tail.length();
+        }
+
+        EncodedText table(TableInfo table) {
+            return tables.get(table);
+        }
+
+        /**
+         * The whole system message, assembled on first use and kept.
+         */
+        EncodedText full() {
+            EncodedText current = full;
+            if (current == null) {
+                current = assemble(context.tables(), EncodedText.EMPTY);
+                full = current;
+            }
+            return current;
+        }
+
+        /**
+         * The system message listing only the given tables of this schema, in the order given.
+         */
+        EncodedText assemble(List<TableInfo> subset, EncodedText note) {
+            List<EncodedText> parts = new ArrayList<>(subset.size() + 3);
+            parts.add(head);
+            subset.forEach(table -> parts.add(tables.get(table)));
+            parts.add(tail);
+            parts.add(note);
+            return EncodedText.concat(parts);
+        }
+    }
+
+    private final boolean compact;
+    private volatile Schema current;
+
+    PromptFragments(boolean compact) {
+        this.compact = compact;
+    }
+
+    /**
+     * The fragments of a schema, rendered on first use of each schema context.
+     */
+    Schema forSchema(String instructions, SchemaContext schema) {
+        Schema cached = current;
+        if (cached != null && cached.context == schema && cached.instructions.equals(instructions)) {
+            return cached;
+        }
+        Set<String> common = compact ? commonColumns(schema.tables()) : Set.of();
+        Map<TableInfo, EncodedText> previous = new HashMap<>();
+        if (cached != null && cached.common.equals(common)) {
+            cached.tables.forEach(previous::put);
+        }
+        Map<TableInfo, EncodedText> tables = new IdentityHashMap<>();
+        for (TableInfo table : schema.tables()) {
+            EncodedText fragment = previous.get(table);
+            tables.put(table, fragment != null ? fragment : EncodedText.of(render(table, common)));
+        }
+        EncodedText head = EncodedText.of(instructions + "\n" + head(compact, schema, common));
+        Schema rendered = new Schema(schema, instructions, common, head, EncodedText.of(tail(schema)), tables);
+        current = rendered;
+        return rendered;
+    }
+
+    private static String head(boolean compact, SchemaContext schema, Set<String> common) {
+        if (schema.tables().isEmpty()) {
+            return compact ? NO_SCHEMA + "\n" : NO_SCHEMA;
+        }
+        if (!compact) {
+            return "Database Schema:\n\n";
+        }
+        return common.isEmpty()
+                ? LEGEND + "\n"
+                : LEGEND + "\n+common = " + String.join(", ", common) + "\n";
+    }
+
+    private static String tail(SchemaContext schema) {
+        return schema.tables().isEmpty() ? "" : schema.federationInstructions();
+    }
+
+    private String render(TableInfo table, Set<String> common) {
+        return compact ? line(table, common) : table.toPromptString();
+    }
+
+    /**
+     * The schema as one line per table, with the columns most tables share factored out.
+     */
+    static String compact(SchemaContext schema) {
+        Set<String> common = commonColumns(schema.tables());
+        StringBuilder sb = new StringBuilder(head(true, schema, common));
+        schema.tables().forEach(table -> sb.append(line(table, common)));
+        return sb.append(tail(schema)).toString();
+    }
+
+    private static String line(TableInfo table, Set<String> common) {
+        Map<String, List<RelationInfo>> references = table.relations().stream()
+                .collect(Collectors.groupingBy(RelationInfo::columnName));
+        List<String> columns = table.columns().stream()
+                .map(column -> column(column, references.getOrDefault(column.name(), List.of())))
+                .toList();
+        boolean shared = !common.isEmpty() && columns.containsAll(common);
+        StringBuilder sb = new StringBuilder(table.fullName()).append('(');
+        sb.append(columns.stream().filter(column -> !shared || !common.contains(column)).collect(Collectors.joining(", ")));
+        if (shared) {
+            sb.append(columns.size() > common.size() ? ", +common" : "+common");
+        }
+        return sb.append(")\n").toString();
+    }
+
+    private static String column(ColumnInfo column, List<RelationInfo> references) {
+        StringBuilder sb = new StringBuilder(column.name()).append(' ').append(type(column.dataType()));
+        if (column.primaryKey()) {
+            sb.append(" pk");
+        } else if (!column.nullable()) {
+            sb.append('!');
+        }
+        for (RelationInfo reference : references) {
+            sb.append(" -> ").append(reference.referencedTable()).append('.').append(reference.referencedColumn());
+        }
+        return sb.toString();
+    }
+
+    private static String type(String dataType) {
+        String lower = dataType.toLowerCase();
+        return TYPES.getOrDefault(lower, lower);
+    }
+
+    /**
+     * Columns written identically in at least three tables and in at least half of them.
+     */
+    private static Set<String> commonColumns(List<TableInfo> tables) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (TableInfo table : tables) {
+            Set<String> referencing = table.relations().stream().map(RelationInfo::columnName).collect(Collectors.toSet());
+            table.columns().stream()
+                    .filter(column -> !column.primaryKey() && !referencing.contains(column.name()))
+                    .map(column -> column(column, List.of()))
+                    .distinct()
+                    .forEach(column -> counts.merge(column, 1, Integer::sum));
+        }
+        int threshold = Math.max(3, (tables.size() + 1) / 2);
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
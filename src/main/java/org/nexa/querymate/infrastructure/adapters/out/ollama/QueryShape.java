@@ -0,0 +1,32 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import org.nexa.querymate.domain.query.SqlLexer;
+import org.nexa.querymate.domain.query.SqlStatement;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Local check that a model's answer looks like a single query, so answers that are not never reach the database.
+ */
+final class QueryShape {
+
+    private static final Set<String> QUERY_KEYWORDS = Set.of(
+            "SELECT", "WITH", "INSERT", "UPDATE", "DELETE", "MERGE", "VALUES", "TABLE", "SHOW", "EXPLAIN");
+
+    private QueryShape() {
+    }
+
+    /**
+     * Returns what is wrong with the statement's shape, or null if it looks like a query.
+     */
+    static String problem(SqlStatement sql) {
+        List<SqlLexer.Token> tokens = SqlLexer.tokenize(sql.value());
+        if (tokens.isEmpty() || !QUERY_KEYWORDS.contains(tokens.getFirst().text().toUpperCase())) {
+            return "not a query";
+        }
+        long opened = tokens.stream().filter(token -> token.isPunctuation('(')).count();
+        long closed = tokens.stream().filter(token -> token.isPunctuation(')')).count();
+        return opened != closed ? "unbalanced parentheses" : null;
+    }
+}
@@ -0,0 +1,54 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The future of a translation made of several requests in turn, such as retries on other servers or
+ * escalations to other models: cancelling it cancels whichever request is running.
+ */
+final class Relay<T> {
+
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private volatile CompletableFuture<?> current;
+
+    Relay() {
+        result.whenComplete((value, failure) -> {
+            CompletableFuture<?> running = current;
+            if (result.isCancelled() && running != null) {
+                running.cancel(true);
+            }
+        });
+    }
+
+    CompletableFuture<T> future() {
+        return result;
+    }
+
+    boolean isDone() {
+        return result.isDone();
+    }
+
+    /**
+     * Marks the request as the one running now, cancelling it at once if the relay was cancelled already.
+     */
+    <R> CompletableFuture<R> track(CompletableFuture<R> request) {
+        current = request;
+        if (result.isCancelled()) {
+            request.cancel(true);
+        }
+        return request;
+    }
+
+    void complete(T value) {
+        result.complete(value);
+    }
+
+    void fail(Throwable failure) {
+        result.completeExceptionally(unwrap(failure));
+    }
+
+    static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+}
@@ -0,0 +1,150 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SchemaContext.RelationInfo;
+import org.nexa.querymate.domain.translation.SchemaContext.TableInfo;
+import org.nexa.querymate.infrastructure.config.PromptProperties;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Writes the schema part of the system message and fits it into the model's context window.
+ * <p>
+ * The compact form writes one DDL-like line per table, {@code orders(id bigint pk, user_id bigint! -> users.id)},
+ * with short type names and columns shared by most tables (such as {@code created_at}) listed once.
+ * When the whole schema fits the budget it is always sent in full and in schema order, so the system message
+ * stays identical across questions and Ollama keeps its evaluated prefix. Only a schema too large for the
+ * context window is trimmed per question, keeping the tables whose names and columns the question mentions
+ * and their foreign-key neighbours first.
+ * <p>
+ * The requested {@code num_ctx} is the budget rounded up to a whole step, with room for a question of
+ * ordinary length, so it stays the same from one question to the next: Ollama reloads a model whose
+ * context size changes.
+ * <p>
+ * Tables are rendered once per schema by {@link PromptFragments}; planning only adds up their lengths and
+ * joins the ones it keeps.
+ */
+final class SchemaPrompt {
+
+    private static final int CONTEXT_STEP = 1024;
+    private static final int QUESTION_ALLOWANCE = 256;
+
+    private static final EncodedText TRIMMED_NOTE =
+            EncodedText.of("\nSome tables are not listed; use only the tables above.\n");
+
+    /**
+     * The system message and the context size to request with it.
+     *
+     * @param prompt        the system message with its encoding
+     * @param omittedTables tables left out to fit the context window
+     */
+    record Plan(EncodedText prompt, int contextTokens, int omittedTables) {
+
+        String systemMessage() {
+            return prompt.text();
+        }
+    }
+
+    private final PromptProperties properties;
+    private final TokenEstimator estimator;
+    private final PromptFragments fragments;
+
+    SchemaPrompt(PromptProperties properties, TokenEstimator estimator) {
+        this.properties = properties;
+        this.estimator = estimator;
+        this.fragments = new PromptFragments(properties.compact());
+    }
+
+    /**
+     * Plans the system message for a question; with a null question, the plan warm-up sends ahead of any.
+     */
+    Plan plan(String instructions, SchemaContext schema, String question) {
+        int questionTokens = Math.max(QUESTION_ALLOWANCE, question == null ? 0 : estimator.estimate(question));
+        int available = properties.contextTokens() - properties.responseTokens() - questionTokens;
+
+        PromptFragments.Schema rendered = fragments.forSchema(instructions, schema);
+        int fullTokens = estimator.estimate(rendered.length());
+        if (fullTokens <= available || schema.tables().size() <= 1) {
+            int needed = fullTokens + questionTokens + properties.responseTokens();
+            return new Plan(rendered.full(), contextFor(needed), 0);
+        }
+
+        int used = estimator.estimate(rendered.overhead() + TRIMMED_NOTE.length());
+        Set<TableInfo> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (TableInfo table : byRelevance(schema, question)) {
+            int cost = estimator.estimate(rendered.table(table).length());
+            if (used + cost <= available) {
+                kept.add(table);
+                used += cost;
+            }
+        }
+        List<TableInfo> ordered = schema.tables().stream().filter(kept::contains).toList();
+        return new Plan(rendered.assemble(ordered, TRIMMED_NOTE), properties.contextTokens(),
+                schema.tables().size() - ordered.size());
+    }
+
+    private int contextFor(int needed) {
+        int rounded = (needed + CONTEXT_STEP - 1) / CONTEXT_STEP * CONTEXT_STEP;
+        return Math.min(rounded, properties.contextTokens());
+    }
+
+    /**
+     * Tables ordered by how much of the question refers to them: their own name counts most, then their
+     * columns, then being one foreign key away from a table the question names. Ties keep schema order.
+     */
+    private static List<TableInfo> byRelevance(SchemaContext schema, String question) {
+        Set<String> words = question == null ? Set.of() : words(question);
+        List<TableInfo> tables = schema.tables();
+        Map<String, Integer> byName = new HashMap<>();
+        double[] scores = new double[tables.size()];
+        for (int i = 0; i < tables.size(); i++) {
+            TableInfo table = tables.get(i);
+            byName.put(table.tableName(), i);
+            byName.put(table.fullName(), i);
+            scores[i] = 3 * overlap(words(table.tableName()), words)
+                    + table.columns().stream().mapToLong(column -> overlap(words(column.name()), words)).sum();
+        }
+        double[] named = scores.clone();
+        for (int i = 0; i < tables.size(); i++) {
+            for (RelationInfo relation : tables.get(i).relations()) {
+                Integer target = byName.get(relation.referencedTable());
+                if (target != null && named[target] > 0) {
+                    scores[i] += 1;
+                }
+                if (target != null && named[i] > 0) {
+                    scores[target] += 1;
+                }
+            }
+        }
+        return IntStream.range(0, tables.size()).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> -scores[i]))
+                .map(tables::get)
+                .toList();
+    }
+
+    private static long overlap(Set<String> names, Set<String> words) {
+        return names.stream().filter(words::contains).count();
+    }
+
+    /**
+     * Lowercase words of a question or identifier, singular where a trailing s makes the plural.
+     */
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        for (String word : Arrays.asList(text.toLowerCase().split("[^a-z0-9]+"))) {
+            if (word.length() > 2) {
+                words.add(word.endsWith("s") && !word.endsWith("ss") ? word.substring(0, word.length() - 1) : word);
+            }
+        }
+        return words;
+    }
+}
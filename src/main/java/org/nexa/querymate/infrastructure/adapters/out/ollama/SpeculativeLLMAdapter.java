@@ -0,0 +1,443 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.application.ports.out.MetricsSource;
+import org.nexa.querymate.domain.exception.TranslationException;
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
+import org.nexa.querymate.infrastructure.config.SpeculativeProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * LLMPort that asks for several candidate translations at once and keeps the best one that validates.
+ * <p>
+ * The main model answers as usual and streams its tokens to the caller; the extra candidates are generated at
+ * the same time with other sampling settings or other models. Every answer is checked locally and then planned
+ * by the caller's validator (an {@code EXPLAIN} on the target connection) as soon as it arrives. Depending on
+ * the configured selection, the first valid candidate wins, or the one with the lowest planner cost among those
+ * valid within a short window after the first. Candidates still generating are cancelled once a winner is chosen.
+ * When no candidate validates, the main model's answer is returned unchecked, as it would be without speculation,
+ * so execution reports its errors as before. Without a validator there is nothing to choose by, and only the main
+ * model is asked.
+ */
+public class SpeculativeLLMAdapter implements LLMPort, MetricsSource, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SpeculativeLLMAdapter.class);
+
+    private final LLMPort primary;
+    private final List<LoadBalancingLLMAdapter> alternatives;
+    private final SpeculativeProperties properties;
+    private final List<Candidate> candidates = new ArrayList<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong noneValid = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong costComparisons = new AtomicLong();
+    private final DoubleAdder costRatios = new DoubleAdder();
+
+    /**
+     * @param primary      the main model, which streams to the caller and is the fallback
+     * @param alternatives the extra candidates, one per additional translation requested
+     */
+    public SpeculativeLLMAdapter(LLMPort primary, List<LoadBalancingLLMAdapter> alternatives,
+                                 SpeculativeProperties properties) {
+        this.primary = primary;
+        this.alternatives = List.copyOf(alternatives);
+        this.properties = properties;
+        for (int i = 0; i <= alternatives.size(); i++) {
+            candidates.add(new Candidate());
+        }
+    }
+
+    private static final class Candidate {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong won = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        private String describe() {
+            return "%d requests, %d won, %d rejected, %d failed".formatted(
+                    requests.get(), won.get(), rejected.get(), failed.get());
+        }
+    }
+
+    /**
+     * One candidate's answer and what validation made of it; {@code error} is set if generation failed.
+     */
+    private record Outcome(int index, SqlStatement sql, SqlValidator.Verdict verdict, RuntimeException error) {
+
+        private boolean isValid() {
+            return error == null && verdict.isValid();
+        }
+
+        /**
+         * Candidates accepted without an estimate rank after every estimated one.
+         */
+        private double cost() {
+            return verdict.estimate() != null ? verdict.estimate().totalCost() : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * A candidate's thread, which is interrupted on cancellation only while it is still generating;
+     * one that is already validating finishes on its own.
+     */
+    private static final class Runner {
+        private volatile boolean generating = true;
+        private Thread thread;
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext) {
+        return translate(query, schemaContext, TokenListener.NONE, SqlValidator.NONE);
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener) {
+        return translate(query, schemaContext, listener, SqlValidator.NONE);
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener,
+                                  SqlValidator validator) {
+        if (alternatives.isEmpty() || validator == SqlValidator.NONE) {
+            return primary.translate(query, schemaContext, listener, validator);
+        }
+        requests.incrementAndGet();
+        SqlValidator once = once(validator);
+        BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        List<Runner> runners = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            runners.add(start(i, query, schemaContext, listener, once, outcomes));
+        }
+
+        Outcome[] received = new Outcome[candidates.size()];
+        Outcome winner = null;
+        try {
+            winner = select(outcomes, received);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw TranslationException.llmUnavailable(e);
+        } finally {
+            cancel(runners);
+        }
+
+        return winner == null ? fallback(received) : chosen(winner, received);
+    }
+
+    /**
+     * Races the candidates like {@link #translate(NaturalLanguageQuery, SchemaContext, TokenListener, SqlValidator)}
+     * without a thread per candidate: each generates through its own non-blocking request, and only validation,
+     * which plans the statement on the target connection, runs on a virtual thread. Cancelling the future
+     * cancels every candidate still generating.
+     */
+    @Override
+    public CompletableFuture<SqlStatement> translateAsync(NaturalLanguageQuery query, SchemaContext schemaContext,
+                                                         TokenListener listener, SqlValidator validator) {
+        if (alternatives.isEmpty() || validator == SqlValidator.NONE) {
+            return primary.translateAsync(query, schemaContext, listener, validator);
+        }
+        requests.incrementAndGet();
+        SqlValidator once = once(validator);
+        Race race = new Race();
+        for (int i = 0; i < candidates.size(); i++) {
+            int index = i;
+            Candidate candidate = candidates.get(index);
+            candidate.requests.incrementAndGet();
+            CompletableFuture<SqlStatement> generation;
+            try {
+                generation = index == 0
+                        ? primary.translateAsync(query, schemaContext, listener, validator)
+                        : alternatives.get(index - 1).translateAsync(query, schemaContext, TokenListener.NONE, SqlValidator.NONE);
+            } catch (RuntimeException e) {
+                generation = CompletableFuture.failedFuture(e);
+            }
+            race.generating(generation);
+            generation.whenComplete((sql, failure) -> {
+                if (failure == null) {
+                    Thread.ofVirtual().name("speculative-validate-" + index)
+                            .start(() -> race.receive(validate(index, sql, once)));
+                } else if (!race.result.isDone()) {
+                    candidate.failed.incrementAndGet();
+                    race.receive(new Outcome(index, null, null, runtime(failure)));
+                }
+            });
+        }
+        return race.result;
+    }
+
+    /**
+     * Collects the candidates' outcomes as they arrive and settles the result the way {@link #select} does.
+     */
+    private final class Race {
+        private final CompletableFuture<SqlStatement> result = new CompletableFuture<>();
+        private final List<CompletableFuture<SqlStatement>> generations = new CopyOnWriteArrayList<>();
+        private final Outcome[] received = new Outcome[candidates.size()];
+        private int count;
+        private Outcome winner;
+
+        private Race() {
+            result.whenComplete((sql, failure) -> {
+                for (CompletableFuture<SqlStatement> generation : generations) {
+                    if (!generation.isDone() && generation.cancel(true)) {
+                        cancelled.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        /**
+         * Tracks a candidate's request, cancelling it at once if the race was settled while it was started.
+         */
+        private void generating(CompletableFuture<SqlStatement> generation) {
+            generations.add(generation);
+            if (result.isDone() && generation.cancel(true)) {
+                cancelled.incrementAndGet();
+            }
+        }
+
+        private synchronized void receive(Outcome outcome) {
+            if (result.isDone()) {
+                return;
+            }
+            received[outcome.index()] = outcome;
+            count++;
+            if (outcome.isValid()) {
+                if (winner == null) {
+                    winner = outcome;
+                    if (properties.selection() == SpeculativeProperties.Selection.FIRST_VALID) {
+                        settle();
+                        return;
+                    }
+                    CompletableFuture.delayedExecutor(properties.cheapestWaitMillis(), TimeUnit.MILLISECONDS)
+                            .execute(this::windowClosed);
+                } else if (outcome.cost() < winner.cost()) {
+                    winner = outcome;
+                }
+            }
+            if (count == received.length) {
+                settle();
+            }
+        }
+
+        private synchronized void windowClosed() {
+            if (!result.isDone()) {
+                settle();
+            }
+        }
+
+        private void settle() {
+            try {
+                result.complete(winner == null ? fallback(received) : chosen(winner, received));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Counts the winner and how its cost compares to the main model's, returning its statement.
+     */
+    private SqlStatement chosen(Outcome winner, Outcome[] received) {
+        candidates.get(winner.index()).won.incrementAndGet();
+        Outcome first = received[0];
+        if (first != null && first.isValid() && first.cost() > 0 && first.cost() < Double.POSITIVE_INFINITY
+                && winner.cost() < Double.POSITIVE_INFINITY) {
+            costComparisons.incrementAndGet();
+            costRatios.add(winner.cost() / first.cost());
+        }
+        log.debug("Speculative candidate chosen", kv("candidate", winner.index()), kv("cost", winner.cost()));
+        return winner.sql();
+    }
+
+    /**
+     * Waits for the first valid candidate and, when choosing the cheapest, for cheaper ones within the window.
+     * Returns null once every candidate was received and none is valid.
+     */
+    private Outcome select(BlockingQueue<Outcome> outcomes, Outcome[] received) throws InterruptedException {
+        Outcome winner = null;
+        long windowEnd = 0;
+        for (int count = 0; count < received.length; count++) {
+            Outcome outcome = winner == null
+                    ? outcomes.take()
+                    : outcomes.poll(windowEnd - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (outcome == null) {
+                break;
+            }
+            received[outcome.index()] = outcome;
+            if (!outcome.isValid()) {
+                continue;
+            }
+            if (winner == null) {
+                winner = outcome;
+                if (properties.selection() == SpeculativeProperties.Selection.FIRST_VALID) {
+                    break;
+                }
+                windowEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.cheapestWaitMillis());
+            } else if (outcome.cost() < winner.cost()) {
+                winner = outcome;
+            }
+        }
+        return winner;
+    }
+
+    private Runner start(int index, NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener,
+                         SqlValidator validator, BlockingQueue<Outcome> outcomes) {
+        Runner runner = new Runner();
+        runner.thread = Thread.ofVirtual().name("speculative-candidate-" + index)
+                .start(() -> outcomes.add(attempt(index, runner, query, schemaContext, listener, validator)));
+        return runner;
+    }
+
+    private Outcome attempt(int index, Runner runner, NaturalLanguageQuery query, SchemaContext schemaContext,
+                            TokenListener listener, SqlValidator validator) {
+        Candidate candidate = candidates.get(index);
+        candidate.requests.incrementAndGet();
+        SqlStatement sql;
+        try {
+            sql = index == 0
+                    ? primary.translate(query, schemaContext, listener, validator)
+                    : alternatives.get(index - 1).translate(query, schemaContext, TokenListener.NONE);
+        } catch (RuntimeException e) {
+            candidate.failed.incrementAndGet();
+            return new Outcome(index, null, null, e);
+        } finally {
+            runner.generating = false;
+        }
+        return validate(index, sql, validator);
+    }
+
+    private Outcome validate(int index, SqlStatement sql, SqlValidator validator) {
+        Candidate candidate = candidates.get(index);
+        String problem = QueryShape.problem(sql);
+        SqlValidator.Verdict verdict;
+        try {
+            verdict = problem != null ? SqlValidator.Verdict.rejected(problem) : validator.check(sql);
+        } catch (RuntimeException e) {
+            verdict = SqlValidator.Verdict.rejected(e.getMessage());
+        }
+        if (!verdict.isValid()) {
+            candidate.rejected.incrementAndGet();
+            log.debug("Speculative candidate rejected",
+                    kv("candidate", index),
+                    kv("sql", sql.value()),
+                    kv("problem", verdict.problem()));
+        }
+        return new Outcome(index, sql, verdict, null);
+    }
+
+    private static RuntimeException runtime(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        return cause instanceof RuntimeException runtime ? runtime : TranslationException.llmUnavailable(cause);
+    }
+
+    private void cancel(List<Runner> runners) {
+        for (Runner runner : runners) {
+            if (runner.generating) {
+                runner.thread.interrupt();
+                cancelled.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns the main model's answer unchecked, or another candidate's if the main model failed.
+     */
+    private SqlStatement fallback(Outcome[] received) {
+        noneValid.incrementAndGet();
+        for (Outcome outcome : received) {
+            if (outcome != null && outcome.sql() != null) {
+                log.info("No speculative candidate validated", kv("fallback", outcome.index()));
+                return outcome.sql();
+            }
+        }
+        throw received[0].error();
+    }
+
+    /**
+     * Validates each distinct statement once per question; candidates often agree, and a repeated
+     * statement waits for the first check instead of planning again.
+     */
+    private static SqlValidator once(SqlValidator validator) {
+        Map<String, CompletableFuture<SqlValidator.Verdict>> verdicts = new ConcurrentHashMap<>();
+        return sql -> {
+            CompletableFuture<SqlValidator.Verdict> mine = new CompletableFuture<>();
+            CompletableFuture<SqlValidator.Verdict> existing = verdicts.putIfAbsent(sql.normalized(), mine);
+            if (existing != null) {
+                return existing.join();
+            }
+            try {
+                SqlValidator.Verdict verdict = validator.check(sql);
+                mine.complete(verdict);
+                return verdict;
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            }
+        };
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return primary.isAvailable();
+    }
+
+    @Override
+    public MetricsSnapshot metrics() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (alternatives.isEmpty()) {
+            values.put("status", "disabled");
+            return new MetricsSnapshot("Speculative generation", values);
+        }
+        long comparisons = costComparisons.get();
+        values.put("requests", requests.get());
+        values.put("selection", properties.selection());
+        values.put("none valid", noneValid.get());
+        values.put("cancelled", cancelled.get());
+        values.put("cost vs main", comparisons == 0 ? "-" : "%.0f%%".formatted(100 * costRatios.sum() / comparisons));
+        for (int i = 0; i < candidates.size(); i++) {
+            values.put(i == 0 ? "main" : "candidate " + i, candidates.get(i).describe());
+        }
+        return new MetricsSnapshot("Speculative generation", values);
+    }
+
+    /**
+     * The speculation overview followed by the extra candidates' own metrics; the main model reports its own.
+     */
+    @Override
+    public List<MetricsSnapshot> snapshots() {
+        List<MetricsSnapshot> snapshots = new ArrayList<>();
+        snapshots.add(metrics());
+        for (int i = 0; i < alternatives.size(); i++) {
+            for (MetricsSnapshot snapshot : alternatives.get(i).snapshots()) {
+                snapshots.add(new MetricsSnapshot("%s [candidate %d]".formatted(snapshot.source(), i + 1), snapshot.values()));
+            }
+        }
+        return snapshots;
+    }
+
+    @Override
+    public void close() {
+        alternatives.forEach(LoadBalancingLLMAdapter::close);
+    }
+}
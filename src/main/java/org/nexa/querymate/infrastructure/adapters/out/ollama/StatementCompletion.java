@@ -0,0 +1,117 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+/**
+ * Watches streamed model output for the end of the first SQL statement: a semicolon outside quotes
+ * and comments, or the fence closing a markdown code block.
+ * <p>
+ * Text is scanned once as it arrives; a construct split across chunks (a quote doubled as an escape,
+ * the start of a comment) waits for the next chunk before it is decided.
+ */
+final class StatementCompletion {
+
+    private enum State {
+        CODE, SINGLE_QUOTED, DOUBLE_QUOTED, LINE_COMMENT, BLOCK_COMMENT
+    }
+
+    private final StringBuilder text = new StringBuilder();
+    private State state = State.CODE;
+    private int position;
+    private int backticks;
+    private int fences;
+    private boolean sawCode;
+    private int end = -1;
+
+    /**
+     * Appends generated text and returns true once a complete statement has been seen.
+     */
+    boolean append(String chunk) {
+        text.append(chunk);
+        if (end == -1) {
+            scan();
+        }
+        return end != -1;
+    }
+
+    boolean isComplete() {
+        return end != -1;
+    }
+
+    /**
+     * All text received, or only up to the end of the statement once it is complete.
+     */
+    String text() {
+        return end == -1 ? text.toString() : text.substring(0, end);
+    }
+
+    private void scan() {
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            boolean hasNext = position + 1 < text.length();
+            char next = hasNext ? text.charAt(position + 1) : 0;
+
+            switch (state) {
+                case CODE -> {
+                    if (c == '`') {
+                        if (++backticks == 3) {
+                            backticks = 0;
+                            if (++fences == 2) {
+                                end = position + 1;
+                                return;
+                            }
+                        }
+                        position++;
+                        continue;
+                    }
+                    backticks = 0;
+                    if ((c == '-' || c == '/') && !hasNext) {
+                        return;
+                    }
+                    if (c == '-' && next == '-') {
+                        state = State.LINE_COMMENT;
+                        position++;
+                    } else if (c == '/' && next == '*') {
+                        state = State.BLOCK_COMMENT;
+                        position++;
+                    } else if (c == '\'') {
+                        state = State.SINGLE_QUOTED;
+                    } else if (c == '"') {
+                        state = State.DOUBLE_QUOTED;
+                    } else if (c == ';' && sawCode) {
+                        end = position + 1;
+                        return;
+                    } else if (!Character.isWhitespace(c)) {
+                        sawCode = true;
+                    }
+                }
+                case SINGLE_QUOTED, DOUBLE_QUOTED -> {
+                    char quote = state == State.SINGLE_QUOTED ? '\'' : '"';
+                    if (c == quote) {
+                        if (!hasNext) {
+                            return;
+                        }
+                        if (next == quote) {
+                            position++;
+                        } else {
+                            state = State.CODE;
+                        }
+                    }
+                }
+                case LINE_COMMENT -> {
+                    if (c == '\n') {
+                        state = State.CODE;
+                    }
+                }
+                case BLOCK_COMMENT -> {
+                    if (c == '*' && !hasNext) {
+                        return;
+                    }
+                    if (c == '*' && next == '/') {
+                        state = State.CODE;
+                        position++;
+                    }
+                }
+            }
+            position++;
+        }
+    }
+}
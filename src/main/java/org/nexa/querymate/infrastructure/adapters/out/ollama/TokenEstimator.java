@@ -0,0 +1,53 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+/**
+ * Estimates how many tokens a text takes for one model, from its length in characters.
+ * <p>
+ * The characters-per-token ratio starts from a configured guess and follows the prompt token counts Ollama
+ * reports for prompts it evaluated in full, so it converges to the model's tokenizer on this schema's text.
+ * Counts far outside any tokenizer's range, as reported for prompts whose prefix was already cached, are ignored.
+ */
+final class TokenEstimator {
+
+    private static final double SMOOTHING = 0.3;
+    private static final double MIN_RATIO = 1.5;
+    private static final double MAX_RATIO = 8;
+    private static final double SAFETY_MARGIN = 1.1;
+
+    private volatile double charsPerToken;
+    private volatile int samples;
+
+    TokenEstimator(double charsPerToken) {
+        this.charsPerToken = charsPerToken;
+    }
+
+    /**
+     * A slight overestimate, so a prompt budgeted by it fits the context window.
+     */
+    int estimate(String text) {
+        return estimate(text.length());
+    }
+
+    int estimate(int chars) {
+        return (int) Math.ceil(chars / charsPerToken * SAFETY_MARGIN);
+    }
+
+    synchronized void calibrate(int chars, int tokens) {
+        if (tokens <= 0) {
+            return;
+        }
+        double ratio = (double) chars / tokens;
+        if (ratio < MIN_RATIO || ratio > MAX_RATIO) {
+            return;
+        }
+        charsPerToken = samples++ == 0 ? ratio : charsPerToken + SMOOTHING * (ratio - charsPerToken);
+    }
+
+    double charsPerToken() {
+        return charsPerToken;
+    }
+
+    int samples() {
+        return samples;
+    }
+}
@@ -0,0 +1,83 @@
+package org.nexa.querymate.infrastructure.adapters.out.postgres;
+
+import org.nexa.querymate.domain.connection.HostAddress;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures the TCP connect round-trip to each candidate host and ranks them by it.
+ * All hosts are probed in parallel, so a probe round takes at most one timeout.
+ */
+final class HostSelector {
+
+    /**
+     * Outcome of probing one host; {@code error} is null if the host accepted the connection.
+     */
+    record Probe(HostAddress address, Duration latency, String error) {
+
+        boolean reachable() {
+            return error == null;
+        }
+    }
+
+    private final Duration timeout;
+
+    HostSelector(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Probes every host, returning the results in the order of the given hosts.
+     */
+    List<Probe> probe(List<HostAddress> hosts) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Probe>> futures = hosts.stream()
+                    .map(host -> executor.submit(() -> probe(host)))
+                    .toList();
+            return futures.stream().map(HostSelector::await).toList();
+        }
+    }
+
+    /**
+     * Orders hosts for connecting: reachable hosts by ascending latency, then unreachable hosts
+     * in their original order so they are still tried as a last resort.
+     */
+    static List<HostAddress> rank(List<Probe> probes) {
+        return probes.stream()
+                .sorted(Comparator.comparing((Probe probe) -> !probe.reachable())
+                        .thenComparing(probe -> probe.reachable() ? probe.latency() : Duration.ZERO))
+                .map(Probe::address)
+                .toList();
+    }
+
+    private Probe probe(HostAddress host) {
+        long start = System.nanoTime();
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host.host(), host.port()), (int) timeout.toMillis());
+            return new Probe(host, Duration.ofNanos(System.nanoTime() - start), null);
+        } catch (IOException e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return new Probe(host, null, error);
+        }
+    }
+
+    private static Probe await(Future<Probe> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while probing hosts", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Host probe failed", e.getCause());
+        }
+    }
+}
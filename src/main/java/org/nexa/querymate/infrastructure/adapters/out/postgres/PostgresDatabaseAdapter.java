@@ -1,49 +1,189 @@
 package org.nexa.querymate.infrastructure.adapters.out.postgres;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.nexa.querymate.application.ports.out.DatabasePort;
+import org.nexa.querymate.application.ports.out.RowSink;
 import org.nexa.querymate.domain.connection.ConnectionConfig;
+import org.nexa.querymate.domain.connection.HostAddress;
+import org.nexa.querymate.domain.connection.HostRole;
+import org.nexa.querymate.domain.connection.HostStatus;
 import org.nexa.querymate.domain.exception.ConnectionException;
 import org.nexa.querymate.domain.exception.QueryExecutionException;
+import org.nexa.querymate.domain.query.Deadline;
+import org.nexa.querymate.domain.query.PlanEstimate;
+import org.nexa.querymate.domain.query.QueryOrigin;
 import org.nexa.querymate.domain.query.QueryResult;
 import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.query.StatementKind;
+import org.nexa.querymate.infrastructure.config.MultiHostProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Component;
 
 import java.sql.*;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
 
 /**
  * PostgreSQL implementation of DatabasePort.
+ * <p>
+ * When the connection lists several hosts, they are probed in parallel and the session connects to the one
+ * with the lowest round-trip time. The choice is re-evaluated periodically and the session moves to a clearly
+ * faster host while it is idle. If the active host goes down mid-session the adapter reconnects to the next
+ * reachable host; read-only statements outside a transaction are retried there transparently.
+ * <p>
+ * Statements can be validated on a small pool of extra read-only connections to the active host, so several
+ * candidate translations are planned at once without queueing behind the session connection.
  */
-@Component
 public class PostgresDatabaseAdapter implements DatabasePort {
 
     private static final Logger log = LoggerFactory.getLogger(PostgresDatabaseAdapter.class);
 
+    /**
+     * Statements whose effect lives in the session and would be lost by moving to another host.
+     */
+    private static final Pattern SESSION_STATE = Pattern.compile(
+            "^\\s*(SET\\s+(?!LOCAL\\b|TRANSACTION\\b)|PREPARE\\b|LISTEN\\b|DECLARE\\b|CREATE\\s+(TEMP|TEMPORARY)\\b)",
+            Pattern.CASE_INSENSITIVE
+    );
+
+    /**
+     * Statements {@code EXPLAIN} can plan; anything else is accepted by {@link #validate(SqlStatement)} unchecked.
+     */
+    private static final Pattern EXPLAINABLE = Pattern.compile(
+            "^\\s*(SELECT|WITH|INSERT|UPDATE|DELETE|MERGE|VALUES|TABLE)\\b",
+            Pattern.CASE_INSENSITIVE
+    );
+
+    /**
+     * Statements PostgreSQL refuses to run inside a transaction block, or that may end the transaction they
+     * run in; they cannot be given a statement timeout of their own and keep a JDBC query timeout instead.
+     */
+    private static final Pattern NO_TRANSACTION_BLOCK = Pattern.compile(
+            "^\\s*(VACUUM|CALL|DO|ALTER\\s+SYSTEM|DISCARD\\s+ALL|(CREATE|DROP)\\s+(DATABASE|TABLESPACE|SUBSCRIPTION)"
+                    + "|(CREATE|DROP)\\s+(UNIQUE\\s+)?INDEX\\s+CONCURRENTLY|REINDEX\\s+(SYSTEM|DATABASE)"
+                    + "|REINDEX\\b.*\\bCONCURRENTLY)\\b",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL
+    );
+
+    /**
+     * Rows fetched per round trip when reading through a cursor, and mapped between checks of the deadline.
+     */
+    private static final int FETCH_ROWS = 1000;
+
+    /**
+     * SQLSTATE of a statement cancelled by {@code statement_timeout} or a JDBC query timeout.
+     */
+    private static final String QUERY_CANCELED = "57014";
+
+    private static final Pattern TOTAL_COST = Pattern.compile("\"Total Cost\":\\s*([0-9.eE+-]+)");
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*([0-9]+)");
+
+    private final MultiHostProperties properties;
+    private final int validationConnections;
+    private final HostSelector hostSelector;
+    private final Connector connector;
     private final AtomicReference<java.sql.Connection> connectionRef = new AtomicReference<>();
+    private final ReentrantLock sessionLock = new ReentrantLock();
+
+    private volatile ConnectionConfig config;
+    private volatile HostAddress activeHost;
+    private volatile Map<HostAddress, HostSelector.Probe> probes = Map.of();
+    private volatile Duration lastFailover;
+    private volatile boolean inTransaction;
+    private volatile boolean sessionModified;
+    private ScheduledExecutorService reselector;
+    private HikariDataSource validationPool;
+
+    public PostgresDatabaseAdapter(MultiHostProperties properties) {
+        this(properties, 0);
+    }
+
+    /**
+     * @param validationConnections connections kept for validating statements outside a transaction;
+     *                              0 validates on the session connection
+     */
+    public PostgresDatabaseAdapter(MultiHostProperties properties, int validationConnections) {
+        this(properties, validationConnections, null);
+    }
+
+    /**
+     * @param connector opens the session connection to a host; null connects through the JDBC driver
+     */
+    PostgresDatabaseAdapter(MultiHostProperties properties, int validationConnections, Connector connector) {
+        this.properties = properties;
+        this.validationConnections = validationConnections;
+        this.hostSelector = new HostSelector(Duration.ofMillis(properties.probeTimeoutMillis()));
+        this.connector = connector != null ? connector : this::connectDriver;
+    }
+
+    /**
+     * Opens a connection to one host of a connection configuration.
+     */
+    @FunctionalInterface
+    interface Connector {
+        java.sql.Connection open(ConnectionConfig config, HostAddress host) throws SQLException;
+    }
 
     @Override
     public void connect(ConnectionConfig config) {
-        try {
-            java.sql.Connection connection = DriverManager.getConnection(
-                    config.toJdbcUrl(),
-                    config.username(),
-                    config.password()
-            );
-            connectionRef.set(connection);
+        stopReselector();
+        if (!config.isMultiHost()) {
+            install(config, config.primary(), open(config));
             log.debug("PostgreSQL connection established");
-        } catch (SQLException e) {
-            throw ConnectionException.failedToConnect(config.host(), config.port(), e);
+            return;
         }
+
+        List<HostSelector.Probe> results = hostSelector.probe(config.hosts());
+        probes = index(results);
+        HostAddress host = null;
+        java.sql.Connection connection = null;
+        SQLException lastError = null;
+        for (HostAddress candidate : HostSelector.rank(results)) {
+            try {
+                connection = openHost(config, candidate);
+                host = candidate;
+                break;
+            } catch (SQLException e) {
+                lastError = e;
+                log.warn("Host connection failed", kv("host", candidate), kv("error", e.getMessage()));
+            }
+        }
+        if (connection == null) {
+            throw ConnectionException.noHostAvailable(config.hosts(), lastError);
+        }
+        install(config, host, connection);
+        log.info("PostgreSQL connection established", kv("host", host), kv("latencyMs", latencyMillis(host)));
+
+        reselector = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("host-reselect").factory());
+        reselector.scheduleWithFixedDelay(this::reselect, properties.reselectIntervalSeconds(),
+                properties.reselectIntervalSeconds(), TimeUnit.SECONDS);
     }
 
     @Override
     public void disconnect() {
+        stopReselector();
+        config = null;
+        activeHost = null;
+        probes = Map.of();
+        lastFailover = null;
+        closeValidationPool();
         java.sql.Connection connection = connectionRef.getAndSet(null);
         if (connection != null) {
             try {
@@ -70,46 +210,576 @@ public class PostgresDatabaseAdapter implements DatabasePort {
 
     @Override
     public QueryResult execute(SqlStatement statement) {
-        java.sql.Connection connection = connectionRef.get();
-        if (connection == null) {
+        return execute(statement, QueryOrigin.DIRECT_SQL, Deadline.NONE);
+    }
+
+    /**
+     * Runs the statement with whatever time the deadline leaves, as the server's {@code statement_timeout}
+     * in milliseconds. Inside the user's transaction the timeout is set for this statement and then put back
+     * to what it was, so a timeout the user set for the transaction still applies to their next statement.
+     * Outside a transaction the statement runs in a transaction of its own, committed as soon as it is done,
+     * which the timeout ends with and whose rows are fetched through a cursor so the deadline also bounds
+     * reading them. Statements that cannot run in a transaction block get a JDBC query timeout instead,
+     * which is whole seconds.
+     */
+    @Override
+    public QueryResult execute(SqlStatement statement, QueryOrigin origin, Deadline deadline) {
+        return execute(statement, deadline, null);
+    }
+
+    /**
+     * Runs the statement as above, handing its rows to the sink as they are fetched. Outside a transaction
+     * a query is read through a cursor even without a deadline, so only one batch of rows is held at a
+     * time, and a sink that stops early leaves the rest unfetched.
+     */
+    @Override
+    public void stream(SqlStatement statement, QueryOrigin origin, Deadline deadline, RowSink sink) {
+        execute(statement, deadline, new TrackingSink(sink));
+    }
+
+    /**
+     * @param sink receives the rows as they are read, or null to collect them into the result
+     */
+    private QueryResult execute(SqlStatement statement, Deadline deadline, TrackingSink sink) {
+        String sql = statement.normalized();
+        sessionLock.lock();
+        try {
+            java.sql.Connection connection = connectionRef.get();
+            if (connection == null) {
+                throw ConnectionException.notConnected();
+            }
+            try {
+                QueryResult result = run(connection, statement, deadline, sink);
+                trackSession(statement);
+                return result;
+            } catch (SQLException e) {
+                if (deadline.isBounded() && (QUERY_CANCELED.equals(e.getSQLState()) || deadline.isExpired())) {
+                    throw QueryExecutionException.deadlineExceeded(deadline.budget(), e);
+                }
+                ConnectionConfig current = config;
+                if (current == null || !current.isMultiHost() || !isConnectionFailure(e)) {
+                    throw QueryExecutionException.sqlError(sql, e);
+                }
+                // The new host's session has none of this one's transaction or session state to run it with,
+                // and running it again would repeat any rows already handed on
+                boolean retry = statement.isReadOnly() && !inTransaction && !sessionModified
+                        && (sink == null || !sink.delivered);
+                HostAddress failedHost = activeHost;
+                failover(current, failedHost, e);
+                if (!retry) {
+                    throw QueryExecutionException.failedOver(failedHost, activeHost, e);
+                }
+                try {
+                    QueryResult result = run(connectionRef.get(), statement, deadline, sink);
+                    trackSession(statement);
+                    return result;
+                } catch (SQLException retryError) {
+                    throw QueryExecutionException.sqlError(sql, retryError);
+                }
+            }
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean hasSessionState() {
+        return inTransaction || sessionModified;
+    }
+
+    /**
+     * Plans the statement with {@code EXPLAIN}, which parses it and resolves every table, column and
+     * function without running it, and returns the planner's estimate. Outside a transaction the check runs
+     * on the validation pool when there is one. Inside an open transaction it runs on the session connection,
+     * which is the only one that sees the transaction's changes, under a savepoint so a statement that fails
+     * to plan does not abort the user's transaction.
+     */
+    @Override
+    public Optional<PlanEstimate> validate(SqlStatement statement) {
+        if (statement.hasParameters() || !EXPLAINABLE.matcher(statement.normalized()).find()) {
+            return Optional.empty();
+        }
+        String explain = "EXPLAIN (FORMAT JSON) " + statement.normalized();
+        if (validationConnections > 0 && !inTransaction) {
+            try (java.sql.Connection connection = validationPool().getConnection();
+                 Statement stmt = connection.createStatement()) {
+                return Optional.of(explain(stmt, explain, statement));
+            } catch (SQLException e) {
+                throw QueryExecutionException.sqlError(statement.normalized(), e);
+            }
+        }
+        sessionLock.lock();
+        try {
+            java.sql.Connection connection = connectionRef.get();
+            if (connection == null) {
+                throw ConnectionException.notConnected();
+            }
+            try (Statement stmt = connection.createStatement()) {
+                boolean savepoint = inTransaction;
+                if (savepoint) {
+                    stmt.execute("SAVEPOINT querymate_validate");
+                }
+                PlanEstimate estimate;
+                try {
+                    estimate = explain(stmt, explain, statement);
+                } catch (QueryExecutionException e) {
+                    if (savepoint) {
+                        stmt.execute("ROLLBACK TO SAVEPOINT querymate_validate");
+                    }
+                    throw e;
+                }
+                if (savepoint) {
+                    stmt.execute("RELEASE SAVEPOINT querymate_validate");
+                }
+                return Optional.of(estimate);
+            } catch (SQLException e) {
+                throw QueryExecutionException.sqlError(statement.normalized(), e);
+            }
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    /**
+     * Opens the validation pool's connections while the model is still generating, so checking its
+     * candidates does not start by connecting. Outside a transaction and with a pool only, as validation is;
+     * the connections stay idle in the pool for the validator.
+     */
+    @Override
+    public void prepare() {
+        if (validationConnections <= 0 || inTransaction || config == null) {
+            return;
+        }
+        List<java.sql.Connection> held = new ArrayList<>(validationConnections);
+        try {
+            HikariDataSource pool = validationPool();
+            for (int i = 0; i < validationConnections; i++) {
+                held.add(pool.getConnection());
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Validation connections not prepared", kv("error", e.getMessage()));
+        } finally {
+            for (java.sql.Connection connection : held) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Error returning validation connection", kv("error", e.getMessage()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the {@code EXPLAIN} and reads the top plan node's cost and row estimate from the JSON plan,
+     * where they come before those of any child node.
+     */
+    private static PlanEstimate explain(Statement stmt, String explain, SqlStatement statement) {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet rs = stmt.executeQuery(explain)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            throw QueryExecutionException.validationFailed(statement.normalized(), e);
+        }
+        Matcher cost = TOTAL_COST.matcher(plan);
+        Matcher rows = PLAN_ROWS.matcher(plan);
+        return new PlanEstimate(
+                cost.find() ? Double.parseDouble(cost.group(1)) : 0,
+                rows.find() ? Long.parseLong(rows.group(1)) : 0
+        );
+    }
+
+    /**
+     * Opens the validation pool on the active host the first time it is needed; connections are opened on
+     * demand and closed once idle, so an unused pool holds none.
+     */
+    private synchronized HikariDataSource validationPool() {
+        ConnectionConfig current = config;
+        HostAddress host = activeHost;
+        if (current == null || host == null) {
             throw ConnectionException.notConnected();
         }
+        if (validationPool == null) {
+            HikariConfig pool = new HikariConfig();
+            pool.setPoolName("querymate-validate");
+            pool.setJdbcUrl(current.forHost(host).toJdbcUrl());
+            pool.setUsername(current.username());
+            pool.setPassword(current.password());
+            pool.setReadOnly(true);
+            pool.setMaximumPoolSize(validationConnections);
+            pool.setMinimumIdle(0);
+            pool.setIdleTimeout(Duration.ofMinutes(1).toMillis());
+            pool.setConnectionTimeout(Duration.ofSeconds(properties.connectTimeoutSeconds()).toMillis());
+            pool.setInitializationFailTimeout(-1);
+            validationPool = new HikariDataSource(pool);
+        }
+        return validationPool;
+    }
 
-        Instant start = Instant.now();
-        String sql = statement.normalized();
+    private synchronized void closeValidationPool() {
+        if (validationPool != null) {
+            validationPool.close();
+            validationPool = null;
+        }
+    }
+
+    /**
+     * Reports the active host, the standbys and the last failover time, with each host as the last probe
+     * found it; probes run in the background, at connect and on failover, so this never waits on a host.
+     * A host that was never probed, such as the only host of a single-host connection, is reported healthy
+     * while it holds the session.
+     */
+    @Override
+    public List<HostStatus> hostStatuses() {
+        ConnectionConfig current = config;
+        HostAddress active = activeHost;
+        if (current == null || active == null) {
+            return List.of();
+        }
+
+        List<HostStatus> statuses = new ArrayList<>();
+        for (HostAddress host : current.hosts()) {
+            HostSelector.Probe probe = probes.get(host);
+            boolean isActive = host.equals(active);
+            String detail = isActive
+                    ? (lastFailover != null ? "failover took %d ms".formatted(lastFailover.toMillis()) : null)
+                    : (probe != null ? probe.error() : null);
+            statuses.add(new HostStatus(
+                    host,
+                    isActive ? HostRole.ACTIVE : HostRole.STANDBY,
+                    probe != null ? probe.reachable() : isActive,
+                    probe != null ? probe.latency() : null,
+                    detail
+            ));
+        }
+        return statuses;
+    }
+
+    @Override
+    public boolean testConnection(ConnectionConfig config) {
+        try (java.sql.Connection connection = openHost(config, config.primary())) {
+            return connection.isValid(5);
+        } catch (SQLException e) {
+            log.debug("Connection test failed", e);
+            return false;
+        }
+    }
+
+    private QueryResult run(java.sql.Connection connection, SqlStatement statement, Deadline deadline,
+                            RowSink sink) throws SQLException {
+        StatementKind kind = statement.kind();
+        if (kind == StatementKind.BEGIN_TRANSACTION || kind == StatementKind.END_TRANSACTION) {
+            return run(connection, statement, deadline, 0, sink);
+        }
+        if (!deadline.isBounded()) {
+            // Rows handed on as they are read come through a cursor, which needs a transaction
+            return sink != null && !inTransaction && kind == StatementKind.READ
+                    ? runInOwnTransaction(connection, statement, deadline, null, sink)
+                    : run(connection, statement, deadline, 0, sink);
+        }
+        long timeoutMillis = deadline.remaining().toMillis();
+        if (timeoutMillis <= 0) {
+            throw QueryExecutionException.deadlineExceeded(deadline.budget());
+        }
 
+        if (NO_TRANSACTION_BLOCK.matcher(statement.normalized()).find()) {
+            return run(connection, statement, deadline, (int) Math.ceilDiv(timeoutMillis, 1000), sink);
+        }
+        if (!inTransaction) {
+            return runInOwnTransaction(connection, statement, deadline, Long.toString(timeoutMillis), sink);
+        }
+
+        String previous = statementTimeout(connection);
+        setStatementTimeout(connection, Long.toString(timeoutMillis));
+        try {
+            return run(connection, statement, deadline, 0, sink);
+        } finally {
+            try {
+                setStatementTimeout(connection, previous);
+            } catch (SQLException e) {
+                // The statement failed and aborted the transaction; rolling it back, or back to a savepoint
+                // taken before this statement, discards the setting as well
+                log.debug("Could not restore statement timeout", e);
+            }
+        }
+    }
+
+    /**
+     * Runs the statement in a transaction holding the statement timeout, like an implicit transaction with
+     * {@code SET LOCAL}, and returns the session to autocommit afterwards. With autocommit off the driver
+     * reads rows through a cursor, {@link #FETCH_ROWS} at a time.
+     *
+     * @param timeoutMillis the statement timeout, or null to keep the session's
+     */
+    private QueryResult runInOwnTransaction(java.sql.Connection connection, SqlStatement statement,
+                                            Deadline deadline, String timeoutMillis, RowSink sink)
+            throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            if (timeoutMillis != null) {
+                setStatementTimeout(connection, timeoutMillis);
+            }
+            QueryResult result = run(connection, statement, deadline, 0, sink);
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            throw e;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                // Only fails on a broken connection, which the caller replaces
+                log.debug("Could not restore autocommit", e);
+            }
+        }
+    }
+
+    private static String statementTimeout(java.sql.Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SHOW statement_timeout")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    /**
+     * Sets the statement timeout until the end of the current transaction, like {@code SET LOCAL}.
+     */
+    private static void setStatementTimeout(java.sql.Connection connection, String value) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT set_config('statement_timeout', ?, true)")) {
+            stmt.setString(1, value);
+            stmt.execute();
+        }
+    }
+
+    /**
+     * @param timeoutSeconds JDBC query timeout, or 0 for none
+     * @param sink           receives the rows as they are read, or null to collect them into the result
+     */
+    private QueryResult run(java.sql.Connection connection, SqlStatement statement, Deadline deadline,
+                            int timeoutSeconds, RowSink sink) throws SQLException {
+        if (statement.hasParameters()) {
+            return runPrepared(connection, statement, deadline, timeoutSeconds, sink);
+        }
+        Instant start = Instant.now();
         try (Statement stmt = connection.createStatement()) {
-            boolean hasResultSet = stmt.execute(sql);
+            stmt.setQueryTimeout(timeoutSeconds);
+            stmt.setFetchSize(FETCH_ROWS);
+            boolean hasResultSet = stmt.execute(statement.normalized());
             Duration executionTime = Duration.between(start, Instant.now());
 
             if (hasResultSet) {
                 try (ResultSet rs = stmt.getResultSet()) {
-                    return mapResultSet(rs, executionTime);
+                    return mapResultSet(rs, executionTime, deadline, sink);
                 }
             } else {
                 int affectedRows = stmt.getUpdateCount();
                 return QueryResult.affected(affectedRows, executionTime);
             }
+        }
+    }
+
+    /**
+     * Binds strings as untyped values so PostgreSQL infers their type from context, as it would for a literal.
+     */
+    private QueryResult runPrepared(java.sql.Connection connection, SqlStatement statement, Deadline deadline,
+                                    int timeoutSeconds, RowSink sink) throws SQLException {
+        Instant start = Instant.now();
+        try (PreparedStatement stmt = connection.prepareStatement(statement.normalized())) {
+            stmt.setQueryTimeout(timeoutSeconds);
+            stmt.setFetchSize(FETCH_ROWS);
+            List<Object> parameters = statement.parameters();
+            for (int i = 0; i < parameters.size(); i++) {
+                Object value = parameters.get(i);
+                if (value instanceof String text) {
+                    stmt.setObject(i + 1, text, Types.OTHER);
+                } else {
+                    stmt.setObject(i + 1, value);
+                }
+            }
+            boolean hasResultSet = stmt.execute();
+            Duration executionTime = Duration.between(start, Instant.now());
+
+            if (hasResultSet) {
+                try (ResultSet rs = stmt.getResultSet()) {
+                    return mapResultSet(rs, executionTime, deadline, sink);
+                }
+            }
+            return QueryResult.affected(stmt.getUpdateCount(), executionTime);
+        }
+    }
+
+    private java.sql.Connection open(ConnectionConfig config) {
+        try {
+            return openHost(config, config.primary());
         } catch (SQLException e) {
-            throw QueryExecutionException.sqlError(sql, e);
+            throw ConnectionException.failedToConnect(config.host(), config.port(), e);
         }
     }
 
-    @Override
-    public boolean testConnection(ConnectionConfig config) {
-        try (java.sql.Connection connection = DriverManager.getConnection(
-                config.toJdbcUrl(),
-                config.username(),
-                config.password()
-        )) {
-            return connection.isValid(5);
+    private java.sql.Connection openHost(ConnectionConfig config, HostAddress host) throws SQLException {
+        return connector.open(config, host);
+    }
+
+    private java.sql.Connection connectDriver(ConnectionConfig config, HostAddress host) throws SQLException {
+        Properties info = new Properties();
+        info.setProperty("user", config.username());
+        info.setProperty("password", config.password());
+        info.setProperty("connectTimeout", String.valueOf(properties.connectTimeoutSeconds()));
+        return DriverManager.getConnection(config.forHost(host).toJdbcUrl(), info);
+    }
+
+    private void install(ConnectionConfig config, HostAddress host, java.sql.Connection connection) {
+        closeQuietly(connectionRef.getAndSet(connection));
+        closeValidationPool();
+        this.config = config;
+        this.activeHost = host;
+        this.inTransaction = false;
+        this.sessionModified = false;
+    }
+
+    /**
+     * Moves the session to the best reachable host other than the failed one, trying the failed host last.
+     * Must be called with the session lock held.
+     */
+    private void failover(ConnectionConfig config, HostAddress failedHost, SQLException cause) {
+        long start = System.nanoTime();
+        log.warn("Connection to host lost, failing over", kv("host", failedHost), kv("error", cause.getMessage()));
+        closeQuietly(connectionRef.getAndSet(null));
+
+        List<HostSelector.Probe> results = hostSelector.probe(config.hosts());
+        probes = index(results);
+        List<HostAddress> candidates = new ArrayList<>(HostSelector.rank(results));
+        candidates.remove(failedHost);
+        candidates.add(failedHost);
+
+        SQLException lastError = cause;
+        for (HostAddress candidate : candidates) {
+            try {
+                install(config, candidate, openHost(config, candidate));
+                lastFailover = Duration.ofNanos(System.nanoTime() - start);
+                log.info("Failed over to host",
+                        kv("from", failedHost),
+                        kv("to", candidate),
+                        kv("failoverMs", lastFailover.toMillis()));
+                return;
+            } catch (SQLException e) {
+                lastError = e;
+            }
+        }
+        throw ConnectionException.noHostAvailable(config.hosts(), lastError);
+    }
+
+    /**
+     * Moves an idle session to a host that is now clearly faster, or off a host that stopped answering probes.
+     * Sessions inside a transaction or carrying session state are left alone.
+     */
+    private void reselect() {
+        ConnectionConfig current = config;
+        if (current == null) {
+            return;
+        }
+        Map<HostAddress, HostSelector.Probe> latest = index(hostSelector.probe(current.hosts()));
+        probes = latest;
+        if (!sessionLock.tryLock()) {
+            return;
+        }
+        try {
+            if (inTransaction || sessionModified || config != current) {
+                return;
+            }
+            HostAddress active = activeHost;
+            HostSelector.Probe activeProbe = latest.get(active);
+            HostAddress best = HostSelector.rank(List.copyOf(latest.values())).getFirst();
+            HostSelector.Probe bestProbe = latest.get(best);
+            if (best.equals(active) || !bestProbe.reachable()) {
+                return;
+            }
+            if (activeProbe.reachable() && !clearlyFaster(bestProbe.latency(), activeProbe.latency())) {
+                return;
+            }
+            install(current, best, openHost(current, best));
+            log.info("Switched to faster host",
+                    kv("from", active),
+                    kv("to", best),
+                    kv("latencyMs", bestProbe.latency().toMillis()));
         } catch (SQLException e) {
-            log.debug("Connection test failed", e);
-            return false;
+            log.debug("Host switch failed, staying on current host", kv("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            log.warn("Host reselection failed", kv("error", e.getMessage()));
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    private boolean clearlyFaster(Duration candidate, Duration current) {
+        long margin = Math.max(current.toNanos() * properties.switchMarginPercent() / 100, 1_000_000);
+        return candidate.toNanos() + margin < current.toNanos();
+    }
+
+    private void trackSession(SqlStatement statement) {
+        switch (statement.kind()) {
+            case BEGIN_TRANSACTION -> inTransaction = true;
+            case END_TRANSACTION -> inTransaction = false;
+            case WRITE -> {
+                if (SESSION_STATE.matcher(statement.value()).find()) {
+                    sessionModified = true;
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Connection loss and server shutdown; the statement may succeed on another host.
+     */
+    private static boolean isConnectionFailure(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08") || state.startsWith("57P"));
+    }
+
+    private static Map<HostAddress, HostSelector.Probe> index(List<HostSelector.Probe> results) {
+        Map<HostAddress, HostSelector.Probe> indexed = new LinkedHashMap<>();
+        results.forEach(probe -> indexed.put(probe.address(), probe));
+        return Collections.unmodifiableMap(indexed);
+    }
+
+    private Long latencyMillis(HostAddress host) {
+        HostSelector.Probe probe = probes.get(host);
+        return probe != null && probe.reachable() ? probe.latency().toMillis() : null;
+    }
+
+    private void stopReselector() {
+        if (reselector != null) {
+            reselector.shutdownNow();
+            reselector = null;
+        }
+    }
+
+    private static void closeQuietly(java.sql.Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Error closing PostgreSQL connection", e);
+            }
         }
     }
 
-    private QueryResult mapResultSet(ResultSet rs, Duration executionTime) throws SQLException {
+    /**
+     * Reads every row into the result, or hands each to the sink until it asks for no more, giving up once the
+     * deadline has passed; checked every {@link #FETCH_ROWS} rows. When the rows come through a cursor this
+     * also stops fetching; otherwise the driver has already read them all.
+     */
+    private QueryResult mapResultSet(ResultSet rs, Duration executionTime, Deadline deadline, RowSink sink)
+            throws SQLException {
         ResultSetMetaData metaData = rs.getMetaData();
         int columnCount = metaData.getColumnCount();
 
@@ -118,19 +788,56 @@ public class PostgresDatabaseAdapter implements DatabasePort {
             columns.add(metaData.getColumnLabel(i));
         }
 
+        if (sink != null) {
+            sink.columns(columns);
+        }
+
         List<List<Object>> rows = new ArrayList<>();
+        int read = 0;
         while (rs.next()) {
             List<Object> row = new ArrayList<>(columnCount);
             for (int i = 1; i <= columnCount; i++) {
                 row.add(rs.getObject(i));
             }
-            rows.add(row);
+            read++;
+            if (sink == null) {
+                rows.add(row);
+            } else if (!sink.accept(row)) {
+                break;
+            }
+            if (read % FETCH_ROWS == 0 && deadline.isExpired()) {
+                throw QueryExecutionException.deadlineExceeded(deadline.budget());
+            }
         }
 
         return new QueryResult(
                 columns,
                 rows,
-                new QueryResult.QueryMetadata(rows.size(), executionTime)
+                new QueryResult.QueryMetadata(read, executionTime)
         );
     }
+
+    /**
+     * Passes rows on to the caller's sink, noting whether anything reached it.
+     */
+    private static final class TrackingSink implements RowSink {
+
+        private final RowSink target;
+        private boolean delivered;
+
+        private TrackingSink(RowSink target) {
+            this.target = target;
+        }
+
+        @Override
+        public void columns(List<String> columns) {
+            delivered = true;
+            target.columns(columns);
+        }
+
+        @Override
+        public boolean accept(List<Object> row) {
+            return target.accept(row);
+        }
+    }
 }
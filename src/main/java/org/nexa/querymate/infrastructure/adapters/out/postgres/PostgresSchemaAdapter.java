@@ -8,7 +8,6 @@ import org.nexa.querymate.domain.translation.SchemaContext.RelationInfo;
 import org.nexa.querymate.domain.translation.SchemaContext.TableInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,8 +15,9 @@ import java.util.regex.Pattern;
 
 /**
  * PostgreSQL implementation of SchemaDiscoveryPort.
+ * One instance serves one named connection; instances are created per connection by the
+ * {@code ConnectionPortsFactory}.
  */
-@Component
 public class PostgresSchemaAdapter implements SchemaDiscoveryPort {
 
     private static final Logger log = LoggerFactory.getLogger(PostgresSchemaAdapter.class);
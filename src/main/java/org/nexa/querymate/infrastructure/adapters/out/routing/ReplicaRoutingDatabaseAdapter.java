@@ -0,0 +1,390 @@
+package org.nexa.querymate.infrastructure.adapters.out.routing;
+
+import org.nexa.querymate.application.ports.out.DatabasePort;
+import org.nexa.querymate.application.ports.out.RowSink;
+import org.nexa.querymate.domain.connection.ConnectionConfig;
+import org.nexa.querymate.domain.connection.HostAddress;
+import org.nexa.querymate.domain.connection.HostRole;
+import org.nexa.querymate.domain.connection.HostStatus;
+import org.nexa.querymate.domain.exception.ConnectionException;
+import org.nexa.querymate.domain.query.Deadline;
+import org.nexa.querymate.domain.query.PlanEstimate;
+import org.nexa.querymate.domain.query.QueryOrigin;
+import org.nexa.querymate.domain.query.QueryResult;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.query.StatementKind;
+import org.nexa.querymate.infrastructure.config.ReplicaRoutingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * DatabasePort that sends read-only statements to the least-loaded, lowest-latency read replica.
+ * <p>
+ * Writes and session commands stay on the primary. Once the primary's session holds state a replica
+ * would not see (an open transaction, settings, temporary tables, prepared statements), reads stay there
+ * too; the session is the primary's single connection, so that state applies to every caller alike.
+ * A background check reads each replica's replay lag; replicas that lag more than the configured
+ * maximum, or that fail, are skipped until the next check finds them healthy again.
+ * When no replica is usable the statement runs on the primary.
+ */
+public class ReplicaRoutingDatabaseAdapter implements DatabasePort {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDatabaseAdapter.class);
+
+    /**
+     * Replay lag in seconds; zero on a primary or on a replica that has replayed everything it received,
+     * since the last replay timestamp only advances when the primary commits.
+     */
+    private static final SqlStatement LAG_QUERY = SqlStatement.of("""
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END
+            """);
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final DatabasePort primary;
+    private final Supplier<DatabasePort> replicaPortFactory;
+    private final ReplicaRoutingProperties properties;
+
+    private volatile List<Replica> replicas = List.of();
+    private ScheduledExecutorService lagMonitor;
+
+    public ReplicaRoutingDatabaseAdapter(
+            DatabasePort primary,
+            Supplier<DatabasePort> replicaPortFactory,
+            ReplicaRoutingProperties properties
+    ) {
+        this.primary = primary;
+        this.replicaPortFactory = replicaPortFactory;
+        this.properties = properties;
+    }
+
+    private static final class Replica {
+        private final HostAddress address;
+        private final ConnectionConfig config;
+        private final DatabasePort port;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile double latencyMillis;
+        private volatile double lagSeconds;
+        private volatile boolean healthy;
+
+        private Replica(HostAddress address, ConnectionConfig config, DatabasePort port) {
+            this.address = address;
+            this.config = config;
+            this.port = port;
+        }
+
+        private synchronized void recordLatency(Duration elapsed) {
+            double millis = elapsed.toNanos() / 1_000_000.0;
+            latencyMillis = latencyMillis == 0 ? millis : latencyMillis + LATENCY_SMOOTHING * (millis - latencyMillis);
+        }
+
+        /**
+         * Lower is better: expected latency scaled by the work already queued on the replica.
+         */
+        private double score() {
+            return (latencyMillis + 1) * (inFlight.get() + 1);
+        }
+    }
+
+    @Override
+    public synchronized void connect(ConnectionConfig config) {
+        closeReplicas();
+        primary.connect(config);
+
+        List<Replica> connected = new ArrayList<>();
+        for (HostAddress address : config.replicas()) {
+            Replica replica = new Replica(address, config.forHost(address), replicaPortFactory.get());
+            try {
+                replica.port.connect(replica.config);
+                replica.healthy = true;
+            } catch (Exception e) {
+                log.warn("Replica connection failed", kv("replica", address), kv("error", e.getMessage()));
+            }
+            connected.add(replica);
+        }
+        replicas = List.copyOf(connected);
+
+        if (!connected.isEmpty()) {
+            // Know the lag before the first statement is routed, then keep it fresh in the background
+            checkReplicas();
+            lagMonitor = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("replica-lag").factory());
+            lagMonitor.scheduleWithFixedDelay(this::checkReplicas, properties.lagCheckIntervalSeconds(),
+                    properties.lagCheckIntervalSeconds(), TimeUnit.SECONDS);
+            log.info("Replica routing enabled", kv("replicas", connected.size()));
+        }
+    }
+
+    @Override
+    public synchronized void disconnect() {
+        closeReplicas();
+        primary.disconnect();
+    }
+
+    /**
+     * Stops the lag check and disconnects the replicas of the previous connection, if any.
+     */
+    private void closeReplicas() {
+        if (lagMonitor != null) {
+            lagMonitor.shutdownNow();
+            lagMonitor = null;
+        }
+        List<Replica> current = replicas;
+        replicas = List.of();
+        current.forEach(replica -> replica.port.disconnect());
+    }
+
+    @Override
+    public boolean isConnected() {
+        return primary.isConnected();
+    }
+
+    @Override
+    public QueryResult execute(SqlStatement statement) {
+        return execute(statement, QueryOrigin.DIRECT_SQL);
+    }
+
+    @Override
+    public QueryResult execute(SqlStatement statement, QueryOrigin origin) {
+        return execute(statement, origin, Deadline.NONE);
+    }
+
+    /**
+     * Routes as above; the deadline goes with the statement to whichever host runs it.
+     */
+    @Override
+    public QueryResult execute(SqlStatement statement, QueryOrigin origin, Deadline deadline) {
+        if (statement.kind() == StatementKind.READ && !primary.hasSessionState() && routingEnabledFor(origin)) {
+            Replica replica = chooseReplica();
+            if (replica != null) {
+                QueryResult result = executeOnReplica(replica, statement, origin, deadline);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return run(primary, statement, origin, deadline);
+    }
+
+    /**
+     * Routes as above, handing the rows over as the chosen host reads them. A failing replica falls back
+     * to the primary only if none of its rows have reached the sink yet.
+     */
+    @Override
+    public void stream(SqlStatement statement, QueryOrigin origin, Deadline deadline, RowSink sink) {
+        if (statement.kind() == StatementKind.READ && !primary.hasSessionState() && routingEnabledFor(origin)) {
+            Replica replica = chooseReplica();
+            if (replica != null && streamOnReplica(replica, statement, origin, deadline, sink)) {
+                return;
+            }
+        }
+        primary.stream(statement, origin, deadline, sink);
+    }
+
+    /**
+     * Validates on the primary, which has every object a replica has.
+     */
+    @Override
+    public Optional<PlanEstimate> validate(SqlStatement statement) {
+        return primary.validate(statement);
+    }
+
+    @Override
+    public void prepare() {
+        primary.prepare();
+    }
+
+    @Override
+    public boolean hasSessionState() {
+        return primary.hasSessionState();
+    }
+
+    @Override
+    public boolean testConnection(ConnectionConfig config) {
+        return primary.testConnection(config);
+    }
+
+    /**
+     * Primary hosts followed by each replica with its smoothed statement latency and last measured lag.
+     */
+    @Override
+    public List<HostStatus> hostStatuses() {
+        List<HostStatus> statuses = new ArrayList<>(primary.hostStatuses());
+        for (Replica replica : replicas) {
+            statuses.add(new HostStatus(
+                    replica.address,
+                    HostRole.REPLICA,
+                    replica.healthy,
+                    replica.latencyMillis > 0 ? Duration.ofNanos((long) (replica.latencyMillis * 1_000_000)) : null,
+                    "lag %.1fs".formatted(replica.lagSeconds)
+            ));
+        }
+        return statuses;
+    }
+
+    private boolean routingEnabledFor(QueryOrigin origin) {
+        return switch (origin) {
+            case DIRECT_SQL -> properties.routeDirectSql();
+            case NATURAL_LANGUAGE -> properties.routeNaturalLanguage();
+        };
+    }
+
+    private Replica chooseReplica() {
+        return replicas.stream()
+                .filter(replica -> replica.healthy && replica.lagSeconds <= properties.maxLagSeconds())
+                .min(Comparator.comparingDouble(Replica::score))
+                .orElse(null);
+    }
+
+    /**
+     * Runs the statement on a replica. Returns null if the replica itself was the problem,
+     * in which case the caller falls back to the primary.
+     */
+    private QueryResult executeOnReplica(Replica replica, SqlStatement statement, QueryOrigin origin,
+                                         Deadline deadline) {
+        replica.inFlight.incrementAndGet();
+        Instant start = Instant.now();
+        try {
+            QueryResult result = run(replica.port, statement, origin, deadline);
+            Duration elapsed = Duration.between(start, Instant.now());
+            replica.recordLatency(elapsed);
+
+            List<QueryResult.Timing> timings = new ArrayList<>(result.metadata().timings());
+            timings.add(new QueryResult.Timing("replica " + replica.address, elapsed));
+            return result.withMetadata(new QueryResult.QueryMetadata(
+                    result.metadata().affectedRows(),
+                    result.metadata().executionTime(),
+                    timings,
+                    result.metadata().warnings()
+            ));
+        } catch (RuntimeException e) {
+            if (!isReplicaFailure(e)) {
+                throw e;
+            }
+            replica.healthy = false;
+            log.warn("Replica failed, retrying on primary",
+                    kv("replica", replica.address),
+                    kv("error", e.getMessage()));
+            return null;
+        } finally {
+            replica.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Streams the statement's rows from a replica. Returns false if the replica failed before handing over
+     * any rows, in which case the caller falls back to the primary.
+     */
+    private boolean streamOnReplica(Replica replica, SqlStatement statement, QueryOrigin origin, Deadline deadline,
+                                    RowSink sink) {
+        StartedSink started = new StartedSink(sink);
+        replica.inFlight.incrementAndGet();
+        Instant start = Instant.now();
+        try {
+            replica.port.stream(statement, origin, deadline, started);
+            replica.recordLatency(Duration.between(start, Instant.now()));
+            return true;
+        } catch (RuntimeException e) {
+            if (started.started || !isReplicaFailure(e)) {
+                throw e;
+            }
+            replica.healthy = false;
+            log.warn("Replica failed, retrying on primary",
+                    kv("replica", replica.address),
+                    kv("error", e.getMessage()));
+            return false;
+        } finally {
+            replica.inFlight.decrementAndGet();
+        }
+    }
+
+    private static QueryResult run(DatabasePort port, SqlStatement statement, QueryOrigin origin, Deadline deadline) {
+        return deadline.isBounded() ? port.execute(statement, origin, deadline) : port.execute(statement);
+    }
+
+    /**
+     * Connection loss, shutdown and recovery conflicts are replica problems; anything else
+     * (syntax errors, missing tables) would fail on the primary as well.
+     */
+    private static boolean isReplicaFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConnectionException) {
+                return true;
+            }
+            if (t instanceof SQLException sql && sql.getSQLState() != null) {
+                String state = sql.getSQLState();
+                return state.startsWith("08") || state.startsWith("57P") || state.equals("40001");
+            }
+        }
+        return false;
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try {
+                if (!replica.port.isConnected()) {
+                    replica.port.connect(replica.config);
+                }
+                QueryResult result = replica.port.execute(LAG_QUERY);
+                Object lag = result.rows().isEmpty() ? null : result.rows().get(0).get(0);
+                replica.lagSeconds = lag instanceof Number n ? n.doubleValue() : 0;
+                replica.healthy = true;
+            } catch (Exception e) {
+                replica.healthy = false;
+                if (wasHealthy) {
+                    log.warn("Replica health check failed", kv("replica", replica.address), kv("error", e.getMessage()));
+                }
+                continue;
+            }
+            if (!wasHealthy) {
+                log.info("Replica available", kv("replica", replica.address), kv("lagSeconds", replica.lagSeconds));
+            }
+            if (replica.lagSeconds > properties.maxLagSeconds()) {
+                log.debug("Replica lagging", kv("replica", replica.address), kv("lagSeconds", replica.lagSeconds));
+            }
+        }
+    }
+
+    /**
+     * Remembers whether the host has started handing over its result.
+     */
+    private static final class StartedSink implements RowSink {
+
+        private final RowSink sink;
+        private boolean started;
+
+        private StartedSink(RowSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void columns(List<String> columns) {
+            started = true;
+            sink.columns(columns);
+        }
+
+        @Override
+        public boolean accept(List<Object> row) {
+            return sink.accept(row);
+        }
+    }
+}
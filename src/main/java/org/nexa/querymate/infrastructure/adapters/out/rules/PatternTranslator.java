@@ -0,0 +1,251 @@
+package org.nexa.querymate.infrastructure.adapters.out.rules;
+
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SchemaContext.ColumnInfo;
+import org.nexa.querymate.domain.translation.SchemaContext.TableInfo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic translation of the simplest questions: listing a table, counting its rows, its first or top N rows
+ * by a column, each optionally filtered by column equality.
+ * <p>
+ * Questions are matched whole against a handful of phrasings; every word must be accounted for and every table
+ * and column must name exactly one object of the schema, allowing for plurals and spaces in place of underscores.
+ * Anything else is left to the model. Filter values are bound as parameters, never spliced into the SQL. Only quotes
+ * keep a value's case through normalization, so an unquoted value must be a number, {@code true} or {@code false};
+ * {@code is null} becomes {@code IS NULL}.
+ * <p>
+ * Name lookups are indexed once per schema context, so a match costs a few regular expressions and map lookups.
+ */
+final class PatternTranslator {
+
+    private static final String LEAD = "(?:(?:show|list|get|display|fetch|select|find|give)(?: me)?(?: all| every)?(?: the)? )";
+
+    private static final Pattern COUNT = Pattern.compile(
+            "^(?:count(?: all)?(?: the)?|how many|number of|what is the number of) (?<rest>.+?)"
+                    + "(?: are there| do we have| there are| exist| in total)?$");
+    private static final Pattern LIMITED = Pattern.compile(
+            "^" + LEAD + "?(?:the )?(?<which>first|top|last|bottom) (?<n>\\d{1,6}) (?<rest>.+)$");
+    private static final Pattern LIST = Pattern.compile("^" + LEAD + "(?<rest>.+)$");
+
+    private static final Pattern ROWS_OF = Pattern.compile("^(?:all )?(?:rows|records|entries) (?:of|from|in) (?:the )?");
+    private static final Pattern REST = Pattern.compile(
+            "^(?<table>[a-z0-9_. ]+?)"
+                    + "(?: (?:where|with|whose) (?<filters>.+?))?"
+                    + "(?: (?:by|ordered by|sorted by|order by) (?<order>[a-z0-9_ ]+?)(?: (?<direction>asc|ascending|desc|descending))?)?$");
+    private static final Pattern AND = Pattern.compile(" and (?=(?:[^'\"]|'[^']*'|\"[^\"]*\")*$)");
+    private static final Pattern FILTER = Pattern.compile(
+            "^(?<column>[a-z0-9_ ]+?)(?: ?(?:=|is equal to|equals|is) ?| )"
+                    + "(?<value>'[^']*'|\"[^\"]*\"|-?\\d+(?:\\.\\d+)?|true|false|null)$");
+
+    private static final Set<String> RESERVED = Set.of(
+            "all", "and", "any", "array", "as", "asc", "case", "check", "column", "constraint", "create", "default",
+            "desc", "distinct", "do", "else", "end", "except", "false", "for", "foreign", "from", "grant", "group",
+            "having", "in", "into", "limit", "not", "null", "offset", "on", "only", "or", "order", "primary",
+            "references", "select", "table", "then", "to", "true", "union", "unique", "user", "using", "when",
+            "where", "with");
+
+    private record Index(SchemaContext schema, Map<String, List<TableInfo>> tables,
+                         Map<TableInfo, Map<String, List<ColumnInfo>>> columns) {
+    }
+
+    private volatile Index index;
+
+    /**
+     * Returns the statement for a question in one of the supported shapes, or empty to leave it to the model.
+     *
+     * @param question the normalized question, see {@link org.nexa.querymate.domain.translation.NaturalLanguageQuery#normalized()}
+     */
+    Optional<SqlStatement> translate(String question, SchemaContext schema) {
+        if (schema.tables().isEmpty() || schema.isFederated()) {
+            return Optional.empty();
+        }
+        Index names = indexFor(schema);
+
+        Matcher count = COUNT.matcher(question);
+        if (count.matches()) {
+            return parse(count.group("rest"), names)
+                    .filter(shape -> shape.order() == null)
+                    .map(shape -> shape.toSql("count(*)", null, null));
+        }
+        Matcher limited = LIMITED.matcher(question);
+        if (limited.matches()) {
+            int limit = Integer.parseInt(limited.group("n"));
+            String which = limited.group("which");
+            boolean fromEnd = which.equals("last") || which.equals("bottom");
+            String implied = which.equals("top") || which.equals("last") ? "DESC" : "ASC";
+            // "top 10 customers" ranks by something unsaid; only "first 10" is meaningful without a column
+            return parse(limited.group("rest"), names)
+                    .filter(shape -> limit > 0 && (shape.order() != null || which.equals("first")))
+                    .map(shape -> shape.toSql("*", shape.direction(implied, fromEnd), limit));
+        }
+        Matcher list = LIST.matcher(question);
+        if (list.matches()) {
+            return parse(list.group("rest"), names).map(shape -> shape.toSql("*", shape.direction("ASC", false), null));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * A resolved table with its equality filters and optional ordering column; a null filter value stands for
+     * {@code IS NULL}.
+     */
+    private record Shape(TableInfo table, List<ColumnInfo> filterColumns, List<Object> values, ColumnInfo order,
+                         String explicitDirection) {
+
+        /**
+         * The direction implied by the phrasing, unless the question spells one out; "last 5 by date asc" means
+         * the five latest dates, so an explicit direction is flipped for questions counted from the end.
+         */
+        private String direction(String implied, boolean fromEnd) {
+            if (explicitDirection == null) {
+                return implied;
+            }
+            String direction = explicitDirection.startsWith("desc") ? "DESC" : "ASC";
+            return fromEnd ? (direction.equals("DESC") ? "ASC" : "DESC") : direction;
+        }
+
+        private SqlStatement toSql(String projection, String direction, Integer limit) {
+            StringBuilder sql = new StringBuilder("SELECT ").append(projection).append(" FROM ").append(qualified(table));
+            List<Object> parameters = new ArrayList<>();
+            for (int i = 0; i < filterColumns.size(); i++) {
+                sql.append(i == 0 ? " WHERE " : " AND ").append(identifier(filterColumns.get(i).name()));
+                if (values.get(i) == null) {
+                    sql.append(" IS NULL");
+                } else {
+                    sql.append(" = ?");
+                    parameters.add(values.get(i));
+                }
+            }
+            if (order != null) {
+                sql.append(" ORDER BY ").append(identifier(order.name())).append(' ').append(direction);
+            }
+            if (limit != null) {
+                sql.append(" LIMIT ").append(limit);
+            }
+            sql.append(';');
+            return parameters.isEmpty() ? SqlStatement.of(sql.toString()) : SqlStatement.parameterized(sql.toString(), parameters);
+        }
+    }
+
+    private static Optional<Shape> parse(String rest, Index names) {
+        Matcher matcher = REST.matcher(ROWS_OF.matcher(rest).replaceFirst(""));
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        TableInfo table = unique(names.tables().get(matcher.group("table")));
+        if (table == null) {
+            return Optional.empty();
+        }
+        Map<String, List<ColumnInfo>> columns = names.columns().get(table);
+        List<ColumnInfo> filterColumns = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        if (matcher.group("filters") != null) {
+            for (String filter : AND.split(matcher.group("filters"))) {
+                Matcher condition = FILTER.matcher(filter);
+                ColumnInfo column = condition.matches() ? unique(columns.get(condition.group("column"))) : null;
+                if (column == null) {
+                    return Optional.empty();
+                }
+                filterColumns.add(column);
+                values.add(unquote(condition.group("value")));
+            }
+        }
+        ColumnInfo order = null;
+        if (matcher.group("order") != null) {
+            order = unique(columns.get(matcher.group("order")));
+            if (order == null) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new Shape(table, filterColumns, values, order, matcher.group("direction")));
+    }
+
+    private Index indexFor(SchemaContext schema) {
+        Index current = index;
+        if (current != null && current.schema() == schema) {
+            return current;
+        }
+        Map<String, List<TableInfo>> tables = new HashMap<>();
+        Map<TableInfo, Map<String, List<ColumnInfo>>> columns = new HashMap<>();
+        for (TableInfo table : schema.tables()) {
+            Set<String> spellings = spellings(table.tableName());
+            if (!table.fullName().equals(table.tableName())) {
+                spellings.addAll(spellings(table.fullName()));
+            }
+            spellings.forEach(spelling -> tables.computeIfAbsent(spelling, key -> new ArrayList<>()).add(table));
+            Map<String, List<ColumnInfo>> byName = new HashMap<>();
+            for (ColumnInfo column : table.columns()) {
+                spellings(column.name()).forEach(spelling -> byName.computeIfAbsent(spelling, key -> new ArrayList<>()).add(column));
+            }
+            columns.put(table, byName);
+        }
+        current = new Index(schema, tables, columns);
+        index = current;
+        return current;
+    }
+
+    /**
+     * The ways a question may refer to a name: as is, with spaces for underscores, and in singular or plural.
+     */
+    private static Set<String> spellings(String name) {
+        String lower = name.toLowerCase();
+        Set<String> spellings = new LinkedHashSet<>();
+        for (String base : List.of(lower, lower.replace('_', ' '), lower.replace('.', ' '))) {
+            spellings.add(base);
+            if (base.endsWith("ies")) {
+                spellings.add(base.substring(0, base.length() - 3) + "y");
+            } else if (base.endsWith("ses") || base.endsWith("xes") || base.endsWith("ches") || base.endsWith("shes")) {
+                spellings.add(base.substring(0, base.length() - 2));
+            } else if (base.endsWith("s") && !base.endsWith("ss")) {
+                spellings.add(base.substring(0, base.length() - 1));
+            } else if (base.endsWith("y") && !base.matches(".*[aeiou]y$")) {
+                spellings.add(base.substring(0, base.length() - 1) + "ies");
+            } else if (base.endsWith("s") || base.endsWith("x") || base.endsWith("ch") || base.endsWith("sh")) {
+                spellings.add(base + "es");
+            } else {
+                spellings.add(base + "s");
+            }
+        }
+        return spellings;
+    }
+
+    private static <T> T unique(List<T> candidates) {
+        return candidates != null && candidates.size() == 1 ? candidates.getFirst() : null;
+    }
+
+    /**
+     * Returns the value to bind, or null for {@code null}.
+     */
+    private static Object unquote(String value) {
+        if (value.equals("null")) {
+            return null;
+        }
+        return value.length() >= 2 && (value.charAt(0) == '\'' || value.charAt(0) == '"')
+                ? value.substring(1, value.length() - 1)
+                : value;
+    }
+
+    private static String qualified(TableInfo table) {
+        return table.fullName().equals(table.tableName())
+                ? identifier(table.tableName())
+                : identifier(table.schemaName()) + "." + identifier(table.tableName());
+    }
+
+    private static String identifier(String name) {
+        if (name.matches("[a-z_][a-z0-9_]*") && !RESERVED.contains(name)) {
+            return name;
+        }
+        return '"' + name.replace("\"", "\"\"") + '"';
+    }
+}
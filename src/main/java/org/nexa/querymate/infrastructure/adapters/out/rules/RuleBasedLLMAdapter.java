@@ -0,0 +1,112 @@
+package org.nexa.querymate.infrastructure.adapters.out.rules;
+
+import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.application.ports.out.MetricsSource;
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
+import org.nexa.querymate.infrastructure.config.RulesProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * LLMPort that answers the simplest questions ("show users", "count orders", "first 10 rows of invoices")
+ * from the schema alone and passes everything else on.
+ * <p>
+ * Matching is deterministic and takes microseconds; a question that does not fit a {@link PatternTranslator}
+ * shape exactly, or names a table or column ambiguously, goes to the delegate unchanged.
+ */
+public class RuleBasedLLMAdapter implements LLMPort, MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleBasedLLMAdapter.class);
+
+    private final LLMPort delegate;
+    private final boolean enabled;
+    private final PatternTranslator translator = new PatternTranslator();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong matchNanos = new AtomicLong();
+
+    public RuleBasedLLMAdapter(LLMPort delegate, RulesProperties properties) {
+        this.delegate = delegate;
+        this.enabled = properties.enabled();
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext) {
+        return translate(query, schemaContext, TokenListener.NONE);
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener) {
+        return translate(query, schemaContext, listener, SqlValidator.NONE);
+    }
+
+    @Override
+    public SqlStatement translate(NaturalLanguageQuery query, SchemaContext schemaContext, TokenListener listener,
+                                  SqlValidator validator) {
+        return match(query, schemaContext)
+                .orElseGet(() -> delegate.translate(query, schemaContext, listener, validator));
+    }
+
+    /**
+     * Answers a matched question at once, without a thread; everything else goes to the delegate's own
+     * asynchronous translation.
+     */
+    @Override
+    public CompletableFuture<SqlStatement> translateAsync(NaturalLanguageQuery query, SchemaContext schemaContext,
+                                                         TokenListener listener, SqlValidator validator) {
+        return match(query, schemaContext)
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> delegate.translateAsync(query, schemaContext, listener, validator));
+    }
+
+    private Optional<SqlStatement> match(NaturalLanguageQuery query, SchemaContext schemaContext) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        Optional<SqlStatement> matched = translator.translate(query.normalized(), schemaContext);
+        matchNanos.addAndGet(System.nanoTime() - start);
+        if (matched.isPresent()) {
+            hits.incrementAndGet();
+            log.debug("Rule-based translation", kv("question", query.value()), kv("sql", matched.get().value()));
+            return matched;
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    @Override
+    public MetricsSnapshot metrics() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (!enabled) {
+            values.put("status", "disabled");
+            return new MetricsSnapshot("Rule-based translation", values);
+        }
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        values.put("hits", hitCount);
+        values.put("misses", misses.get());
+        values.put("hit rate", total == 0 ? "-" : "%.1f%%".formatted(100.0 * hitCount / total));
+        values.put("match avg", total == 0 ? "-" : "%.1f µs".formatted(matchNanos.get() / 1e3 / total));
+        return new MetricsSnapshot("Rule-based translation", values);
+    }
+}
@@ -0,0 +1,474 @@
+package org.nexa.querymate.infrastructure.adapters.out.sharding;
+
+import org.nexa.querymate.domain.query.SqlLexer;
+import org.nexa.querymate.domain.query.SqlLexer.Token;
+import org.nexa.querymate.domain.query.SqlLexer.TokenType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Describes how a statement is sent to every shard and how the per-shard results are combined.
+ * Built from a top-level inspection of the statement: select list, GROUP BY/HAVING,
+ * ORDER BY, LIMIT and OFFSET. Anything it cannot combine correctly is concatenated instead
+ * and reported through {@link #unsupportedReason()}; its LIMIT still caps the concatenated rows.
+ */
+final class ShardMergePlan {
+
+    /**
+     * Aggregate calls that are not a bare COUNT/SUM/MIN/MAX select item and therefore cannot be re-combined.
+     */
+    private static final Pattern AGGREGATE_CALL = Pattern.compile(
+            "\\b(count|sum|min|max|avg|string_agg|array_agg|json_agg|jsonb_agg|bool_and|bool_or|every"
+                    + "|stddev\\w*|var_\\w+|variance|percentile_\\w+|mode)\\s*\\(",
+            Pattern.CASE_INSENSITIVE
+    );
+
+    private static final Set<String> NON_ALIAS_WORDS = Set.of("end", "null", "true", "false", "and", "or", "not");
+
+    private static final Set<String> CLAUSE_TERMINATORS = Set.of(
+            "from", "where", "group", "having", "window", "order", "limit", "offset",
+            "fetch", "for", "union", "intersect", "except", "into"
+    );
+
+    /**
+     * How the shard results are merged.
+     */
+    enum MergeMode {
+        /**
+         * Results are appended shard by shard.
+         */
+        CONCAT,
+        /**
+         * Pre-sorted shard results are k-way merged on the ORDER BY keys.
+         */
+        ORDERED,
+        /**
+         * Partial aggregates are combined per group.
+         */
+        AGGREGATE
+    }
+
+    enum AggregateFunction {
+        COUNT, SUM, MIN, MAX
+    }
+
+    record SelectItem(String expression, String alias, AggregateFunction aggregate) {
+
+        boolean isAggregate() {
+            return aggregate != null;
+        }
+    }
+
+    record OrderKey(String expression, boolean ascending, boolean nullsFirst) {
+    }
+
+    private final String shardSql;
+    private final MergeMode mode;
+    private final List<SelectItem> selectItems;
+    private final List<OrderKey> orderKeys;
+    private final Long limit;
+    private final long offset;
+    private final boolean distinct;
+    private final String unsupportedReason;
+
+    private ShardMergePlan(
+            String shardSql,
+            MergeMode mode,
+            List<SelectItem> selectItems,
+            List<OrderKey> orderKeys,
+            Long limit,
+            long offset,
+            boolean distinct,
+            String unsupportedReason
+    ) {
+        this.shardSql = shardSql;
+        this.mode = mode;
+        this.selectItems = List.copyOf(selectItems);
+        this.orderKeys = List.copyOf(orderKeys);
+        this.limit = limit;
+        this.offset = offset;
+        this.distinct = distinct;
+        this.unsupportedReason = unsupportedReason;
+    }
+
+    /**
+     * Analyzes a statement and returns the plan for running it on every shard.
+     */
+    static ShardMergePlan analyze(String sql) {
+        String statement = stripTrailingSemicolon(sql.strip());
+        List<Token> tokens = SqlLexer.tokenize(statement);
+
+        int selectIdx = findTopLevelSelect(tokens);
+        if (selectIdx == -1) {
+            return passthrough(statement, tokens, null);
+        }
+
+        boolean distinct = selectIdx + 1 < tokens.size() && tokens.get(selectIdx + 1).isKeyword("distinct");
+        if (distinct && selectIdx + 2 < tokens.size() && tokens.get(selectIdx + 2).isKeyword("on")) {
+            return passthrough(statement, tokens, "DISTINCT ON cannot be combined across shards");
+        }
+
+        for (int i = selectIdx + 1; i < tokens.size(); i++) {
+            Token t = tokens.get(i);
+            if (t.isTopLevel() && (t.isKeyword("union") || t.isKeyword("intersect") || t.isKeyword("except"))) {
+                return passthrough(statement, tokens, "set operations cannot be combined across shards");
+            }
+        }
+
+        List<SelectItem> items = parseSelectList(statement, tokens, distinct ? selectIdx + 2 : selectIdx + 1);
+        boolean grouped = hasTopLevelClause(tokens, selectIdx, "group", "by");
+        boolean having = hasTopLevelKeyword(tokens, selectIdx, "having");
+        List<OrderKey> orderKeys = parseOrderBy(statement, tokens, selectIdx);
+
+        if (hasTopLevelKeyword(tokens, selectIdx, "fetch")) {
+            return passthrough(statement, tokens, "FETCH FIRST cannot be pushed down to shards; use LIMIT");
+        }
+
+        int limitIdx = findTopLevelKeyword(tokens, selectIdx, "limit");
+        int offsetIdx = findTopLevelKeyword(tokens, selectIdx, "offset");
+        Long limit = null;
+        long offset = 0;
+        if (limitIdx != -1) {
+            Token value = limitIdx + 1 < tokens.size() ? tokens.get(limitIdx + 1) : null;
+            if (value != null && value.isKeyword("all")) {
+                limit = null;
+            } else if (value != null && value.type() == TokenType.NUMBER) {
+                limit = Long.parseLong(value.text());
+            } else {
+                return passthrough(statement, tokens, "non-literal LIMIT cannot be pushed down to shards");
+            }
+        }
+        if (offsetIdx != -1) {
+            Token value = offsetIdx + 1 < tokens.size() ? tokens.get(offsetIdx + 1) : null;
+            if (value == null || value.type() != TokenType.NUMBER) {
+                return passthrough(statement, tokens, "non-literal OFFSET cannot be pushed down to shards");
+            }
+            offset = Long.parseLong(value.text());
+        }
+
+        boolean hasAggregates = items.stream()
+                .anyMatch(item -> item.isAggregate() || AGGREGATE_CALL.matcher(item.expression()).find());
+        if (hasAggregates || grouped) {
+            String reason = aggregateUnsupportedReason(items, grouped, having);
+            if (reason != null) {
+                return passthrough(statement, tokens, reason);
+            }
+            // Every shard must return all of its groups; LIMIT and OFFSET apply to the combined result
+            String shardSql = rewriteLimit(statement, tokens, limitIdx, offsetIdx, null);
+            return new ShardMergePlan(shardSql, MergeMode.AGGREGATE, items, orderKeys, limit, offset, distinct, null);
+        }
+
+        // LIMIT pushdown: each shard returns at most the rows the combined result could need
+        Long pushedLimit = limit == null ? null : limit + offset;
+        String shardSql = rewriteLimit(statement, tokens, limitIdx, offsetIdx, pushedLimit);
+        MergeMode mode = orderKeys.isEmpty() ? MergeMode.CONCAT : MergeMode.ORDERED;
+        return new ShardMergePlan(shardSql, mode, items, orderKeys, limit, offset, distinct, null);
+    }
+
+    String shardSql() {
+        return shardSql;
+    }
+
+    MergeMode mode() {
+        return mode;
+    }
+
+    List<SelectItem> selectItems() {
+        return selectItems;
+    }
+
+    List<OrderKey> orderKeys() {
+        return orderKeys;
+    }
+
+    Long limit() {
+        return limit;
+    }
+
+    long offset() {
+        return offset;
+    }
+
+    boolean distinct() {
+        return distinct;
+    }
+
+    /**
+     * Returns why the results are only concatenated, or null if they are combined correctly.
+     */
+    String unsupportedReason() {
+        return unsupportedReason;
+    }
+
+    /**
+     * Sends the statement to every shard as it is and concatenates the results. Each shard has already
+     * skipped any OFFSET, but a literal LIMIT still caps the concatenated rows.
+     */
+    private static ShardMergePlan passthrough(String statement, List<Token> tokens, String reason) {
+        return new ShardMergePlan(statement, MergeMode.CONCAT, List.of(), List.of(), literalLimit(tokens), 0, false,
+                reason);
+    }
+
+    /**
+     * Returns the row count of the statement's last top-level LIMIT or FETCH FIRST clause, or null if it has
+     * none, or one whose count is not a literal or that keeps ties.
+     */
+    private static Long literalLimit(List<Token> tokens) {
+        for (int i = tokens.size() - 1; i >= 0; i--) {
+            Token t = tokens.get(i);
+            if (!t.isTopLevel()) {
+                continue;
+            }
+            if (t.isKeyword("limit")) {
+                Token count = i + 1 < tokens.size() ? tokens.get(i + 1) : null;
+                return count != null && count.type() == TokenType.NUMBER ? Long.parseLong(count.text()) : null;
+            }
+            if (t.isKeyword("fetch")) {
+                // FETCH { FIRST | NEXT } [ count ] { ROW | ROWS } { ONLY | WITH TIES }
+                if (hasTopLevelKeyword(tokens, i, "ties") || i + 2 >= tokens.size()) {
+                    return null;
+                }
+                Token count = tokens.get(i + 2);
+                if (count.type() == TokenType.NUMBER) {
+                    return Long.parseLong(count.text());
+                }
+                return count.isKeyword("row") || count.isKeyword("rows") ? 1L : null;
+            }
+        }
+        return null;
+    }
+
+    private static String stripTrailingSemicolon(String sql) {
+        String result = sql;
+        while (result.endsWith(";")) {
+            result = result.substring(0, result.length() - 1).stripTrailing();
+        }
+        return result;
+    }
+
+    private static int findTopLevelSelect(List<Token> tokens) {
+        if (tokens.isEmpty()) {
+            return -1;
+        }
+        Token first = tokens.get(0);
+        if (!first.isKeyword("select") && !first.isKeyword("with")) {
+            return -1;
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            Token t = tokens.get(i);
+            if (t.isTopLevel() && t.isKeyword("select")) {
+                return i;
+            }
+            if (t.isTopLevel() && (t.isKeyword("insert") || t.isKeyword("update") || t.isKeyword("delete"))) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static List<SelectItem> parseSelectList(String sql, List<Token> tokens, int from) {
+        List<SelectItem> items = new ArrayList<>();
+        int itemStart = from;
+        for (int i = from; i <= tokens.size(); i++) {
+            boolean end = i == tokens.size()
+                    || (tokens.get(i).isTopLevel() && tokens.get(i).type() == TokenType.WORD
+                    && CLAUSE_TERMINATORS.contains(tokens.get(i).text().toLowerCase(Locale.ROOT)));
+            boolean comma = !end && tokens.get(i).isTopLevel() && tokens.get(i).isPunctuation(',');
+            if ((end || comma) && i > itemStart) {
+                items.add(parseSelectItem(sql, tokens.subList(itemStart, i)));
+                itemStart = i + 1;
+            }
+            if (end) {
+                break;
+            }
+        }
+        return items;
+    }
+
+    private static SelectItem parseSelectItem(String sql, List<Token> itemTokens) {
+        int exprEnd = itemTokens.size();
+        String alias = null;
+
+        // Trailing alias: "expr AS alias" or "expr alias"
+        if (itemTokens.size() >= 2) {
+            Token last = itemTokens.get(itemTokens.size() - 1);
+            Token beforeLast = itemTokens.get(itemTokens.size() - 2);
+            boolean lastIsName = last.type() == TokenType.QUOTED_IDENTIFIER
+                    || (last.type() == TokenType.WORD && !NON_ALIAS_WORDS.contains(last.text().toLowerCase(Locale.ROOT)));
+            if (lastIsName && beforeLast.isKeyword("as")) {
+                alias = unquote(last.text());
+                exprEnd = itemTokens.size() - 2;
+            } else if (lastIsName && (beforeLast.isPunctuation(')') || beforeLast.type() == TokenType.WORD
+                    || beforeLast.type() == TokenType.QUOTED_IDENTIFIER)) {
+                alias = unquote(last.text());
+                exprEnd = itemTokens.size() - 1;
+            }
+        }
+
+        List<Token> expr = itemTokens.subList(0, exprEnd);
+        String expression = sql.substring(expr.get(0).start(), expr.get(expr.size() - 1).end());
+        return new SelectItem(expression, alias, detectAggregate(expr));
+    }
+
+    private static AggregateFunction detectAggregate(List<Token> expr) {
+        if (expr.size() < 3 || expr.get(0).type() != TokenType.WORD || !expr.get(1).isPunctuation('(')) {
+            return null;
+        }
+        Token close = expr.get(expr.size() - 1);
+        if (!close.isPunctuation(')') || close.depth() != expr.get(0).depth()) {
+            return null;
+        }
+        // The opening parenthesis must be closed only by the final token
+        for (int i = 2; i < expr.size() - 1; i++) {
+            if (expr.get(i).isPunctuation(')') && expr.get(i).depth() == expr.get(0).depth()) {
+                return null;
+            }
+        }
+        String name = expr.get(0).text().toUpperCase(Locale.ROOT);
+        return switch (name) {
+            case "COUNT" -> expr.get(2).isKeyword("distinct") ? null : AggregateFunction.COUNT;
+            case "SUM" -> AggregateFunction.SUM;
+            case "MIN" -> AggregateFunction.MIN;
+            case "MAX" -> AggregateFunction.MAX;
+            default -> null;
+        };
+    }
+
+    private static String aggregateUnsupportedReason(List<SelectItem> items, boolean grouped, boolean having) {
+        if (having) {
+            return "HAVING cannot be evaluated on partial aggregates";
+        }
+        for (SelectItem item : items) {
+            if (item.expression().equals("*")) {
+                return "SELECT * cannot be combined with aggregates across shards";
+            }
+            if (!item.isAggregate() && !grouped) {
+                return "non-aggregate select item '%s' cannot be combined across shards".formatted(item.expression());
+            }
+            if (!item.isAggregate() && AGGREGATE_CALL.matcher(item.expression()).find()) {
+                return "aggregate '%s' cannot be combined across shards".formatted(item.expression());
+            }
+        }
+        return null;
+    }
+
+    private static List<OrderKey> parseOrderBy(String sql, List<Token> tokens, int selectIdx) {
+        int orderIdx = -1;
+        for (int i = selectIdx; i + 1 < tokens.size(); i++) {
+            if (tokens.get(i).isTopLevel() && tokens.get(i).isKeyword("order") && tokens.get(i + 1).isKeyword("by")) {
+                orderIdx = i + 2;
+                break;
+            }
+        }
+        if (orderIdx == -1) {
+            return List.of();
+        }
+
+        List<OrderKey> keys = new ArrayList<>();
+        int itemStart = orderIdx;
+        for (int i = orderIdx; i <= tokens.size(); i++) {
+            boolean end = i == tokens.size()
+                    || (tokens.get(i).isTopLevel() && (tokens.get(i).isKeyword("limit")
+                    || tokens.get(i).isKeyword("offset") || tokens.get(i).isKeyword("fetch")
+                    || tokens.get(i).isKeyword("for")));
+            boolean comma = !end && tokens.get(i).isTopLevel() && tokens.get(i).isPunctuation(',');
+            if ((end || comma) && i > itemStart) {
+                keys.add(parseOrderKey(sql, tokens.subList(itemStart, i)));
+                itemStart = i + 1;
+            }
+            if (end) {
+                break;
+            }
+        }
+        return keys;
+    }
+
+    private static OrderKey parseOrderKey(String sql, List<Token> keyTokens) {
+        int exprEnd = keyTokens.size();
+        boolean ascending = true;
+        Boolean nullsFirst = null;
+
+        if (exprEnd >= 3 && keyTokens.get(exprEnd - 2).isKeyword("nulls")) {
+            nullsFirst = keyTokens.get(exprEnd - 1).isKeyword("first");
+            exprEnd -= 2;
+        }
+        if (exprEnd >= 2 && (keyTokens.get(exprEnd - 1).isKeyword("asc") || keyTokens.get(exprEnd - 1).isKeyword("desc"))) {
+            ascending = keyTokens.get(exprEnd - 1).isKeyword("asc");
+            exprEnd -= 1;
+        }
+
+        String expression = sql.substring(keyTokens.get(0).start(), keyTokens.get(exprEnd - 1).end());
+        // PostgreSQL sorts NULLs as larger than any value unless told otherwise
+        boolean effectiveNullsFirst = nullsFirst != null ? nullsFirst : !ascending;
+        return new OrderKey(expression, ascending, effectiveNullsFirst);
+    }
+
+    private static boolean hasTopLevelClause(List<Token> tokens, int from, String first, String second) {
+        for (int i = from; i + 1 < tokens.size(); i++) {
+            if (tokens.get(i).isTopLevel() && tokens.get(i).isKeyword(first) && tokens.get(i + 1).isKeyword(second)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasTopLevelKeyword(List<Token> tokens, int from, String keyword) {
+        return findTopLevelKeyword(tokens, from, keyword) != -1;
+    }
+
+    private static int findTopLevelKeyword(List<Token> tokens, int from, String keyword) {
+        for (int i = from; i < tokens.size(); i++) {
+            if (tokens.get(i).isTopLevel() && tokens.get(i).isKeyword(keyword)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the LIMIT and OFFSET clauses and, if {@code newLimit} is set, puts a LIMIT back in their place.
+     */
+    private static String rewriteLimit(String sql, List<Token> tokens, int limitIdx, int offsetIdx, Long newLimit) {
+        if (limitIdx == -1 && offsetIdx == -1) {
+            return sql;
+        }
+
+        List<int[]> removals = new ArrayList<>();
+        if (limitIdx != -1) {
+            removals.add(new int[]{tokens.get(limitIdx).start(), tokens.get(limitIdx + 1).end()});
+        }
+        if (offsetIdx != -1) {
+            int end = offsetIdx + 1;
+            if (end + 1 < tokens.size() && (tokens.get(end + 1).isKeyword("row") || tokens.get(end + 1).isKeyword("rows"))) {
+                end++;
+            }
+            removals.add(new int[]{tokens.get(offsetIdx).start(), tokens.get(end).end()});
+        }
+        removals.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+        StringBuilder sb = new StringBuilder();
+        int pos = 0;
+        boolean limitWritten = false;
+        for (int[] range : removals) {
+            sb.append(sql, pos, range[0]);
+            if (newLimit != null && !limitWritten) {
+                sb.append("LIMIT ").append(newLimit);
+                limitWritten = true;
+            }
+            pos = range[1];
+        }
+        sb.append(sql.substring(pos));
+        return sb.toString().stripTrailing();
+    }
+
+    private static String unquote(String identifier) {
+        if (identifier.length() >= 2 && identifier.startsWith("\"") && identifier.endsWith("\"")) {
+            return identifier.substring(1, identifier.length() - 1).replace("\"\"", "\"");
+        }
+        return identifier;
+    }
+}
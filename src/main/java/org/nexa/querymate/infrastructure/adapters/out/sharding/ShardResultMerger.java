@@ -0,0 +1,331 @@
+package org.nexa.querymate.infrastructure.adapters.out.sharding;
+
+import org.nexa.querymate.domain.exception.QueryExecutionException;
+import org.nexa.querymate.domain.query.SqlValues;
+import org.nexa.querymate.infrastructure.adapters.out.sharding.ShardMergePlan.AggregateFunction;
+import org.nexa.querymate.infrastructure.adapters.out.sharding.ShardMergePlan.OrderKey;
+import org.nexa.querymate.infrastructure.adapters.out.sharding.ShardMergePlan.SelectItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Combines the rows returned by individual shards according to a {@link ShardMergePlan}. Shard rows are
+ * taken one at a time, only as far as the combined result needs them.
+ */
+final class ShardResultMerger {
+
+    private ShardResultMerger() {
+    }
+
+    /**
+     * Merged rows plus any warnings about how they were combined.
+     */
+    record MergedRows(List<List<Object>> rows, List<String> warnings) {
+    }
+
+    /**
+     * Merges the shards' rows. All shards must share the given column layout.
+     *
+     * @param plan      the merge plan for the statement
+     * @param columns   the result column labels
+     * @param shardRows rows per shard, in shard order; a shard is read no further than the result needs
+     * @throws QueryExecutionException if the statement limits rows by an order the shard results do not carry,
+     *                                 so which rows come first across shards cannot be known
+     */
+    static MergedRows merge(ShardMergePlan plan, List<String> columns,
+                            List<? extends Iterator<List<Object>>> shardRows) {
+        List<String> warnings = new ArrayList<>();
+        if (plan.unsupportedReason() != null) {
+            warnings.add("Shard results concatenated without combining: " + plan.unsupportedReason());
+        }
+
+        int[] orderIndexes = resolveOrderKeys(plan, columns);
+        if (orderIndexes == null && (plan.limit() != null || plan.offset() > 0)) {
+            throw QueryExecutionException.unsupportedShardedQuery(
+                    "LIMIT and OFFSET need every ORDER BY expression in the select list");
+        }
+        if (orderIndexes == null) {
+            warnings.add("ORDER BY could not be matched to result columns; rows are not globally ordered");
+        }
+
+        Iterator<List<Object>> rows = switch (plan.mode()) {
+            case AGGREGATE -> {
+                // Partial aggregates are one row per group on each shard, so they are read in full
+                List<List<List<Object>>> partials = shardRows.stream().map(ShardResultMerger::drain).toList();
+                List<List<Object>> combined = combineAggregates(plan.selectItems(), columns, partials, warnings);
+                if (orderIndexes != null && orderIndexes.length > 0) {
+                    combined.sort(rowComparator(plan.orderKeys(), orderIndexes));
+                }
+                yield combined.iterator();
+            }
+            case ORDERED -> orderIndexes == null
+                    ? concatenate(shardRows)
+                    : kWayMerge(shardRows, rowComparator(plan.orderKeys(), orderIndexes));
+            case CONCAT -> concatenate(shardRows);
+        };
+
+        return new MergedRows(take(rows, plan), warnings);
+    }
+
+    /**
+     * Returns the column index for each ORDER BY key, an empty array if there are none,
+     * or null if some key does not correspond to a result column.
+     */
+    private static int[] resolveOrderKeys(ShardMergePlan plan, List<String> columns) {
+        List<OrderKey> keys = plan.orderKeys();
+        int[] indexes = new int[keys.size()];
+        for (int k = 0; k < keys.size(); k++) {
+            int index = resolveColumn(keys.get(k).expression(), plan.selectItems(), columns);
+            if (index < 0) {
+                return null;
+            }
+            indexes[k] = index;
+        }
+        return indexes;
+    }
+
+    private static int resolveColumn(String expression, List<SelectItem> items, List<String> columns) {
+        String normalized = normalize(expression);
+
+        if (normalized.chars().allMatch(Character::isDigit)) {
+            int ordinal = Integer.parseInt(normalized) - 1;
+            return ordinal >= 0 && ordinal < columns.size() ? ordinal : -1;
+        }
+
+        if (items.size() == columns.size()) {
+            for (int i = 0; i < items.size(); i++) {
+                SelectItem item = items.get(i);
+                if ((item.alias() != null && normalize(item.alias()).equals(normalized))
+                        || normalize(item.expression()).equals(normalized)) {
+                    return i;
+                }
+            }
+        }
+
+        String unqualified = normalized.contains(".")
+                ? normalized.substring(normalized.lastIndexOf('.') + 1)
+                : normalized;
+        for (int i = 0; i < columns.size(); i++) {
+            if (normalize(columns.get(i)).equals(unqualified)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String normalize(String value) {
+        return value.replace("\"", "").replaceAll("\\s+", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Takes merged rows until the offset is skipped and the limit reached, dropping repeated rows first for
+     * {@code DISTINCT}; no shard is read further than that.
+     */
+    private static List<List<Object>> take(Iterator<List<Object>> rows, ShardMergePlan plan) {
+        Set<List<Object>> seen = plan.distinct() ? new HashSet<>() : null;
+        long skip = plan.offset();
+        long limit = plan.limit() == null ? Long.MAX_VALUE : plan.limit();
+        List<List<Object>> taken = new ArrayList<>();
+        while (taken.size() < limit && rows.hasNext()) {
+            List<Object> row = rows.next();
+            if (seen != null && !seen.add(row)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            taken.add(row);
+        }
+        return taken;
+    }
+
+    private static List<List<Object>> drain(Iterator<List<Object>> shard) {
+        List<List<Object>> rows = new ArrayList<>();
+        shard.forEachRemaining(rows::add);
+        return rows;
+    }
+
+    private static List<List<Object>> flatten(List<List<List<Object>>> shardRows) {
+        List<List<Object>> rows = new ArrayList<>();
+        shardRows.forEach(rows::addAll);
+        return rows;
+    }
+
+    /**
+     * Reads the shards one after another, in shard order.
+     */
+    private static Iterator<List<Object>> concatenate(List<? extends Iterator<List<Object>>> shardRows) {
+        Iterator<? extends Iterator<List<Object>>> shards = shardRows.iterator();
+        return new Iterator<>() {
+            private Iterator<List<Object>> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && shards.hasNext()) {
+                    current = shards.next();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public List<Object> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * Merges the already-sorted shard rows into one ordered sequence, holding only the next row of each shard.
+     */
+    private static Iterator<List<Object>> kWayMerge(
+            List<? extends Iterator<List<Object>>> shardRows,
+            Comparator<List<Object>> comparator
+    ) {
+        record Head(int shard, List<Object> row) {
+        }
+
+        PriorityQueue<Head> heap = new PriorityQueue<>(Math.max(1, shardRows.size()),
+                Comparator.comparing(Head::row, comparator).thenComparingInt(Head::shard));
+        for (int s = 0; s < shardRows.size(); s++) {
+            if (shardRows.get(s).hasNext()) {
+                heap.add(new Head(s, shardRows.get(s).next()));
+            }
+        }
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heap.isEmpty();
+            }
+
+            @Override
+            public List<Object> next() {
+                Head head = heap.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                Iterator<List<Object>> shard = shardRows.get(head.shard());
+                if (shard.hasNext()) {
+                    heap.add(new Head(head.shard(), shard.next()));
+                }
+                return head.row();
+            }
+        };
+    }
+
+    private static List<List<Object>> combineAggregates(
+            List<SelectItem> items,
+            List<String> columns,
+            List<List<List<Object>>> shardRows,
+            List<String> warnings
+    ) {
+        if (items.size() != columns.size()) {
+            warnings.add("Select list did not match result columns; shard aggregates were not combined");
+            return flatten(shardRows);
+        }
+
+        Map<List<Object>, Object[]> groups = new LinkedHashMap<>();
+        try {
+            accumulate(items, shardRows, groups);
+        } catch (IllegalArgumentException e) {
+            warnings.add("Shard aggregates were not combined: " + e.getMessage());
+            return flatten(shardRows);
+        }
+
+        List<List<Object>> combined = new ArrayList<>(groups.size());
+        for (Object[] values : groups.values()) {
+            combined.add(Arrays.asList(values));
+        }
+        return combined;
+    }
+
+    private static void accumulate(
+            List<SelectItem> items,
+            List<List<List<Object>>> shardRows,
+            Map<List<Object>, Object[]> groups
+    ) {
+        for (List<List<Object>> rows : shardRows) {
+            for (List<Object> row : rows) {
+                List<Object> key = new ArrayList<>();
+                for (int i = 0; i < items.size(); i++) {
+                    if (!items.get(i).isAggregate()) {
+                        key.add(row.get(i));
+                    }
+                }
+                Object[] accumulator = groups.get(key);
+                if (accumulator == null) {
+                    groups.put(key, row.toArray());
+                    continue;
+                }
+                for (int i = 0; i < items.size(); i++) {
+                    AggregateFunction function = items.get(i).aggregate();
+                    if (function != null) {
+                        accumulator[i] = combine(function, accumulator[i], row.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    static Object combine(AggregateFunction function, Object current, Object next) {
+        if (current == null) {
+            return next;
+        }
+        if (next == null) {
+            return current;
+        }
+        return switch (function) {
+            case COUNT, SUM -> {
+                if (!(current instanceof Number a) || !(next instanceof Number b)) {
+                    throw new IllegalArgumentException("Cannot add non-numeric partial aggregates: "
+                            + current.getClass().getSimpleName());
+                }
+                yield SqlValues.add(a, b);
+            }
+            case MIN -> SqlValues.compare(current, next) <= 0 ? current : next;
+            case MAX -> SqlValues.compare(current, next) >= 0 ? current : next;
+        };
+    }
+
+    private static Comparator<List<Object>> rowComparator(List<OrderKey> keys, int[] indexes) {
+        return (left, right) -> {
+            for (int k = 0; k < indexes.length; k++) {
+                OrderKey key = keys.get(k);
+                Object a = left.get(indexes[k]);
+                Object b = right.get(indexes[k]);
+                int cmp;
+                if (a == null || b == null) {
+                    if (a == b) {
+                        continue;
+                    }
+                    cmp = (a == null) == key.nullsFirst() ? -1 : 1;
+                } else {
+                    cmp = SqlValues.compare(a, b);
+                    if (!key.ascending()) {
+                        cmp = -cmp;
+                    }
+                }
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return 0;
+        };
+    }
+}
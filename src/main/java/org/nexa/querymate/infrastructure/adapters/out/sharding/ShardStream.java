@@ -0,0 +1,146 @@
+package org.nexa.querymate.infrastructure.adapters.out.sharding;
+
+import org.nexa.querymate.application.ports.out.RowSink;
+import org.nexa.querymate.domain.exception.QueryExecutionException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * The rows of one shard, read on a thread of their own into a small buffer that the merge takes them from.
+ * A shard holds at most {@link #BUFFER_ROWS} rows in memory however many it returns: its reader waits while
+ * the buffer is full, and stops reading once the merge closes the stream.
+ * <p>
+ * If the shard fails after returning some of its rows, the stream ends there and {@link #error()} tells why.
+ */
+final class ShardStream implements RowSink, Iterator<List<Object>> {
+
+    static final int BUFFER_ROWS = 256;
+
+    /**
+     * Put in the buffer after the last row; compared by identity.
+     */
+    private static final List<Object> END = new ArrayList<>(0);
+
+    private final BlockingQueue<List<Object>> buffer = new ArrayBlockingQueue<>(BUFFER_ROWS);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final Instant start = Instant.now();
+
+    private volatile List<String> columns;
+    private volatile Exception error;
+    private volatile Duration elapsed;
+    private volatile boolean closed;
+
+    private List<Object> next;
+    private boolean ended;
+
+    @Override
+    public void columns(List<String> columns) {
+        this.columns = List.copyOf(columns);
+        started.countDown();
+    }
+
+    @Override
+    public boolean accept(List<Object> row) {
+        if (closed) {
+            return false;
+        }
+        try {
+            buffer.put(row);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !closed;
+    }
+
+    /**
+     * Called by the reader once the shard has no more rows to give.
+     *
+     * @param error what ended the shard's rows early, or null if it returned them all
+     */
+    void finish(Exception error) {
+        this.error = error;
+        this.elapsed = Duration.between(start, Instant.now());
+        started.countDown();
+        try {
+            // A closed stream's buffer was cleared, so the marker fits without waiting for the merge
+            buffer.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for the shard to return its column labels.
+     *
+     * @return the labels, or null if the shard failed before returning any
+     */
+    List<String> awaitColumns() {
+        try {
+            started.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryExecutionException("Interrupted while waiting for shards", e);
+        }
+        return columns;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !ended) {
+            List<Object> row;
+            try {
+                row = buffer.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new QueryExecutionException("Interrupted while waiting for shards", e);
+            }
+            if (row == END) {
+                ended = true;
+            } else {
+                next = row;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public List<Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<Object> row = next;
+        next = null;
+        return row;
+    }
+
+    /**
+     * Drops the buffered rows and tells the reader to stop at its next row.
+     */
+    void close() {
+        closed = true;
+        buffer.clear();
+    }
+
+    /**
+     * Why the shard's rows ended early; only final once the reader has finished.
+     */
+    Exception error() {
+        return error;
+    }
+
+    /**
+     * How long the shard took to return its rows, or to stop; only set once the reader has finished.
+     */
+    Duration elapsed() {
+        return elapsed;
+    }
+}
@@ -0,0 +1,332 @@
+package org.nexa.querymate.infrastructure.adapters.out.sharding;
+
+import org.nexa.querymate.application.ports.out.DatabasePort;
+import org.nexa.querymate.domain.connection.ConnectionConfig;
+import org.nexa.querymate.domain.connection.HostRole;
+import org.nexa.querymate.domain.connection.HostStatus;
+import org.nexa.querymate.domain.exception.ConnectionException;
+import org.nexa.querymate.domain.exception.QueryExecutionException;
+import org.nexa.querymate.domain.query.Deadline;
+import org.nexa.querymate.domain.query.PlanEstimate;
+import org.nexa.querymate.domain.query.QueryOrigin;
+import org.nexa.querymate.domain.query.QueryResult;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.query.StatementKind;
+import org.nexa.querymate.infrastructure.config.ShardingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * DatabasePort that runs every query on all configured shards concurrently and merges the results.
+ * <p>
+ * The connection opened with {@code \c} goes to the coordinator port, which keeps serving schema
+ * discovery; its credentials are reused for every shard. Each shard query runs on its own virtual
+ * thread and streams its rows into a small buffer, from which they are merged only as far as the
+ * result needs them. Shards that fail are reported as warnings on the result unless partial results
+ * are disabled. Statements other than queries are refused rather than repeated on every shard.
+ */
+public class ShardedDatabaseAdapter implements DatabasePort {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedDatabaseAdapter.class);
+
+    private final DatabasePort coordinator;
+    private final List<ShardingProperties.Node> nodes;
+    private final Supplier<DatabasePort> shardPortFactory;
+    private final boolean allowPartialResults;
+
+    private volatile List<Shard> shards = List.of();
+    private final Map<String, ShardOutcome> lastOutcomes = new ConcurrentHashMap<>();
+
+    public ShardedDatabaseAdapter(
+            DatabasePort coordinator,
+            List<ShardingProperties.Node> nodes,
+            Supplier<DatabasePort> shardPortFactory,
+            boolean allowPartialResults
+    ) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.coordinator = coordinator;
+        this.nodes = List.copyOf(nodes);
+        this.shardPortFactory = shardPortFactory;
+        this.allowPartialResults = allowPartialResults;
+    }
+
+    private record Shard(String label, ConnectionConfig config, DatabasePort port) {
+    }
+
+    private record ShardOutcome(Shard shard, Exception error, Duration elapsed) {
+    }
+
+    @Override
+    public void connect(ConnectionConfig config) {
+        coordinator.connect(config);
+
+        List<Shard> connecting = nodes.stream()
+                .map(node -> {
+                    ConnectionConfig shardConfig = new ConnectionConfig(
+                            node.host(),
+                            node.port(),
+                            node.database() != null ? node.database() : config.database(),
+                            config.username(),
+                            config.password()
+                    );
+                    String label = "%s:%d/%s".formatted(shardConfig.host(), shardConfig.port(), shardConfig.database());
+                    return new Shard(label, shardConfig, shardPortFactory.get());
+                })
+                .toList();
+
+        List<ShardOutcome> outcomes = runOnShards(connecting, shard -> shard.port().connect(shard.config()));
+
+        List<ShardOutcome> failures = outcomes.stream().filter(o -> o.error() != null).toList();
+        for (ShardOutcome failure : failures) {
+            log.warn("Shard connection failed",
+                    kv("shard", failure.shard().label()),
+                    kv("error", failure.error().getMessage()));
+        }
+
+        if (failures.size() == connecting.size() || (!failures.isEmpty() && !allowPartialResults)) {
+            connecting.forEach(shard -> shard.port().disconnect());
+            coordinator.disconnect();
+            throw ConnectionException.shardsUnavailable(failures.size(), connecting.size(), failures.get(0).error());
+        }
+
+        this.shards = connecting;
+        log.info("Shards connected",
+                kv("connected", connecting.size() - failures.size()),
+                kv("total", connecting.size()));
+    }
+
+    @Override
+    public void disconnect() {
+        List<Shard> current = shards;
+        shards = List.of();
+        lastOutcomes.clear();
+        current.forEach(shard -> shard.port().disconnect());
+        coordinator.disconnect();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return coordinator.isConnected();
+    }
+
+    @Override
+    public QueryResult execute(SqlStatement statement) {
+        return execute(statement, Deadline.NONE);
+    }
+
+    /**
+     * Runs on every shard as above, each shard bounded by the same deadline.
+     */
+    @Override
+    public QueryResult execute(SqlStatement statement, QueryOrigin origin, Deadline deadline) {
+        return execute(statement, deadline);
+    }
+
+    private QueryResult execute(SqlStatement statement, Deadline deadline) {
+        List<Shard> current = shards;
+        if (current.isEmpty()) {
+            throw ConnectionException.notConnected();
+        }
+        if (statement.kind() != StatementKind.READ) {
+            throw QueryExecutionException.shardedWriteRejected();
+        }
+
+        Instant start = Instant.now();
+        ShardMergePlan plan = ShardMergePlan.analyze(statement.value());
+        SqlStatement shardStatement = statement.withValue(plan.shardSql());
+
+        List<ShardStream> streams = new ArrayList<>(current.size());
+        List<String> mergeWarnings = new ArrayList<>();
+        QueryResult merged = null;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Shard shard : current) {
+                ShardStream stream = new ShardStream();
+                streams.add(stream);
+                executor.submit(() -> read(shard, shardStatement, deadline, stream));
+            }
+            try {
+                merged = merge(plan, streams, mergeWarnings);
+            } finally {
+                streams.forEach(ShardStream::close);
+            }
+        }
+
+        List<QueryResult.Timing> timings = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        Exception firstError = null;
+        for (int i = 0; i < current.size(); i++) {
+            ShardStream stream = streams.get(i);
+            ShardOutcome outcome = new ShardOutcome(current.get(i), stream.error(), stream.elapsed());
+            lastOutcomes.put(outcome.shard().label(), outcome);
+            timings.add(new QueryResult.Timing("shard " + outcome.shard().label(), outcome.elapsed()));
+            if (outcome.error() != null) {
+                firstError = firstError == null ? outcome.error() : firstError;
+                warnings.add("Shard %s failed: %s".formatted(outcome.shard().label(), outcome.error().getMessage()));
+            }
+        }
+        warnings.addAll(mergeWarnings);
+
+        int failed = (int) streams.stream().filter(stream -> stream.error() != null).count();
+        if (merged == null || (failed > 0 && !allowPartialResults)) {
+            throw QueryExecutionException.shardsFailed(failed, streams.size(), firstError);
+        }
+        Duration executionTime = Duration.between(start, Instant.now());
+
+        log.debug("Sharded statement completed",
+                kv("mode", plan.mode()),
+                kv("shards", streams.size()),
+                kv("failed", failed),
+                kv("executionTime", executionTime));
+
+        return merged.withMetadata(new QueryResult.QueryMetadata(
+                merged.metadata().affectedRows(),
+                executionTime,
+                timings,
+                warnings
+        ));
+    }
+
+    /**
+     * Streams the shard's rows into its buffer, reconnecting first if the shard was down at connect time.
+     */
+    private static void read(Shard shard, SqlStatement statement, Deadline deadline, ShardStream stream) {
+        try {
+            if (!shard.port().isConnected()) {
+                // A shard that was down at connect time gets another chance on every statement
+                shard.port().connect(shard.config());
+            }
+            shard.port().stream(statement, QueryOrigin.DIRECT_SQL, deadline, stream);
+            stream.finish(null);
+        } catch (Exception e) {
+            stream.finish(e);
+        }
+    }
+
+    /**
+     * Validates on the coordinator, whose schema every shard shares.
+     */
+    @Override
+    public Optional<PlanEstimate> validate(SqlStatement statement) {
+        return coordinator.validate(statement);
+    }
+
+    @Override
+    public void prepare() {
+        coordinator.prepare();
+    }
+
+    @Override
+    public boolean testConnection(ConnectionConfig config) {
+        return coordinator.testConnection(config);
+    }
+
+    /**
+     * Coordinator hosts followed by one entry per shard, with the latency and error of the last fan-out.
+     */
+    @Override
+    public List<HostStatus> hostStatuses() {
+        List<HostStatus> statuses = new ArrayList<>(coordinator.hostStatuses());
+        for (Shard shard : shards) {
+            ShardOutcome last = lastOutcomes.get(shard.label());
+            boolean healthy = last != null ? last.error() == null : shard.port().isConnected();
+            statuses.add(new HostStatus(
+                    shard.config().primary(),
+                    HostRole.SHARD,
+                    healthy,
+                    last != null ? last.elapsed() : null,
+                    last != null && last.error() != null ? last.error().getMessage() : shard.config().database()
+            ));
+        }
+        return statuses;
+    }
+
+    /**
+     * Waits for every shard to start returning rows, then merges them. Returns null, leaving the shards to be
+     * reported as failed, if all of them failed or partial results are disabled and some did.
+     */
+    private QueryResult merge(ShardMergePlan plan, List<ShardStream> streams, List<String> warnings) {
+        List<String> columns = null;
+        List<ShardStream> matching = new ArrayList<>(streams.size());
+        int failed = 0;
+        int skipped = 0;
+        for (ShardStream stream : streams) {
+            List<String> shardColumns = stream.awaitColumns();
+            if (shardColumns == null) {
+                failed += stream.error() != null ? 1 : 0;
+            } else if (columns == null || shardColumns.equals(columns)) {
+                columns = shardColumns;
+                matching.add(stream);
+            } else {
+                stream.close();
+                skipped++;
+            }
+        }
+        if (failed == streams.size() || (failed > 0 && !allowPartialResults)) {
+            return null;
+        }
+        if (columns == null) {
+            // No shard returned a result set
+            return new QueryResult(List.of(), List.of(), new QueryResult.QueryMetadata(0, Duration.ZERO));
+        }
+        if (skipped > 0) {
+            warnings.add("Some shards returned a different column layout and were skipped");
+        }
+
+        ShardResultMerger.MergedRows merged = ShardResultMerger.merge(plan, columns, matching);
+        warnings.addAll(merged.warnings());
+        return new QueryResult(
+                columns,
+                merged.rows(),
+                new QueryResult.QueryMetadata(merged.rows().size(), Duration.ZERO)
+        );
+    }
+
+    private List<ShardOutcome> runOnShards(List<Shard> targets, ShardTask task) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ShardOutcome>> futures = targets.stream()
+                    .map(shard -> executor.submit(() -> {
+                        Instant start = Instant.now();
+                        try {
+                            task.run(shard);
+                            return new ShardOutcome(shard, null, Duration.between(start, Instant.now()));
+                        } catch (Exception e) {
+                            return new ShardOutcome(shard, e, Duration.between(start, Instant.now()));
+                        }
+                    }))
+                    .toList();
+
+            List<ShardOutcome> outcomes = new ArrayList<>(futures.size());
+            for (Future<ShardOutcome> future : futures) {
+                outcomes.add(future.get());
+            }
+            return outcomes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryExecutionException("Interrupted while waiting for shards", e);
+        } catch (ExecutionException e) {
+            throw new QueryExecutionException("Shard task failed unexpectedly", e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    private interface ShardTask {
+        void run(Shard shard) throws Exception;
+    }
+}
@@ -0,0 +1,20 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for translating batches of questions.
+ *
+ * @param maxInFlight translations sent to the model at once; set to Ollama's {@code OLLAMA_NUM_PARALLEL},
+ *                    since requests beyond its parallel slots only queue on the server
+ */
+@ConfigurationProperties(prefix = "querymate.batch")
+public record BatchProperties(
+        int maxInFlight
+) {
+    public BatchProperties {
+        if (maxInFlight <= 0) {
+            maxInFlight = 4;
+        }
+    }
+}
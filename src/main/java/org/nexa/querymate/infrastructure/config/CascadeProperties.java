@@ -0,0 +1,19 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Configuration properties for trying cheaper models before the main one.
+ *
+ * @param models models asked before {@code querymate.ollama.model}, cheapest first; empty disables the cascade
+ */
+@ConfigurationProperties(prefix = "querymate.cascade")
+public record CascadeProperties(
+        List<String> models
+) {
+    public CascadeProperties {
+        models = models == null ? List.of() : List.copyOf(models);
+    }
+}
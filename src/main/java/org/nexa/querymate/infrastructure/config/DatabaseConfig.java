@@ -0,0 +1,52 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.nexa.querymate.application.ports.out.ConnectionPorts;
+import org.nexa.querymate.application.ports.out.ConnectionPortsFactory;
+import org.nexa.querymate.application.ports.out.DatabasePort;
+import org.nexa.querymate.infrastructure.adapters.out.postgres.PostgresDatabaseAdapter;
+import org.nexa.querymate.infrastructure.adapters.out.postgres.PostgresSchemaAdapter;
+import org.nexa.querymate.infrastructure.adapters.out.routing.ReplicaRoutingDatabaseAdapter;
+import org.nexa.querymate.infrastructure.adapters.out.sharding.ShardedDatabaseAdapter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the database ports used by application services.
+ */
+@Configuration
+public class DatabaseConfig {
+
+    /**
+     * Creates the ports for each named connection.
+     * The Postgres adapter is wrapped with replica routing, and with a shard fan-out
+     * when shard nodes are configured; schema discovery always reads the Postgres adapter directly.
+     * With speculative generation the Postgres adapter keeps a validation connection per candidate,
+     * so all of them can be planned at once.
+     */
+    @Bean
+    public ConnectionPortsFactory connectionPortsFactory(
+            ReplicaRoutingProperties replicaRouting,
+            ShardingProperties sharding,
+            MultiHostProperties multiHost,
+            SpeculativeProperties speculative
+    ) {
+        int validationConnections = speculative.enabled() ? speculative.candidates() : 0;
+        return () -> {
+            PostgresDatabaseAdapter postgres = new PostgresDatabaseAdapter(multiHost, validationConnections);
+            DatabasePort database = new ReplicaRoutingDatabaseAdapter(
+                    postgres,
+                    () -> new PostgresDatabaseAdapter(multiHost),
+                    replicaRouting
+            );
+            if (sharding.enabled()) {
+                database = new ShardedDatabaseAdapter(
+                        database,
+                        sharding.nodes(),
+                        () -> new PostgresDatabaseAdapter(multiHost),
+                        sharding.allowPartialResults()
+                );
+            }
+            return new ConnectionPorts(database, new PostgresSchemaAdapter(postgres));
+        };
+    }
+}
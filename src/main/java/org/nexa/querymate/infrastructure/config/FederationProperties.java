@@ -0,0 +1,35 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for joining tables across named connections client-side.
+ *
+ * @param joinMemoryMb    heap the sub-query results and join outputs of one query may take before they spill to disk
+ * @param spillDirectory  where spill files are written; the system temp directory by default
+ * @param spillPartitions how many partitions each side of a join is split into once it no longer fits in memory
+ * @param maxRows         most rows a query may hand to the final projection and sort, which hold them in memory;
+ *                        0 for no limit
+ */
+@ConfigurationProperties(prefix = "querymate.federation")
+public record FederationProperties(
+        int joinMemoryMb,
+        String spillDirectory,
+        int spillPartitions,
+        int maxRows
+) {
+    public FederationProperties {
+        if (joinMemoryMb <= 0) {
+            joinMemoryMb = 64;
+        }
+        if (spillDirectory == null || spillDirectory.isBlank()) {
+            spillDirectory = System.getProperty("java.io.tmpdir");
+        }
+        if (spillPartitions <= 0) {
+            spillPartitions = 16;
+        }
+        if (maxRows < 0) {
+            maxRows = 0;
+        }
+    }
+}
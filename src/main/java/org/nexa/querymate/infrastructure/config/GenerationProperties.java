@@ -0,0 +1,49 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Configuration properties for how the model generates a translation.
+ *
+ * @param temperature             sampling temperature; 0 always picks the most likely token
+ * @param seed                    random seed, so repeated questions get repeated answers
+ * @param stop                    sequences that end generation on the server; they are not part of the output.
+ *                                The default stops only at a semicolon ending a line: a fence could be the one
+ *                                opening the SQL, so closing fences are left to the client
+ * @param predictTokens           generated tokens allowed for the shortest question
+ * @param predictPerQuestionToken further generated tokens allowed per token of the question; the total is
+ *                                capped by {@code querymate.prompt.response-tokens}
+ */
+@ConfigurationProperties(prefix = "querymate.generation")
+public record GenerationProperties(
+        Double temperature,
+        Integer seed,
+        List<String> stop,
+        int predictTokens,
+        double predictPerQuestionToken
+) {
+    public GenerationProperties {
+        if (temperature == null) {
+            temperature = 0.0;
+        }
+        if (seed == null) {
+            seed = 42;
+        }
+        stop = stop == null ? List.of(";\n") : List.copyOf(stop);
+        if (predictTokens <= 0) {
+            predictTokens = 96;
+        }
+        if (predictPerQuestionToken <= 0) {
+            predictPerQuestionToken = 4;
+        }
+    }
+
+    /**
+     * Tokens the model may generate for a question of the given length.
+     */
+    public int predictTokens(int questionTokens, int cap) {
+        return (int) Math.min(cap, predictTokens + Math.ceil(predictPerQuestionToken * questionTokens));
+    }
+}
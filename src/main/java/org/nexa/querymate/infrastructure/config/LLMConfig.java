@@ -0,0 +1,171 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.nexa.querymate.infrastructure.adapters.out.cache.CachingLLMAdapter;
+import org.nexa.querymate.infrastructure.adapters.out.cache.SemanticCacheLLMAdapter;
+import org.nexa.querymate.infrastructure.adapters.out.cache.TemplateCacheLLMAdapter;
+import org.nexa.querymate.infrastructure.adapters.out.ollama.LoadBalancingLLMAdapter;
+import org.nexa.querymate.infrastructure.adapters.out.ollama.ModelCascadeLLMAdapter;
+import org.nexa.querymate.infrastructure.adapters.out.ollama.OllamaEmbeddingAdapter;
+import org.nexa.querymate.infrastructure.adapters.out.ollama.OllamaLLMAdapter;
+import org.nexa.querymate.infrastructure.adapters.out.ollama.SpeculativeLLMAdapter;
+import org.nexa.querymate.infrastructure.adapters.out.rules.RuleBasedLLMAdapter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Configuration for the LLM port used by application services.
+ */
+@Configuration
+public class LLMConfig {
+
+    /**
+     * The cheaper cascade models, if any, then the main model, each on every configured server;
+     * a bean of its own so cascade, balancing and generation metrics are reported.
+     */
+    @Bean
+    public ModelCascadeLLMAdapter ollamaLLM(
+            WebClient ollamaWebClient,
+            OllamaProperties ollama,
+            OllamaBalancingProperties balancing,
+            CascadeProperties cascade,
+            PromptProperties prompt,
+            GenerationProperties generation
+    ) {
+        List<LoadBalancingLLMAdapter> tiers = new ArrayList<>();
+        for (String model : cascade.models()) {
+            tiers.add(balanced(ollamaWebClient, ollama.withModel(model), balancing, prompt, generation, Map.of()));
+        }
+        tiers.add(balanced(ollamaWebClient, ollama, balancing, prompt, generation, Map.of()));
+        return new ModelCascadeLLMAdapter(tiers);
+    }
+
+    /**
+     * Generates extra candidates next to the main model, each with its own seed and a higher temperature,
+     * on the configured candidate models if any; it passes everything through when disabled.
+     * Candidates are not hedged, since they already duplicate the question.
+     */
+    @Bean
+    public SpeculativeLLMAdapter speculative(
+            ModelCascadeLLMAdapter ollamaLLM,
+            WebClient ollamaWebClient,
+            OllamaProperties ollama,
+            OllamaBalancingProperties balancing,
+            PromptProperties prompt,
+            GenerationProperties generation,
+            SpeculativeProperties speculative
+    ) {
+        List<LoadBalancingLLMAdapter> alternatives = new ArrayList<>();
+        int extra = speculative.candidates() - 1;
+        for (int i = 1; i <= extra; i++) {
+            List<String> models = speculative.models();
+            OllamaProperties candidate = models.isEmpty() ? ollama : ollama.withModel(models.get((i - 1) % models.size()));
+            Map<String, Object> sampling = Map.of("temperature", speculative.maxTemperature() * i / extra, "seed", i);
+            alternatives.add(balanced(ollamaWebClient, candidate, balancing.withoutHedging(), prompt, generation, sampling));
+        }
+        return new SpeculativeLLMAdapter(ollamaLLM, alternatives, speculative);
+    }
+
+    /**
+     * Puts the semantic cache in front of the model; it passes everything through when disabled.
+     */
+    @Bean
+    public SemanticCacheLLMAdapter semanticCache(
+            SpeculativeLLMAdapter speculative,
+            WebClient ollamaWebClient,
+            OllamaProperties ollama,
+            CascadeProperties cascade,
+            SpeculativeProperties speculativeProperties,
+            SemanticCacheProperties semanticCache
+    ) {
+        return new SemanticCacheLLMAdapter(
+                speculative,
+                new OllamaEmbeddingAdapter(
+                        ollamaWebClient,
+                        semanticCache.embeddingModel(),
+                        Duration.ofSeconds(ollama.timeoutSeconds())
+                ),
+                answeringModels(ollama, cascade, speculativeProperties),
+                semanticCache
+        );
+    }
+
+    /**
+     * Binds new literals into templates of earlier translations, asking the semantic cache otherwise.
+     */
+    @Bean
+    public TemplateCacheLLMAdapter templateCache(
+            SemanticCacheLLMAdapter semanticCache,
+            OllamaProperties ollama,
+            CascadeProperties cascade,
+            SpeculativeProperties speculative,
+            TemplateCacheProperties templateCache
+    ) {
+        return new TemplateCacheLLMAdapter(semanticCache, answeringModels(ollama, cascade, speculative), templateCache);
+    }
+
+    /**
+     * Answers questions asked before verbatim, asking the template cache otherwise.
+     */
+    @Bean
+    public CachingLLMAdapter translationCache(
+            TemplateCacheLLMAdapter templateCache,
+            OllamaProperties ollama,
+            CascadeProperties cascade,
+            SpeculativeProperties speculative,
+            TranslationCacheProperties translationCache
+    ) {
+        return new CachingLLMAdapter(templateCache, answeringModels(ollama, cascade, speculative), translationCache);
+    }
+
+    /**
+     * The port injected into services: pattern rules first, then exact-match lookups, then templates,
+     * then the semantic cache, then the model and its speculative candidates.
+     */
+    @Bean
+    @Primary
+    public RuleBasedLLMAdapter llmPort(CachingLLMAdapter translationCache, RulesProperties rules) {
+        return new RuleBasedLLMAdapter(translationCache, rules);
+    }
+
+    /**
+     * Every model that may answer a question below the caches, which sit above model selection and cannot
+     * tell which one produced a statement; caches key on this, so changing any of them starts afresh.
+     * Just the main model unless a cascade or speculative candidates on other models are configured.
+     */
+    private static String answeringModels(OllamaProperties ollama, CascadeProperties cascade, SpeculativeProperties speculative) {
+        Set<String> models = new LinkedHashSet<>(cascade.models());
+        models.add(ollama.model());
+        if (speculative.enabled()) {
+            models.addAll(speculative.models());
+        }
+        return String.join(",", models);
+    }
+
+    private static LoadBalancingLLMAdapter balanced(
+            WebClient ollamaWebClient,
+            OllamaProperties ollama,
+            OllamaBalancingProperties balancing,
+            PromptProperties prompt,
+            GenerationProperties generation,
+            Map<String, Object> sampling
+    ) {
+        List<OllamaLLMAdapter> servers = ollama.endpoints().stream()
+                .map(endpoint -> new OllamaLLMAdapter(
+                        endpoint.equals(ollama.baseUrl()) ? ollamaWebClient : WebClient.builder().baseUrl(endpoint).build(),
+                        ollama.forEndpoint(endpoint),
+                        sampling,
+                        prompt,
+                        generation))
+                .toList();
+        return new LoadBalancingLLMAdapter(servers, balancing);
+    }
+}
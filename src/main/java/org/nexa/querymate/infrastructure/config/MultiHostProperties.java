@@ -0,0 +1,30 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for connections that list several candidate hosts.
+ * The hosts themselves are part of the connection configuration given to {@code \c}.
+ */
+@ConfigurationProperties(prefix = "querymate.hosts")
+public record MultiHostProperties(
+        int probeTimeoutMillis,
+        int connectTimeoutSeconds,
+        int reselectIntervalSeconds,
+        int switchMarginPercent
+) {
+    public MultiHostProperties {
+        if (probeTimeoutMillis <= 0) {
+            probeTimeoutMillis = 1000;
+        }
+        if (connectTimeoutSeconds <= 0) {
+            connectTimeoutSeconds = 5;
+        }
+        if (reselectIntervalSeconds <= 0) {
+            reselectIntervalSeconds = 30;
+        }
+        if (switchMarginPercent <= 0) {
+            switchMarginPercent = 25;
+        }
+    }
+}
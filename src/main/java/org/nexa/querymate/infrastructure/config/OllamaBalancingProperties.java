@@ -0,0 +1,53 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for balancing translations across several Ollama servers.
+ * The servers themselves are listed in {@code querymate.ollama.endpoints}.
+ *
+ * @param outlierFactor      a server is ejected when its smoothed first-token latency exceeds this multiple
+ *                           of the median of the other admitted servers
+ * @param ejectionSeconds    how long an ejected server sits out before a successful probe re-admits it
+ * @param hedge              whether a slow translation is duplicated on a second server
+ * @param hedgePercentile    translation latency percentile after which the duplicate is sent
+ * @param hedgeBudgetPercent most duplicates sent, as a percentage of translations
+ */
+@ConfigurationProperties(prefix = "querymate.ollama-balancing")
+public record OllamaBalancingProperties(
+        int probeIntervalSeconds,
+        double outlierFactor,
+        int ejectionSeconds,
+        Boolean hedge,
+        double hedgePercentile,
+        int hedgeBudgetPercent
+) {
+    public OllamaBalancingProperties {
+        if (probeIntervalSeconds <= 0) {
+            probeIntervalSeconds = 10;
+        }
+        if (outlierFactor <= 1) {
+            outlierFactor = 3.0;
+        }
+        if (ejectionSeconds <= 0) {
+            ejectionSeconds = 30;
+        }
+        if (hedge == null) {
+            hedge = true;
+        }
+        if (hedgePercentile <= 0 || hedgePercentile >= 100) {
+            hedgePercentile = 95;
+        }
+        if (hedgeBudgetPercent <= 0) {
+            hedgeBudgetPercent = 10;
+        }
+    }
+
+    /**
+     * The same settings without hedging, for requests that are already duplicated by design.
+     */
+    public OllamaBalancingProperties withoutHedging() {
+        return new OllamaBalancingProperties(probeIntervalSeconds, outlierFactor, ejectionSeconds, false,
+                hedgePercentile, hedgeBudgetPercent);
+    }
+}
@@ -2,18 +2,27 @@ package org.nexa.querymate.infrastructure.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.List;
+
 /**
  * Configuration properties for Ollama LLM integration.
+ *
+ * @param keepAlive how long Ollama keeps the model, and the evaluated schema prompt, loaded after a request
+ *                  (Ollama duration syntax such as {@code 30m}; {@code -1} keeps it loaded indefinitely)
+ * @param endpoints servers that translations are balanced across; defaults to {@code baseUrl} alone,
+ *                  while {@code baseUrl} defaults to the first endpoint and serves embeddings
  */
 @ConfigurationProperties(prefix = "querymate.ollama")
 public record OllamaProperties(
         String baseUrl,
         String model,
-        int timeoutSeconds
+        int timeoutSeconds,
+        String keepAlive,
+        List<String> endpoints
 ) {
     public OllamaProperties {
         if (baseUrl == null || baseUrl.isBlank()) {
-            baseUrl = "http://localhost:11434";
+            baseUrl = endpoints == null || endpoints.isEmpty() ? "http://localhost:11434" : endpoints.getFirst();
         }
         if (model == null || model.isBlank()) {
             model = "llama3.2";
@@ -21,5 +30,23 @@ public record OllamaProperties(
         if (timeoutSeconds <= 0) {
             timeoutSeconds = 60;
         }
+        if (keepAlive == null || keepAlive.isBlank()) {
+            keepAlive = "30m";
+        }
+        endpoints = endpoints == null || endpoints.isEmpty() ? List.of(baseUrl) : List.copyOf(endpoints);
+    }
+
+    /**
+     * The same settings for another model.
+     */
+    public OllamaProperties withModel(String otherModel) {
+        return new OllamaProperties(baseUrl, otherModel, timeoutSeconds, keepAlive, endpoints);
+    }
+
+    /**
+     * The same settings for a single server.
+     */
+    public OllamaProperties forEndpoint(String endpoint) {
+        return new OllamaProperties(endpoint, model, timeoutSeconds, keepAlive, List.of(endpoint));
     }
 }
@@ -0,0 +1,35 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the schema prompt sent to the model.
+ *
+ * @param compact        write each table as a DDL-like one-liner instead of one line per column
+ * @param contextTokens  largest context window ({@code num_ctx}) requested; tables beyond it are left out,
+ *                       least relevant to the question first
+ * @param responseTokens context kept free for the generated statement
+ * @param charsPerToken  initial estimate of characters per token, refined from the counts Ollama reports
+ */
+@ConfigurationProperties(prefix = "querymate.prompt")
+public record PromptProperties(
+        Boolean compact,
+        int contextTokens,
+        int responseTokens,
+        double charsPerToken
+) {
+    public PromptProperties {
+        if (compact == null) {
+            compact = true;
+        }
+        if (contextTokens <= 0) {
+            contextTokens = 8192;
+        }
+        if (responseTokens <= 0) {
+            responseTokens = 512;
+        }
+        if (charsPerToken <= 0) {
+            charsPerToken = 3.5;
+        }
+    }
+}
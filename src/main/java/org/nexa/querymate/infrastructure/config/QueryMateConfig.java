@@ -1,12 +1,41 @@
 package org.nexa.querymate.infrastructure.config;
 
+import org.nexa.querymate.domain.query.QueryBudget;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * Main configuration class for QueryMate.
  */
 @Configuration
-@EnableConfigurationProperties(OllamaProperties.class)
+@EnableConfigurationProperties({
+        OllamaProperties.class,
+        OllamaBalancingProperties.class,
+        CascadeProperties.class,
+        SpeculativeProperties.class,
+        RulesProperties.class,
+        PromptProperties.class,
+        GenerationProperties.class,
+        ShardingProperties.class,
+        ReplicaRoutingProperties.class,
+        MultiHostProperties.class,
+        FederationProperties.class,
+        TranslationCacheProperties.class,
+        SemanticCacheProperties.class,
+        TemplateCacheProperties.class,
+        BatchProperties.class,
+        QueryProperties.class
+})
 public class QueryMateConfig {
+
+    /**
+     * The time every natural language query starts with.
+     */
+    @Bean
+    public QueryBudget queryBudget(QueryProperties properties) {
+        return new QueryBudget(Duration.ofSeconds(properties.timeoutSeconds()));
+    }
 }
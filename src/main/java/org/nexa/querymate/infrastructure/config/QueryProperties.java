@@ -0,0 +1,21 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.nexa.querymate.domain.query.QueryBudget;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for answering natural language queries.
+ *
+ * @param timeoutSeconds time from the question to its rows; translation takes what it needs and the statement
+ *                       gets the rest
+ */
+@ConfigurationProperties(prefix = "querymate.query")
+public record QueryProperties(
+        int timeoutSeconds
+) {
+    public QueryProperties {
+        if (timeoutSeconds <= 0) {
+            timeoutSeconds = (int) QueryBudget.DEFAULT.total().toSeconds();
+        }
+    }
+}
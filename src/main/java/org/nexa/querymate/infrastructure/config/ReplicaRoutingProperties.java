@@ -0,0 +1,30 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for routing read-only statements to read replicas.
+ * Replicas themselves are part of the connection configuration given to {@code \c}.
+ */
+@ConfigurationProperties(prefix = "querymate.replicas")
+public record ReplicaRoutingProperties(
+        Boolean routeDirectSql,
+        Boolean routeNaturalLanguage,
+        int maxLagSeconds,
+        int lagCheckIntervalSeconds
+) {
+    public ReplicaRoutingProperties {
+        if (routeDirectSql == null) {
+            routeDirectSql = true;
+        }
+        if (routeNaturalLanguage == null) {
+            routeNaturalLanguage = true;
+        }
+        if (maxLagSeconds <= 0) {
+            maxLagSeconds = 10;
+        }
+        if (lagCheckIntervalSeconds <= 0) {
+            lagCheckIntervalSeconds = 5;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for translating the simplest questions by pattern instead of asking the model.
+ */
+@ConfigurationProperties(prefix = "querymate.rules")
+public record RulesProperties(
+        Boolean enabled
+) {
+    public RulesProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+    }
+}
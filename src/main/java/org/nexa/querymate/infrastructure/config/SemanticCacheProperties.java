@@ -0,0 +1,47 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for reusing translations of similarly phrased questions.
+ *
+ * @param similarityThreshold minimum cosine similarity between two questions' embeddings to reuse a translation
+ * @param persistFile         file the index is saved to on shutdown and restored from; memory only when unset
+ * @param hnswM               graph links per node; higher improves recall at the cost of memory
+ * @param efSearch            candidates examined per lookup; higher improves recall at the cost of latency
+ */
+@ConfigurationProperties(prefix = "querymate.semantic-cache")
+public record SemanticCacheProperties(
+        boolean enabled,
+        String embeddingModel,
+        double similarityThreshold,
+        int maxEntries,
+        String persistFile,
+        int hnswM,
+        int efConstruction,
+        int efSearch
+) {
+    public SemanticCacheProperties {
+        if (embeddingModel == null || embeddingModel.isBlank()) {
+            embeddingModel = "nomic-embed-text";
+        }
+        if (similarityThreshold <= 0 || similarityThreshold > 1) {
+            similarityThreshold = 0.92;
+        }
+        if (maxEntries <= 0) {
+            maxEntries = 100_000;
+        }
+        if (persistFile != null && persistFile.isBlank()) {
+            persistFile = null;
+        }
+        if (hnswM <= 1) {
+            hnswM = 16;
+        }
+        if (efConstruction <= 0) {
+            efConstruction = 200;
+        }
+        if (efSearch <= 0) {
+            efSearch = 64;
+        }
+    }
+}
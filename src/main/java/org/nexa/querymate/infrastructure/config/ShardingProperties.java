@@ -0,0 +1,47 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Configuration properties for fanning statements out across database shards.
+ * Sharding is enabled when at least one node is configured; leave {@code nodes} out to disable it.
+ */
+@ConfigurationProperties(prefix = "querymate.sharding")
+public record ShardingProperties(
+        List<Node> nodes,
+        Boolean allowPartialResults
+) {
+    public ShardingProperties {
+        if (nodes != null && nodes.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "querymate.sharding.nodes lists no shards; remove it to disable sharding");
+        }
+        nodes = nodes == null ? List.of() : List.copyOf(nodes);
+        if (allowPartialResults == null) {
+            allowPartialResults = true;
+        }
+    }
+
+    public boolean enabled() {
+        return !nodes.isEmpty();
+    }
+
+    /**
+     * A single shard. Credentials are taken from the connection established with {@code \c}.
+     */
+    public record Node(
+            String host,
+            int port,
+            String database
+    ) {
+        public Node {
+            Objects.requireNonNull(host, "Shard host cannot be null");
+            if (port <= 0) {
+                port = 5432;
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Configuration properties for generating several candidate translations at once and running the best one.
+ *
+ * @param candidates         translations requested per question, including the main model's; 1 disables speculation
+ * @param maxTemperature     sampling temperature of the last extra candidate; the others are spread evenly below it
+ * @param selection          which valid candidate wins
+ * @param cheapestWaitMillis with {@link Selection#CHEAPEST}, how long to wait for cheaper candidates
+ *                           after the first valid one
+ * @param models             models for the extra candidates, used in turn; empty uses the main model
+ */
+@ConfigurationProperties(prefix = "querymate.speculative")
+public record SpeculativeProperties(
+        int candidates,
+        double maxTemperature,
+        Selection selection,
+        int cheapestWaitMillis,
+        List<String> models
+) {
+    public enum Selection {
+        /**
+         * The first candidate that passes validation.
+         */
+        FIRST_VALID,
+        /**
+         * The valid candidate with the lowest planner cost.
+         */
+        CHEAPEST
+    }
+
+    public SpeculativeProperties {
+        if (candidates <= 0) {
+            candidates = 1;
+        }
+        if (maxTemperature <= 0) {
+            maxTemperature = 0.8;
+        }
+        if (selection == null) {
+            selection = Selection.FIRST_VALID;
+        }
+        if (cheapestWaitMillis <= 0) {
+            cheapestWaitMillis = 500;
+        }
+        models = models == null ? List.of() : List.copyOf(models);
+    }
+
+    public boolean enabled() {
+        return candidates > 1;
+    }
+}
@@ -0,0 +1,23 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for reusing translations of questions that differ only in their literals.
+ *
+ * @param maxEntries number of templates kept; the least recently used is dropped first
+ */
+@ConfigurationProperties(prefix = "querymate.template-cache")
+public record TemplateCacheProperties(
+        Boolean enabled,
+        int maxEntries
+) {
+    public TemplateCacheProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (maxEntries <= 0) {
+            maxEntries = 500;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for caching natural language to SQL translations.
+ *
+ * @param persistFile file the cache is saved to and restored from; memory only when unset
+ */
+@ConfigurationProperties(prefix = "querymate.translation-cache")
+public record TranslationCacheProperties(
+        Boolean enabled,
+        int maxEntries,
+        int ttlMinutes,
+        String persistFile
+) {
+    public TranslationCacheProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (maxEntries <= 0) {
+            maxEntries = 1000;
+        }
+        if (ttlMinutes <= 0) {
+            ttlMinutes = 24 * 60;
+        }
+        if (persistFile != null && persistFile.isBlank()) {
+            persistFile = null;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.nexa.querymate.application.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.nexa.querymate.application.ports.out.ConnectionPorts;
+import org.nexa.querymate.application.ports.out.DatabasePort;
+import org.nexa.querymate.application.ports.out.ModelLifecyclePort;
+import org.nexa.querymate.application.ports.out.SchemaDiscoveryPort;
+import org.nexa.querymate.domain.connection.Connection;
+import org.nexa.querymate.domain.connection.ConnectionConfig;
+import org.nexa.querymate.domain.connection.HostAddress;
+import org.nexa.querymate.domain.exception.ConnectionException;
+import org.nexa.querymate.domain.query.QueryResult;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ConnectionService")
+class ConnectionServiceTest {
+
+    private static final ConnectionConfig PROD = new ConnectionConfig("prod-db", 5432, "app", "user", "pass");
+    private static final ConnectionConfig ANALYTICS = new ConnectionConfig("warehouse", 5432, "events", "user", "pass");
+
+    private final List<ConnectionPorts> created = new ArrayList<>();
+    private ConnectionRegistry registry;
+    private ModelLifecyclePort modelLifecycle;
+    private ConnectionService connectionService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ConnectionRegistry();
+        modelLifecycle = mock(ModelLifecyclePort.class);
+        // Warm-ups run inline, so they have finished when connect returns
+        ModelService modelService = new ModelService(modelLifecycle, registry, Runnable::run);
+        connectionService = new ConnectionService(() -> {
+            DatabasePort database = mock(DatabasePort.class);
+            when(database.execute(any(), any())).thenReturn(QueryResult.affected(0, Duration.ZERO));
+            when(database.execute(any(), any(), any())).thenReturn(QueryResult.affected(0, Duration.ZERO));
+            SchemaDiscoveryPort schemaDiscovery = mock(SchemaDiscoveryPort.class);
+            when(schemaDiscovery.discoverSchema()).thenReturn(new SchemaContext(List.of()));
+            ConnectionPorts ports = new ConnectionPorts(database, schemaDiscovery);
+            created.add(ports);
+            return ports;
+        }, registry, modelService);
+    }
+
+    @Nested
+    @DisplayName("when connecting fails")
+    class WhenConnectFails {
+
+        @Test
+        @DisplayName("should name every host that was tried")
+        void shouldNameEveryHostTried() {
+            DatabasePort database = mock(DatabasePort.class);
+            doThrow(new IllegalStateException("refused")).when(database).connect(any());
+            ConnectionService failing = new ConnectionService(
+                    () -> new ConnectionPorts(database, mock(SchemaDiscoveryPort.class)),
+                    registry, new ModelService(modelLifecycle, registry, Runnable::run));
+            ConnectionConfig config = new ConnectionConfig("db1", 5432, "app", "user", "pass",
+                    List.of(), List.of(HostAddress.parse("db2:5433")));
+
+            assertThatThrownBy(() -> failing.connect(config))
+                    .isInstanceOf(ConnectionException.class)
+                    .hasMessageContaining("db1:5432")
+                    .hasMessageContaining("db2:5433");
+        }
+    }
+
+    @Nested
+    @DisplayName("when several connections are open")
+    class WhenSeveralOpen {
+
+        @Test
+        @DisplayName("should keep earlier connections open and make the newest active")
+        void shouldKeepConnectionsOpen() {
+            connectionService.connect(PROD);
+            connectionService.connect("analytics", ANALYTICS);
+
+            assertThat(connectionService.connections()).extracting(Connection::name).containsExactly("analytics", "app");
+            assertThat(connectionService.activeConnection()).map(Connection::name).contains("analytics");
+            verify(created.get(0).database(), never()).disconnect();
+        }
+
+        @Test
+        @DisplayName("should switch without reconnecting")
+        void shouldSwitch() {
+            connectionService.connect(PROD);
+            connectionService.connect("analytics", ANALYTICS);
+
+            connectionService.switchTo("app");
+
+            assertThat(connectionService.activeConnection()).map(Connection::name).contains("app");
+            verify(created.get(0).database(), times(1)).connect(PROD);
+        }
+
+        @Test
+        @DisplayName("should reject switching to an unknown connection")
+        void shouldRejectUnknownSwitch() {
+            connectionService.connect(PROD);
+
+            assertThatThrownBy(() -> connectionService.switchTo("missing"))
+                    .isInstanceOf(ConnectionException.class)
+                    .hasMessageContaining("missing");
+        }
+
+        @Test
+        @DisplayName("should close only the connection replaced under the same name")
+        void shouldReplaceSameName() {
+            Connection first = connectionService.connect(PROD);
+            connectionService.connect("analytics", ANALYTICS);
+            connectionService.connect(PROD);
+
+            assertThat(first.isConnected()).isFalse();
+            verify(created.get(0).database()).disconnect();
+            verify(created.get(1).database(), never()).disconnect();
+            assertThat(connectionService.connections()).hasSize(2);
+        }
+
+        @Test
+        @DisplayName("should fall back to another open connection when the active one is closed")
+        void shouldFallBackOnDisconnect() {
+            connectionService.connect(PROD);
+            Connection analytics = connectionService.connect("analytics", ANALYTICS);
+
+            connectionService.disconnect(analytics.id());
+
+            assertThat(connectionService.activeConnection()).map(Connection::name).contains("app");
+        }
+    }
+
+    @Nested
+    @DisplayName("when managing the model")
+    class WhenManagingModel {
+
+        @Test
+        @DisplayName("should warm the model up with the schema of each opened or activated connection")
+        void shouldWarmUpOnConnectAndSwitch() {
+            connectionService.connect(PROD);
+            connectionService.connect("analytics", ANALYTICS);
+            connectionService.switchTo("app");
+
+            verify(modelLifecycle, times(3)).warmUp(any(SchemaContext.class));
+            verify(created.get(0).schemaDiscovery(), times(1)).discoverSchema();
+        }
+
+        @Test
+        @DisplayName("should release the model once the last connection closes")
+        void shouldReleaseAfterLastDisconnect() {
+            Connection prod = connectionService.connect(PROD);
+            Connection analytics = connectionService.connect("analytics", ANALYTICS);
+
+            connectionService.disconnect(prod.id());
+            verify(modelLifecycle, never()).release();
+
+            connectionService.disconnect(analytics.id());
+            verify(modelLifecycle).release();
+        }
+    }
+}
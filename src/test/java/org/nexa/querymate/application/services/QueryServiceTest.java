@@ -0,0 +1,391 @@
+package org.nexa.querymate.application.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.nexa.querymate.application.ports.out.ConnectionPorts;
+import org.nexa.querymate.application.ports.out.DatabasePort;
+import org.nexa.querymate.application.ports.out.FederatedQueryPort;
+import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.application.ports.out.ModelLifecyclePort;
+import org.nexa.querymate.application.ports.out.SchemaDiscoveryPort;
+import org.nexa.querymate.domain.connection.ConnectionConfig;
+import org.nexa.querymate.domain.exception.QueryExecutionException;
+import org.nexa.querymate.domain.exception.TranslationException;
+import org.nexa.querymate.domain.query.BatchOutcome;
+import org.nexa.querymate.domain.query.Deadline;
+import org.nexa.querymate.domain.query.Query;
+import org.nexa.querymate.domain.query.QueryBudget;
+import org.nexa.querymate.domain.query.QueryOrigin;
+import org.nexa.querymate.domain.query.QueryResult;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("QueryService")
+class QueryServiceTest {
+
+    private static final ConnectionConfig PROD = new ConnectionConfig("prod-db", 5432, "app", "user", "pass");
+    private static final ConnectionConfig ANALYTICS = new ConnectionConfig("warehouse", 5432, "events", "user", "pass");
+
+    private final List<ConnectionPorts> created = new ArrayList<>();
+    private final LLMPort llmPort = mock(LLMPort.class);
+    private final FederatedQueryPort federatedQueryPort = mock(FederatedQueryPort.class);
+    private ConnectionRegistry registry;
+    private ModelLifecyclePort modelLifecycle;
+    private ModelService modelService;
+    private ConnectionService connectionService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ConnectionRegistry();
+        modelLifecycle = mock(ModelLifecyclePort.class);
+        // Warm-ups run inline, so they have finished when connect returns
+        modelService = new ModelService(modelLifecycle, registry, Runnable::run);
+        connectionService = new ConnectionService(() -> {
+            DatabasePort database = mock(DatabasePort.class);
+            when(database.execute(any(), any())).thenReturn(QueryResult.affected(0, Duration.ZERO));
+            when(database.execute(any(), any(), any())).thenReturn(QueryResult.affected(0, Duration.ZERO));
+            SchemaDiscoveryPort schemaDiscovery = mock(SchemaDiscoveryPort.class);
+            when(schemaDiscovery.discoverSchema()).thenReturn(new SchemaContext(List.of()));
+            ConnectionPorts ports = new ConnectionPorts(database, schemaDiscovery);
+            created.add(ports);
+            return ports;
+        }, registry, modelService);
+    }
+
+    private QueryService queryService() {
+        return queryService(new QueryBudget(Duration.ofSeconds(30)));
+    }
+
+    private QueryService queryService(QueryBudget budget) {
+        return new QueryService(registry, llmPort, federatedQueryPort, modelService, budget);
+    }
+
+    /**
+     * Runs a statement that changes the schema, so the next question on the connection discovers it again.
+     */
+    private void invalidateSchema(QueryService queryService, String connectionName) {
+        queryService.executeSql(connectionName, SqlStatement.of("CREATE TABLE t (id int)"));
+    }
+
+    @Nested
+    @DisplayName("when querying named connections")
+    class WhenQuerying {
+
+        @Test
+        @DisplayName("should run on the targeted connection and reuse its cached schema")
+        void shouldTargetConnectionAndCacheSchema() {
+            when(llmPort.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of("SELECT 1"));
+            QueryService queryService = queryService();
+            connectionService.connect("analytics", ANALYTICS);
+            connectionService.connect(PROD);
+
+            queryService.executeNaturalLanguage("analytics", NaturalLanguageQuery.of("how many events"));
+            queryService.executeNaturalLanguage("analytics", NaturalLanguageQuery.of("how many users"));
+
+            ConnectionPorts analytics = created.get(0);
+            verify(analytics.schemaDiscovery(), times(1)).discoverSchema();
+            verify(analytics.database(), times(2)).execute(any(), any(), any());
+            verify(created.get(1).database(), never()).execute(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should validate generated statements on the connection they target")
+        void shouldValidateOnTargetConnection() {
+            List<String> problems = new ArrayList<>();
+            when(llmPort.translate(any(), any(), any(), any())).thenAnswer(invocation -> {
+                SqlValidator validator = invocation.getArgument(3);
+                problems.add(validator.check(SqlStatement.of("SELECT missing FROM users")).problem());
+                return SqlStatement.of("SELECT 1");
+            });
+            QueryService queryService = queryService();
+            connectionService.connect(PROD);
+            doThrow(QueryExecutionException.validationFailed("SELECT missing FROM users",
+                    new IllegalStateException("column \"missing\" does not exist")))
+                    .when(created.get(0).database()).validate(any());
+
+            queryService.executeNaturalLanguage(NaturalLanguageQuery.of("list users"));
+
+            assertThat(problems).containsExactly("column \"missing\" does not exist");
+        }
+
+        @Test
+        @DisplayName("should translate a batch with bounded parallelism against one schema")
+        void shouldRunBatchWithBoundedParallelism() {
+            int parallelism = 3;
+            AtomicInteger inFlight = new AtomicInteger();
+            AtomicInteger maxObserved = new AtomicInteger();
+            // The first translations hold until the batch has as many running as it may
+            CountDownLatch atCapacity = new CountDownLatch(parallelism);
+            AtomicInteger started = new AtomicInteger();
+            ConcurrentLinkedQueue<Boolean> reachedCapacity = new ConcurrentLinkedQueue<>();
+            when(llmPort.translate(any(), any(), any(), any())).thenAnswer(invocation -> {
+                maxObserved.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    if (started.incrementAndGet() <= parallelism) {
+                        atCapacity.countDown();
+                        reachedCapacity.add(atCapacity.await(5, TimeUnit.SECONDS));
+                    }
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                NaturalLanguageQuery question = invocation.getArgument(0);
+                if (question.value().contains("broken")) {
+                    throw new IllegalStateException("cannot translate");
+                }
+                return SqlStatement.of("SELECT '%s'".formatted(question.value()));
+            });
+            QueryService queryService = queryService();
+            connectionService.connect(PROD);
+            List<NaturalLanguageQuery> questions = IntStream.range(0, 12)
+                    .mapToObj(i -> NaturalLanguageQuery.of(i == 5 ? "broken question" : "question " + i))
+                    .toList();
+            List<Integer> reported = new ArrayList<>();
+
+            List<BatchOutcome> outcomes = queryService.executeNaturalLanguageBatch(questions, true, parallelism,
+                    outcome -> reported.add(outcome.index()));
+
+            assertThat(outcomes).extracting(BatchOutcome::index).containsExactlyElementsOf(IntStream.range(0, 12).boxed().toList());
+            assertThat(reported).containsExactlyInAnyOrderElementsOf(IntStream.range(0, 12).boxed().toList());
+            assertThat(outcomes.get(5).error()).isEqualTo("cannot translate");
+            assertThat(outcomes).filteredOn(outcome -> !outcome.isFailed()).allMatch(outcome -> outcome.query().isCompleted());
+            assertThat(reachedCapacity).containsExactly(true, true, true);
+            assertThat(maxObserved.get()).isEqualTo(parallelism);
+            verify(created.get(0).schemaDiscovery(), times(1)).discoverSchema();
+            verify(created.get(0).database(), times(11)).execute(any(), any(), eq(Deadline.NONE));
+        }
+    }
+
+    @Nested
+    @DisplayName("when translating next to independent work")
+    class WhenOverlapping {
+
+        @Test
+        @DisplayName("should prepare the connection while the model is generating")
+        void shouldPrepareWhileTranslating() {
+            CountDownLatch prepared = new CountDownLatch(1);
+            AtomicBoolean overlapped = new AtomicBoolean();
+            when(llmPort.translate(any(), any(), any(), any())).thenAnswer(invocation -> {
+                overlapped.set(prepared.await(5, TimeUnit.SECONDS));
+                return SqlStatement.of("SELECT 1");
+            });
+            QueryService queryService = queryService();
+            connectionService.connect(PROD);
+            doAnswer(invocation -> {
+                prepared.countDown();
+                return null;
+            }).when(created.get(0).database()).prepare();
+
+            queryService.executeNaturalLanguage(NaturalLanguageQuery.of("list users"));
+
+            assertThat(overlapped).isTrue();
+        }
+
+        @Test
+        @DisplayName("should load the model while the schema is discovered")
+        void shouldLoadModelWhileDiscovering() {
+            when(llmPort.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of("SELECT 1"));
+            QueryService queryService = queryService();
+            connectionService.connect(PROD);
+            invalidateSchema(queryService, "app");
+            CountDownLatch loading = new CountDownLatch(1);
+            AtomicBoolean overlapped = new AtomicBoolean();
+            doAnswer(invocation -> {
+                loading.countDown();
+                return null;
+            }).when(modelLifecycle).warmUp(null);
+            when(created.get(0).schemaDiscovery().discoverSchema()).thenAnswer(invocation -> {
+                overlapped.set(loading.await(5, TimeUnit.SECONDS));
+                return new SchemaContext(List.of());
+            });
+
+            queryService.executeNaturalLanguage(NaturalLanguageQuery.of("list users"));
+
+            assertThat(overlapped).isTrue();
+        }
+
+        @Test
+        @DisplayName("should still answer when the model cannot be loaded")
+        void shouldAnswerWhileModelUnavailable() {
+            when(llmPort.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of("SELECT 1"));
+            QueryService queryService = queryService();
+            connectionService.connect(PROD);
+            invalidateSchema(queryService, "app");
+            doThrow(new IllegalStateException("Connection refused")).when(modelLifecycle).warmUp(null);
+
+            Query query = queryService.executeNaturalLanguage(NaturalLanguageQuery.of("list users"));
+
+            assertThat(query.isCompleted()).isTrue();
+            verify(modelLifecycle).warmUp(null);
+        }
+
+        @Test
+        @DisplayName("should not hold up a translation answered without the model while it loads")
+        void shouldNotWaitForModelLoad() throws InterruptedException {
+            when(llmPort.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of("SELECT 1"));
+            connectionService.connect(PROD);
+            invalidateSchema(queryService(), "app");
+            CountDownLatch loaded = new CountDownLatch(1);
+            CountDownLatch loading = new CountDownLatch(1);
+            doAnswer(invocation -> {
+                loading.countDown();
+                loaded.await(5, TimeUnit.SECONDS);
+                return null;
+            }).when(modelLifecycle).warmUp(null);
+            ExecutorService warmUps = Executors.newSingleThreadExecutor();
+            modelService = new ModelService(modelLifecycle, registry, warmUps);
+
+            try {
+                Query query = queryService(new QueryBudget(Duration.ofMillis(500)))
+                        .executeNaturalLanguage(NaturalLanguageQuery.of("list users"));
+
+                assertThat(query.isCompleted()).isTrue();
+                assertThat(loading.await(1, TimeUnit.SECONDS)).isTrue();
+                assertThat(loaded.getCount()).isEqualTo(1);
+            } finally {
+                loaded.countDown();
+                warmUps.shutdown();
+            }
+        }
+
+        @Test
+        @DisplayName("should discover the schemas of several connections side by side")
+        void shouldDiscoverSchemasConcurrently() {
+            when(llmPort.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of("SELECT 1"));
+            QueryService queryService = queryService();
+            connectionService.connect("analytics", ANALYTICS);
+            connectionService.connect(PROD);
+            invalidateSchema(queryService, "analytics");
+            invalidateSchema(queryService, "app");
+            CountDownLatch discovering = new CountDownLatch(2);
+            for (ConnectionPorts ports : created) {
+                when(ports.schemaDiscovery().discoverSchema()).thenAnswer(invocation -> {
+                    discovering.countDown();
+                    if (!discovering.await(5, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("discovered one schema at a time");
+                    }
+                    return new SchemaContext(List.of());
+                });
+            }
+
+            queryService.executeNaturalLanguage(List.of("analytics", "app"), NaturalLanguageQuery.of("compare"));
+
+            verify(created.get(0).database(), times(1)).execute(eq(SqlStatement.of("SELECT 1")), any(), any());
+        }
+
+        @Test
+        @DisplayName("should cancel the translation at the deadline")
+        void shouldCancelAtDeadline() throws InterruptedException {
+            CountDownLatch never = new CountDownLatch(1);
+            CountDownLatch translationCancelled = new CountDownLatch(1);
+            when(llmPort.translate(any(), any(), any(), any())).thenAnswer(invocation -> {
+                try {
+                    never.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    translationCancelled.countDown();
+                }
+                return SqlStatement.of("SELECT 1");
+            });
+            QueryService queryService = queryService(new QueryBudget(Duration.ofMillis(100)));
+            connectionService.connect(PROD);
+
+            assertThatThrownBy(() -> queryService.executeNaturalLanguage(NaturalLanguageQuery.of("list users")))
+                    .isInstanceOf(TranslationException.class)
+                    .hasMessage("Translation request timed out");
+            assertThat(translationCancelled.await(1, TimeUnit.SECONDS)).isTrue();
+            verify(created.get(0).database(), never()).execute(any(), any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("when a query has a time budget")
+    class WhenBudgeted {
+
+        @Test
+        @DisplayName("should run the statement with what the translation left of the budget")
+        void shouldPassRemainingBudgetToDatabase() {
+            when(llmPort.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of("SELECT 1"));
+            QueryService queryService = queryService(new QueryBudget(Duration.ofSeconds(30)));
+            connectionService.connect(PROD);
+            ArgumentCaptor<Deadline> deadline = ArgumentCaptor.forClass(Deadline.class);
+
+            queryService.executeNaturalLanguage(NaturalLanguageQuery.of("list users"));
+
+            verify(created.get(0).database()).execute(eq(SqlStatement.of("SELECT 1")), any(), deadline.capture());
+            assertThat(deadline.getValue().budget()).isEqualTo(Duration.ofSeconds(30));
+            assertThat(deadline.getValue().remaining()).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(30));
+        }
+
+        @Test
+        @DisplayName("should pass what is left of the budget to a cross-database statement")
+        void shouldPassRemainingBudgetToFederatedQuery() {
+            SqlStatement federated = SqlStatement.of("SELECT u.name FROM @app.users u JOIN @analytics.events e ON e.user_id = u.id");
+            when(llmPort.translate(any(), any(), any(), any())).thenReturn(federated);
+            when(federatedQueryPort.isFederated(federated)).thenReturn(true);
+            when(federatedQueryPort.execute(any(), any(), any(), any())).thenReturn(QueryResult.affected(0, Duration.ZERO));
+            QueryService queryService = queryService(new QueryBudget(Duration.ofSeconds(30)));
+            connectionService.connect("analytics", ANALYTICS);
+            connectionService.connect(PROD);
+            ArgumentCaptor<Deadline> deadline = ArgumentCaptor.forClass(Deadline.class);
+
+            queryService.executeNaturalLanguage(List.of("analytics", "app"), NaturalLanguageQuery.of("names of active users"));
+
+            verify(federatedQueryPort).execute(eq(federated), eq(QueryOrigin.NATURAL_LANGUAGE), deadline.capture(), any());
+            assertThat(deadline.getValue().budget()).isEqualTo(Duration.ofSeconds(30));
+        }
+
+        @Test
+        @DisplayName("should show the translation time and the budget left with the result")
+        void shouldReportWhereTheTimeWent() {
+            when(llmPort.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of("SELECT 1"));
+            QueryService queryService = queryService(new QueryBudget(Duration.ofSeconds(30)));
+            connectionService.connect(PROD);
+
+            Query query = queryService.executeNaturalLanguage(NaturalLanguageQuery.of("list users"));
+
+            assertThat(query.result().metadata().timings())
+                    .extracting(QueryResult.Timing::label)
+                    .containsExactly("translation", "budget left (of 30s)");
+        }
+
+        @Test
+        @DisplayName("should leave statements run directly unbounded")
+        void shouldNotBoundDirectSql() {
+            QueryService queryService = queryService(new QueryBudget(Duration.ofMillis(1)));
+            connectionService.connect(PROD);
+
+            Query query = queryService.executeSql(SqlStatement.of("SELECT 1"));
+
+            assertThat(query.isCompleted()).isTrue();
+            verify(created.get(0).database()).execute(SqlStatement.of("SELECT 1"), QueryOrigin.DIRECT_SQL, Deadline.NONE);
+        }
+    }
+}
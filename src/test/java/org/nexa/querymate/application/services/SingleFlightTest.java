@@ -0,0 +1,305 @@
+package org.nexa.querymate.application.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.nexa.querymate.domain.exception.QueryExecutionException;
+import org.nexa.querymate.domain.query.Deadline;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SingleFlight")
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    /**
+     * Starts {@link #CALLERS} calls for the same key whose work blocks until all of them have joined.
+     */
+    private static List<Future<String>> burst(SingleFlight<String, String> flight, ExecutorService executor,
+                                              AtomicInteger runs, CountDownLatch release) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(CALLERS);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                started.countDown();
+                return flight.run("question", () -> {
+                    runs.incrementAndGet();
+                    await(release);
+                    return "SELECT 1";
+                });
+            }));
+        }
+        started.await();
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Nested
+    @DisplayName("when identical requests overlap")
+    class WhenOverlapping {
+
+        @Test
+        @DisplayName("should run the work once and give every caller its result")
+        void shouldShareOneExecution() throws Exception {
+            SingleFlight<String, String> flight = new SingleFlight<>(16);
+            AtomicInteger runs = new AtomicInteger();
+            CountDownLatch release = new CountDownLatch(1);
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<String>> results = burst(flight, executor, runs, release);
+                // Give the other callers time to find the running request before it completes
+                Thread.sleep(100);
+                release.countDown();
+                for (Future<String> result : results) {
+                    assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("SELECT 1");
+                }
+            }
+
+            assertThat(runs).hasValue(1);
+            assertThat(flight.executions()).isEqualTo(1);
+            assertThat(flight.shared()).isEqualTo(CALLERS - 1);
+        }
+
+        @Test
+        @DisplayName("should pass the failure of the shared work to every waiting caller")
+        void shouldShareFailure() throws Exception {
+            SingleFlight<String, String> flight = new SingleFlight<>(16);
+            CountDownLatch waiting = new CountDownLatch(1);
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                Future<String> leader = executor.submit(() -> flight.run("q", () -> {
+                    await(waiting);
+                    throw new IllegalStateException("model unavailable");
+                }));
+                Thread.sleep(50);
+                Future<String> follower = executor.submit(() -> flight.run("q", () -> "never run"));
+                Thread.sleep(50);
+                waiting.countDown();
+
+                assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("model unavailable");
+                assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("model unavailable");
+            }
+        }
+
+        @Test
+        @DisplayName("should run the work again for a waiter whose leader was interrupted")
+        void shouldRetryAfterInterruptedLeader() throws Exception {
+            SingleFlight<String, String> flight = new SingleFlight<>(16);
+            CountDownLatch leaderRunning = new CountDownLatch(1);
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                Future<String> leader = executor.submit(() -> flight.run("q", () -> {
+                    leaderRunning.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                        return "too late";
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("interrupted", e);
+                    }
+                }));
+                leaderRunning.await();
+                Future<String> follower = executor.submit(() -> flight.run("q", () -> "SELECT 2"));
+                Thread.sleep(50);
+                leader.cancel(true);
+
+                assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("SELECT 2");
+            }
+            assertThat(flight.executions()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("when the work completes a future")
+    class WhenAsync {
+
+        @Test
+        @DisplayName("should share the running future without holding a thread per caller")
+        void shouldShareFuture() {
+            SingleFlight<String, String> flight = new SingleFlight<>(16);
+            CompletableFuture<String> work = new CompletableFuture<>();
+            AtomicInteger runs = new AtomicInteger();
+
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(flight.runAsync("question", () -> {
+                    runs.incrementAndGet();
+                    return work;
+                }));
+            }
+            assertThat(results).noneMatch(CompletableFuture::isDone);
+            work.complete("SELECT 1");
+
+            assertThat(results).allMatch(result -> "SELECT 1".equals(result.join()));
+            assertThat(runs).hasValue(1);
+            assertThat(flight.shared()).isEqualTo(CALLERS - 1);
+        }
+
+        @Test
+        @DisplayName("should share an asynchronous execution with a blocking caller")
+        void shouldShareWithBlockingCaller() throws Exception {
+            SingleFlight<String, String> flight = new SingleFlight<>(16);
+            CompletableFuture<String> work = new CompletableFuture<>();
+            flight.runAsync("q", () -> work);
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                Future<String> blocking = executor.submit(() -> flight.run("q", () -> "ran again"));
+                Thread.sleep(50);
+                work.complete("SELECT 1");
+
+                assertThat(blocking.get(5, TimeUnit.SECONDS)).isEqualTo("SELECT 1");
+            }
+            assertThat(flight.executions()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should run the work again for a waiter whose leader was cancelled")
+        void shouldRetryAfterCancelledLeader() {
+            SingleFlight<String, String> flight = new SingleFlight<>(16);
+            CompletableFuture<String> leader = flight.runAsync("q", CompletableFuture::new);
+            CompletableFuture<String> follower = flight.runAsync("q", () -> CompletableFuture.completedFuture("SELECT 2"));
+
+            leader.cancel(true);
+
+            assertThat(follower.join()).isEqualTo("SELECT 2");
+            assertThat(flight.executions()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should pass the failure of the shared work to every waiting caller")
+        void shouldShareFailure() {
+            SingleFlight<String, String> flight = new SingleFlight<>(16);
+            CompletableFuture<String> work = new CompletableFuture<>();
+            flight.runAsync("q", () -> work);
+            CompletableFuture<String> follower = flight.runAsync("q", () -> CompletableFuture.completedFuture("never"));
+
+            work.completeExceptionally(new IllegalStateException("model unavailable"));
+
+            assertThatThrownBy(follower::join)
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("model unavailable");
+        }
+    }
+
+    @Nested
+    @DisplayName("when callers have deadlines")
+    class WhenBudgeted {
+
+        @Test
+        @DisplayName("should stop waiting at the caller's own deadline and leave the shared work running")
+        void shouldStopWaitingAtOwnDeadline() throws Exception {
+            SingleFlight<String, String> flight = new SingleFlight<>(16);
+            CountDownLatch running = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                Future<String> leader = executor.submit(() -> flight.run("q", () -> {
+                    running.countDown();
+                    await(release);
+                    return "SELECT 1";
+                }));
+                running.await();
+
+                assertThatThrownBy(() -> flight.run("q", Deadline.after(Duration.ofMillis(50)), () -> "never run"))
+                        .isInstanceOf(QueryExecutionException.class)
+                        .hasMessageContaining("50 ms budget");
+
+                release.countDown();
+                assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("SELECT 1");
+            }
+            assertThat(flight.executions()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should run the work again for a waiter whose leader ran out of time")
+        void shouldRetryAfterLeaderDeadline() throws Exception {
+            SingleFlight<String, String> flight = new SingleFlight<>(16);
+            Deadline spent = new Deadline(Instant.now().minusSeconds(1), Duration.ofSeconds(1));
+            CountDownLatch running = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicReference<Thread> waiter = new AtomicReference<>();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                Future<String> leader = executor.submit(() -> flight.run("q", spent, () -> {
+                    running.countDown();
+                    await(release);
+                    throw QueryExecutionException.deadlineExceeded(spent.budget());
+                }));
+                running.await();
+                Future<String> follower = executor.submit(() -> {
+                    waiter.set(Thread.currentThread());
+                    return flight.run("q", () -> "SELECT 2");
+                });
+                awaitWaiting(waiter);
+                release.countDown();
+
+                assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasRootCauseInstanceOf(QueryExecutionException.class);
+                assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("SELECT 2");
+            }
+            assertThat(flight.executions()).isEqualTo(2);
+        }
+
+        /**
+         * Returns once the thread is blocked waiting, i.e. has found the running work.
+         */
+        private static void awaitWaiting(AtomicReference<Thread> thread) throws InterruptedException {
+            while (thread.get() == null || thread.get().getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("when the limit is reached")
+    class WhenFull {
+
+        @Test
+        @DisplayName("should run further keys without sharing")
+        void shouldBypassWhenFull() throws Exception {
+            SingleFlight<String, String> flight = new SingleFlight<>(1);
+            CountDownLatch release = new CountDownLatch(1);
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                CountDownLatch running = new CountDownLatch(1);
+                Future<String> first = executor.submit(() -> flight.run("a", () -> {
+                    running.countDown();
+                    await(release);
+                    return "a";
+                }));
+                running.await();
+
+                assertThat(flight.run("b", () -> "b")).isEqualTo("b");
+                assertThat(flight.run("b", () -> "b again")).isEqualTo("b again");
+
+                release.countDown();
+                assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+            }
+            assertThat(flight.executions()).isEqualTo(3);
+        }
+    }
+}
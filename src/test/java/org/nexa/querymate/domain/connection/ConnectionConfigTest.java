@@ -4,6 +4,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -51,6 +53,37 @@ class ConnectionConfigTest {
             assertThat(display).isEqualTo("admin@localhost:5432/testdb");
             assertThat(display).doesNotContain("secret");
         }
+
+        @Test
+        @DisplayName("should derive single-host configs for replicas")
+        void shouldDeriveReplicaConfig() {
+            ConnectionConfig config = new ConnectionConfig(
+                    "primary", 5432, "app", "admin", "secret",
+                    List.of(HostAddress.parse("replica1"), HostAddress.parse("replica2:5433"))
+            );
+
+            ConnectionConfig replica = config.forHost(config.replicas().get(1));
+
+            assertThat(config.toDisplayString()).isEqualTo("admin@primary:5432/app (+2 replicas)");
+            assertThat(config.replicas().get(0).port()).isEqualTo(5432);
+            assertThat(replica.toJdbcUrl()).isEqualTo("jdbc:postgresql://replica2:5433/app");
+            assertThat(replica.hasReplicas()).isFalse();
+        }
+
+        @Test
+        @DisplayName("should list alternate hosts after the configured host")
+        void shouldListAlternateHosts() {
+            ConnectionConfig config = new ConnectionConfig(
+                    "db1", 5432, "app", "admin", "secret",
+                    List.of(),
+                    List.of(HostAddress.parse("db2:5433"))
+            );
+
+            assertThat(config.isMultiHost()).isTrue();
+            assertThat(config.hosts()).containsExactly(HostAddress.parse("db1"), HostAddress.parse("db2:5433"));
+            assertThat(config.toDisplayString()).isEqualTo("admin@db1:5432,db2:5433/app");
+            assertThat(config.forHost(config.hosts().get(1)).isMultiHost()).isFalse();
+        }
     }
 
     @Nested
@@ -88,6 +121,14 @@ class ConnectionConfigTest {
                     .hasMessageContaining("Port must be between");
         }
 
+        @Test
+        @DisplayName("should reject invalid replica port")
+        void shouldRejectInvalidReplicaPort() {
+            assertThatThrownBy(() -> HostAddress.parse("replica:abc"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Invalid port number");
+        }
+
         @Test
         @DisplayName("should reject null database")
         void shouldRejectNullDatabase() {
@@ -0,0 +1,49 @@
+package org.nexa.querymate.domain.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Deadline")
+class DeadlineTest {
+
+    @Test
+    @DisplayName("should count down from the budget of the query")
+    void shouldCountDownFromBudget() {
+        Deadline deadline = new QueryBudget(Duration.ofSeconds(30)).start();
+
+        assertThat(deadline.isBounded()).isTrue();
+        assertThat(deadline.isExpired()).isFalse();
+        assertThat(deadline.remaining()).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(30));
+        assertThat(deadline.elapsed().plus(deadline.remaining())).isLessThanOrEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    @DisplayName("should have nothing remaining once expired")
+    void shouldExpire() {
+        Deadline deadline = new Deadline(Instant.now().minusSeconds(1), Duration.ofSeconds(5));
+
+        assertThat(deadline.isExpired()).isTrue();
+        assertThat(deadline.remaining()).isZero();
+        assertThat(deadline.elapsed()).isEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("should never expire without a budget")
+    void shouldNeverExpireUnbounded() {
+        assertThat(Deadline.NONE.isBounded()).isFalse();
+        assertThat(Deadline.NONE.isExpired()).isFalse();
+    }
+
+    @Test
+    @DisplayName("should reject a budget that is not positive")
+    void shouldRejectEmptyBudget() {
+        assertThatThrownBy(() -> new QueryBudget(Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,64 @@
+package org.nexa.querymate.domain.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.nexa.querymate.domain.query.SqlLexer.Token;
+import org.nexa.querymate.domain.query.SqlLexer.TokenType;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SqlLexer")
+class SqlLexerTest {
+
+    @Nested
+    @DisplayName("when tokenizing")
+    class WhenTokenizing {
+
+        @Test
+        @DisplayName("should split words, numbers and punctuation")
+        void shouldSplitBasicTokens() {
+            List<Token> tokens = SqlLexer.tokenize("SELECT id, name FROM users LIMIT 10;");
+
+            assertThat(tokens).extracting(Token::text)
+                    .containsExactly("SELECT", "id", ",", "name", "FROM", "users", "LIMIT", "10", ";");
+            assertThat(tokens.get(7).type()).isEqualTo(TokenType.NUMBER);
+        }
+
+        @Test
+        @DisplayName("should skip comments and keep keywords inside literals as strings")
+        void shouldIgnoreCommentsAndLiterals() {
+            List<Token> tokens = SqlLexer.tokenize("""
+                    -- DELETE everything
+                    SELECT 'DROP TABLE x' /* UPDATE /* nested */ */ FROM "delete"
+                    """);
+
+            assertThat(tokens).extracting(Token::type)
+                    .containsExactly(TokenType.WORD, TokenType.STRING, TokenType.WORD, TokenType.QUOTED_IDENTIFIER);
+            assertThat(tokens).noneMatch(t -> t.isKeyword("delete") || t.isKeyword("update"));
+        }
+
+        @Test
+        @DisplayName("should treat dollar-quoted bodies as a single string")
+        void shouldHandleDollarQuotes() {
+            List<Token> tokens = SqlLexer.tokenize("SELECT $fn$ DELETE FROM t; $fn$, $1");
+
+            assertThat(tokens).extracting(Token::type)
+                    .containsExactly(TokenType.WORD, TokenType.STRING, TokenType.PUNCTUATION, TokenType.PARAMETER);
+        }
+
+        @Test
+        @DisplayName("should track parenthesis depth")
+        void shouldTrackDepth() {
+            List<Token> tokens = SqlLexer.tokenize("SELECT count(*) FROM (SELECT 1) t");
+
+            assertThat(tokens).filteredOn(t -> t.isKeyword("select"))
+                    .extracting(Token::depth)
+                    .containsExactly(0, 1);
+            assertThat(tokens).filteredOn(t -> t.isPunctuation('(') || t.isPunctuation(')'))
+                    .allMatch(Token::isTopLevel);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.nexa.querymate.domain.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("StatementClassifier")
+class StatementClassifierTest {
+
+    @Nested
+    @DisplayName("when classifying read-only statements")
+    class WhenReadOnly {
+
+        @ParameterizedTest
+        @DisplayName("should classify as READ")
+        @ValueSource(strings = {
+                "SELECT * FROM users",
+                "  select count(*) from orders;",
+                "WITH recent AS (SELECT * FROM orders) SELECT * FROM recent",
+                "SHOW search_path",
+                "EXPLAIN DELETE FROM users",
+                "EXPLAIN (ANALYZE, BUFFERS) SELECT 1",
+                "SELECT 'insert into x' AS text -- update",
+                "SELECT 1; SELECT 2",
+                "(SELECT 1) UNION (SELECT 2)"
+        })
+        void shouldClassifyAsRead(String sql) {
+            assertThat(StatementClassifier.classify(sql)).isEqualTo(StatementKind.READ);
+        }
+    }
+
+    @Nested
+    @DisplayName("when classifying statements that must run on the primary")
+    class WhenWriting {
+
+        @ParameterizedTest
+        @DisplayName("should classify as WRITE")
+        @ValueSource(strings = {
+                "INSERT INTO users VALUES (1)",
+                "UPDATE users SET name = 'x'",
+                "WITH gone AS (DELETE FROM users RETURNING *) SELECT * FROM gone",
+                "SELECT * INTO backup FROM users",
+                "SELECT * FROM users FOR UPDATE",
+                "SELECT nextval('users_id_seq')",
+                "EXPLAIN ANALYZE DELETE FROM users",
+                "SET search_path TO app",
+                "SELECT 1; DELETE FROM users",
+                "ROLLBACK TO SAVEPOINT sp1",
+                ""
+        })
+        void shouldClassifyAsWrite(String sql) {
+            assertThat(StatementClassifier.classify(sql)).isEqualTo(StatementKind.WRITE);
+        }
+
+        @ParameterizedTest
+        @DisplayName("should recognise transaction start")
+        @ValueSource(strings = {"BEGIN", "begin;", "START TRANSACTION READ ONLY"})
+        void shouldRecogniseBegin(String sql) {
+            assertThat(StatementClassifier.classify(sql)).isEqualTo(StatementKind.BEGIN_TRANSACTION);
+        }
+
+        @ParameterizedTest
+        @DisplayName("should recognise transaction end")
+        @ValueSource(strings = {"COMMIT", "ROLLBACK", "end;", "ABORT"})
+        void shouldRecogniseEnd(String sql) {
+            assertThat(StatementClassifier.classify(sql)).isEqualTo(StatementKind.END_TRANSACTION);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.nexa.querymate.infrastructure.adapters.out.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.domain.exception.TranslationException;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SchemaContext.ColumnInfo;
+import org.nexa.querymate.domain.translation.SchemaContext.TableInfo;
+import org.nexa.querymate.infrastructure.config.TranslationCacheProperties;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("CachingLLMAdapter")
+class CachingLLMAdapterTest {
+
+    private static final SchemaContext USERS = schema("users");
+    private static final SqlStatement SQL = SqlStatement.of("SELECT count(*) FROM users;");
+
+    private LLMPort llm;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        llm = mock(LLMPort.class);
+        when(llm.translate(any(), any(), any(), any())).thenReturn(SQL);
+        clock = new MutableClock();
+    }
+
+    private CachingLLMAdapter adapter(int maxEntries, String persistFile) {
+        return new CachingLLMAdapter(llm, "llama3.2", new TranslationCacheProperties(null, maxEntries, 60, persistFile), clock);
+    }
+
+    private static NaturalLanguageQuery question(String value) {
+        return NaturalLanguageQuery.of(value);
+    }
+
+    @Nested
+    @DisplayName("when looking up translations")
+    class WhenLookingUp {
+
+        @Test
+        @DisplayName("should answer a repeated question without calling the LLM")
+        void shouldHitOnRepeatedQuestion() {
+            CachingLLMAdapter adapter = adapter(10, null);
+
+            adapter.translate(question("How many users are there?"), USERS);
+            SqlStatement cached = adapter.translate(question("  how many USERS are   there "), USERS);
+
+            assertThat(cached).isEqualTo(SQL);
+            verify(llm, times(1)).translate(any(), any(), any(), any());
+            assertThat(adapter.metrics().values())
+                    .containsEntry("hits", 1L)
+                    .containsEntry("misses", 1L)
+                    .containsEntry("hit rate", "50.0%");
+        }
+
+        @Test
+        @DisplayName("should keep quoted literals case-sensitive")
+        void shouldKeepQuotedCase() {
+            CachingLLMAdapter adapter = adapter(10, null);
+
+            adapter.translate(question("Users named 'Bob'"), USERS);
+            adapter.translate(question("users named 'bob'"), USERS);
+
+            verify(llm, times(2)).translate(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should miss when the schema or the model differs")
+        void shouldMissOnDifferentSchemaOrModel() {
+            CachingLLMAdapter adapter = adapter(10, null);
+            CachingLLMAdapter otherModel = new CachingLLMAdapter(llm, "sqlcoder",
+                    new TranslationCacheProperties(null, 10, 60, null), clock);
+
+            adapter.translate(question("How many users"), USERS);
+            adapter.translate(question("How many users"), schema("customers"));
+            otherModel.translate(question("How many users"), USERS);
+
+            verify(llm, times(3)).translate(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should not cache failed translations")
+        void shouldNotCacheFailures() {
+            CachingLLMAdapter adapter = adapter(10, null);
+            when(llm.translate(any(), any(), any(), any())).thenThrow(TranslationException.timeout()).thenReturn(SQL);
+
+            assertThatThrownBy(() -> adapter.translate(question("How many users"), USERS))
+                    .isInstanceOf(TranslationException.class);
+            assertThat(adapter.translate(question("How many users"), USERS)).isEqualTo(SQL);
+        }
+    }
+
+    @Nested
+    @DisplayName("when evicting")
+    class WhenEvicting {
+
+        @Test
+        @DisplayName("should evict the least recently used entry when full")
+        void shouldEvictLeastRecentlyUsed() {
+            CachingLLMAdapter adapter = adapter(2, null);
+
+            adapter.translate(question("first"), USERS);
+            adapter.translate(question("second"), USERS);
+            adapter.translate(question("first"), USERS);
+            adapter.translate(question("third"), USERS);
+            adapter.translate(question("first"), USERS);
+            adapter.translate(question("second"), USERS);
+
+            verify(llm, times(4)).translate(any(), any(), any(), any());
+            assertThat(adapter.metrics().values()).containsEntry("evictions", 2L);
+        }
+
+        @Test
+        @DisplayName("should expire entries after the time-to-live")
+        void shouldExpireAfterTtl() {
+            CachingLLMAdapter adapter = adapter(10, null);
+
+            adapter.translate(question("How many users"), USERS);
+            clock.advance(Duration.ofMinutes(61));
+            adapter.translate(question("How many users"), USERS);
+
+            verify(llm, times(2)).translate(any(), any(), any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("when persisting")
+    class WhenPersisting {
+
+        @TempDir
+        Path directory;
+
+        @Test
+        @DisplayName("should restore translations saved by a previous instance")
+        void shouldRestoreFromDisk() {
+            String file = directory.resolve("cache/translations.json").toString();
+
+            CachingLLMAdapter first = adapter(10, file);
+            first.translate(question("How many users"), USERS);
+            first.close();
+            CachingLLMAdapter restarted = adapter(10, file);
+
+            assertThat(restarted.translate(question("How many users"), USERS)).isEqualTo(SQL);
+            verify(llm, times(1)).translate(any(), any(), any(), any());
+            assertThat(restarted.metrics().values()).containsEntry("entries", 1);
+        }
+    }
+
+    private static SchemaContext schema(String table) {
+        return new SchemaContext(List.of(new TableInfo("public", table,
+                List.of(new ColumnInfo("id", "bigint", false, true)), List.of())));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
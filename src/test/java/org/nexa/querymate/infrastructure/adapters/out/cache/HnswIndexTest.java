@@ -0,0 +1,93 @@
+package org.nexa.querymate.infrastructure.adapters.out.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("HnswIndex")
+class HnswIndexTest {
+
+    private static final int DIMENSION = 32;
+
+    @Test
+    @DisplayName("should find the exact vector with similarity 1")
+    void shouldFindExactVector() {
+        HnswIndex index = new HnswIndex(3, 4, 20);
+        index.add(new float[]{1, 0, 0});
+        index.add(new float[]{0, 1, 0});
+        index.add(new float[]{0, 0, 2});
+
+        List<HnswIndex.Match> matches = index.search(new float[]{0, 0, 5}, 2, 10);
+
+        assertThat(matches.getFirst().id()).isEqualTo(2);
+        assertThat(matches.getFirst().similarity()).isCloseTo(1f, within(1e-6f));
+        assertThat(matches.get(1).similarity()).isCloseTo(0f, within(1e-6f));
+    }
+
+    @Test
+    @DisplayName("should return the true nearest neighbour for nearly every query")
+    void shouldHaveHighRecall() {
+        Random random = new Random(7);
+        List<float[]> vectors = IntStream.range(0, 2_000).mapToObj(i -> randomVector(random)).toList();
+        HnswIndex index = new HnswIndex(DIMENSION, 16, 100);
+        vectors.forEach(index::add);
+
+        int found = 0;
+        for (int q = 0; q < 200; q++) {
+            float[] query = randomVector(random);
+            int expected = IntStream.range(0, vectors.size()).boxed()
+                    .max(Comparator.comparingDouble(i -> cosine(query, vectors.get(i))))
+                    .orElseThrow();
+            if (index.search(query, 1, 64).getFirst().id() == expected) {
+                found++;
+            }
+        }
+
+        assertThat(found).isGreaterThanOrEqualTo(190);
+    }
+
+    @Test
+    @DisplayName("should answer identically after a write and read round trip")
+    void shouldRoundTrip() throws Exception {
+        Random random = new Random(11);
+        HnswIndex index = new HnswIndex(DIMENSION, 8, 50);
+        IntStream.range(0, 300).forEach(i -> index.add(randomVector(random)));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.write(new DataOutputStream(bytes));
+        HnswIndex restored = HnswIndex.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        float[] query = randomVector(random);
+        assertThat(restored.size()).isEqualTo(300);
+        assertThat(restored.search(query, 5, 32)).isEqualTo(index.search(query, 5, 32));
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0, normA = 0, normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+}
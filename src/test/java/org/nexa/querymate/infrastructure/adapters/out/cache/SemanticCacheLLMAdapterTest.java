@@ -0,0 +1,139 @@
+package org.nexa.querymate.infrastructure.adapters.out.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nexa.querymate.application.ports.out.EmbeddingPort;
+import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.domain.exception.TranslationException;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SchemaContext.ColumnInfo;
+import org.nexa.querymate.domain.translation.SchemaContext.TableInfo;
+import org.nexa.querymate.infrastructure.config.SemanticCacheProperties;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("SemanticCacheLLMAdapter")
+class SemanticCacheLLMAdapterTest {
+
+    private static final SchemaContext CUSTOMERS = new SchemaContext(List.of(new TableInfo("public", "customers",
+            List.of(new ColumnInfo("id", "bigint", false, true)), List.of())));
+    private static final SqlStatement SQL = SqlStatement.of("SELECT * FROM customers ORDER BY revenue DESC LIMIT 10;");
+
+    private LLMPort llm;
+    private Map<String, float[]> vectors;
+    private EmbeddingPort embeddings;
+
+    @BeforeEach
+    void setUp() {
+        llm = mock(LLMPort.class);
+        when(llm.translate(any(), any(), any(), any())).thenReturn(SQL);
+        vectors = new HashMap<>();
+        vectors.put("top 10 customers by revenue", new float[]{1, 0.1f, 0});
+        vectors.put("10 biggest customers by sales", new float[]{1, 0.15f, 0.02f});
+        vectors.put("top 20 customers by revenue", new float[]{1, 0.1f, 0.01f});
+        vectors.put("customers without orders", new float[]{0, 1, 0});
+        embeddings = text -> {
+            float[] vector = vectors.get(text);
+            if (vector == null) {
+                throw TranslationException.llmUnavailable(new IllegalStateException("unknown text"));
+            }
+            return vector;
+        };
+    }
+
+    private SemanticCacheLLMAdapter adapter(String persistFile) {
+        return new SemanticCacheLLMAdapter(llm, embeddings, "llama3.2",
+                new SemanticCacheProperties(true, null, 0.95, 0, persistFile, 0, 0, 0));
+    }
+
+    private static NaturalLanguageQuery question(String value) {
+        return NaturalLanguageQuery.of(value);
+    }
+
+    @Nested
+    @DisplayName("when looking up similar questions")
+    class WhenLookingUp {
+
+        @Test
+        @DisplayName("should reuse the translation of a differently phrased question")
+        void shouldHitOnParaphrase() {
+            SemanticCacheLLMAdapter adapter = adapter(null);
+
+            adapter.translate(question("Top 10 customers by revenue"), CUSTOMERS);
+            SqlStatement sql = adapter.translate(question("10 biggest customers by sales?"), CUSTOMERS);
+
+            assertThat(sql).isEqualTo(SQL);
+            verify(llm, times(1)).translate(any(), any(), any(), any());
+            assertThat(adapter.metrics().values()).containsEntry("hits", 1L).containsEntry("entries", 1);
+        }
+
+        @Test
+        @DisplayName("should miss when the question mentions different numbers")
+        void shouldMissOnDifferentLiterals() {
+            SemanticCacheLLMAdapter adapter = adapter(null);
+
+            adapter.translate(question("top 10 customers by revenue"), CUSTOMERS);
+            adapter.translate(question("top 20 customers by revenue"), CUSTOMERS);
+
+            verify(llm, times(2)).translate(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should miss for unrelated questions and for another schema")
+        void shouldMissOnDissimilarOrOtherSchema() {
+            SemanticCacheLLMAdapter adapter = adapter(null);
+
+            adapter.translate(question("top 10 customers by revenue"), CUSTOMERS);
+            adapter.translate(question("customers without orders"), CUSTOMERS);
+            adapter.translate(question("10 biggest customers by sales"), SchemaContext.empty());
+
+            verify(llm, times(3)).translate(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should fall through to the LLM when embedding fails")
+        void shouldBypassOnEmbeddingFailure() {
+            SemanticCacheLLMAdapter adapter = adapter(null);
+
+            assertThat(adapter.translate(question("something never embedded"), CUSTOMERS)).isEqualTo(SQL);
+            assertThat(adapter.metrics().values()).containsEntry("embedding failures", 1L).containsEntry("entries", 0);
+        }
+    }
+
+    @Nested
+    @DisplayName("when persisting")
+    class WhenPersisting {
+
+        @TempDir
+        Path directory;
+
+        @Test
+        @DisplayName("should restore the index saved on close")
+        void shouldRestoreOnRestart() {
+            String file = directory.resolve("semantic.bin").toString();
+            SemanticCacheLLMAdapter first = adapter(file);
+            first.translate(question("top 10 customers by revenue"), CUSTOMERS);
+            first.close();
+
+            SemanticCacheLLMAdapter restarted = adapter(file);
+
+            assertThat(restarted.translate(question("10 biggest customers by sales"), CUSTOMERS)).isEqualTo(SQL);
+            verify(llm, times(1)).translate(any(), any(), any(), any());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.nexa.querymate.infrastructure.adapters.out.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SchemaContext.ColumnInfo;
+import org.nexa.querymate.domain.translation.SchemaContext.TableInfo;
+import org.nexa.querymate.infrastructure.config.TemplateCacheProperties;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("TemplateCacheLLMAdapter")
+class TemplateCacheLLMAdapterTest {
+
+    private static final SchemaContext ORDERS = new SchemaContext(List.of(new TableInfo("public", "orders",
+            List.of(new ColumnInfo("id", "bigint", false, true)), List.of())));
+
+    private LLMPort llm;
+    private TemplateCacheLLMAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        llm = mock(LLMPort.class);
+        adapter = new TemplateCacheLLMAdapter(llm, "llama3.2", new TemplateCacheProperties(null, 10));
+    }
+
+    private SqlStatement translate(String question) {
+        return adapter.translate(NaturalLanguageQuery.of(question), ORDERS);
+    }
+
+    @Nested
+    @DisplayName("when a translation becomes a template")
+    class WhenTemplated {
+
+        @Test
+        @DisplayName("should bind a new number without calling the LLM")
+        void shouldBindNumber() {
+            when(llm.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of("SELECT * FROM orders WHERE customer_id = 42;"));
+
+            translate("Orders of customer 42");
+            SqlStatement reused = translate("orders of customer 77?");
+
+            assertThat(reused.value()).isEqualTo("SELECT * FROM orders WHERE customer_id = ?;");
+            assertThat(reused.parameters()).containsExactly(77L);
+            verify(llm, times(1)).translate(any(), any(), any(), any());
+            assertThat(adapter.metrics().values()).containsEntry("hits", 1L).containsEntry("templates", 1);
+        }
+
+        @Test
+        @DisplayName("should swap the unit of a relative period inside an interval")
+        void shouldBindPeriod() {
+            when(llm.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of(
+                    "SELECT count(*) FROM orders WHERE created_at >= now() - interval '1 week';"));
+
+            translate("how many orders last week");
+            SqlStatement reused = translate("how many orders last month");
+
+            assertThat(reused.value())
+                    .isEqualTo("SELECT count(*) FROM orders WHERE created_at >= now() - CAST(? AS interval);");
+            assertThat(reused.parameters()).containsExactly("1 month");
+        }
+
+        @Test
+        @DisplayName("should bind quoted values as strings and keep their case")
+        void shouldBindText() {
+            when(llm.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of(
+                    "SELECT * FROM orders WHERE status = 'Shipped' LIMIT 5;"));
+
+            translate("first 5 orders with status 'Shipped'");
+            SqlStatement reused = translate("first 20 orders with status 'On Hold'");
+
+            assertThat(reused.value()).isEqualTo("SELECT * FROM orders WHERE status = ? LIMIT ?;");
+            assertThat(reused.parameters()).containsExactly("On Hold", 20L);
+        }
+    }
+
+    @Nested
+    @DisplayName("when a translation cannot become a template")
+    class WhenNotTemplated {
+
+        @Test
+        @DisplayName("should not guess when a literal could belong to two slots")
+        void shouldRejectAmbiguousLiteral() {
+            when(llm.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of(
+                    "SELECT * FROM orders WHERE customer_id = 5 OR region_id = 5;"));
+
+            translate("orders of customer 5 or region 5");
+            translate("orders of customer 6 or region 7");
+
+            verify(llm, times(2)).translate(any(), any(), any(), any());
+            assertThat(adapter.metrics().values()).containsEntry("not templatable", 2L);
+        }
+
+        @Test
+        @DisplayName("should not template a literal the SQL does not contain")
+        void shouldRejectMissingLiteral() {
+            when(llm.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of("SELECT * FROM orders ORDER BY id DESC;"));
+
+            translate("the 3 latest orders");
+            translate("the 4 latest orders");
+
+            verify(llm, times(2)).translate(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should pass questions without literals straight through")
+        void shouldPassThroughPlainQuestions() {
+            when(llm.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of("SELECT count(*) FROM orders;"));
+
+            translate("how many orders");
+            translate("how many orders");
+
+            verify(llm, times(2)).translate(any(), any(), any(), any());
+            assertThat(adapter.metrics().values()).containsEntry("templates", 0);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package org.nexa.querymate.infrastructure.adapters.out.federation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.nexa.querymate.application.ports.out.DatabasePort;
+import org.nexa.querymate.domain.exception.QueryExecutionException;
+import org.nexa.querymate.domain.query.Deadline;
+import org.nexa.querymate.domain.query.QueryOrigin;
+import org.nexa.querymate.domain.query.QueryResult;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.infrastructure.config.FederationProperties;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("FederatedQueryAdapter")
+class FederatedQueryAdapterTest {
+
+    private DatabasePort app;
+    private DatabasePort analytics;
+    private FederatedQueryAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        // The default stream() reads the rows through execute()
+        app = mock(DatabasePort.class, CALLS_REAL_METHODS);
+        analytics = mock(DatabasePort.class, CALLS_REAL_METHODS);
+        when(app.execute(any())).thenReturn(result(List.of("id", "name"),
+                row(1, "Alice"), row(2, "Bob"), row(3, "Carol")));
+        when(analytics.execute(any())).thenReturn(result(List.of("user_id", "amount"),
+                row(1, 10), row(1, 5), row(2, 7), row(4, 99)));
+        adapter = new FederatedQueryAdapter(new FederationProperties(0, null, 0, 0));
+    }
+
+    private QueryResult run(String sql) {
+        Map<String, DatabasePort> ports = Map.of("app", app, "analytics", analytics);
+        return adapter.execute(SqlStatement.of(sql), ports::get);
+    }
+
+    @Nested
+    @DisplayName("when detecting federated statements")
+    class WhenDetecting {
+
+        @Test
+        @DisplayName("should recognize tables prefixed with a connection name")
+        void shouldRecognizeConnectionPrefix() {
+            assertThat(adapter.isFederated(SqlStatement.of("SELECT u.id FROM @app.users u"))).isTrue();
+            assertThat(adapter.isFederated(SqlStatement.of("SELECT '@app.users' FROM users"))).isFalse();
+            assertThat(adapter.isFederated(SqlStatement.of("SELECT * FROM users WHERE tags @> '{a}'"))).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("when joining across connections")
+    class WhenJoining {
+
+        @Test
+        @DisplayName("should push projections and single-table predicates into the sub-queries")
+        void shouldPushDown() {
+            run("""
+                    SELECT u.name, o.amount FROM @app.users u
+                    JOIN @analytics.orders o ON o.user_id = u.id AND o.amount > 6
+                    WHERE u.name <> 'Bob'
+                    """);
+
+            ArgumentCaptor<SqlStatement> appSql = ArgumentCaptor.forClass(SqlStatement.class);
+            ArgumentCaptor<SqlStatement> analyticsSql = ArgumentCaptor.forClass(SqlStatement.class);
+            verify(app).execute(appSql.capture());
+            verify(analytics).execute(analyticsSql.capture());
+            assertThat(appSql.getValue().value())
+                    .isEqualTo("SELECT \"u\".\"name\", \"u\".\"id\" FROM users \"u\" WHERE (u.name <> 'Bob')");
+            assertThat(analyticsSql.getValue().value())
+                    .isEqualTo("SELECT \"o\".\"amount\", \"o\".\"user_id\" FROM orders \"o\" WHERE (o.amount > 6)");
+        }
+
+        @Test
+        @DisplayName("should inner-join, sort and limit the combined rows")
+        void shouldJoinSortAndLimit() {
+            QueryResult result = run("""
+                    SELECT u.name, o.amount AS amount FROM @app.users u
+                    JOIN @analytics.orders o ON o.user_id = u.id
+                    ORDER BY amount DESC LIMIT 2
+                    """);
+
+            assertThat(result.columns()).containsExactly("name", "amount");
+            assertThat(result.rows()).containsExactly(List.of("Alice", 10), List.of("Bob", 7));
+            assertThat(result.metadata().timings())
+                    .extracting(QueryResult.Timing::label)
+                    .containsExactly("@app users (3 rows)", "@analytics orders (4 rows)", "join o (3 rows)");
+        }
+
+        @Test
+        @DisplayName("should aggregate per group after the join")
+        void shouldAggregate() {
+            QueryResult result = run("""
+                    SELECT u.name, count(*) AS orders, sum(o.amount) AS total FROM @app.users u
+                    JOIN @analytics.orders o ON o.user_id = u.id
+                    GROUP BY u.name ORDER BY u.name
+                    """);
+
+            assertThat(result.columns()).containsExactly("name", "orders", "total");
+            assertThat(result.rows()).containsExactly(List.of("Alice", 2L, 15L), List.of("Bob", 1L, 7L));
+        }
+
+        @Test
+        @DisplayName("should evaluate conditions spanning both tables client-side")
+        void shouldFilterAcrossTables() {
+            when(analytics.execute(any())).thenReturn(result(List.of("user_id", "amount"), row(1, 1), row(2, 7)));
+
+            QueryResult result = run("""
+                    SELECT u.name, o.amount FROM @app.users u
+                    JOIN @analytics.orders o ON o.user_id = u.id
+                    WHERE o.amount > u.id
+                    """);
+
+            assertThat(result.rows()).containsExactly(List.of("Bob", 7));
+        }
+
+        @Test
+        @DisplayName("should run a single-table statement unchanged on its connection")
+        void shouldRunSingleTableDirectly() {
+            run("SELECT * FROM @app.users WHERE id = 1");
+
+            verify(app).execute(SqlStatement.of("SELECT * FROM users WHERE id = 1"));
+        }
+
+        @Test
+        @DisplayName("should read whole tables and refuse only a projection over the row limit")
+        void shouldLimitProjectedRows() {
+            FederatedQueryAdapter limited = new FederatedQueryAdapter(new FederationProperties(0, null, 0, 2));
+            Map<String, DatabasePort> ports = Map.of("app", app, "analytics", analytics);
+            String join = """
+                    SELECT u.name, o.amount FROM @app.users u
+                    JOIN @analytics.orders o ON o.user_id = u.id
+                    """;
+
+            assertThatThrownBy(() -> limited.execute(SqlStatement.of(join), ports::get))
+                    .isInstanceOf(QueryExecutionException.class)
+                    .hasMessageContaining("more than 2 rows at the final projection");
+            verify(analytics).execute(SqlStatement.of("SELECT \"o\".\"amount\", \"o\".\"user_id\" FROM orders \"o\""));
+
+            assertThat(limited.execute(SqlStatement.of(join + " LIMIT 1"), ports::get).rows()).hasSize(1);
+            assertThat(limited.execute(SqlStatement.of(
+                    "SELECT count(*) AS orders FROM @app.users u JOIN @analytics.orders o ON o.user_id = u.id"),
+                    ports::get).rows()).containsExactly(List.of(3L));
+        }
+
+        @Test
+        @DisplayName("should reject statements the client-side engine cannot evaluate")
+        void shouldRejectUnsupportedSyntax() {
+            assertThatThrownBy(() -> run("SELECT u.name FROM @app.users u, @analytics.orders o"))
+                    .isInstanceOf(QueryExecutionException.class)
+                    .hasMessageStartingWith("Cannot run cross-database query");
+        }
+    }
+
+    @Nested
+    @DisplayName("when the query has a deadline")
+    class WhenBudgeted {
+
+        private static final String JOIN = """
+                SELECT u.name, o.amount FROM @app.users u
+                JOIN @analytics.orders o ON o.user_id = u.id
+                """;
+
+        private QueryResult run(Deadline deadline) {
+            Map<String, DatabasePort> ports = Map.of("app", app, "analytics", analytics);
+            return adapter.execute(SqlStatement.of(JOIN), QueryOrigin.NATURAL_LANGUAGE, deadline, ports::get);
+        }
+
+        @Test
+        @DisplayName("should pass the deadline to every sub-query")
+        void shouldBoundSubQueries() {
+            doReturn(result(List.of("id", "name"), row(1, "Alice"))).when(app).execute(any(), any(), any());
+            doReturn(result(List.of("user_id", "amount"), row(1, 10))).when(analytics).execute(any(), any(), any());
+            Deadline deadline = Deadline.after(Duration.ofSeconds(30));
+
+            QueryResult result = run(deadline);
+
+            assertThat(result.rows()).containsExactly(List.of("Alice", 10));
+            verify(app).execute(any(), eq(QueryOrigin.NATURAL_LANGUAGE), eq(deadline));
+            verify(analytics).execute(any(), eq(QueryOrigin.NATURAL_LANGUAGE), eq(deadline));
+        }
+
+        @Test
+        @DisplayName("should stop waiting for sub-queries once the deadline passes")
+        void shouldStopAtDeadline() throws InterruptedException {
+            CountDownLatch never = new CountDownLatch(1);
+            CountDownLatch interrupted = new CountDownLatch(1);
+            doReturn(result(List.of("id", "name"), row(1, "Alice"))).when(app).execute(any(), any(), any());
+            doAnswer(invocation -> {
+                try {
+                    never.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return result(List.of("user_id", "amount"));
+            }).when(analytics).execute(any(), any(), any());
+
+            assertThatThrownBy(() -> run(Deadline.after(Duration.ofMillis(100))))
+                    .isInstanceOf(QueryExecutionException.class)
+                    .hasMessage("Query did not finish within its 100 ms budget");
+            assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    private static QueryResult result(List<String> columns, List<Object>... rows) {
+        return new QueryResult(columns, Arrays.asList(rows), new QueryResult.QueryMetadata(rows.length, Duration.ZERO));
+    }
+
+    private static List<Object> row(Object... values) {
+        return Arrays.asList(values);
+    }
+}
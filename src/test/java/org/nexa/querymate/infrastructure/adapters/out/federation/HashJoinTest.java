@@ -0,0 +1,71 @@
+package org.nexa.querymate.infrastructure.adapters.out.federation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("HashJoin")
+class HashJoinTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    @DisplayName("should match keys of different numeric types and skip NULL keys")
+    void shouldMatchNumericKeys() {
+        try (SpillArea area = new SpillArea(Long.MAX_VALUE, spillDirectory)) {
+            SpillableRows left = rows(area, new Object[]{1, "Alice"}, new Object[]{null, "Nobody"});
+            SpillableRows right = rows(area, new Object[]{1L, "first"}, new Object[]{new BigDecimal("1.0"), "second"},
+                    new Object[]{null, "orphan"});
+            List<Object[]> output = new ArrayList<>();
+
+            int partitions = new HashJoin(4).join(area, left, new int[]{0}, right, new int[]{0}, output::add);
+
+            assertThat(partitions).isZero();
+            assertThat(output).extracting(row -> row[1] + "/" + row[3])
+                    .containsExactlyInAnyOrder("Alice/first", "Alice/second");
+        }
+    }
+
+    @Test
+    @DisplayName("should join partition by partition on disk once both sides outgrow the memory budget")
+    void shouldJoinPartitionsOnDisk() throws IOException {
+        List<Object[]> output = new ArrayList<>();
+        try (SpillArea area = new SpillArea(0, spillDirectory)) {
+            SpillableRows users = rows(area, IntStream.range(0, 100)
+                    .mapToObj(id -> new Object[]{id, "user " + id}).toArray(Object[][]::new));
+            SpillableRows orders = rows(area, IntStream.range(0, 300)
+                    .mapToObj(id -> new Object[]{(long) id % 150, id}).toArray(Object[][]::new));
+            assertThat(users.spilled()).isTrue();
+            assertThat(orders.spilled()).isTrue();
+
+            int partitions = new HashJoin(4).join(area, users, new int[]{0}, orders, new int[]{0}, output::add);
+
+            assertThat(partitions).isEqualTo(4);
+        }
+
+        // Orders of users 0-99 match; those of ids 100-149 have no user
+        assertThat(output).hasSize(200).allSatisfy(row -> assertThat(((Number) row[2]).intValue()).isEqualTo(row[0]));
+        try (var files = Files.list(spillDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    private static SpillableRows rows(SpillArea area, Object[]... rows) {
+        SpillableRows result = area.newRows();
+        for (Object[] row : rows) {
+            result.add(row);
+        }
+        return result;
+    }
+}
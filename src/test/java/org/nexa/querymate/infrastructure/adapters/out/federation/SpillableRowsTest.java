@@ -0,0 +1,60 @@
+package org.nexa.querymate.infrastructure.adapters.out.federation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SpillableRows")
+class SpillableRowsTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    @DisplayName("should keep rows in memory until the budget runs out, then move them all to disk")
+    void shouldSpillOverBudget() {
+        Object[] row = {1, "Alice"};
+        try (SpillArea area = new SpillArea(2 * SpillableRows.estimateBytes(row), spillDirectory)) {
+            SpillableRows rows = area.newRows();
+            rows.add(row);
+            rows.add(new Object[]{2, "Bob"});
+            assertThat(rows.spilled()).isFalse();
+
+            rows.add(new Object[]{3, "Carol"});
+
+            assertThat(rows.spilled()).isTrue();
+            assertThat(rows.size()).isEqualTo(3);
+            assertThat(rows).extracting(values -> values[1]).containsExactly("Alice", "Bob", "Carol");
+            // Read again, as a join reads its build side once per partition
+            assertThat(rows).hasSize(3);
+            // The budget given back on spilling is available to other rows
+            assertThat(area.reserve(2 * SpillableRows.estimateBytes(row))).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("should hold values that cannot be spilled in their text form, in memory as on disk")
+    void shouldKeepTextFormOfUnserializableValues() {
+        Object value = new Object() {
+            @Override
+            public String toString() {
+                return "{1,2}";
+            }
+        };
+        try (SpillArea memory = new SpillArea(Long.MAX_VALUE, spillDirectory);
+             SpillArea disk = new SpillArea(0, spillDirectory)) {
+            SpillableRows inMemory = memory.newRows();
+            SpillableRows spilled = disk.newRows();
+            inMemory.add(new Object[]{value});
+            spilled.add(new Object[]{value});
+
+            assertThat(spilled.spilled()).isTrue();
+            assertThat(inMemory).extracting(values -> values[0]).containsExactly("{1,2}");
+            assertThat(spilled).extracting(values -> values[0]).containsExactly("{1,2}");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nexa.querymate.infrastructure.adapters.out.ollama.OllamaLLMAdapter.ChatMessage;
+import org.nexa.querymate.infrastructure.adapters.out.ollama.OllamaLLMAdapter.ChatRequest;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ChatRequestWriter")
+class ChatRequestWriterTest {
+
+    private static final String SYSTEM = "Tables:\n\"order\"(id int pk, note text -- ü, \\ \t)";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static ChatRequest request(String system, String user) {
+        Map<String, Object> options = new LinkedHashMap<>();
+        options.put("temperature", 0.0);
+        options.put("stop", List.of(";\n"));
+        options.put("num_ctx", 4096);
+        return new ChatRequest("llama3.2",
+                List.of(new ChatMessage("system", system), new ChatMessage("user", user)), true, "30m", options);
+    }
+
+    private JsonNode written(ChatRequest request, EncodedText system) throws Exception {
+        DataBuffer buffer = ChatRequestWriter.write(DefaultDataBufferFactory.sharedInstance, request, system);
+        try {
+            return mapper.readTree(buffer.toString(StandardCharsets.UTF_8));
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    @Test
+    @DisplayName("should write the same document as serializing the request")
+    void shouldMatchObjectMapper() throws Exception {
+        ChatRequest request = request(SYSTEM, "how many \"orders\"?");
+
+        assertThat(written(request, null)).isEqualTo(mapper.valueToTree(request));
+    }
+
+    @Test
+    @DisplayName("should write an encoded system message assembled from pieces as-is")
+    void shouldWriteEncodedSystemMessage() throws Exception {
+        EncodedText system = EncodedText.concat(List.of(
+                EncodedText.of("Tables:\n"), EncodedText.of("\"order\"(id int pk, note text -- ü, \\ \t)")));
+        ChatRequest request = request(system.text(), "how many \"orders\"?");
+
+        assertThat(system.text()).isEqualTo(SYSTEM);
+        assertThat(written(request, system)).isEqualTo(mapper.valueToTree(request));
+    }
+}
@@ -0,0 +1,42 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LatencyHistogram")
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("should report nothing before the first sample")
+    void shouldBeEmptyInitially() {
+        assertThat(new LatencyHistogram().percentile(95)).isNull();
+    }
+
+    @Test
+    @DisplayName("should report percentiles within a tenth of the recorded latency")
+    void shouldReportPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(Duration.ofMillis(i * 10L));
+        }
+
+        assertThat(histogram.percentile(50).toMillis()).isBetween(500L, 550L);
+        assertThat(histogram.percentile(95).toMillis()).isBetween(950L, 1045L);
+        assertThat(histogram.count()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("should follow recent latencies once older samples decay")
+    void shouldDecayOldSamples() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 5000; i++) {
+            histogram.record(Duration.ofMillis(i < 1000 ? 10 : 2000));
+        }
+
+        assertThat(histogram.percentile(10).toMillis()).isGreaterThanOrEqualTo(2000);
+    }
+}
@@ -0,0 +1,346 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.nexa.querymate.domain.exception.TranslationException;
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.GenerationStats;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.TokenListener;
+import org.nexa.querymate.infrastructure.config.OllamaBalancingProperties;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("LoadBalancingLLMAdapter")
+class LoadBalancingLLMAdapterTest {
+
+    private static final NaturalLanguageQuery QUESTION = NaturalLanguageQuery.of("count users");
+    private static final SchemaContext SCHEMA = SchemaContext.empty();
+
+    private final MutableClock clock = new MutableClock();
+    private OllamaLLMAdapter first;
+    private OllamaLLMAdapter second;
+    private LoadBalancingLLMAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        first = server("http://box1:11434");
+        second = server("http://box2:11434");
+        adapter = new LoadBalancingLLMAdapter(List.of(first, second), new OllamaBalancingProperties(10, 3.0, 30, false, 0, 0), clock);
+    }
+
+    @Nested
+    @DisplayName("When choosing a server")
+    class WhenChoosing {
+
+        @Test
+        @DisplayName("should prefer the server with the lower first-token latency")
+        void shouldPreferFasterServer() {
+            answer(first, "SELECT 1;", Duration.ofMillis(100));
+            answer(second, "SELECT 2;", Duration.ofMillis(40));
+
+            adapter.translate(QUESTION, SCHEMA);
+            adapter.translate(QUESTION, SCHEMA);
+            SqlStatement third = adapter.translate(QUESTION, SCHEMA);
+
+            assertThat(third.value()).isEqualTo("SELECT 2;");
+        }
+
+        @Test
+        @DisplayName("should eject a server far slower than the others")
+        void shouldEjectSlowServer() {
+            answer(first, "SELECT 1;", Duration.ofMillis(10));
+            answer(second, "SELECT 2;", Duration.ofMillis(100));
+
+            adapter.translate(QUESTION, SCHEMA);
+            adapter.translate(QUESTION, SCHEMA);
+
+            assertThat(adapter.metrics().values().get("admitted")).isEqualTo("1 of 2");
+            assertThat(adapter.metrics().values().get("http://box2:11434").toString()).contains("ejected", "slow");
+            assertThat(adapter.translate(QUESTION, SCHEMA).value()).isEqualTo("SELECT 1;");
+        }
+    }
+
+    @Nested
+    @DisplayName("When a server fails")
+    class WhenServerFails {
+
+        @Test
+        @DisplayName("should retry the question on another server and eject the failing one")
+        void shouldRetryOnAnotherServer() {
+            when(first.translate(any(), any(), any())).thenThrow(unreachable());
+            answer(second, "SELECT 2;", Duration.ofMillis(10));
+
+            SqlStatement sql = adapter.translate(QUESTION, SCHEMA);
+
+            assertThat(sql.value()).isEqualTo("SELECT 2;");
+            assertThat(adapter.metrics().values().get("http://box1:11434").toString()).contains("ejected", "1 failures");
+        }
+
+        @Test
+        @DisplayName("should not retry an unusable answer")
+        void shouldNotRetryInvalidResponse() {
+            when(first.translate(any(), any(), any())).thenThrow(TranslationException.invalidResponse("Sure!"));
+
+            assertThatThrownBy(() -> adapter.translate(QUESTION, SCHEMA))
+                    .hasMessageContaining("invalid response");
+            verify(second, never()).translate(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should not retry once tokens reached the caller")
+        void shouldNotRetryAfterStreaming() {
+            doAnswer(invocation -> {
+                invocation.getArgument(2, TokenListener.class).onToken("SELECT");
+                throw unreachable();
+            }).when(first).translate(any(), any(), any());
+
+            assertThatThrownBy(() -> adapter.translate(QUESTION, SCHEMA, token -> {
+            })).isInstanceOf(TranslationException.class);
+            verify(second, never()).translate(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should fail with the last error when every server fails")
+        void shouldFailWhenAllServersFail() {
+            when(first.translate(any(), any(), any())).thenThrow(unreachable());
+            when(second.translate(any(), any(), any())).thenThrow(TranslationException.timeout(new IllegalStateException("Timeout")));
+
+            assertThatThrownBy(() -> adapter.translate(QUESTION, SCHEMA))
+                    .hasMessageContaining("timed out");
+            assertThat(adapter.metrics().values().get("admitted")).isEqualTo("0 of 2");
+        }
+
+        @Test
+        @DisplayName("should keep using ejected servers when none is admitted")
+        void shouldFallBackToEjectedServers() {
+            when(first.translate(any(), any(), any())).thenThrow(unreachable());
+            when(second.translate(any(), any(), any())).thenThrow(unreachable());
+            assertThatThrownBy(() -> adapter.translate(QUESTION, SCHEMA)).isInstanceOf(TranslationException.class);
+
+            assertThat(adapter.metrics().values().get("admitted")).isEqualTo("0 of 2");
+
+            answer(second, "SELECT 2;", Duration.ofMillis(10));
+            assertThat(adapter.translate(QUESTION, SCHEMA).value()).isEqualTo("SELECT 2;");
+        }
+    }
+
+    @Nested
+    @DisplayName("When hedging")
+    class WhenHedging {
+
+        @BeforeEach
+        void setUp() {
+            adapter = hedging(10);
+        }
+
+        @Test
+        @DisplayName("should take the answer of the second server and cancel the slow first request")
+        void shouldHedgeSlowRequest() throws InterruptedException {
+            CountDownLatch cancelled = new CountDownLatch(1);
+            doAnswer(invocation -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    cancelled.countDown();
+                    throw new IllegalStateException(e);
+                }
+                return SqlStatement.of("SELECT 1;");
+            }).when(first).translate(any(), any(), any());
+
+            SqlStatement sql = adapter.translate(QUESTION, SCHEMA);
+
+            assertThat(sql.value()).isEqualTo("SELECT 2;");
+            assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(adapter.metrics().values().get("hedged")).isEqualTo("1 (1 won, 0 over budget)");
+        }
+
+        @Test
+        @DisplayName("should not hedge beyond the budget")
+        void shouldRespectBudget() {
+            adapter = hedging(5);
+            slow(first, "SELECT 1;");
+            slow(second, "SELECT 2;");
+
+            adapter.translate(QUESTION, SCHEMA);
+            adapter.translate(QUESTION, SCHEMA);
+
+            assertThat(adapter.metrics().values().get("hedged").toString()).startsWith("1 (").endsWith("1 over budget)");
+        }
+
+        @Test
+        @DisplayName("should not hedge before enough translations were measured")
+        void shouldWaitForSamples() {
+            adapter = new LoadBalancingLLMAdapter(List.of(first, second), new OllamaBalancingProperties(10, 3.0, 30, true, 50, 10), clock);
+            slow(first, "SELECT 1;");
+
+            assertThat(adapter.translate(QUESTION, SCHEMA).value()).isEqualTo("SELECT 1;");
+            assertThat(adapter.metrics().values().get("hedged")).isEqualTo("0 (0 won, 0 over budget)");
+        }
+
+        /**
+         * An adapter that has measured twenty quick translations, so it hedges after about a millisecond.
+         */
+        private LoadBalancingLLMAdapter hedging(int budgetPercent) {
+            LoadBalancingLLMAdapter hedging = new LoadBalancingLLMAdapter(List.of(first, second),
+                    new OllamaBalancingProperties(10, 3.0, 30, true, 50, budgetPercent), clock);
+            answer(first, "SELECT 1;", Duration.ofMillis(1));
+            answer(second, "SELECT 2;", Duration.ofMillis(1));
+            for (int i = 0; i < 20; i++) {
+                hedging.translate(QUESTION, SCHEMA);
+            }
+            return hedging;
+        }
+
+        private static void slow(OllamaLLMAdapter server, String sql) {
+            doAnswer(invocation -> {
+                Thread.sleep(100);
+                return SqlStatement.of(sql);
+            }).when(server).translate(any(), any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("When probing")
+    class WhenProbing {
+
+        @Test
+        @DisplayName("should eject a server that stops answering")
+        void shouldEjectUnavailableServer() {
+            when(first.isAvailable()).thenReturn(false);
+            when(second.isAvailable()).thenReturn(true);
+
+            adapter.probe();
+
+            assertThat(adapter.metrics().values().get("http://box1:11434").toString()).contains("probe failed");
+            assertThat(adapter.metrics().values().get("http://box2:11434").toString()).startsWith("admitted");
+        }
+
+        @Test
+        @DisplayName("should re-admit a server only after its ejection time")
+        void shouldReadmitAfterEjectionTime() {
+            when(first.isAvailable()).thenReturn(false);
+            when(second.isAvailable()).thenReturn(true);
+            adapter.probe();
+
+            when(first.isAvailable()).thenReturn(true);
+            clock.advance(Duration.ofSeconds(10));
+            adapter.probe();
+            assertThat(adapter.metrics().values().get("admitted")).isEqualTo("1 of 2");
+
+            clock.advance(Duration.ofSeconds(30));
+            adapter.probe();
+            assertThat(adapter.metrics().values().get("admitted")).isEqualTo("2 of 2");
+        }
+    }
+
+    @Nested
+    @DisplayName("When managing the model")
+    class WhenManagingModel {
+
+        @Test
+        @DisplayName("should warm up every server")
+        void shouldWarmUpEveryServer() {
+            adapter.warmUp(SCHEMA);
+
+            verify(first).warmUp(SCHEMA);
+            verify(second).warmUp(SCHEMA);
+        }
+
+        @Test
+        @DisplayName("should succeed if at least one server warmed up")
+        void shouldToleratePartialWarmUpFailure() {
+            doAnswer(invocation -> {
+                throw unreachable();
+            }).when(first).warmUp(any());
+
+            adapter.warmUp(SCHEMA);
+
+            verify(second).warmUp(SCHEMA);
+        }
+
+        @Test
+        @DisplayName("should report the latest time any server keeps the model")
+        void shouldReportLatestResidency() {
+            Instant soon = Instant.parse("2026-01-01T10:00:00Z");
+            Instant later = Instant.parse("2026-01-01T10:30:00Z");
+            when(first.residentUntil()).thenReturn(Optional.of(soon));
+            when(second.residentUntil()).thenReturn(Optional.of(later));
+
+            assertThat(adapter.residentUntil()).contains(later);
+        }
+    }
+
+    @Test
+    @DisplayName("should report each server's generation metrics after the balancing overview")
+    void shouldReportPerServerMetrics() {
+        when(first.metrics()).thenReturn(new MetricsSnapshot("Ollama", Map.of("requests", 1)));
+        when(second.metrics()).thenReturn(new MetricsSnapshot("Ollama", Map.of("requests", 2)));
+
+        assertThat(adapter.snapshots()).extracting(MetricsSnapshot::source)
+                .containsExactly("Ollama endpoints", "Ollama http://box1:11434", "Ollama http://box2:11434");
+    }
+
+    private static OllamaLLMAdapter server(String endpoint) {
+        OllamaLLMAdapter server = mock(OllamaLLMAdapter.class);
+        when(server.endpoint()).thenReturn(endpoint);
+        return server;
+    }
+
+    private static void answer(OllamaLLMAdapter server, String sql, Duration firstToken) {
+        doAnswer(invocation -> {
+            invocation.getArgument(2, TokenListener.class)
+                    .onFinished(new GenerationStats(firstToken, firstToken.multipliedBy(2), 3, 3, true, 0, null));
+            return SqlStatement.of(sql);
+        }).when(server).translate(any(), any(), any());
+    }
+
+    private static TranslationException unreachable() {
+        return TranslationException.llmUnavailable(new IllegalStateException("Connection refused"));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T09:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.nexa.querymate.domain.exception.TranslationException;
+import org.nexa.querymate.domain.metrics.MetricsSnapshot;
+import org.nexa.querymate.domain.query.PlanEstimate;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ModelCascadeLLMAdapter")
+class ModelCascadeLLMAdapterTest {
+
+    private static final NaturalLanguageQuery QUESTION = NaturalLanguageQuery.of("count users");
+    private static final SchemaContext SCHEMA = SchemaContext.empty();
+    private static final SqlValidator ACCEPT_ALL = sql -> SqlValidator.Verdict.valid(new PlanEstimate(1, 1));
+
+    private LoadBalancingLLMAdapter small;
+    private LoadBalancingLLMAdapter large;
+    private ModelCascadeLLMAdapter cascade;
+
+    @BeforeEach
+    void setUp() {
+        small = tier("qwen2.5-coder:1.5b");
+        large = tier("llama3.1:8b");
+        when(large.translate(any(), any(), any())).thenReturn(SqlStatement.of("SELECT count(*) FROM users;"));
+        cascade = new ModelCascadeLLMAdapter(List.of(small, large));
+    }
+
+    @Nested
+    @DisplayName("When the small model answers")
+    class WhenSmallModelAnswers {
+
+        @Test
+        @DisplayName("should keep a statement that passes validation")
+        void shouldAcceptValidStatement() {
+            when(small.translate(any(), any(), any())).thenReturn(SqlStatement.of("SELECT count(*) FROM users;"));
+
+            SqlStatement sql = cascade.translate(QUESTION, SCHEMA, TokenListener.NONE, ACCEPT_ALL);
+
+            assertThat(sql.value()).isEqualTo("SELECT count(*) FROM users;");
+            verify(large, never()).translate(any(), any(), any());
+            assertThat(cascade.metrics().values().get("escalation rate")).isEqualTo("0.0%");
+        }
+
+        @Test
+        @DisplayName("should escalate a statement the database rejects")
+        void shouldEscalateRejectedStatement() {
+            when(small.translate(any(), any(), any())).thenReturn(SqlStatement.of("SELECT count(*) FROM user_table;"));
+
+            SqlStatement sql = cascade.translate(QUESTION, SCHEMA, TokenListener.NONE,
+                    statement -> SqlValidator.Verdict.rejected("relation \"user_table\" does not exist"));
+
+            assertThat(sql.value()).isEqualTo("SELECT count(*) FROM users;");
+            assertThat(cascade.metrics().values().get("escalation rate")).isEqualTo("100.0%");
+            assertThat(cascade.metrics().values().get("qwen2.5-coder:1.5b").toString()).contains("1 rejected");
+        }
+
+        @Test
+        @DisplayName("should escalate an answer that is not a query without asking the database")
+        void shouldEscalateNonQueryLocally() {
+            when(small.translate(any(), any(), any())).thenReturn(SqlStatement.of("Here is the query you asked for;"));
+            AtomicInteger validations = new AtomicInteger();
+
+            cascade.translate(QUESTION, SCHEMA, TokenListener.NONE, statement -> {
+                validations.incrementAndGet();
+                return SqlValidator.Verdict.unchecked();
+            });
+
+            assertThat(validations).hasValue(0);
+            verify(large).translate(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should escalate when the small model fails")
+        void shouldEscalateFailure() {
+            when(small.translate(any(), any(), any())).thenThrow(TranslationException.invalidResponse(""));
+
+            SqlStatement sql = cascade.translate(QUESTION, SCHEMA, TokenListener.NONE, ACCEPT_ALL);
+
+            assertThat(sql.value()).isEqualTo("SELECT count(*) FROM users;");
+            assertThat(cascade.metrics().values().get("qwen2.5-coder:1.5b").toString()).contains("1 failed");
+        }
+    }
+
+    @Test
+    @DisplayName("should go straight to the main model when there is nothing to validate against")
+    void shouldSkipCascadeWithoutValidator() {
+        cascade.translate(QUESTION, SCHEMA);
+
+        verify(small, never()).translate(any(), any(), any());
+        verify(large).translate(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("should label each model's metrics with the model")
+    void shouldLabelTierMetrics() {
+        when(small.snapshots()).thenReturn(List.of(new MetricsSnapshot("Ollama", Map.of())));
+        when(large.snapshots()).thenReturn(List.of(new MetricsSnapshot("Ollama", Map.of())));
+
+        assertThat(cascade.snapshots()).extracting(MetricsSnapshot::source)
+                .containsExactly("Model cascade", "Ollama [qwen2.5-coder:1.5b]", "Ollama [llama3.1:8b]");
+    }
+
+    private static LoadBalancingLLMAdapter tier(String model) {
+        LoadBalancingLLMAdapter tier = mock(LoadBalancingLLMAdapter.class);
+        when(tier.model()).thenReturn(model);
+        return tier;
+    }
+}
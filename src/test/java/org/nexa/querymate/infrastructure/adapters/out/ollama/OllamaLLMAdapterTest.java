@@ -0,0 +1,301 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.GenerationStats;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
+import org.nexa.querymate.infrastructure.config.OllamaProperties;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("OllamaLLMAdapter")
+class OllamaLLMAdapterTest {
+
+    private static final SchemaContext EMPTY = new SchemaContext(List.of());
+    private static final String FINAL_CHUNK = """
+            {"model":"llama3.2","message":{"role":"assistant","content":""},"done":true,"done_reason":"stop",\
+            "prompt_eval_count":12,"prompt_eval_duration":35000000,"eval_count":4}
+            """;
+
+    private final List<JsonNode> requestBodies = new ArrayList<>();
+
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final List<String> tokens = new CopyOnWriteArrayList<>();
+    private GenerationStats stats;
+
+    private final TokenListener listener = new TokenListener() {
+        @Override
+        public void onToken(String token) {
+            tokens.add(token);
+        }
+
+        @Override
+        public void onFinished(GenerationStats generationStats) {
+            stats = generationStats;
+        }
+    };
+
+    /**
+     * An adapter whose server streams the given tokens and then, unless {@code finish}, keeps the
+     * stream open as a model still generating would.
+     */
+    private OllamaLLMAdapter adapter(boolean finish, String... chunks) {
+        DefaultDataBufferFactory buffers = DefaultDataBufferFactory.sharedInstance;
+        Flux<DataBuffer> lines = Flux.fromArray(chunks)
+                .map(chunk -> "{\"model\":\"llama3.2\",\"message\":{\"role\":\"assistant\",\"content\":\"%s\"},\"done\":false}\n"
+                        .formatted(chunk.replace("\n", "\\n")))
+                .concatWith(finish ? Flux.just(FINAL_CHUNK) : Flux.never())
+                .map(line -> (DataBuffer) buffers.wrap(line.getBytes(StandardCharsets.UTF_8)))
+                .doOnCancel(() -> cancelled.set(true));
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requestBodies.add(body(request));
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE)
+                            .body(lines)
+                            .build());
+                })
+                .build();
+        return new OllamaLLMAdapter(webClient, new OllamaProperties(null, null, 5, null, null));
+    }
+
+    private static JsonNode body(ClientRequest request) {
+        MockClientHttpRequest http = new MockClientHttpRequest(request.method(), request.url());
+        request.body().insert(http, new BodyInserter.Context() {
+            @Override
+            public List<HttpMessageWriter<?>> messageWriters() {
+                return ExchangeStrategies.withDefaults().messageWriters();
+            }
+
+            @Override
+            public Optional<ServerHttpRequest> serverRequest() {
+                return Optional.empty();
+            }
+
+            @Override
+            public Map<String, Object> hints() {
+                return Map.of();
+            }
+        }).block();
+        try {
+            return new ObjectMapper().readTree(http.getBodyAsString().block());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private SqlStatement translate(OllamaLLMAdapter adapter) {
+        return translate(adapter, "how many users");
+    }
+
+    private SqlStatement translate(OllamaLLMAdapter adapter, String question) {
+        return adapter.translate(NaturalLanguageQuery.of(question), EMPTY, listener);
+    }
+
+    @Nested
+    @DisplayName("when streaming a completion")
+    class WhenStreaming {
+
+        @Test
+        @DisplayName("should stop generating at the end of the first statement")
+        void shouldStopAtSemicolon() {
+            OllamaLLMAdapter adapter = adapter(false, "SELECT", " count(*)", " FROM users", ";", "\nThis counts", " the users.");
+
+            SqlStatement sql = translate(adapter);
+
+            assertThat(sql.value()).isEqualTo("SELECT count(*) FROM users;");
+            assertThat(cancelled).isTrue();
+            assertThat(tokens).containsExactly("SELECT", " count(*)", " FROM users", ";");
+            assertThat(stats.stoppedEarly()).isTrue();
+            assertThat(stats.tokens()).isEqualTo(4);
+            assertThat(stats.usedTokens()).isEqualTo(4);
+            assertThat(stats.timeToFirstToken()).isNotNull();
+        }
+
+        @Test
+        @DisplayName("should stop at a closing code fence")
+        void shouldStopAtClosingFence() {
+            OllamaLLMAdapter adapter = adapter(false, "```sql\n", "SELECT 1", "\n```", "\nExplanation");
+
+            assertThat(translate(adapter).value()).isEqualTo("SELECT 1");
+            assertThat(cancelled).isTrue();
+        }
+
+        @Test
+        @DisplayName("should find the statement after a preamble and a bare fence, which no stop sequence cuts off")
+        void shouldReadPastPreambleAndBareFence() {
+            String beforeEnd = "Here is the query:\n```\nSELECT 1";
+            OllamaLLMAdapter adapter = adapter(true, "Here is the query:\n", "```\n", "SELECT 1", "\n```\n");
+
+            assertThat(translate(adapter).value()).isEqualTo("SELECT 1");
+            // The server ends generation at the first stop sequence, so none may occur before the statement ends
+            assertThat(requestBodies.getFirst().at("/options/stop"))
+                    .extracting(JsonNode::asText)
+                    .allSatisfy(stop -> assertThat(beforeEnd).doesNotContain(stop));
+        }
+
+        @Test
+        @DisplayName("should not stop at a semicolon inside a string literal")
+        void shouldIgnoreQuotedSemicolon() {
+            OllamaLLMAdapter adapter = adapter(false, "SELECT * FROM notes WHERE body = 'a;", "b'", ";", " -- done");
+
+            assertThat(translate(adapter).value()).isEqualTo("SELECT * FROM notes WHERE body = 'a;b';");
+        }
+
+        @Test
+        @DisplayName("should use the whole completion when the model finishes on its own")
+        void shouldFinishWithoutTerminator() {
+            OllamaLLMAdapter adapter = adapter(true, "SELECT", " 1");
+
+            assertThat(translate(adapter).value()).isEqualTo("SELECT 1;");
+            assertThat(stats.stoppedEarly()).isFalse();
+            assertThat(stats.promptTokens()).isEqualTo(12);
+            assertThat(stats.promptEvalTime()).isEqualTo(Duration.ofMillis(35));
+            assertThat(stats.tokens()).isEqualTo(4);
+            assertThat(stats.usedTokens()).isEqualTo(2);
+            assertThat(adapter.metrics().values())
+                    .containsEntry("requests", 1L)
+                    .containsEntry("stopped early", 0L)
+                    .containsEntry("tokens generated", 4L)
+                    .containsEntry("tokens used", "2 (50%)")
+                    .containsEntry("hit num_predict", 0L);
+        }
+    }
+
+    @Nested
+    @DisplayName("when translating asynchronously")
+    class WhenAsync {
+
+        @Test
+        @DisplayName("should return before the model has finished and cancel the request with the future")
+        void shouldNotWaitForModel() {
+            OllamaLLMAdapter adapter = adapter(false, "SELECT", " count(*)");
+
+            CompletableFuture<SqlStatement> translation =
+                    adapter.translateAsync(NaturalLanguageQuery.of("how many users"), EMPTY, listener, SqlValidator.NONE);
+
+            assertThat(translation).isNotDone();
+            assertThat(tokens).containsExactly("SELECT", " count(*)");
+
+            translation.cancel(true);
+
+            assertThat(cancelled).isTrue();
+        }
+
+        @Test
+        @DisplayName("should complete with the statement once it is complete")
+        void shouldCompleteWithStatement() {
+            OllamaLLMAdapter adapter = adapter(false, "SELECT 1", ";", " -- done");
+
+            CompletableFuture<SqlStatement> translation =
+                    adapter.translateAsync(NaturalLanguageQuery.of("one"), EMPTY, listener, SqlValidator.NONE);
+
+            assertThat(translation.join().value()).isEqualTo("SELECT 1;");
+            assertThat(stats.stoppedEarly()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should cancel the request when a waiting caller is interrupted")
+        void shouldCancelOnInterrupt() throws InterruptedException {
+            OllamaLLMAdapter adapter = adapter(false, "SELECT");
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+
+            Thread caller = Thread.ofVirtual().start(() -> {
+                try {
+                    translate(adapter);
+                } catch (RuntimeException e) {
+                    failure.set(e);
+                }
+            });
+            while (tokens.isEmpty()) {
+                Thread.onSpinWait();
+            }
+            caller.interrupt();
+            caller.join(Duration.ofSeconds(5));
+
+            assertThat(failure.get()).isInstanceOf(CancellationException.class);
+            assertThat(cancelled).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("when building requests")
+    class WhenBuildingRequests {
+
+        @Test
+        @DisplayName("should send the schema as an identical system message and only the question as user message")
+        void shouldKeepSystemMessageStable() {
+            OllamaLLMAdapter adapter = adapter(true, "SELECT 1;");
+
+            translate(adapter, "how many users");
+            translate(adapter, "how many orders");
+
+            JsonNode first = requestBodies.get(0);
+            JsonNode second = requestBodies.get(1);
+            assertThat(first.get("keep_alive").asText()).isEqualTo("30m");
+            assertThat(first.at("/messages/0/role").asText()).isEqualTo("system");
+            assertThat(first.at("/messages/0/content").asText())
+                    .isEqualTo(second.at("/messages/0/content").asText())
+                    .doesNotContain("users");
+            assertThat(first.at("/messages/1/content").asText()).contains("how many users");
+            assertThat(first.at("/options/num_ctx").asInt())
+                    .isEqualTo(1024)
+                    .isEqualTo(second.at("/options/num_ctx").asInt());
+            assertThat(adapter.metrics().values().get("first token (repeat)").toString()).endsWith("(1)");
+        }
+
+        @Test
+        @DisplayName("should generate deterministically and stop at the end of the statement")
+        void shouldSendGenerationOptions() {
+            OllamaLLMAdapter adapter = adapter(true, "SELECT 1;");
+
+            translate(adapter, "how many users");
+            translate(adapter, "list the users who placed more than three orders last month, with the total amount "
+                    + "they spent and the date of their most recent order, newest customers first");
+
+            JsonNode options = requestBodies.get(0).get("options");
+            assertThat(options.get("temperature").asDouble()).isZero();
+            assertThat(options.get("seed").asInt()).isEqualTo(42);
+            assertThat(options.get("stop")).extracting(JsonNode::asText).containsExactly(";\n");
+            int shortCap = options.get("num_predict").asInt();
+            int longCap = requestBodies.get(1).at("/options/num_predict").asInt();
+            assertThat(shortCap).isBetween(96, 200);
+            assertThat(longCap).isGreaterThan(shortCap).isLessThanOrEqualTo(512);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SchemaContext.ColumnInfo;
+import org.nexa.querymate.domain.translation.SchemaContext.RelationInfo;
+import org.nexa.querymate.domain.translation.SchemaContext.TableInfo;
+import org.nexa.querymate.infrastructure.config.PromptProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SchemaPrompt")
+class SchemaPromptTest {
+
+    private static final String INSTRUCTIONS = "Translate questions to SQL.";
+
+    private static TableInfo table(String name, RelationInfo... relations) {
+        return new TableInfo("public", name, List.of(
+                new ColumnInfo("id", "bigint", false, true),
+                new ColumnInfo(name + "_label", "character varying", true, false),
+                new ColumnInfo("created_at", "timestamp with time zone", false, false)
+        ), List.of(relations));
+    }
+
+    @Nested
+    @DisplayName("When writing the schema compactly")
+    class WhenCompact {
+
+        @Test
+        @DisplayName("should write one line per table with short types and references")
+        void shouldWriteOneLinePerTable() {
+            TableInfo orders = new TableInfo("sales", "orders", List.of(
+                    new ColumnInfo("id", "integer", false, true),
+                    new ColumnInfo("user_id", "integer", false, false),
+                    new ColumnInfo("total", "numeric", true, false)
+            ), List.of(new RelationInfo("user_id", "users", "id")));
+
+            String prompt = PromptFragments.compact(new SchemaContext(List.of(orders)));
+
+            assertThat(prompt).contains("sales.orders(id int pk, user_id int! -> users.id, total numeric)\n");
+        }
+
+        @Test
+        @DisplayName("should list columns most tables share once")
+        void shouldFactorOutCommonColumns() {
+            SchemaContext schema = new SchemaContext(List.of(table("users"), table("orders"), table("invoices")));
+
+            String prompt = PromptFragments.compact(schema);
+
+            assertThat(prompt)
+                    .contains("+common = created_at timestamptz!\n")
+                    .contains("users(id bigint pk, users_label varchar, +common)\n")
+                    .doesNotContain("users_label varchar, created_at");
+        }
+
+        @Test
+        @DisplayName("should be much shorter than the verbose format")
+        void shouldBeShorterThanVerbose() {
+            SchemaContext schema = new SchemaContext(List.of(table("users"), table("orders"), table("invoices")));
+
+            assertThat(PromptFragments.compact(schema).length()).isLessThan(schema.toPromptString().length() * 2 / 3);
+        }
+    }
+
+    @Nested
+    @DisplayName("When caching table fragments")
+    class WhenCaching {
+
+        private final PromptFragments fragments = new PromptFragments(true);
+
+        @Test
+        @DisplayName("should reuse the fragments of unchanged tables when the schema is refreshed")
+        void shouldReuseUnchangedTables() {
+            TableInfo users = table("users");
+            PromptFragments.Schema before = fragments.forSchema(INSTRUCTIONS, new SchemaContext(List.of(users, table("orders"))));
+
+            TableInfo refreshedUsers = table("users");
+            TableInfo orders = new TableInfo("public", "orders", List.of(new ColumnInfo("id", "bigint", false, true)), List.of());
+            PromptFragments.Schema after = fragments.forSchema(INSTRUCTIONS, new SchemaContext(List.of(refreshedUsers, orders)));
+
+            assertThat(after).isNotSameAs(before);
+            assertThat(after.table(refreshedUsers)).isSameAs(before.table(users));
+            assertThat(after.table(orders).text()).isEqualTo("orders(id bigint pk)\n");
+        }
+
+        @Test
+        @DisplayName("should assemble a subset of tables from the cached encodings")
+        void shouldAssembleSubset() {
+            SchemaContext schema = new SchemaContext(List.of(table("users"), table("orders"), table("invoices")));
+            PromptFragments.Schema rendered = fragments.forSchema(INSTRUCTIONS, schema);
+
+            EncodedText subset = rendered.assemble(List.of(schema.tables().get(0), schema.tables().get(2)), EncodedText.EMPTY);
+
+            assertThat(subset.text())
+                    .startsWith(INSTRUCTIONS + "\n")
+                    .contains("users(", "invoices(")
+                    .doesNotContain("orders(");
+            assertThat(subset.json()).isEqualTo(EncodedText.of(subset.text()).json());
+            assertThat(rendered.full().text()).isEqualTo(INSTRUCTIONS + "\n" + PromptFragments.compact(schema));
+            assertThat(rendered.full()).isSameAs(rendered.full());
+        }
+    }
+
+    @Nested
+    @DisplayName("When budgeting the context window")
+    class WhenBudgeting {
+
+        private final List<TableInfo> tables = new ArrayList<>(IntStream.range(0, 200)
+                .mapToObj(i -> table("filler_%03d".formatted(i)))
+                .toList());
+
+        @Test
+        @DisplayName("should send a schema that fits in full and size the context the same for every question")
+        void shouldKeepFittingSchemaStable() {
+            SchemaPrompt prompt = new SchemaPrompt(new PromptProperties(null, 8192, 512, 4), new TokenEstimator(4));
+            SchemaContext schema = new SchemaContext(tables.subList(0, 5));
+
+            SchemaPrompt.Plan first = prompt.plan(INSTRUCTIONS, schema, "how many filler rows");
+            SchemaPrompt.Plan second = prompt.plan(INSTRUCTIONS, schema, "list the newest ones");
+            SchemaPrompt.Plan warmUp = prompt.plan(INSTRUCTIONS, schema, null);
+
+            assertThat(first.systemMessage()).isEqualTo(second.systemMessage()).isEqualTo(warmUp.systemMessage());
+            assertThat(first.contextTokens()).isEqualTo(1024).isEqualTo(warmUp.contextTokens());
+            assertThat(first.omittedTables()).isZero();
+        }
+
+        @Test
+        @DisplayName("should keep the tables the question mentions and their neighbours when the schema does not fit")
+        void shouldTrimByRelevance() {
+            tables.add(table("customers"));
+            tables.add(table("invoices", new RelationInfo("customer_id", "customers", "id")));
+            SchemaPrompt prompt = new SchemaPrompt(new PromptProperties(null, 2048, 512, 4), new TokenEstimator(4));
+
+            SchemaPrompt.Plan plan = prompt.plan(INSTRUCTIONS, new SchemaContext(tables), "customers who never paid");
+
+            assertThat(plan.contextTokens()).isEqualTo(2048);
+            assertThat(plan.omittedTables()).isPositive();
+            assertThat(plan.systemMessage()).contains("customers(").contains("invoices(").contains("not listed");
+            assertThat(new TokenEstimator(4).estimate(plan.systemMessage())).isLessThanOrEqualTo(2048 - 512 - 256);
+        }
+
+        @Test
+        @DisplayName("should follow the token counts the model reports")
+        void shouldCalibrateEstimate() {
+            TokenEstimator estimator = new TokenEstimator(4);
+
+            estimator.calibrate(3000, 1000);
+            estimator.calibrate(3000, 10);
+
+            assertThat(estimator.charsPerToken()).isEqualTo(3.0);
+            assertThat(estimator.samples()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package org.nexa.querymate.infrastructure.adapters.out.ollama;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.domain.exception.TranslationException;
+import org.nexa.querymate.domain.query.PlanEstimate;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
+import org.nexa.querymate.infrastructure.config.SpeculativeProperties;
+import org.nexa.querymate.infrastructure.config.SpeculativeProperties.Selection;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("SpeculativeLLMAdapter")
+class SpeculativeLLMAdapterTest {
+
+    private static final NaturalLanguageQuery QUESTION = NaturalLanguageQuery.of("count active users");
+    private static final SchemaContext SCHEMA = SchemaContext.empty();
+
+    private static final String FULL_SCAN = "SELECT count(*) FROM users WHERE lower(status) = 'active';";
+    private static final String INDEXED = "SELECT count(*) FROM users WHERE status = 'active';";
+    private static final String WRONG_TABLE = "SELECT count(*) FROM user_table WHERE status = 'active';";
+
+    private static final Map<String, Double> COSTS = Map.of(FULL_SCAN, 1200.0, INDEXED, 40.0);
+    private static final SqlValidator PLANNER = sql -> COSTS.containsKey(sql.value())
+            ? SqlValidator.Verdict.valid(new PlanEstimate(COSTS.get(sql.value()), 1))
+            : SqlValidator.Verdict.rejected("relation \"user_table\" does not exist");
+
+    private LLMPort main;
+    private LoadBalancingLLMAdapter first;
+    private LoadBalancingLLMAdapter second;
+
+    @BeforeEach
+    void setUp() {
+        main = mock(LLMPort.class);
+        first = mock(LoadBalancingLLMAdapter.class);
+        second = mock(LoadBalancingLLMAdapter.class);
+    }
+
+    private SpeculativeLLMAdapter adapter(Selection selection) {
+        return new SpeculativeLLMAdapter(main, List.of(first, second),
+                new SpeculativeProperties(3, 0.8, selection, 2000, List.of()));
+    }
+
+    private void answers(String mainSql, String firstSql, String secondSql) {
+        when(main.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of(mainSql));
+        when(first.translate(any(), any(), any())).thenReturn(SqlStatement.of(firstSql));
+        when(second.translate(any(), any(), any())).thenReturn(SqlStatement.of(secondSql));
+    }
+
+    @Nested
+    @DisplayName("When choosing the first valid candidate")
+    class WhenFirstValid {
+
+        @Test
+        @DisplayName("should replace a main answer the database rejects with a valid candidate")
+        void shouldPickValidCandidate() {
+            answers(WRONG_TABLE, INDEXED, WRONG_TABLE);
+            SpeculativeLLMAdapter speculative = adapter(Selection.FIRST_VALID);
+
+            SqlStatement sql = speculative.translate(QUESTION, SCHEMA, TokenListener.NONE, PLANNER);
+
+            assertThat(sql.value()).isEqualTo(INDEXED);
+            assertThat(speculative.metrics().values().get("candidate 1").toString()).contains("1 won");
+        }
+
+        @Test
+        @DisplayName("should cancel candidates still generating once a winner is chosen")
+        void shouldCancelSlowCandidates() throws InterruptedException {
+            CountDownLatch interrupted = new CountDownLatch(2);
+            when(main.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of(INDEXED));
+            when(first.translate(any(), any(), any())).thenAnswer(invocation -> slow(interrupted));
+            when(second.translate(any(), any(), any())).thenAnswer(invocation -> slow(interrupted));
+            SpeculativeLLMAdapter speculative = adapter(Selection.FIRST_VALID);
+
+            SqlStatement sql = speculative.translate(QUESTION, SCHEMA, TokenListener.NONE, PLANNER);
+
+            assertThat(sql.value()).isEqualTo(INDEXED);
+            assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(speculative.metrics().values()).containsEntry("cancelled", 2L);
+        }
+
+        private SqlStatement slow(CountDownLatch interrupted) {
+            try {
+                Thread.sleep(10_000);
+                return SqlStatement.of(FULL_SCAN);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw TranslationException.llmUnavailable(e);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("When choosing the cheapest candidate")
+    class WhenCheapest {
+
+        @Test
+        @DisplayName("should run the valid candidate with the lowest planner cost")
+        void shouldPickCheapestPlan() {
+            answers(FULL_SCAN, WRONG_TABLE, INDEXED);
+            SpeculativeLLMAdapter speculative = adapter(Selection.CHEAPEST);
+
+            SqlStatement sql = speculative.translate(QUESTION, SCHEMA, TokenListener.NONE, PLANNER);
+
+            assertThat(sql.value()).isEqualTo(INDEXED);
+            assertThat(speculative.metrics().values()).containsEntry("cost vs main", "3%");
+        }
+
+        @Test
+        @DisplayName("should plan a statement several candidates agree on only once")
+        void shouldValidateDuplicatesOnce() {
+            answers(INDEXED, INDEXED, INDEXED);
+            AtomicInteger validations = new AtomicInteger();
+
+            adapter(Selection.CHEAPEST).translate(QUESTION, SCHEMA, TokenListener.NONE, statement -> {
+                validations.incrementAndGet();
+                return PLANNER.check(statement);
+            });
+
+            assertThat(validations).hasValue(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("When translating asynchronously")
+    class WhenAsynchronous {
+
+        private final CompletableFuture<SqlStatement> mainAnswer = new CompletableFuture<>();
+        private final CompletableFuture<SqlStatement> firstAnswer = new CompletableFuture<>();
+        private final CompletableFuture<SqlStatement> secondAnswer = new CompletableFuture<>();
+
+        @BeforeEach
+        void answerLater() {
+            when(main.translateAsync(any(), any(), any(), any())).thenReturn(mainAnswer);
+            when(first.translateAsync(any(), any(), any(), any())).thenReturn(firstAnswer);
+            when(second.translateAsync(any(), any(), any(), any())).thenReturn(secondAnswer);
+        }
+
+        @Test
+        @DisplayName("should settle on the first valid candidate and cancel the others")
+        void shouldSettleOnFirstValid() throws Exception {
+            SpeculativeLLMAdapter speculative = adapter(Selection.FIRST_VALID);
+
+            CompletableFuture<SqlStatement> translation = speculative.translateAsync(QUESTION, SCHEMA, TokenListener.NONE, PLANNER);
+            mainAnswer.complete(SqlStatement.of(WRONG_TABLE));
+            firstAnswer.complete(SqlStatement.of(INDEXED));
+
+            assertThat(translation.get(5, TimeUnit.SECONDS).value()).isEqualTo(INDEXED);
+            assertThat(secondAnswer).isCancelled();
+            assertThat(speculative.metrics().values()).containsEntry("cancelled", 1L);
+        }
+
+        @Test
+        @DisplayName("should fall back to the main answer once every candidate fails validation")
+        void shouldFallBackWhenNoneValid() throws Exception {
+            SpeculativeLLMAdapter speculative = adapter(Selection.CHEAPEST);
+
+            CompletableFuture<SqlStatement> translation = speculative.translateAsync(QUESTION, SCHEMA, TokenListener.NONE, PLANNER);
+            secondAnswer.completeExceptionally(TranslationException.llmUnavailable(new IllegalStateException("down")));
+            firstAnswer.complete(SqlStatement.of(WRONG_TABLE));
+            mainAnswer.complete(SqlStatement.of(WRONG_TABLE));
+
+            assertThat(translation.get(5, TimeUnit.SECONDS).value()).isEqualTo(WRONG_TABLE);
+            assertThat(speculative.metrics().values()).containsEntry("none valid", 1L);
+        }
+
+        @Test
+        @DisplayName("should cancel every candidate when the translation is cancelled")
+        void shouldCancelCandidates() {
+            CompletableFuture<SqlStatement> translation = adapter(Selection.FIRST_VALID)
+                    .translateAsync(QUESTION, SCHEMA, TokenListener.NONE, PLANNER);
+
+            translation.cancel(true);
+
+            assertThat(List.of(mainAnswer, firstAnswer, secondAnswer)).allMatch(CompletableFuture::isCancelled);
+        }
+    }
+
+    @Test
+    @DisplayName("should fall back to the main answer when no candidate validates")
+    void shouldFallBackToMainAnswer() {
+        answers(WRONG_TABLE, "Here is your query;", WRONG_TABLE);
+        SpeculativeLLMAdapter speculative = adapter(Selection.FIRST_VALID);
+
+        SqlStatement sql = speculative.translate(QUESTION, SCHEMA, TokenListener.NONE, PLANNER);
+
+        assertThat(sql.value()).isEqualTo(WRONG_TABLE);
+        assertThat(speculative.metrics().values()).containsEntry("none valid", 1L);
+    }
+
+    @Test
+    @DisplayName("should ask only the main model when there is nothing to validate against")
+    void shouldSkipCandidatesWithoutValidator() {
+        answers(INDEXED, FULL_SCAN, FULL_SCAN);
+
+        SqlStatement sql = adapter(Selection.CHEAPEST).translate(QUESTION, SCHEMA);
+
+        assertThat(sql.value()).isEqualTo(INDEXED);
+        verify(first, never()).translate(any(), any(), any());
+        verify(second, never()).translate(any(), any(), any());
+    }
+}
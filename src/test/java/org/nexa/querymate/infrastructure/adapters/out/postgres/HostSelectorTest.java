@@ -0,0 +1,63 @@
+package org.nexa.querymate.infrastructure.adapters.out.postgres;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.nexa.querymate.domain.connection.HostAddress;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("HostSelector")
+class HostSelectorTest {
+
+    private static final HostAddress FAST = HostAddress.parse("fast");
+    private static final HostAddress SLOW = HostAddress.parse("slow");
+    private static final HostAddress DOWN = HostAddress.parse("down");
+
+    @Nested
+    @DisplayName("when ranking probe results")
+    class WhenRanking {
+
+        @Test
+        @DisplayName("should order reachable hosts by latency and keep unreachable hosts last")
+        void shouldRankByLatency() {
+            List<HostSelector.Probe> probes = List.of(
+                    new HostSelector.Probe(DOWN, null, "Connection refused"),
+                    new HostSelector.Probe(SLOW, Duration.ofMillis(40), null),
+                    new HostSelector.Probe(FAST, Duration.ofMillis(2), null)
+            );
+
+            assertThat(HostSelector.rank(probes)).containsExactly(FAST, SLOW, DOWN);
+        }
+    }
+
+    @Nested
+    @DisplayName("when probing hosts")
+    class WhenProbing {
+
+        @Test
+        @DisplayName("should measure reachable hosts and report refused connections")
+        void shouldProbeInParallel() throws IOException {
+            HostAddress closed;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                closed = new HostAddress("localhost", socket.getLocalPort());
+            }
+
+            try (ServerSocket listening = new ServerSocket(0)) {
+                HostAddress open = new HostAddress("localhost", listening.getLocalPort());
+
+                List<HostSelector.Probe> probes = new HostSelector(Duration.ofSeconds(1)).probe(List.of(closed, open));
+
+                assertThat(probes).extracting(HostSelector.Probe::address).containsExactly(closed, open);
+                assertThat(probes.get(0).reachable()).isFalse();
+                assertThat(probes.get(1).reachable()).isTrue();
+                assertThat(probes.get(1).latency()).isPositive();
+            }
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package org.nexa.querymate.infrastructure.adapters.out.postgres;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.nexa.querymate.application.ports.out.RowSink;
+import org.nexa.querymate.domain.connection.ConnectionConfig;
+import org.nexa.querymate.domain.connection.HostAddress;
+import org.nexa.querymate.domain.connection.HostRole;
+import org.nexa.querymate.domain.connection.HostStatus;
+import org.nexa.querymate.domain.exception.QueryExecutionException;
+import org.nexa.querymate.domain.query.Deadline;
+import org.nexa.querymate.domain.query.QueryOrigin;
+import org.nexa.querymate.domain.query.QueryResult;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.infrastructure.config.MultiHostProperties;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.intThat;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("PostgresDatabaseAdapter")
+class PostgresDatabaseAdapterTest {
+
+    private static final String SET_TIMEOUT = "SELECT set_config('statement_timeout', ?, true)";
+    private static final String QUERY = "SELECT id FROM users";
+    private static final ConnectionConfig CONFIG = new ConnectionConfig("db", 5432, "app", "app", "secret");
+
+    private Connection connection;
+    private Statement statement;
+    private PreparedStatement setTimeout;
+    private PostgresDatabaseAdapter adapter;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = mock(Connection.class);
+        statement = mock(Statement.class);
+        setTimeout = mock(PreparedStatement.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.prepareStatement(SET_TIMEOUT)).thenReturn(setTimeout);
+        when(statement.execute(QUERY)).thenReturn(true);
+        when(statement.getResultSet()).thenAnswer(invocation -> resultSet("id", 1, 2, 3));
+
+        adapter = new PostgresDatabaseAdapter(new MultiHostProperties(0, 0, 0, 0), 0, (config, host) -> connection);
+        adapter.connect(CONFIG);
+    }
+
+    @AfterEach
+    void tearDown() {
+        adapter.disconnect();
+    }
+
+    @Nested
+    @DisplayName("when running a budgeted statement outside a transaction")
+    class WhenOutsideTransaction {
+
+        @Test
+        @DisplayName("should set the server timeout to the millisecond in a transaction of its own")
+        void shouldBoundOnServer() throws SQLException {
+            QueryResult result = adapter.execute(SqlStatement.of(QUERY), QueryOrigin.NATURAL_LANGUAGE,
+                    Deadline.after(Duration.ofMillis(200)));
+
+            assertThat(column(result)).containsExactly(1, 2, 3);
+            InOrder order = inOrder(connection, setTimeout, statement);
+            order.verify(connection).setAutoCommit(false);
+            ArgumentCaptor<String> timeout = ArgumentCaptor.forClass(String.class);
+            order.verify(setTimeout).setString(eq(1), timeout.capture());
+            order.verify(statement).execute(QUERY);
+            order.verify(connection).commit();
+            order.verify(connection).setAutoCommit(true);
+            assertThat(Long.parseLong(timeout.getValue())).isBetween(1L, 200L);
+            verify(statement, never()).setQueryTimeout(intThat(seconds -> seconds > 0));
+        }
+
+        @Test
+        @DisplayName("should fetch rows through a cursor")
+        void shouldFetchThroughCursor() throws SQLException {
+            adapter.execute(SqlStatement.of(QUERY), QueryOrigin.NATURAL_LANGUAGE, Deadline.after(Duration.ofSeconds(5)));
+
+            InOrder order = inOrder(connection, statement);
+            order.verify(connection).setAutoCommit(false);
+            order.verify(statement).setFetchSize(1000);
+            order.verify(statement).execute(QUERY);
+        }
+
+        @Test
+        @DisplayName("should roll back and restore autocommit when the timeout cancels the statement")
+        void shouldRollBackOnTimeout() throws SQLException {
+            when(statement.execute(QUERY)).thenThrow(
+                    new SQLException("canceling statement due to statement timeout", "57014"));
+
+            assertThatThrownBy(() -> adapter.execute(SqlStatement.of(QUERY), QueryOrigin.NATURAL_LANGUAGE,
+                    Deadline.after(Duration.ofSeconds(5))))
+                    .isInstanceOf(QueryExecutionException.class)
+                    .hasMessageContaining("5000 ms budget");
+
+            verify(connection).rollback();
+            verify(connection, never()).commit();
+            verify(connection).setAutoCommit(true);
+        }
+
+        @Test
+        @DisplayName("should keep a query timeout for statements that cannot run in a transaction")
+        void shouldUseQueryTimeoutForVacuum() throws SQLException {
+            adapter.execute(SqlStatement.of("VACUUM users"), QueryOrigin.DIRECT_SQL,
+                    Deadline.after(Duration.ofMillis(1500)));
+
+            verify(statement).setQueryTimeout(2);
+            verify(connection, never()).setAutoCommit(anyBoolean());
+            verify(setTimeout, never()).setString(eq(1), anyString());
+        }
+
+        @Test
+        @DisplayName("should leave the session alone without a budget")
+        void shouldLeaveUnboundedAlone() throws SQLException {
+            adapter.execute(SqlStatement.of(QUERY));
+
+            verify(connection, never()).setAutoCommit(anyBoolean());
+            verify(setTimeout, never()).setString(eq(1), anyString());
+        }
+    }
+
+    @Nested
+    @DisplayName("when running a budgeted statement inside a transaction")
+    class WhenInsideTransaction {
+
+        @BeforeEach
+        void setUp() throws SQLException {
+            ResultSet show = resultSet("statement_timeout", "5s");
+            when(statement.executeQuery("SHOW statement_timeout")).thenReturn(show);
+            adapter.execute(SqlStatement.of("BEGIN"));
+        }
+
+        @Test
+        @DisplayName("should set the server timeout for the statement and restore the transaction's own")
+        void shouldRestoreTimeout() throws SQLException {
+            adapter.execute(SqlStatement.of(QUERY), QueryOrigin.NATURAL_LANGUAGE,
+                    Deadline.after(Duration.ofMillis(200)));
+
+            InOrder order = inOrder(setTimeout, statement);
+            ArgumentCaptor<String> timeout = ArgumentCaptor.forClass(String.class);
+            order.verify(setTimeout).setString(eq(1), timeout.capture());
+            order.verify(statement).execute(QUERY);
+            order.verify(setTimeout).setString(1, "5s");
+            assertThat(Long.parseLong(timeout.getValue())).isBetween(1L, 200L);
+            verify(connection, never()).setAutoCommit(anyBoolean());
+            verify(connection, never()).commit();
+        }
+
+        @Test
+        @DisplayName("should restore the transaction's timeout when the statement fails")
+        void shouldRestoreTimeoutOnFailure() throws SQLException {
+            when(statement.execute(QUERY)).thenThrow(new SQLException("relation \"users\" does not exist", "42P01"));
+
+            assertThatThrownBy(() -> adapter.execute(SqlStatement.of(QUERY), QueryOrigin.NATURAL_LANGUAGE,
+                    Deadline.after(Duration.ofSeconds(5))))
+                    .isInstanceOf(QueryExecutionException.class);
+
+            verify(setTimeout).setString(1, "5s");
+            verify(connection, never()).rollback();
+        }
+    }
+
+    @Nested
+    @DisplayName("when streaming rows")
+    class WhenStreaming {
+
+        @Test
+        @DisplayName("should read through a cursor and stop when the sink has enough")
+        void shouldStopAtSink() throws SQLException {
+            ResultSet rows = resultSet("id", 1, 2, 3);
+            when(statement.getResultSet()).thenReturn(rows);
+            List<Object> received = new ArrayList<>();
+
+            adapter.stream(SqlStatement.of(QUERY), QueryOrigin.DIRECT_SQL, Deadline.NONE, new RowSink() {
+                @Override
+                public void columns(List<String> columns) {
+                    assertThat(columns).containsExactly("id");
+                }
+
+                @Override
+                public boolean accept(List<Object> row) {
+                    received.add(row.getFirst());
+                    return false;
+                }
+            });
+
+            assertThat(received).containsExactly(1);
+            verify(rows, times(1)).next();
+            InOrder order = inOrder(connection, statement);
+            order.verify(connection).setAutoCommit(false);
+            order.verify(statement).setFetchSize(1000);
+            order.verify(connection).commit();
+            order.verify(connection).setAutoCommit(true);
+        }
+    }
+
+    @Nested
+    @DisplayName("when the active host fails")
+    class WhenFailingOver {
+
+        private HostAddress primary;
+        private HostAddress standby;
+        private Statement primaryStatement;
+        private Statement standbyStatement;
+        private PostgresDatabaseAdapter multiHost;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            // Closed ports refuse the probes at once, so the hosts stay in their configured order
+            primary = closedPort();
+            standby = closedPort();
+            primaryStatement = mock(Statement.class);
+            standbyStatement = mock(Statement.class);
+            when(primaryStatement.execute(anyString()))
+                    .thenThrow(new SQLException("An I/O error occurred while sending to the backend", "08006"));
+            doReturn(false).when(primaryStatement).execute(startsWith("SET"));
+            doReturn(false).when(primaryStatement).execute("BEGIN");
+            when(standbyStatement.execute(QUERY)).thenReturn(true);
+            when(standbyStatement.getResultSet()).thenAnswer(invocation -> resultSet("id", 4, 5));
+            Map<HostAddress, Connection> connections = Map.of(
+                    primary, connection(primaryStatement),
+                    standby, connection(standbyStatement)
+            );
+
+            multiHost = new PostgresDatabaseAdapter(new MultiHostProperties(200, 1, 3600, 0), 0,
+                    (config, host) -> connections.get(host));
+            multiHost.connect(new ConnectionConfig(primary.host(), primary.port(), "app", "app", "secret",
+                    List.of(), List.of(standby)));
+        }
+
+        @AfterEach
+        void tearDown() {
+            multiHost.disconnect();
+        }
+
+        @Test
+        @DisplayName("should retry a read-only statement on another host")
+        void shouldRetryReadOnStandby() {
+            QueryResult result = multiHost.execute(SqlStatement.of(QUERY));
+
+            assertThat(column(result)).containsExactly(4, 5);
+            assertThat(activeHost()).isEqualTo(standby);
+        }
+
+        @Test
+        @DisplayName("should not retry a write")
+        void shouldNotRetryWrite() throws SQLException {
+            String insert = "INSERT INTO users (id) VALUES (6)";
+
+            assertThatThrownBy(() -> multiHost.execute(SqlStatement.of(insert)))
+                    .isInstanceOf(QueryExecutionException.class)
+                    .hasMessageContaining("was not retried");
+
+            assertThat(activeHost()).isEqualTo(standby);
+            verify(standbyStatement, never()).execute(insert);
+        }
+
+        @Test
+        @DisplayName("should not retry a read that depends on session settings")
+        void shouldNotRetryWithSessionState() throws SQLException {
+            multiHost.execute(SqlStatement.of("SET search_path TO app"));
+
+            assertThatThrownBy(() -> multiHost.execute(SqlStatement.of(QUERY)))
+                    .isInstanceOf(QueryExecutionException.class)
+                    .hasMessageContaining("was not retried");
+
+            verify(standbyStatement, never()).execute(QUERY);
+        }
+
+        @Test
+        @DisplayName("should not retry a read inside a transaction")
+        void shouldNotRetryInTransaction() throws SQLException {
+            multiHost.execute(SqlStatement.of("BEGIN"));
+
+            assertThatThrownBy(() -> multiHost.execute(SqlStatement.of(QUERY)))
+                    .isInstanceOf(QueryExecutionException.class)
+                    .hasMessageContaining("was not retried");
+
+            verify(standbyStatement, never()).execute(QUERY);
+            assertThat(multiHost.hasSessionState()).isFalse();
+        }
+
+        private HostAddress activeHost() {
+            return multiHost.hostStatuses().stream()
+                    .filter(status -> status.role() == HostRole.ACTIVE)
+                    .map(HostStatus::address)
+                    .findFirst()
+                    .orElseThrow();
+        }
+
+        private static Connection connection(Statement statement) throws SQLException {
+            Connection connection = mock(Connection.class);
+            when(connection.createStatement()).thenReturn(statement);
+            return connection;
+        }
+
+        private static HostAddress closedPort() throws IOException {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                return new HostAddress("localhost", socket.getLocalPort());
+            }
+        }
+    }
+
+    static ResultSet resultSet(String column, Object... values) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(rs.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(1);
+        when(metaData.getColumnLabel(1)).thenReturn(column);
+        AtomicInteger row = new AtomicInteger();
+        when(rs.next()).thenAnswer(invocation -> row.incrementAndGet() <= values.length);
+        when(rs.getObject(1)).thenAnswer(invocation -> values[row.get() - 1]);
+        when(rs.getString(1)).thenAnswer(invocation -> String.valueOf(values[row.get() - 1]));
+        return rs;
+    }
+
+    static List<Object> column(QueryResult result) {
+        return result.rows().stream().map(List::getFirst).toList();
+    }
+}
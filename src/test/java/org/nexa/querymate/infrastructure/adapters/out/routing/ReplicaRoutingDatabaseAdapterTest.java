@@ -0,0 +1,184 @@
+package org.nexa.querymate.infrastructure.adapters.out.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.nexa.querymate.application.ports.out.DatabasePort;
+import org.nexa.querymate.application.ports.out.RowSink;
+import org.nexa.querymate.domain.connection.ConnectionConfig;
+import org.nexa.querymate.domain.connection.HostAddress;
+import org.nexa.querymate.domain.exception.ConnectionException;
+import org.nexa.querymate.domain.query.Deadline;
+import org.nexa.querymate.domain.query.QueryOrigin;
+import org.nexa.querymate.domain.query.QueryResult;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.infrastructure.config.ReplicaRoutingProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ReplicaRoutingDatabaseAdapter")
+class ReplicaRoutingDatabaseAdapterTest {
+
+    private static final SqlStatement READ = SqlStatement.of("SELECT * FROM users");
+    private static final QueryResult PRIMARY_RESULT = QueryResult.affected(1, Duration.ZERO);
+    private static final QueryResult REPLICA_RESULT = QueryResult.affected(2, Duration.ZERO);
+
+    private DatabasePort primary;
+    private DatabasePort replica;
+    private ReplicaRoutingDatabaseAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        primary = mock(DatabasePort.class);
+        replica = mock(DatabasePort.class);
+        when(primary.execute(any())).thenReturn(PRIMARY_RESULT);
+        when(replica.isConnected()).thenReturn(true);
+        when(replica.execute(any())).thenReturn(REPLICA_RESULT);
+        when(replica.execute(argThat(s -> s != null && s.value().contains("pg_last_xact_replay_timestamp"))))
+                .thenReturn(new QueryResult(List.of("lag"), List.of(List.of(0)), new QueryResult.QueryMetadata(1, Duration.ZERO)));
+
+        adapter = new ReplicaRoutingDatabaseAdapter(
+                primary,
+                () -> replica,
+                new ReplicaRoutingProperties(null, null, 10, 60)
+        );
+        adapter.connect(new ConnectionConfig("primary", 5432, "app", "user", "pass",
+                List.of(HostAddress.parse("replica1"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        adapter.disconnect();
+    }
+
+    @Nested
+    @DisplayName("when routing statements")
+    class WhenRouting {
+
+        @Test
+        @DisplayName("should send read-only statements to the replica")
+        void shouldRouteReads() {
+            QueryResult result = adapter.execute(READ, QueryOrigin.NATURAL_LANGUAGE);
+
+            assertThat(result.metadata().affectedRows()).isEqualTo(2);
+            assertThat(result.metadata().timings())
+                    .extracting(QueryResult.Timing::label)
+                    .containsExactly("replica replica1:5432");
+            verify(primary, never()).execute(READ);
+        }
+
+        @Test
+        @DisplayName("should keep writes on the primary")
+        void shouldKeepWritesOnPrimary() {
+            SqlStatement write = SqlStatement.of("UPDATE users SET name = 'x'");
+
+            assertThat(adapter.execute(write)).isSameAs(PRIMARY_RESULT);
+            verify(replica, never()).execute(write);
+        }
+
+        @Test
+        @DisplayName("should keep reads on the primary while its session holds a transaction or session state")
+        void shouldPinSessionStateToPrimary() {
+            when(primary.hasSessionState()).thenReturn(true);
+            QueryResult pinned = adapter.execute(READ);
+            when(primary.hasSessionState()).thenReturn(false);
+            QueryResult routed = adapter.execute(READ);
+
+            assertThat(pinned).isSameAs(PRIMARY_RESULT);
+            assertThat(routed.metadata().affectedRows()).isEqualTo(2);
+            verify(replica, times(1)).execute(READ);
+        }
+
+        @Test
+        @DisplayName("should close the previous replicas when reconnecting")
+        void shouldCloseReplicasOnReconnect() {
+            adapter.connect(new ConnectionConfig("primary", 5432, "app", "user", "pass",
+                    List.of(HostAddress.parse("replica1"))));
+
+            verify(replica, times(1)).disconnect();
+        }
+
+        @Test
+        @DisplayName("should fall back to the primary when the replica connection fails")
+        void shouldFallBackOnReplicaFailure() {
+            when(replica.execute(READ)).thenThrow(ConnectionException.connectionClosed());
+
+            assertThat(adapter.execute(READ)).isSameAs(PRIMARY_RESULT);
+            assertThat(adapter.execute(READ)).isSameAs(PRIMARY_RESULT);
+            verify(replica, times(1)).execute(READ);
+        }
+
+        @Test
+        @DisplayName("should pass a request's deadline on to the replica")
+        void shouldPassDeadlineToReplica() {
+            Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+            when(replica.execute(READ, QueryOrigin.NATURAL_LANGUAGE, deadline)).thenReturn(REPLICA_RESULT);
+
+            QueryResult result = adapter.execute(READ, QueryOrigin.NATURAL_LANGUAGE, deadline);
+
+            assertThat(result.metadata().affectedRows()).isEqualTo(2);
+            verify(replica).execute(READ, QueryOrigin.NATURAL_LANGUAGE, deadline);
+        }
+    }
+
+    @Nested
+    @DisplayName("when streaming rows")
+    class WhenStreaming {
+
+        @Test
+        @DisplayName("should stream reads from the replica and fall back to the primary before any rows arrive")
+        void shouldFallBackBeforeRows() {
+            RowSink sink = mock(RowSink.class);
+            adapter.stream(READ, QueryOrigin.NATURAL_LANGUAGE, Deadline.NONE, sink);
+            verify(replica).stream(eq(READ), eq(QueryOrigin.NATURAL_LANGUAGE), eq(Deadline.NONE), any());
+
+            doThrow(ConnectionException.connectionClosed()).when(replica).stream(any(), any(), any(), any());
+            adapter.stream(READ, QueryOrigin.NATURAL_LANGUAGE, Deadline.NONE, sink);
+
+            verify(primary).stream(READ, QueryOrigin.NATURAL_LANGUAGE, Deadline.NONE, sink);
+        }
+
+        @Test
+        @DisplayName("should not run a read again on the primary once the replica has handed over rows")
+        void shouldNotRetryAfterRows() {
+            List<List<Object>> rows = new ArrayList<>();
+            doAnswer(invocation -> {
+                RowSink sink = invocation.getArgument(3);
+                sink.columns(List.of("id"));
+                sink.accept(List.of(1));
+                throw ConnectionException.connectionClosed();
+            }).when(replica).stream(any(), any(), any(), any());
+
+            assertThatThrownBy(() -> adapter.stream(READ, QueryOrigin.NATURAL_LANGUAGE, Deadline.NONE, new RowSink() {
+                @Override
+                public void columns(List<String> columns) {
+                }
+
+                @Override
+                public boolean accept(List<Object> row) {
+                    return rows.add(row);
+                }
+            })).isInstanceOf(ConnectionException.class);
+
+            assertThat(rows).containsExactly(List.of(1));
+            verify(primary, never()).stream(any(), any(), any(), any());
+        }
+    }
+}
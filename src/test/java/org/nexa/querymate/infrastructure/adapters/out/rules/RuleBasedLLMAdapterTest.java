@@ -0,0 +1,171 @@
+package org.nexa.querymate.infrastructure.adapters.out.rules;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SchemaContext.ColumnInfo;
+import org.nexa.querymate.domain.translation.SchemaContext.TableInfo;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
+import org.nexa.querymate.infrastructure.config.RulesProperties;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("RuleBasedLLMAdapter")
+class RuleBasedLLMAdapterTest {
+
+    private static final SchemaContext SCHEMA = new SchemaContext(List.of(
+            new TableInfo("public", "users", List.of(
+                    new ColumnInfo("id", "integer", false, true),
+                    new ColumnInfo("name", "text", false, false),
+                    new ColumnInfo("status", "text", false, false)), List.of()),
+            new TableInfo("public", "order_items", List.of(
+                    new ColumnInfo("id", "integer", false, true),
+                    new ColumnInfo("order_id", "integer", false, false),
+                    new ColumnInfo("unit_price", "numeric", false, false)), List.of()),
+            new TableInfo("public", "categories", List.of(
+                    new ColumnInfo("id", "integer", false, true)), List.of()),
+            new TableInfo("public", "order", List.of(
+                    new ColumnInfo("id", "integer", false, true)), List.of()),
+            new TableInfo("billing", "invoices", List.of(
+                    new ColumnInfo("id", "integer", false, true),
+                    new ColumnInfo("total", "numeric", false, false)), List.of()),
+            new TableInfo("archive", "invoices", List.of(
+                    new ColumnInfo("id", "integer", false, true)), List.of())
+    ));
+
+    private LLMPort llm;
+    private RuleBasedLLMAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        llm = mock(LLMPort.class);
+        when(llm.translate(any(), any(), any(), any())).thenReturn(SqlStatement.of("SELECT 'from the model';"));
+        adapter = new RuleBasedLLMAdapter(llm, new RulesProperties(null));
+    }
+
+    private SqlStatement translate(String question) {
+        return adapter.translate(NaturalLanguageQuery.of(question), SCHEMA);
+    }
+
+    @Nested
+    @DisplayName("When a question fits a pattern")
+    class WhenMatched {
+
+        @ParameterizedTest(name = "{0}")
+        @CsvSource(delimiter = '|', value = {
+                "show users                               | SELECT * FROM users;",
+                "List all the users.                      | SELECT * FROM users;",
+                "count users                              | SELECT count(*) FROM users;",
+                "How many users are there?                | SELECT count(*) FROM users;",
+                "show order items                         | SELECT * FROM order_items;",
+                "count categories                         | SELECT count(*) FROM categories;",
+                "first 10 rows of billing.invoices        | SELECT * FROM billing.invoices LIMIT 10;",
+                "top 5 order items by unit price          | SELECT * FROM order_items ORDER BY unit_price DESC LIMIT 5;",
+                "bottom 3 order items by unit price       | SELECT * FROM order_items ORDER BY unit_price ASC LIMIT 3;",
+                "show users ordered by name desc          | SELECT * FROM users ORDER BY name DESC;",
+                "show orders                              | SELECT * FROM \"order\";"
+        })
+        @DisplayName("should translate without asking the model")
+        void shouldTranslateLocally(String question, String expected) {
+            assertThat(translate(question).value()).isEqualTo(expected);
+            verify(llm, never()).translate(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should bind filter values as parameters")
+        void shouldBindFilters() {
+            SqlStatement sql = translate("list users where status is 'Active' and id = 42");
+
+            assertThat(sql.value()).isEqualTo("SELECT * FROM users WHERE status = ? AND id = ?;");
+            assertThat(sql.parameters()).containsExactly("Active", "42");
+        }
+
+        @Test
+        @DisplayName("should leave unquoted words to the model, as their case is lost")
+        void shouldNotBindLowercasedWords() {
+            assertThat(translate("list users where status is Active").value()).isEqualTo("SELECT 'from the model';");
+            assertThat(translate("list users whose name is \"Bob\"").parameters()).containsExactly("Bob");
+        }
+
+        @Test
+        @DisplayName("should test for NULL instead of binding it")
+        void shouldTestForNull() {
+            SqlStatement sql = translate("count users where status is null and id = 1");
+
+            assertThat(sql.value()).isEqualTo("SELECT count(*) FROM users WHERE status IS NULL AND id = ?;");
+            assertThat(sql.parameters()).containsExactly("1");
+            assertThat(translate("show users where status is null").value())
+                    .isEqualTo("SELECT * FROM users WHERE status IS NULL;");
+        }
+
+        @Test
+        @DisplayName("should report its hit rate")
+        void shouldReportHitRate() {
+            translate("show users");
+            translate("which users signed up last week");
+
+            assertThat(adapter.metrics().values())
+                    .containsEntry("hits", 1L)
+                    .containsEntry("hit rate", "50.0%");
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {
+            "show invoices",
+            "top 10 users",
+            "last 5 users",
+            "show users where id > 10",
+            "show users by signup date",
+            "count users by status",
+            "show customers",
+            "which users signed up last week"
+    })
+    @DisplayName("should leave ambiguous or unsupported questions to the model")
+    void shouldFallThrough(String question) {
+        assertThat(translate(question).value()).isEqualTo("SELECT 'from the model';");
+    }
+
+    @Test
+    @DisplayName("should ask the model for everything when disabled")
+    void shouldPassThroughWhenDisabled() {
+        RuleBasedLLMAdapter disabled = new RuleBasedLLMAdapter(llm, new RulesProperties(false));
+
+        assertThat(disabled.translate(NaturalLanguageQuery.of("show users"), SCHEMA).value())
+                .isEqualTo("SELECT 'from the model';");
+    }
+
+    @Test
+    @DisplayName("should answer a matched question asynchronously without the model")
+    void shouldAnswerAsynchronously() {
+        when(llm.translateAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(SqlStatement.of("SELECT 'from the model';")));
+
+        CompletableFuture<SqlStatement> matched = adapter.translateAsync(
+                NaturalLanguageQuery.of("count users"), SCHEMA, TokenListener.NONE, SqlValidator.NONE);
+        CompletableFuture<SqlStatement> missed = adapter.translateAsync(
+                NaturalLanguageQuery.of("show customers"), SCHEMA, TokenListener.NONE, SqlValidator.NONE);
+
+        assertThat(matched).isCompleted();
+        assertThat(matched.join().value()).isEqualTo("SELECT count(*) FROM users;");
+        assertThat(missed.join().value()).isEqualTo("SELECT 'from the model';");
+        verify(llm, never()).translate(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,265 @@
+package org.nexa.querymate.infrastructure.adapters.out.sharding;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.nexa.querymate.application.ports.out.DatabasePort;
+import org.nexa.querymate.application.ports.out.RowSink;
+import org.nexa.querymate.domain.connection.ConnectionConfig;
+import org.nexa.querymate.domain.exception.QueryExecutionException;
+import org.nexa.querymate.domain.query.QueryResult;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.infrastructure.config.ShardingProperties;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ShardedDatabaseAdapter")
+class ShardedDatabaseAdapterTest {
+
+    private static final ConnectionConfig CONFIG = new ConnectionConfig("coordinator", 5432, "app", "user", "pass");
+
+    private DatabasePort shardA;
+    private DatabasePort shardB;
+    private ShardedDatabaseAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        // Real default methods, so streaming a shard's rows falls through to the stubbed execute
+        shardA = mock(DatabasePort.class, CALLS_REAL_METHODS);
+        shardB = mock(DatabasePort.class, CALLS_REAL_METHODS);
+        when(shardA.isConnected()).thenReturn(true);
+        when(shardB.isConnected()).thenReturn(true);
+        Iterator<DatabasePort> ports = List.of(shardA, shardB).iterator();
+
+        adapter = new ShardedDatabaseAdapter(
+                mock(DatabasePort.class),
+                List.of(new ShardingProperties.Node("a", 5432, null), new ShardingProperties.Node("b", 5432, null)),
+                ports::next,
+                true
+        );
+        adapter.connect(CONFIG);
+    }
+
+    private static QueryResult rows(List<String> columns, List<List<Object>> rows) {
+        return new QueryResult(columns, rows, new QueryResult.QueryMetadata(rows.size(), Duration.ofMillis(1)));
+    }
+
+    /**
+     * Makes the shard stream ascending ids from 0 until the merge stops it, or until {@code failAfter} rows
+     * if that is not negative; returns the number of rows it handed over.
+     */
+    private static AtomicInteger streamIds(DatabasePort shard, int failAfter) {
+        AtomicInteger delivered = new AtomicInteger();
+        doAnswer(invocation -> {
+            RowSink sink = invocation.getArgument(3);
+            sink.columns(List.of("id"));
+            for (int id = 0; id < 1_000_000; id++) {
+                if (id == failAfter) {
+                    throw new QueryExecutionException("connection reset");
+                }
+                if (!sink.accept(List.of(id))) {
+                    break;
+                }
+                delivered.incrementAndGet();
+            }
+            return null;
+        }).when(shard).stream(any(), any(), any(), any());
+        return delivered;
+    }
+
+    @Nested
+    @DisplayName("when merging ordered results")
+    class WhenMergingOrdered {
+
+        @Test
+        @DisplayName("should k-way merge and push LIMIT plus OFFSET down to every shard")
+        void shouldMergeAndPushDownLimit() {
+            when(shardA.execute(any())).thenReturn(rows(List.of("id"), List.of(List.of(1), List.of(4), List.of(5))));
+            when(shardB.execute(any())).thenReturn(rows(List.of("id"), List.of(List.of(2), List.of(3), List.of(6))));
+
+            QueryResult result = adapter.execute(SqlStatement.of("SELECT id FROM t ORDER BY id LIMIT 3 OFFSET 1;"));
+
+            verify(shardA).execute(SqlStatement.of("SELECT id FROM t ORDER BY id LIMIT 4"));
+            assertThat(result.rows()).containsExactly(List.of(2), List.of(3), List.of(4));
+            assertThat(result.metadata().timings()).hasSize(2);
+            assertThat(result.metadata().warnings()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should honour descending order on aliased columns")
+        void shouldMergeDescending() {
+            when(shardA.execute(any())).thenReturn(rows(List.of("total"), List.of(List.of(9L), List.of(1L))));
+            when(shardB.execute(any())).thenReturn(rows(List.of("total"), List.of(List.of(7L), List.of(3L))));
+
+            QueryResult result = adapter.execute(SqlStatement.of("SELECT sum_x AS total FROM t ORDER BY total DESC"));
+
+            assertThat(result.rows()).containsExactly(List.of(9L), List.of(7L), List.of(3L), List.of(1L));
+        }
+
+        @Test
+        @DisplayName("should stop reading shards once the limit is reached")
+        void shouldStopReadingAtLimit() {
+            AtomicInteger delivered = streamIds(shardA, -1);
+            when(shardB.execute(any())).thenReturn(rows(List.of("id"), List.of(List.of(1), List.of(2))));
+
+            QueryResult result = adapter.execute(SqlStatement.of("SELECT id FROM t ORDER BY id LIMIT 3"));
+
+            assertThat(result.rows()).containsExactly(List.of(0), List.of(1), List.of(1));
+            assertThat(delivered.get()).isLessThanOrEqualTo(ShardStream.BUFFER_ROWS + 4);
+        }
+
+        @Test
+        @DisplayName("should refuse a LIMIT whose ORDER BY is not in the select list")
+        void shouldRefuseLimitWithoutOrderColumn() {
+            when(shardA.execute(any())).thenReturn(rows(List.of("id"), List.of(List.of(1))));
+            when(shardB.execute(any())).thenReturn(rows(List.of("id"), List.of(List.of(2))));
+
+            assertThatThrownBy(() -> adapter.execute(SqlStatement.of("SELECT id FROM t ORDER BY lower(name) LIMIT 1")))
+                    .isInstanceOf(QueryExecutionException.class)
+                    .hasMessageContaining("ORDER BY expression in the select list");
+        }
+    }
+
+    @Nested
+    @DisplayName("when combining aggregates")
+    class WhenCombiningAggregates {
+
+        @Test
+        @DisplayName("should combine COUNT, SUM, MIN and MAX per group and strip LIMIT from shards")
+        void shouldCombinePartialAggregates() {
+            List<String> columns = List.of("region", "count", "sum", "min", "max");
+            when(shardA.execute(any())).thenReturn(rows(columns, List.of(
+                    List.of("eu", 2L, 10L, 1, 9),
+                    List.of("us", 1L, 5L, 5, 5))));
+            when(shardB.execute(any())).thenReturn(rows(columns, List.of(
+                    List.of("eu", 3L, 20L, 0, 4))));
+
+            QueryResult result = adapter.execute(SqlStatement.of(
+                    "SELECT region, COUNT(*), SUM(amount), MIN(amount), MAX(amount) FROM orders "
+                            + "GROUP BY region ORDER BY 2 DESC LIMIT 1"));
+
+            verify(shardB).execute(SqlStatement.of(
+                    "SELECT region, COUNT(*), SUM(amount), MIN(amount), MAX(amount) FROM orders "
+                            + "GROUP BY region ORDER BY 2 DESC"));
+            assertThat(result.rows()).containsExactly(List.of("eu", 5L, 30L, 0, 9));
+        }
+
+        @Test
+        @DisplayName("should concatenate and warn for aggregates that cannot be combined")
+        void shouldWarnForAverage() {
+            when(shardA.execute(any())).thenReturn(rows(List.of("avg"), List.of(List.of(1.0))));
+            when(shardB.execute(any())).thenReturn(rows(List.of("avg"), List.of(List.of(3.0))));
+
+            QueryResult result = adapter.execute(SqlStatement.of("SELECT AVG(amount) FROM orders"));
+
+            assertThat(result.rows()).hasSize(2);
+            assertThat(result.metadata().warnings()).anyMatch(w -> w.contains("AVG(amount)"));
+        }
+
+        @Test
+        @DisplayName("should cap concatenated results at the statement's LIMIT")
+        void shouldCapPassthroughLimit() {
+            when(shardA.execute(any())).thenReturn(rows(List.of("id"), List.of(List.of(1), List.of(2))));
+            when(shardB.execute(any())).thenReturn(rows(List.of("id"), List.of(List.of(3), List.of(4))));
+
+            QueryResult result = adapter.execute(SqlStatement.of("SELECT id FROM a UNION SELECT id FROM b LIMIT 2"));
+
+            assertThat(result.rows()).containsExactly(List.of(1), List.of(2));
+            assertThat(result.metadata().warnings()).anyMatch(w -> w.contains("set operations"));
+        }
+    }
+
+    @Nested
+    @DisplayName("when given a statement that is not a query")
+    class WhenWriting {
+
+        @ParameterizedTest
+        @DisplayName("should refuse it instead of running it on every shard")
+        @ValueSource(strings = {
+                "INSERT INTO t (id) VALUES (1)",
+                "UPDATE t SET x = 1",
+                "DELETE FROM t",
+                "CREATE TABLE u (id int)",
+                "BEGIN"
+        })
+        void shouldNotBroadcastWrites(String sql) {
+            assertThatThrownBy(() -> adapter.execute(SqlStatement.of(sql)))
+                    .isInstanceOf(QueryExecutionException.class)
+                    .hasMessageContaining("read-only");
+
+            verify(shardA, never()).stream(any(), any(), any(), any());
+            verify(shardB, never()).stream(any(), any(), any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("when configured")
+    class WhenConfigured {
+
+        @Test
+        @DisplayName("should reject an empty list of shards")
+        void shouldRejectNoShards() {
+            assertThatThrownBy(() -> new ShardingProperties(List.of(), null))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> new ShardedDatabaseAdapter(mock(DatabasePort.class), List.of(),
+                    () -> mock(DatabasePort.class), true))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("when a shard fails")
+    class WhenShardFails {
+
+        @Test
+        @DisplayName("should return partial results with a warning")
+        void shouldReturnPartialResults() {
+            when(shardA.execute(any())).thenReturn(rows(List.of("id"), List.of(List.of(1))));
+            when(shardB.execute(any())).thenThrow(new QueryExecutionException("boom"));
+
+            QueryResult result = adapter.execute(SqlStatement.of("SELECT id FROM t"));
+
+            assertThat(result.rows()).containsExactly(List.of(1));
+            assertThat(result.metadata().warnings()).anyMatch(w -> w.contains("b:5432/app") && w.contains("boom"));
+        }
+
+        @Test
+        @DisplayName("should fail when every shard fails")
+        void shouldFailWhenAllShardsFail() {
+            when(shardA.execute(any())).thenThrow(new QueryExecutionException("down"));
+            when(shardB.execute(any())).thenThrow(new QueryExecutionException("down"));
+
+            assertThatThrownBy(() -> adapter.execute(SqlStatement.of("SELECT 1")))
+                    .isInstanceOf(QueryExecutionException.class)
+                    .hasMessageContaining("2 of 2 shards");
+        }
+
+        @Test
+        @DisplayName("should keep the rows a shard returned before failing, with a warning")
+        void shouldKeepRowsBeforeMidStreamFailure() {
+            streamIds(shardA, 2);
+            when(shardB.execute(any())).thenReturn(rows(List.of("id"), List.of(List.of(10))));
+
+            QueryResult result = adapter.execute(SqlStatement.of("SELECT id FROM t"));
+
+            assertThat(result.rows()).containsExactly(List.of(0), List.of(1), List.of(10));
+            assertThat(result.metadata().warnings()).anyMatch(w -> w.contains("a:5432/app") && w.contains("reset"));
+        }
+    }
+}
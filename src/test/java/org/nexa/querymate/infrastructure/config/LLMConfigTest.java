@@ -0,0 +1,141 @@
+package org.nexa.querymate.infrastructure.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.nexa.querymate.application.ports.out.LLMPort;
+import org.nexa.querymate.domain.query.SqlStatement;
+import org.nexa.querymate.domain.translation.NaturalLanguageQuery;
+import org.nexa.querymate.domain.translation.SchemaContext;
+import org.nexa.querymate.domain.translation.SqlValidator;
+import org.nexa.querymate.domain.translation.TokenListener;
+import org.nexa.querymate.infrastructure.adapters.out.cache.CachingLLMAdapter;
+import org.nexa.querymate.infrastructure.adapters.out.ollama.ModelCascadeLLMAdapter;
+import org.nexa.querymate.infrastructure.adapters.out.ollama.SpeculativeLLMAdapter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LLMConfig")
+class LLMConfigTest {
+
+    private static final SchemaContext EMPTY = new SchemaContext(List.of());
+    private static final NaturalLanguageQuery QUESTION = NaturalLanguageQuery.of("which customers spent the most last year");
+    private static final String FINAL_CHUNK = """
+            {"model":"llama3.2","message":{"role":"assistant","content":""},"done":true,"done_reason":"stop",\
+            "prompt_eval_count":12,"prompt_eval_duration":35000000,"eval_count":4}
+            """;
+
+    private final Sinks.Many<String> server = Sinks.many().unicast().onBackpressureBuffer();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private LLMPort llmPort;
+
+    /**
+     * The chain as the application wires it with default settings, in front of a server that streams
+     * whatever the test emits.
+     */
+    @BeforeEach
+    void setUp() {
+        DefaultDataBufferFactory buffers = DefaultDataBufferFactory.sharedInstance;
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.incrementAndGet();
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE)
+                            .body(server.asFlux()
+                                    .map(line -> (DataBuffer) buffers.wrap(line.getBytes(StandardCharsets.UTF_8)))
+                                    .doOnCancel(() -> cancelled.set(true)))
+                            .build());
+                })
+                .build();
+        LLMConfig config = new LLMConfig();
+        OllamaProperties ollama = new OllamaProperties(null, null, 5, null, null);
+        OllamaBalancingProperties balancing = new OllamaBalancingProperties(0, 0, 0, null, 0, 0);
+        CascadeProperties cascade = new CascadeProperties(null);
+        SpeculativeProperties speculative = new SpeculativeProperties(0, 0, null, 0, null);
+        PromptProperties prompt = new PromptProperties(null, 0, 0, 0);
+        GenerationProperties generation = new GenerationProperties(null, null, null, 0, 0);
+        ModelCascadeLLMAdapter ollamaLLM = config.ollamaLLM(webClient, ollama, balancing, cascade, prompt, generation);
+        SpeculativeLLMAdapter candidates = config.speculative(ollamaLLM, webClient, ollama, balancing, prompt, generation, speculative);
+        CachingLLMAdapter translationCache = config.translationCache(
+                config.templateCache(
+                        config.semanticCache(candidates, webClient, ollama, cascade, speculative,
+                                new SemanticCacheProperties(false, null, 0, 0, null, 0, 0, 0)),
+                        ollama, cascade, speculative, new TemplateCacheProperties(null, 0)),
+                ollama, cascade, speculative, new TranslationCacheProperties(null, 0, 0, null));
+        llmPort = config.llmPort(translationCache, new RulesProperties(null));
+    }
+
+    private static String chunk(String content) {
+        return "{\"model\":\"llama3.2\",\"message\":{\"role\":\"assistant\",\"content\":\"%s\"},\"done\":false}\n"
+                .formatted(content);
+    }
+
+    @Nested
+    @DisplayName("when translating asynchronously")
+    class WhenTranslatingAsynchronously {
+
+        @Test
+        @DisplayName("should finish on the server's stream rather than a thread of its own")
+        void shouldFinishOnServerStream() throws Exception {
+            CompletableFuture<SqlStatement> translation =
+                    llmPort.translateAsync(QUESTION, EMPTY, TokenListener.NONE, SqlValidator.NONE);
+            CompletableFuture<String> finishedOn = translation.thenApply(sql -> Thread.currentThread().getName());
+
+            Thread.ofPlatform().name("ollama-server").start(() -> {
+                server.tryEmitNext(chunk("SELECT name FROM customers"));
+                server.tryEmitNext(FINAL_CHUNK);
+                server.tryEmitComplete();
+            }).join();
+
+            assertThat(translation.get(5, TimeUnit.SECONDS)).isEqualTo(SqlStatement.of("SELECT name FROM customers;"));
+            assertThat(finishedOn.get(5, TimeUnit.SECONDS)).isEqualTo("ollama-server");
+        }
+
+        @Test
+        @DisplayName("should answer a repeated question already completed from the cache")
+        void shouldAnswerRepeatFromCache() throws Exception {
+            CompletableFuture<SqlStatement> first =
+                    llmPort.translateAsync(QUESTION, EMPTY, TokenListener.NONE, SqlValidator.NONE);
+            server.tryEmitNext(chunk("SELECT name FROM customers"));
+            server.tryEmitNext(FINAL_CHUNK);
+            server.tryEmitComplete();
+            first.get(5, TimeUnit.SECONDS);
+
+            CompletableFuture<SqlStatement> repeat =
+                    llmPort.translateAsync(QUESTION, EMPTY, TokenListener.NONE, SqlValidator.NONE);
+
+            assertThat(repeat).isCompletedWithValue(SqlStatement.of("SELECT name FROM customers;"));
+            assertThat(requests.get()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should cancel the server's stream when the translation is cancelled")
+        void shouldCancelServerStream() {
+            CompletableFuture<SqlStatement> translation =
+                    llmPort.translateAsync(QUESTION, EMPTY, TokenListener.NONE, SqlValidator.NONE);
+            server.tryEmitNext(chunk("SELECT"));
+
+            translation.cancel(true);
+
+            assertThat(cancelled).isTrue();
+        }
+    }
+}